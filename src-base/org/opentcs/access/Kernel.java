@@ -344,6 +344,22 @@ public interface Kernel
   Message publishMessage(String message, Message.Type type)
       throws CredentialsException;
 
+  /**
+   * Returns the messages published at or after the given point of time that
+   * are still buffered by the kernel.
+   * Clients polling for new messages may pass the timestamp of the last
+   * message they received plus one to get only the messages they have not
+   * seen, yet.
+   *
+   * @param minTimestamp The timestamp that returned messages' timestamps may
+   * not precede.
+   * @return A list of the messages, oldest first. May be empty.
+   * @throws CredentialsException If the calling client is not allowed to
+   * execute this method.
+   */
+  List<Message> getMessages(long minTimestamp)
+      throws CredentialsException;
+
   /**
    * Adds a visual layout to the current model.
    * A new layout is created with a unique ID and name and all other attributes
@@ -250,6 +250,21 @@ public interface LocalKernel
                                     int index)
       throws ObjectUnknownException;
 
+  /**
+   * Applies a set of changes to a vehicle at once.
+   * The changes are applied atomically, and a single event is emitted for the
+   * vehicle (plus events for the points it left and entered, if its position
+   * changed).
+   *
+   * @param vehicleRef A reference to the vehicle to be modified.
+   * @param update The changes to be applied.
+   * @return A copy of the modified vehicle.
+   * @throws ObjectUnknownException If the referenced vehicle does not exist.
+   */
+  Vehicle updateVehicle(TCSObjectReference<Vehicle> vehicleRef,
+                        VehicleUpdate update)
+      throws ObjectUnknownException;
+
   /**
    * Adds a rejection to a transport order.
    *
@@ -0,0 +1,260 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.access;
+
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
+
+/**
+ * A set of changes to be applied to a vehicle at once.
+ * Only the attributes that have explicitly been set are changed when the
+ * update is applied.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ * @see LocalKernel#updateVehicle(TCSObjectReference, VehicleUpdate)
+ */
+public final class VehicleUpdate {
+
+  /**
+   * Whether the position is to be changed.
+   */
+  private boolean positionSet;
+  /**
+   * The vehicle's new position.
+   */
+  private TCSObjectReference<Point> position;
+  /**
+   * Whether the next position is to be changed.
+   */
+  private boolean nextPositionSet;
+  /**
+   * The vehicle's new next position.
+   */
+  private TCSObjectReference<Point> nextPosition;
+  /**
+   * Whether the route progress index is to be changed.
+   */
+  private boolean routeProgressIndexSet;
+  /**
+   * The vehicle's new route progress index.
+   */
+  private int routeProgressIndex;
+  /**
+   * Whether the precise position is to be changed.
+   */
+  private boolean precisePositionSet;
+  /**
+   * The vehicle's new precise position.
+   */
+  private Triple precisePosition;
+  /**
+   * Whether the orientation angle is to be changed.
+   */
+  private boolean orientationAngleSet;
+  /**
+   * The vehicle's new orientation angle.
+   */
+  private double orientationAngle;
+  /**
+   * Whether the energy level is to be changed.
+   */
+  private boolean energyLevelSet;
+  /**
+   * The vehicle's new energy level.
+   */
+  private int energyLevel;
+
+  /**
+   * Creates a new, empty update.
+   */
+  public VehicleUpdate() {
+  }
+
+  /**
+   * Checks whether the vehicle's position is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the position is to be changed.
+   */
+  public boolean isPositionSet() {
+    return positionSet;
+  }
+
+  /**
+   * Returns the vehicle's new position.
+   *
+   * @return The vehicle's new position.
+   */
+  public TCSObjectReference<Point> getPosition() {
+    return position;
+  }
+
+  /**
+   * Sets the vehicle's new position.
+   *
+   * @param position A reference to the point the vehicle occupies, or
+   * <code>null</code>, if it is not on any known position.
+   */
+  public void setPosition(TCSObjectReference<Point> position) {
+    this.position = position;
+    this.positionSet = true;
+  }
+
+  /**
+   * Checks whether the vehicle's next position is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the next position is to be
+   * changed.
+   */
+  public boolean isNextPositionSet() {
+    return nextPositionSet;
+  }
+
+  /**
+   * Returns the vehicle's new next position.
+   *
+   * @return The vehicle's new next position.
+   */
+  public TCSObjectReference<Point> getNextPosition() {
+    return nextPosition;
+  }
+
+  /**
+   * Sets the vehicle's new next position.
+   *
+   * @param nextPosition A reference to the point the vehicle is expected to
+   * occupy next, or <code>null</code>.
+   */
+  public void setNextPosition(TCSObjectReference<Point> nextPosition) {
+    this.nextPosition = nextPosition;
+    this.nextPositionSet = true;
+  }
+
+  /**
+   * Checks whether the vehicle's route progress index is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the route progress index is to
+   * be changed.
+   */
+  public boolean isRouteProgressIndexSet() {
+    return routeProgressIndexSet;
+  }
+
+  /**
+   * Returns the vehicle's new route progress index.
+   *
+   * @return The vehicle's new route progress index.
+   */
+  public int getRouteProgressIndex() {
+    return routeProgressIndex;
+  }
+
+  /**
+   * Sets the vehicle's new route progress index.
+   *
+   * @param routeProgressIndex The new index.
+   */
+  public void setRouteProgressIndex(int routeProgressIndex) {
+    this.routeProgressIndex = routeProgressIndex;
+    this.routeProgressIndexSet = true;
+  }
+
+  /**
+   * Checks whether the vehicle's precise position is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the precise position is to be
+   * changed.
+   */
+  public boolean isPrecisePositionSet() {
+    return precisePositionSet;
+  }
+
+  /**
+   * Returns the vehicle's new precise position.
+   *
+   * @return The vehicle's new precise position.
+   */
+  public Triple getPrecisePosition() {
+    return precisePosition;
+  }
+
+  /**
+   * Sets the vehicle's new precise position.
+   *
+   * @param precisePosition The vehicle's precise position in mm.
+   */
+  public void setPrecisePosition(Triple precisePosition) {
+    this.precisePosition = precisePosition;
+    this.precisePositionSet = true;
+  }
+
+  /**
+   * Checks whether the vehicle's orientation angle is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the orientation angle is to be
+   * changed.
+   */
+  public boolean isOrientationAngleSet() {
+    return orientationAngleSet;
+  }
+
+  /**
+   * Returns the vehicle's new orientation angle.
+   *
+   * @return The vehicle's new orientation angle.
+   */
+  public double getOrientationAngle() {
+    return orientationAngle;
+  }
+
+  /**
+   * Sets the vehicle's new orientation angle.
+   *
+   * @param orientationAngle The vehicle's orientation angle.
+   */
+  public void setOrientationAngle(double orientationAngle) {
+    this.orientationAngle = orientationAngle;
+    this.orientationAngleSet = true;
+  }
+
+  /**
+   * Checks whether the vehicle's energy level is to be changed.
+   *
+   * @return <code>true</code> if, and only if, the energy level is to be
+   * changed.
+   */
+  public boolean isEnergyLevelSet() {
+    return energyLevelSet;
+  }
+
+  /**
+   * Returns the vehicle's new energy level.
+   *
+   * @return The vehicle's new energy level.
+   */
+  public int getEnergyLevel() {
+    return energyLevel;
+  }
+
+  /**
+   * Sets the vehicle's new energy level.
+   *
+   * @param energyLevel The vehicle's energy level (0..100).
+   * @throws IllegalArgumentException If the given energy level is not in
+   * [0..100].
+   */
+  public void setEnergyLevel(int energyLevel) {
+    if (energyLevel < 0 || energyLevel > 100) {
+      throw new IllegalArgumentException("energyLevel not in [0..100]: "
+          + energyLevel);
+    }
+    this.energyLevel = energyLevel;
+    this.energyLevelSet = true;
+  }
+}
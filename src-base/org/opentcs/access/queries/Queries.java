@@ -32,6 +32,7 @@ public final class Queries {
     queries.add(QueryRecoveryStatus.class);
     queries.add(QueryRoutingInfo.class);
     queries.add(QuerySchedulerAllocations.class);
+    queries.add(QueryStatistics.class);
     queries.add(QueryTopologyInfo.class);
     allQueries = Collections.unmodifiableSet(queries);
   }
@@ -0,0 +1,369 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.access.queries;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.opentcs.access.Kernel;
+
+/**
+ * A query for statistics aggregated by the kernel over a recent period of
+ * time, e.g. the last hour.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@Availability(Kernel.State.OPERATING)
+public final class QueryStatistics
+    extends Query<QueryStatistics>
+    implements Serializable {
+
+  /**
+   * The point of time at which the statistics were taken.
+   */
+  private final long timestamp;
+  /**
+   * The length of the period covered (in ms).
+   */
+  private final long coveredTime;
+  /**
+   * The number of orders finished successfully in the period.
+   */
+  private final int finishedOrders;
+  /**
+   * The number of orders failed in the period.
+   */
+  private final int failedOrders;
+  /**
+   * The number of orders finished after their deadline in the period.
+   */
+  private final int lateOrders;
+  /**
+   * The lead times (in ms) of the orders finished in the period, sorted
+   * ascending.
+   */
+  private final long[] leadTimes;
+  /**
+   * The vehicles' statistics, mapped by the vehicles' names.
+   */
+  private final Map<String, VehicleStatistics> vehicles;
+  /**
+   * The points' statistics, mapped by the points' names.
+   */
+  private final Map<String, PointStatistics> points;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param timestamp The point of time at which the statistics were taken.
+   * @param coveredTime The length of the period covered (in ms).
+   * @param finishedOrders The number of orders finished successfully in the
+   * period.
+   * @param failedOrders The number of orders failed in the period.
+   * @param lateOrders The number of orders finished after their deadline in
+   * the period.
+   * @param leadTimes The lead times (in ms) of the orders finished in the
+   * period, i.e. the times between their activation and their completion.
+   * @param vehicles The vehicles' statistics.
+   * @param points The points' statistics.
+   */
+  public QueryStatistics(long timestamp,
+                         long coveredTime,
+                         int finishedOrders,
+                         int failedOrders,
+                         int lateOrders,
+                         long[] leadTimes,
+                         Map<String, VehicleStatistics> vehicles,
+                         Map<String, PointStatistics> points) {
+    this.timestamp = timestamp;
+    this.coveredTime = coveredTime;
+    this.finishedOrders = finishedOrders;
+    this.failedOrders = failedOrders;
+    this.lateOrders = lateOrders;
+    this.leadTimes = Objects.requireNonNull(leadTimes, "leadTimes is null")
+        .clone();
+    Arrays.sort(this.leadTimes);
+    this.vehicles = Collections.unmodifiableMap(new TreeMap<>(
+        Objects.requireNonNull(vehicles, "vehicles is null")));
+    this.points = Collections.unmodifiableMap(new TreeMap<>(
+        Objects.requireNonNull(points, "points is null")));
+  }
+
+  /**
+   * Returns the point of time at which the statistics were taken.
+   *
+   * @return The point of time at which the statistics were taken.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Returns the length of the period covered (in ms).
+   * This is less than the configured aggregation window if the kernel has
+   * not been operating for that long.
+   *
+   * @return The length of the period covered.
+   */
+  public long getCoveredTime() {
+    return coveredTime;
+  }
+
+  /**
+   * Returns the number of orders finished successfully in the period.
+   *
+   * @return The number of orders finished successfully in the period.
+   */
+  public int getFinishedOrders() {
+    return finishedOrders;
+  }
+
+  /**
+   * Returns the number of orders failed in the period.
+   *
+   * @return The number of orders failed in the period.
+   */
+  public int getFailedOrders() {
+    return failedOrders;
+  }
+
+  /**
+   * Returns the number of orders finished after their deadline in the period.
+   *
+   * @return The number of orders finished after their deadline in the period.
+   */
+  public int getLateOrders() {
+    return lateOrders;
+  }
+
+  /**
+   * Returns the average number of orders finished successfully per minute.
+   *
+   * @return The average number of orders finished successfully per minute.
+   */
+  public double getFinishedOrdersPerMinute() {
+    if (coveredTime <= 0) {
+      return 0.0;
+    }
+    return finishedOrders * 60000.0 / coveredTime;
+  }
+
+  /**
+   * Returns the number of lead times known for orders finished in the period.
+   *
+   * @return The number of lead times known.
+   */
+  public int getLeadTimeCount() {
+    return leadTimes.length;
+  }
+
+  /**
+   * Returns the given percentile of the lead times of orders finished in the
+   * period (nearest-rank method).
+   *
+   * @param percentile The percentile, e.g. 50.0 for the median.
+   * @return The percentile (in ms), or -1, if no lead times are known.
+   */
+  public long getLeadTimePercentile(double percentile) {
+    if (percentile < 0.0 || percentile > 100.0) {
+      throw new IllegalArgumentException("percentile not in [0..100]: "
+          + percentile);
+    }
+    if (leadTimes.length == 0) {
+      return -1;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * leadTimes.length);
+    return leadTimes[Math.max(0, rank - 1)];
+  }
+
+  /**
+   * Returns the vehicles' statistics.
+   *
+   * @return The vehicles' statistics, mapped by the vehicles' names.
+   */
+  public Map<String, VehicleStatistics> getVehicles() {
+    return vehicles;
+  }
+
+  /**
+   * Returns the points' statistics.
+   *
+   * @return The points' statistics, mapped by the points' names.
+   */
+  public Map<String, PointStatistics> getPoints() {
+    return points;
+  }
+
+  /**
+   * Returns the share of the covered time spent with the given duration.
+   *
+   * @param time The duration.
+   * @param coveredTime The length of the period covered.
+   * @return The share, between 0.0 and 1.0.
+   */
+  private static double shareOf(long time, long coveredTime) {
+    if (coveredTime <= 0) {
+      return 0.0;
+    }
+    return Math.min(1.0, (double) time / coveredTime);
+  }
+
+  /**
+   * Statistics for a single vehicle.
+   */
+  public static final class VehicleStatistics
+      implements Serializable {
+
+    /**
+     * The length of the period covered (in ms).
+     */
+    private final long coveredTime;
+    /**
+     * The time spent processing orders (in ms).
+     */
+    private final long processingTime;
+    /**
+     * The time spent charging (in ms).
+     */
+    private final long chargingTime;
+    /**
+     * The time spent waiting while processing orders (in ms).
+     */
+    private final long waitingTime;
+    /**
+     * The number of orders processed.
+     */
+    private final int ordersProcessed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param coveredTime The length of the period covered (in ms).
+     * @param processingTime The time spent processing orders (in ms).
+     * @param chargingTime The time spent charging (in ms).
+     * @param waitingTime The time spent waiting while processing orders (in
+     * ms).
+     * @param ordersProcessed The number of orders processed.
+     */
+    public VehicleStatistics(long coveredTime,
+                             long processingTime,
+                             long chargingTime,
+                             long waitingTime,
+                             int ordersProcessed) {
+      this.coveredTime = coveredTime;
+      this.processingTime = processingTime;
+      this.chargingTime = chargingTime;
+      this.waitingTime = waitingTime;
+      this.ordersProcessed = ordersProcessed;
+    }
+
+    /**
+     * Returns the time spent processing orders in the period (in ms).
+     *
+     * @return The time spent processing orders.
+     */
+    public long getProcessingTime() {
+      return processingTime;
+    }
+
+    /**
+     * Returns the time spent charging in the period (in ms).
+     *
+     * @return The time spent charging.
+     */
+    public long getChargingTime() {
+      return chargingTime;
+    }
+
+    /**
+     * Returns the time spent waiting while processing orders in the period
+     * (in ms).
+     *
+     * @return The time spent waiting.
+     */
+    public long getWaitingTime() {
+      return waitingTime;
+    }
+
+    /**
+     * Returns the number of orders processed in the period.
+     *
+     * @return The number of orders processed.
+     */
+    public int getOrdersProcessed() {
+      return ordersProcessed;
+    }
+
+    /**
+     * Returns the share of the period spent processing orders.
+     *
+     * @return The share, between 0.0 and 1.0.
+     */
+    public double getUtilisation() {
+      return shareOf(processingTime, coveredTime);
+    }
+
+    /**
+     * Returns the share of the period spent charging.
+     *
+     * @return The share, between 0.0 and 1.0.
+     */
+    public double getChargingShare() {
+      return shareOf(chargingTime, coveredTime);
+    }
+  }
+
+  /**
+   * Statistics for a single point.
+   */
+  public static final class PointStatistics
+      implements Serializable {
+
+    /**
+     * The length of the period covered (in ms).
+     */
+    private final long coveredTime;
+    /**
+     * The time the point was occupied (in ms).
+     */
+    private final long occupiedTime;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param coveredTime The length of the period covered (in ms).
+     * @param occupiedTime The time the point was occupied (in ms).
+     */
+    public PointStatistics(long coveredTime, long occupiedTime) {
+      this.coveredTime = coveredTime;
+      this.occupiedTime = occupiedTime;
+    }
+
+    /**
+     * Returns the time the point was occupied in the period (in ms).
+     *
+     * @return The time the point was occupied.
+     */
+    public long getOccupiedTime() {
+      return occupiedTime;
+    }
+
+    /**
+     * Returns the share of the period the point was occupied.
+     *
+     * @return The share, between 0.0 and 1.0.
+     */
+    public double getOccupancy() {
+      return shareOf(occupiedTime, coveredTime);
+    }
+  }
+}
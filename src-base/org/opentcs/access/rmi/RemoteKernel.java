@@ -246,6 +246,10 @@ public interface RemoteKernel
   Message publishMessage(ClientID clientID, String message, Message.Type type)
       throws CredentialsException, RemoteException;
 
+  @CallPermissions({UserPermission.READ_DATA})
+  List<Message> getMessages(ClientID clientID, long minTimestamp)
+      throws CredentialsException, RemoteException;
+
   @CallPermissions({UserPermission.MODIFY_MODEL})
   VisualLayout createVisualLayout(ClientID clientID)
       throws CredentialsException, RemoteException;
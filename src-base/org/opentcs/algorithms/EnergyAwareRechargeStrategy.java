@@ -0,0 +1,46 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.algorithms;
+
+import java.util.List;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+
+/**
+ * A recharge strategy that predicts the energy consumption of vehicles and
+ * advises when they should be recharged, in addition to finding locations
+ * suitable for recharging them.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public interface EnergyAwareRechargeStrategy
+    extends RechargeStrategy {
+
+  /**
+   * Checks whether the given vehicle needs to be recharged before processing
+   * the given drive orders, i.e. whether its energy level would drop below the
+   * critical level on its way to a recharge location after processing them.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The drive orders, with their routes set.
+   * @return <code>true</code> if, and only if, the vehicle needs to be
+   * recharged before processing the drive orders.
+   */
+  boolean isRechargeRequired(Vehicle vehicle, List<DriveOrder> driveOrders);
+
+  /**
+   * Checks whether the given vehicle should use the current demand for
+   * transport orders to recharge, even if it could process an order.
+   *
+   * @param vehicle The vehicle.
+   * @return <code>true</code> if, and only if, the vehicle should be
+   * recharged now.
+   */
+  boolean isRechargeAdvisable(Vehicle vehicle);
+}
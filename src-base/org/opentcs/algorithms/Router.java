@@ -65,6 +65,26 @@ public interface Router {
   List<DriveOrder> getRoute(Vehicle vehicle, Point sourcePoint,
                             TransportOrder transportOrder);
 
+  /**
+   * Returns the costs for a given vehicle starting on a specified point to
+   * process a given transport order.
+   * The costs are taken from the routing tables, i.e. they do not depend on
+   * the current traffic, and no <code>DriveOrder</code> or <code>Route</code>
+   * objects are created to compute them. If a router takes traffic into
+   * account when computing routes, the costs of the drive orders returned by
+   * {@link #getRoute(Vehicle, Point, TransportOrder)} may thus differ from the
+   * result.
+   *
+   * @param vehicle The vehicle for which the calculated route must be passable.
+   * @param sourcePoint The position at which the vehicle would start processing
+   * the transport order (i.e. the vehicle's current position).
+   * @param transportOrder The transport order to be processed by the vehicle.
+   * @return The costs of the cheapest route for the given transport order, or
+   * <code>Long.MAX_VALUE</code>, if no such route exists.
+   */
+  long getCosts(Vehicle vehicle, Point sourcePoint,
+                TransportOrder transportOrder);
+
   /**
    * Returns a route from one point to another, passable for a given vehicle.
    *
@@ -79,6 +99,9 @@ public interface Router {
   /**
    * Returns the costs for travelling a route from one point to another with a
    * given vehicle.
+   * Like {@link #getCosts(Vehicle, Point, TransportOrder)}, the costs are
+   * taken from the routing tables and may differ from those of the route
+   * returned by {@link #getRoute(Vehicle, Point, Point)}.
    *
    * @param vehicle The vehicle for which the route must be passable.
    * @param sourcePoint The starting point of the route.
@@ -115,6 +138,15 @@ public interface Router {
   long getCosts(Vehicle vehicle, TCSObjectReference<Location> srcRef,
                 TCSObjectReference<Location> destRef);
 
+  /**
+   * Returns the version of the routing tables currently in use.
+   * The version changes whenever the routing tables are updated, which allows
+   * callers to detect when routes or costs they cached have become invalid.
+   *
+   * @return The version of the routing tables currently in use.
+   */
+  long getRoutingTablesVersion();
+
   /**
    * Notifies the router of a route being selected for a vehicle.
    *
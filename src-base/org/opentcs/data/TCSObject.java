@@ -8,7 +8,10 @@
  */
 package org.opentcs.data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
@@ -49,6 +52,13 @@ public abstract class TCSObject<E extends TCSObject<E>>
    * A set of properties (key-value pairs) associated with this object.
    */
   private Map<String, String> properties = new HashMap<>();
+  /**
+   * Whether the properties map is shared with clones of this object or with
+   * maps returned by {@link #getProperties()}. If it is, it must be copied
+   * before being modified. Volatile as getters may be called by threads other
+   * than the one modifying this object.
+   */
+  private transient volatile boolean propertiesShared;
   /**
    * This object's ID.
    */
@@ -130,10 +140,12 @@ public abstract class TCSObject<E extends TCSObject<E>>
   /**
    * Returns this object's properties.
    *
-   * @return This object's properties.
+   * @return This object's properties. The returned map is unmodifiable and
+   * does not reflect later modifications of this object's properties.
    */
   public Map<String, String> getProperties() {
-    return new HashMap<>(properties);
+    propertiesShared = true;
+    return Collections.unmodifiableMap(properties);
   }
 
   /**
@@ -148,10 +160,12 @@ public abstract class TCSObject<E extends TCSObject<E>>
       throw new NullPointerException("key is null");
     }
     if (value == null) {
-      properties.remove(key);
+      if (properties.containsKey(key)) {
+        ownProperties().remove(key);
+      }
     }
     else {
-      properties.put(key, value);
+      ownProperties().put(key, value);
     }
   }
 
@@ -159,7 +173,22 @@ public abstract class TCSObject<E extends TCSObject<E>>
    * Clears all of this object's properties.
    */
   public void clearProperties() {
-    properties.clear();
+    properties = new HashMap<>();
+    propertiesShared = false;
+  }
+
+  /**
+   * Returns this object's properties map for modification, copying it first if
+   * it is shared.
+   *
+   * @return This object's properties map, not shared with any other object.
+   */
+  private Map<String, String> ownProperties() {
+    if (propertiesShared) {
+      properties = new HashMap<>(properties);
+      propertiesShared = false;
+    }
+    return properties;
   }
 
   // Methods inherited from Object start here.
@@ -211,6 +240,8 @@ public abstract class TCSObject<E extends TCSObject<E>>
 
   /**
    * Returns a distinct copy of this object.
+   * The copy shares unmodified data structures with this object; they are
+   * copied by whichever object modifies them first.
    *
    * @return A distinct copy of this object.
    */
@@ -228,10 +259,26 @@ public abstract class TCSObject<E extends TCSObject<E>>
     // Clone the reference, too, to prevent leakage of this object outside the
     // kernel.
     clone.reference = reference.clone();
-    clone.properties = new HashMap<>(properties);
+    propertiesShared = true;
+    clone.propertiesShared = true;
     return clone;
   }
 
+  /**
+   * Restores this object from the given stream.
+   * The properties map may still be shared with objects deserialized from the
+   * same stream, so it is treated as shared.
+   *
+   * @param in The stream to read from.
+   * @throws IOException If reading from the stream failed.
+   * @throws ClassNotFoundException If a serialized class could not be found.
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    propertiesShared = true;
+  }
+
   // Private classes start here.
   /**
    * A <code>Comparator</code> for ordering <code>TCSObject</code>s ascendingly
@@ -8,9 +8,11 @@
  */
 package org.opentcs.data.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
@@ -49,6 +51,12 @@ public final class Location
    * A set of links attached to this location.
    */
   private Set<Link> attachedLinks = new HashSet<>();
+  /**
+   * Whether the set of attached links is shared with clones of this location
+   * or with sets returned by {@link #getAttachedLinks()}. If it is, it must be
+   * copied before being modified.
+   */
+  private transient volatile boolean linksShared;
 
   /**
    * Creates a new Location.
@@ -104,10 +112,13 @@ public final class Location
   /**
    * Returns a set of links attached to this location.
    *
-   * @return A set of links attached to this location.
+   * @return A set of links attached to this location. The returned set is
+   * unmodifiable and does not reflect later modifications of this location.
+   * The links in it must not be modified.
    */
   public Set<Link> getAttachedLinks() {
-    return new HashSet<>(attachedLinks);
+    linksShared = true;
+    return Collections.unmodifiableSet(attachedLinks);
   }
 
   /**
@@ -125,6 +136,10 @@ public final class Location
       throw new IllegalArgumentException(
           "location end of link is not this location");
     }
+    if (attachedLinks.contains(newLink)) {
+      return false;
+    }
+    ownLinks();
     return attachedLinks.add(newLink);
   }
 
@@ -138,11 +153,10 @@ public final class Location
    */
   public boolean detachLink(TCSObjectReference<Point> pointRef) {
     Objects.requireNonNull(pointRef, "pointRef is null");
-    Iterator<Link> linkIter = attachedLinks.iterator();
-    while (linkIter.hasNext()) {
-      Link curLink = linkIter.next();
+    for (Link curLink : attachedLinks) {
       if (pointRef.equals(curLink.getPoint())) {
-        linkIter.remove();
+        ownLinks();
+        attachedLinks.remove(curLink);
         return true;
       }
     }
@@ -154,17 +168,45 @@ public final class Location
     Location clone = (Location) super.clone();
     clone.position = (position == null) ? null : position.clone();
     clone.type = type.clone();
-    clone.attachedLinks = new HashSet<>();
-    for (Link curLink : attachedLinks) {
-      clone.attachedLinks.add(curLink.clone());
-    }
+    // Share the links with the clone. Attached links are never modified in
+    // place, and the set is copied by whichever location modifies it first.
+    linksShared = true;
+    clone.linksShared = true;
     return clone;
   }
 
+  /**
+   * Restores this location from the given stream.
+   * The location's set of links may still be shared with objects deserialized from the
+   * same stream, so it is treated as shared.
+   *
+   * @param in The stream to read from.
+   * @throws IOException If reading from the stream failed.
+   * @throws ClassNotFoundException If a serialized class could not be found.
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    linksShared = true;
+  }
+
+  /**
+   * Copies this location's set of links if it is shared, so it may be
+   * modified.
+   */
+  private void ownLinks() {
+    if (linksShared) {
+      attachedLinks = new HashSet<>(attachedLinks);
+      linksShared = false;
+    }
+  }
+
 
   /**
    * A link connecting a point and a location, expressing that the location is
    * reachable from the point.
+   * Links attached to points and locations are shared with clones of these, so
+   * to modify an attached link, modify a clone of it and attach that instead.
    */
   public static final class Link
       implements Serializable, Cloneable {
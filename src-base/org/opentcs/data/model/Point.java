@@ -8,9 +8,11 @@
  */
 package org.opentcs.data.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Set;
 import org.opentcs.data.TCSObjectReference;
 
@@ -53,6 +55,12 @@ public final class Point
    * A set of links attached to this point.
    */
   private Set<Location.Link> attachedLinks = new HashSet<>();
+  /**
+   * Whether the sets above are shared with clones of this point or with sets
+   * returned by its getters. If they are, they must be copied before being
+   * modified.
+   */
+  private transient volatile boolean collectionsShared;
 
   /**
    * Creates a new point with the given name.
@@ -184,10 +192,12 @@ public final class Point
   /**
    * Returns a set of references to paths ending in this point.
    *
-   * @return A set of references to paths ending in this point.
+   * @return A set of references to paths ending in this point. The returned
+   * set is unmodifiable and does not reflect later modifications of this point.
    */
   public Set<TCSObjectReference<Path>> getIncomingPaths() {
-    return incomingPaths;
+    collectionsShared = true;
+    return Collections.unmodifiableSet(incomingPaths);
   }
 
   /**
@@ -201,7 +211,10 @@ public final class Point
     if (newPath == null) {
       throw new NullPointerException("newPath is null");
     }
-    incomingPaths.add(newPath);
+    if (!incomingPaths.contains(newPath)) {
+      ownCollections();
+      incomingPaths.add(newPath);
+    }
   }
 
   /**
@@ -215,16 +228,22 @@ public final class Point
     if (rmPath == null) {
       throw new NullPointerException("rmPath is null");
     }
-    incomingPaths.remove(rmPath);
+    if (incomingPaths.contains(rmPath)) {
+      ownCollections();
+      incomingPaths.remove(rmPath);
+    }
   }
 
   /**
    * Returns a set of references to paths originating in this point.
    *
-   * @return A set of references to paths originating in this point.
+   * @return A set of references to paths originating in this point. The
+   * returned set is unmodifiable and does not reflect later modifications of
+   * this point.
    */
   public Set<TCSObjectReference<Path>> getOutgoingPaths() {
-    return outgoingPaths;
+    collectionsShared = true;
+    return Collections.unmodifiableSet(outgoingPaths);
   }
 
   /**
@@ -238,7 +257,10 @@ public final class Point
     if (newPath == null) {
       throw new NullPointerException("newPath is null");
     }
-    outgoingPaths.add(newPath);
+    if (!outgoingPaths.contains(newPath)) {
+      ownCollections();
+      outgoingPaths.add(newPath);
+    }
   }
 
   /**
@@ -252,16 +274,21 @@ public final class Point
     if (rmPath == null) {
       throw new NullPointerException("rmPath is null");
     }
-    outgoingPaths.remove(rmPath);
+    if (outgoingPaths.contains(rmPath)) {
+      ownCollections();
+      outgoingPaths.remove(rmPath);
+    }
   }
 
   /**
    * Returns a set of links attached to this point.
    *
-   * @return A set of links attached to this point.
+   * @return A set of links attached to this point. The returned set is
+   * unmodifiable and does not reflect later modifications of this point.
    */
   public Set<Location.Link> getAttachedLinks() {
-    return new HashSet<>(attachedLinks);
+    collectionsShared = true;
+    return Collections.unmodifiableSet(attachedLinks);
   }
 
   /**
@@ -280,6 +307,10 @@ public final class Point
     if (!newLink.getPoint().equals(this.getReference())) {
       throw new IllegalArgumentException("point end of link is not this point");
     }
+    if (attachedLinks.contains(newLink)) {
+      return false;
+    }
+    ownCollections();
     return attachedLinks.add(newLink);
   }
 
@@ -294,35 +325,65 @@ public final class Point
     if (locRef == null) {
       throw new NullPointerException("locRef is null");
     }
-    Iterator<Location.Link> linkIter = attachedLinks.iterator();
-    while (linkIter.hasNext()) {
-      Location.Link curLink = linkIter.next();
+    for (Location.Link curLink : attachedLinks) {
       if (locRef.equals(curLink.getLocation())) {
-        linkIter.remove();
+        ownCollections();
+        attachedLinks.remove(curLink);
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * Returns a distinct copy of this point.
+   * The sets of incoming and outgoing paths and attached links, including the
+   * references they contain, are shared with the copy until either point
+   * modifies them.
+   *
+   * @return A distinct copy of this point.
+   */
   @Override
   public Point clone() {
     Point clone = (Point) super.clone();
     clone.position = (position == null) ? null : position.clone();
     clone.occupyingVehicle =
         (occupyingVehicle == null) ? null : occupyingVehicle.clone();
-    clone.incomingPaths = new HashSet<>();
-    for (TCSObjectReference<Path> curRef : incomingPaths) {
-      clone.incomingPaths.add(curRef.clone());
-    }
-    clone.outgoingPaths = new HashSet<>();
-    for (TCSObjectReference<Path> curRef : outgoingPaths) {
-      clone.outgoingPaths.add(curRef.clone());
-    }
-    clone.attachedLinks = new HashSet<>(attachedLinks);
+    // Share the sets with the clone; they are copied by whichever point
+    // modifies them first.
+    collectionsShared = true;
+    clone.collectionsShared = true;
     return clone;
   }
 
+  /**
+   * Restores this point from the given stream.
+   * The point's sets may still be shared with objects deserialized from the
+   * same stream, so they are treated as shared.
+   *
+   * @param in The stream to read from.
+   * @throws IOException If reading from the stream failed.
+   * @throws ClassNotFoundException If a serialized class could not be found.
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    collectionsShared = true;
+  }
+
+  /**
+   * Copies this point's sets if they are shared, so they may be modified.
+   */
+  private void ownCollections() {
+    if (!collectionsShared) {
+      return;
+    }
+    incomingPaths = new HashSet<>(incomingPaths);
+    outgoingPaths = new HashSet<>(outgoingPaths);
+    attachedLinks = new HashSet<>(attachedLinks);
+    collectionsShared = false;
+  }
+
   /**
    * The elements of this enumeration describe the various types of positions
    * known in openTCS models.
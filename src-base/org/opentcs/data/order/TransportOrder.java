@@ -8,11 +8,13 @@
  */
 package org.opentcs.data.order;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -36,6 +38,12 @@ import org.opentcs.util.UniqueTimestampGenerator;
  * its deadline; orders for which the deadline is closer in the future
  * implicitly have higher priority than others.
  * </p>
+ * <p>
+ * Clones of a transport order share its collections and drive orders until
+ * either of them is modified, which makes cloning cheap. Drive orders
+ * retrieved from a transport order must therefore not be modified directly;
+ * modify a clone of them instead.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -77,16 +85,22 @@ public final class TransportOrder
   /**
    * A list of rejections for this transport order.
    */
-  private List<Rejection> rejections = new LinkedList<>();
+  private List<Rejection> rejections = new ArrayList<>();
   /**
    * A list of drive orders that have been finished already.
    */
-  private List<DriveOrder> pastDriveOrders = new LinkedList<>();
+  private List<DriveOrder> pastDriveOrders = new ArrayList<>();
   /**
    * A list of drive orders that still have to be processed as part of this
    * transport order (in the order they have to be processed in).
    */
-  private List<DriveOrder> futureDriveOrders = new LinkedList<>();
+  private List<DriveOrder> futureDriveOrders = new ArrayList<>();
+  /**
+   * Whether the collections above are shared with clones of this transport
+   * order or with collections returned by its getters. If they are, they must
+   * be copied before being modified.
+   */
+  private transient volatile boolean collectionsShared;
   /**
    * The drive order that is currently being processed.
    */
@@ -287,10 +301,13 @@ public final class TransportOrder
   /**
    * Returns the set of transport orders this order depends on.
    *
-   * @return The set of transport orders this order depends on.
+   * @return The set of transport orders this order depends on. The returned
+   * set is unmodifiable and does not reflect later modifications of this
+   * order's dependencies.
    */
   public Set<TCSObjectReference<TransportOrder>> getDependencies() {
-    return dependencies;
+    collectionsShared = true;
+    return Collections.unmodifiableSet(dependencies);
   }
 
   /**
@@ -305,6 +322,10 @@ public final class TransportOrder
     if (newDep == null) {
       throw new NullPointerException("newDep is null");
     }
+    if (dependencies.contains(newDep)) {
+      return false;
+    }
+    ownCollections();
     return dependencies.add(newDep);
   }
 
@@ -320,16 +341,22 @@ public final class TransportOrder
     if (rmDep == null) {
       throw new NullPointerException("rmDep is null");
     }
+    if (!dependencies.contains(rmDep)) {
+      return false;
+    }
+    ownCollections();
     return dependencies.remove(rmDep);
   }
 
   /**
    * Returns a list of rejections for this transport order.
    *
-   * @return A list of rejections for this transport order.
+   * @return A list of rejections for this transport order. The returned list
+   * is unmodifiable and does not reflect later modifications of this order.
    */
   public List<Rejection> getRejections() {
-    return new ArrayList<>(rejections);
+    collectionsShared = true;
+    return Collections.unmodifiableList(rejections);
   }
 
   /**
@@ -341,25 +368,32 @@ public final class TransportOrder
     if (newRejection == null) {
       throw new NullPointerException("newRejection is null");
     }
+    ownCollections();
     rejections.add(newRejection);
   }
 
   /**
    * Returns a list of DriveOrders that have been processed already.
    *
-   * @return A list of DriveOrders that have been processed already.
+   * @return A list of DriveOrders that have been processed already. The
+   * returned list is unmodifiable and does not reflect later modifications of
+   * this order.
    */
   public List<DriveOrder> getPastDriveOrders() {
-    return new ArrayList<>(pastDriveOrders);
+    collectionsShared = true;
+    return Collections.unmodifiableList(pastDriveOrders);
   }
 
   /**
    * Returns a list of DriveOrders that still need to be processed.
    *
-   * @return A list of DriveOrders that still need to be processed.
+   * @return A list of DriveOrders that still need to be processed. The
+   * returned list is unmodifiable and does not reflect later modifications of
+   * this order.
    */
   public List<DriveOrder> getFutureDriveOrders() {
-    return new ArrayList<>(futureDriveOrders);
+    collectionsShared = true;
+    return Collections.unmodifiableList(futureDriveOrders);
   }
 
   /**
@@ -391,12 +425,14 @@ public final class TransportOrder
             "newOrders' destinations do not equal mine");
       }
     }
-    // Copy the given drive orders' data to ours.
+    // Copy the given drive orders' data to copies of ours.
+    ownCollections();
     for (int i = 0; i < orderCount; i++) {
-      DriveOrder myOrder = futureDriveOrders.get(i);
+      DriveOrder myOrder = futureDriveOrders.get(i).clone();
       DriveOrder newOrder = newOrders.get(i);
       myOrder.setRoute(newOrder.getRoute());
       myOrder.setState(newOrder.getState());
+      futureDriveOrders.set(i, myOrder);
     }
   }
 
@@ -419,7 +455,8 @@ public final class TransportOrder
    * orders. If no drive orders exist, the returned list is empty.
    */
   public List<DriveOrder> getAllDriveOrders() {
-    List<DriveOrder> result = new LinkedList<>();
+    List<DriveOrder> result = new ArrayList<>(
+        pastDriveOrders.size() + 1 + futureDriveOrders.size());
     result.addAll(pastDriveOrders);
     if (currentDriveOrder != null) {
       result.add(currentDriveOrder);
@@ -444,7 +481,8 @@ public final class TransportOrder
     if (futureDriveOrders.isEmpty()) {
       throw new IllegalStateException("futureDriveOrders is empty");
     }
-    currentDriveOrder = futureDriveOrders.remove(0);
+    ownCollections();
+    currentDriveOrder = futureDriveOrders.remove(0).clone();
     currentDriveOrder.setState(DriveOrder.State.TRAVELLING);
   }
 
@@ -458,6 +496,7 @@ public final class TransportOrder
   public void setNextDriveOrder() {
     // Mark the current drive order as finished and push it to the list of past
     // drive orders.
+    ownCollections();
     if (currentDriveOrder != null) {
       pastDriveOrders.add(currentDriveOrder);
     }
@@ -486,6 +525,7 @@ public final class TransportOrder
       log.warning("currentDriveOrder is null");
       return;
     }
+    currentDriveOrder = currentDriveOrder.clone();
     currentDriveOrder.setState(newState);
   }
 
@@ -532,25 +572,44 @@ public final class TransportOrder
   @Override
   public TransportOrder clone() {
     TransportOrder clone = (TransportOrder) super.clone();
-    clone.dependencies = new LinkedHashSet<>();
-    for (TCSObjectReference<TransportOrder> curRef : dependencies) {
-      clone.dependencies.add(curRef.clone());
-    }
-    clone.rejections = new LinkedList<>();
-    clone.rejections.addAll(this.rejections);
-    clone.pastDriveOrders = new LinkedList<>();
-    for (DriveOrder curDriveOrder : pastDriveOrders) {
-      clone.pastDriveOrders.add(curDriveOrder.clone());
-    }
-    clone.futureDriveOrders = new LinkedList<>();
-    for (DriveOrder curDriveOrder : futureDriveOrders) {
-      clone.futureDriveOrders.add(curDriveOrder.clone());
-    }
-    clone.currentDriveOrder =
-        (currentDriveOrder == null) ? null : currentDriveOrder.clone();
+    // Share the collections and drive orders with the clone. Drive orders are
+    // never modified in place, and the collections are copied by whichever
+    // order modifies them first.
+    collectionsShared = true;
+    clone.collectionsShared = true;
     return clone;
   }
 
+  /**
+   * Restores this transport order from the given stream.
+   * The order's collections may still be shared with objects deserialized from the
+   * same stream, so they are treated as shared.
+   *
+   * @param in The stream to read from.
+   * @throws IOException If reading from the stream failed.
+   * @throws ClassNotFoundException If a serialized class could not be found.
+   */
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    collectionsShared = true;
+  }
+
+  /**
+   * Copies this order's collections if they are shared, so they may be
+   * modified.
+   */
+  private void ownCollections() {
+    if (!collectionsShared) {
+      return;
+    }
+    dependencies = new LinkedHashSet<>(dependencies);
+    rejections = new ArrayList<>(rejections);
+    pastDriveOrders = new ArrayList<>(pastDriveOrders);
+    futureDriveOrders = new ArrayList<>(futureDriveOrders);
+    collectionsShared = false;
+  }
+
   /**
    * This enumeration defines the various states a transport order may be in.
    */
@@ -45,6 +45,15 @@ public abstract class BasicCommunicationAdapter
    */
   private static final Logger log =
       Logger.getLogger(BasicCommunicationAdapter.class.getName());
+  /**
+   * The number of telemetry samples kept in the history.
+   */
+  private static final int TELEMETRY_HISTORY_CAPACITY = 3000;
+  /**
+   * The maximum time (in ms) the command dispatcher waits for a signal before
+   * checking for commands to be sent anyway.
+   */
+  private static final long DISPATCHER_CHECK_INTERVAL = 1000;
   /**
    * This communication adapter's name.
    */
@@ -64,7 +73,7 @@ public abstract class BasicCommunicationAdapter
   /**
    * This adapter's current command dispatcher task.
    */
-  private CyclicTask commandDispatcherTask;
+  private volatile CommandDispatcherTask commandDispatcherTask;
   /**
    * Energy level of the vehicle controlled by this communication adapter.
    */
@@ -79,12 +88,18 @@ public abstract class BasicCommunicationAdapter
   private Vehicle.State vehicleState = Vehicle.State.UNKNOWN;
   /**
    * This communication adapter's <code>VehicleModel</code>.
+   * Volatile as telemetry is published without holding this adapter's lock.
    */
-  private VehicleModel vehicleModel;
+  private volatile VehicleModel vehicleModel;
   /**
    * This adapter's command queue.
    */
   private final Queue<MovementCommand> commandQueue = new LinkedList<>();
+  /**
+   * The number of times the command queues have been cleared, used to detect
+   * a command being sent while the queues are cleared.
+   */
+  private long commandQueueGeneration;
   /**
    * This adapter's command queue's capacity.
    */
@@ -102,6 +117,25 @@ public abstract class BasicCommunicationAdapter
    * The operation this adapter interprets as a command to recharge the vehicle.
    */
   private String rechargeOperation = "CHARGE";
+  /**
+   * The full-rate history of the vehicle's precise positions and orientation
+   * angles.
+   */
+  private final TelemetryHistory telemetryHistory
+      = new TelemetryHistory(TELEMETRY_HISTORY_CAPACITY);
+  /**
+   * Decides which telemetry samples are published to the vehicle model.
+   */
+  private final TelemetryPublisher telemetryPublisher;
+  /**
+   * Guards publishing telemetry samples. Telemetry is published by a thread
+   * shared by all adapters, which must not wait for this adapter's lock.
+   */
+  private final Object telemetryLock = new Object();
+  /**
+   * The sequence number of the telemetry sample published last.
+   */
+  private long publishedTelemetrySequenceNumber;
 
   /**
    * Creates a new BasicCommunicationAdapter.
@@ -112,6 +146,17 @@ public abstract class BasicCommunicationAdapter
   public BasicCommunicationAdapter(final String adapterName) {
     log.finer("method entry");
     name = Objects.requireNonNull(adapterName, "adapterName is null");
+    telemetryPublisher = new TelemetryPublisher(
+        telemetryHistory,
+        new TelemetryPublisher.Target() {
+          @Override
+          public void publish(long sequenceNumber, Triple position, double angle) {
+            publishTelemetry(sequenceNumber, position, angle);
+          }
+        },
+        100,
+        250,
+        10.0);
   }
 
   // Implementation of interface CommunicationAdapter starts here.
@@ -134,7 +179,7 @@ public abstract class BasicCommunicationAdapter
     }
     if (commandAdded) {
       updateViews();
-      this.notifyAll();
+      signalCommandDispatcher();
     }
     return commandAdded;
   }
@@ -142,11 +187,10 @@ public abstract class BasicCommunicationAdapter
   @Override
   public synchronized void clearCommandQueue() {
     log.finer("method entry");
-    if (!commandQueue.isEmpty()) {
-      commandQueue.clear();
-      this.notifyAll();
-    }
+    commandQueue.clear();
     sentQueue.clear();
+    commandQueueGeneration++;
+    signalCommandDispatcher();
   }
 
   @Override
@@ -232,6 +276,7 @@ public abstract class BasicCommunicationAdapter
     if (enabled) {
       disconnectVehicle();
       commandDispatcherTask.terminate();
+      commandDispatcherTask.signal();
       commandDispatcherTask = null;
       enabled = false;
       // Update the vehicle's state for the rest of the system.
@@ -270,6 +315,7 @@ public abstract class BasicCommunicationAdapter
   public final synchronized void setVehicleModel(VehicleModel newModel) {
     log.finer("method entry");
     this.vehicleModel = newModel;
+    telemetryPublisher.forgetPublished();
   }
 
   /**
@@ -352,7 +398,10 @@ public abstract class BasicCommunicationAdapter
    */
   public final Triple getVehiclePrecisePosition() {
     log.finer("method entry");
-    if (vehicleModel != null) {
+    if (telemetryHistory.getSampleCount() > 0) {
+      return telemetryPublisher.getLatestPosition();
+    }
+    else if (vehicleModel != null) {
       return vehicleModel.getVehiclePrecisePosition();
     }
     else {
@@ -364,17 +413,15 @@ public abstract class BasicCommunicationAdapter
   /**
    * Sets the vehicle's precise position in mm. (May be <code>null</code> to
    * indicate that the vehicle does not provide coordinates.)
+   * The position is recorded in the telemetry history and published to the
+   * rest of the system as configured via
+   * {@link #setTelemetryPublishing(long, long, double)}.
    *
    * @param position The position.
    */
-  public final synchronized void setVehiclePrecisePosition(Triple position) {
+  public final void setVehiclePrecisePosition(Triple position) {
     log.finer("method entry");
-    if (vehicleModel != null) {
-      vehicleModel.setVehiclePrecisePosition(position);
-    }
-    else {
-      log.fine("vehicleModel is null, not called");
-    }
+    telemetryPublisher.updatePosition(position);
   }
 
   /**
@@ -384,32 +431,72 @@ public abstract class BasicCommunicationAdapter
    *          Double.NaN if orientation angle not set.
    */
   public double getVehicleOrientationAngle() {
+    if (telemetryHistory.getSampleCount() > 0) {
+      return telemetryPublisher.getLatestAngle();
+    }
     return vehicleModel.getVehicleOrientationAngle();
   }
 
   /**
    * Sets the vehicle's orientation angle (-360..360). May be Double.NaN if the
    * vehicle doesn't provide an angle.
+   * The angle is recorded in the telemetry history and published to the rest
+   * of the system as configured via
+   * {@link #setTelemetryPublishing(long, long, double)}.
    *
    * @param angle The angle.
    */
-  public final synchronized void setVehicleOrientationAngle(double angle) {
+  public final void setVehicleOrientationAngle(double angle) {
     log.finer("method entry");
-    final double validAngle;
-    if (!Double.isNaN(angle) && (angle > 360.0 || angle < -360.0)) {
-      validAngle = angle % 360.0;
-      log.warning("Angle not with [-360..360]: " + angle + ", normalized to "
-          + validAngle);
-    }
-    else {
-      validAngle = angle;
-    }
-    if (vehicleModel != null) {
-      vehicleModel.setVehicleOrientationAngle(validAngle);
-    }
-    else {
-      log.fine("vehicleModel is null, not called");
-    }
+    telemetryPublisher.updateAngle(normalizeAngle(angle));
+  }
+
+  /**
+   * Sets the vehicle's precise position and orientation angle at once,
+   * recording them as a single telemetry sample.
+   *
+   * @param position The position in mm. May be <code>null</code>.
+   * @param angle The angle (-360..360). May be <code>Double.NaN</code>.
+   * @see #setVehiclePrecisePosition(org.opentcs.data.model.Triple)
+   * @see #setVehicleOrientationAngle(double)
+   */
+  public final void setVehicleTelemetry(Triple position, double angle) {
+    log.finer("method entry");
+    telemetryPublisher.update(position, normalizeAngle(angle));
+  }
+
+  /**
+   * Returns the full-rate history of the vehicle's precise positions and
+   * orientation angles, e.g. for recording its track.
+   *
+   * @return The telemetry history.
+   */
+  public final TelemetryHistory getTelemetryHistory() {
+    return telemetryHistory;
+  }
+
+  /**
+   * Configures how the vehicle's precise position and orientation angle are
+   * published to the rest of the system.
+   * A new value is published if the publish interval has passed since the
+   * last one was published, or if it changed by more than the respective
+   * deadband. The latest value is always published eventually.
+   * By default, values are published every 100 ms or on changes of 250 mm or
+   * 10 degrees.
+   *
+   * @param publishInterval The minimum time (in ms) between publishing two
+   * values without a significant change. Zero publishes every value.
+   * @param distanceDeadband The change of the position (in mm) that is
+   * published immediately. Zero disables the deadband.
+   * @param angleDeadband The change of the orientation angle (in degrees) that
+   * is published immediately. Zero disables the deadband.
+   */
+  protected final void setTelemetryPublishing(long publishInterval,
+                                              long distanceDeadband,
+                                              double angleDeadband) {
+    telemetryPublisher.setPublishing(publishInterval,
+                                     distanceDeadband,
+                                     angleDeadband);
   }
 
   /**
@@ -579,7 +666,7 @@ public abstract class BasicCommunicationAdapter
     }
     // Notify the command dispatcher task so it can send the next order if one
     // is available.
-    this.notify();
+    signalCommandDispatcher();
   }
 
   /**
@@ -645,6 +732,7 @@ public abstract class BasicCommunicationAdapter
    */
   public final synchronized void setSentQueueCapacity(int newCapacity) {
     sentQueueCapacity = newCapacity;
+    signalCommandDispatcher();
   }
 
   /**
@@ -726,6 +814,21 @@ public abstract class BasicCommunicationAdapter
         && !getCommandQueue().isEmpty();
   }
 
+  /**
+   * Notifies the command dispatcher that the result of
+   * {@link #canSendNextCommand()} might have changed.
+   * Subclasses overriding <code>canSendNextCommand()</code> should call this
+   * method whenever a condition checked there changes in favour of sending a
+   * command. Otherwise, the command dispatcher only notices the change when it
+   * checks again on its own, which it does once per second.
+   */
+  protected final void signalCommandDispatcher() {
+    CommandDispatcherTask task = commandDispatcherTask;
+    if (task != null) {
+      task.signal();
+    }
+  }
+
   // Abstract methods start here.
   /**
    * Initiates a communication channel to the vehicle.
@@ -768,17 +871,105 @@ public abstract class BasicCommunicationAdapter
   /**
    * Converts the given command to something the vehicle can understand and
    * sends the resulting data to the vehicle.
+   * This method is called by the command dispatcher thread without holding
+   * this adapter's monitor, so writing to the vehicle does not block status
+   * updates. The command has already been added to the sent queue when this
+   * method is called.
    *
    * @param cmd The command to be sent.
+   * @see #commandDispatched(org.opentcs.drivers.MovementCommand)
+   * @see #sentCommandCleared(org.opentcs.drivers.MovementCommand)
    */
   public abstract void sendCommand(MovementCommand cmd);
 
+  /**
+   * Called by the command dispatcher with this adapter's monitor held, right
+   * after the given command has been moved from the command queue to the sent
+   * queue and before it is passed to {@link #sendCommand(MovementCommand)}.
+   * Subclasses may override this method to update state checked by
+   * {@link #canSendNextCommand()} atomically with the command being taken from
+   * the queue. The default implementation does nothing.
+   *
+   * @param cmd The command that is about to be sent.
+   */
+  protected void commandDispatched(MovementCommand cmd) {
+  }
+
+  /**
+   * Called by the command dispatcher without holding this adapter's monitor if
+   * the command queues were cleared while the given command was being sent,
+   * i.e. if the command reached the vehicle although it is not in the sent
+   * queue any more. Subclasses should override this method to cancel the
+   * command on the vehicle, if the vehicle supports that. The default
+   * implementation only logs a warning.
+   *
+   * @param cmd The command that was sent.
+   */
+  protected void sentCommandCleared(MovementCommand cmd) {
+    log.warning(getName() + ": Command queues cleared while sending " + cmd
+        + ", vehicle may still execute it");
+  }
+
+  /**
+   * Publishes a telemetry sample to the vehicle model, unless a newer one has
+   * been published already.
+   *
+   * @param sequenceNumber The sample's sequence number.
+   * @param position The vehicle's precise position.
+   * @param angle The vehicle's orientation angle.
+   */
+  private void publishTelemetry(long sequenceNumber,
+                                Triple position,
+                                double angle) {
+    synchronized (telemetryLock) {
+      if (sequenceNumber <= publishedTelemetrySequenceNumber) {
+        return;
+      }
+      publishedTelemetrySequenceNumber = sequenceNumber;
+      VehicleModel model = vehicleModel;
+      if (model != null) {
+        model.setVehiclePrecisePositionAndAngle(position, angle);
+      }
+      else {
+        log.fine("vehicleModel is null, not called");
+      }
+    }
+  }
+
+  /**
+   * Normalizes the given angle to the range -360..360 degrees.
+   *
+   * @param angle The angle.
+   * @return The normalized angle.
+   */
+  private static double normalizeAngle(double angle) {
+    if (!Double.isNaN(angle) && (angle > 360.0 || angle < -360.0)) {
+      double validAngle = angle % 360.0;
+      log.warning("Angle not with [-360..360]: " + angle + ", normalized to "
+          + validAngle);
+      return validAngle;
+    }
+    return angle;
+  }
+
   /**
    * The task processing the command queue.
+   * It waits for signals, checking at least once per second for drivers that
+   * do not signal changes, and holds this adapter's monitor only while moving a
+   * command from the command queue to the sent queue.
    */
   private final class CommandDispatcherTask
       extends CyclicTask {
 
+    /**
+     * The object to wait on for signals.
+     */
+    private final Object signalLock = new Object();
+    /**
+     * Whether this task has been signalled since it last checked for commands.
+     */
+    private boolean signalled;
+
     /**
      * Creates a new CommandDispatcherTask.
      */
@@ -786,31 +977,62 @@ public abstract class BasicCommunicationAdapter
       super(0);
     }
 
+    /**
+     * Makes this task check for commands to be sent.
+     */
+    void signal() {
+      synchronized (signalLock) {
+        signalled = true;
+        signalLock.notify();
+      }
+    }
+
     @Override
     protected void runActualTask() {
-      MovementCommand curCmd;
+      MovementCommand curCmd = null;
+      long generation = 0;
       synchronized (BasicCommunicationAdapter.this) {
-        // Wait until we're terminated or we can send the next command.
-        while (!isTerminated() && !canSendNextCommand()) {
-          try {
-            // Wait at most one second so we can still regularly check if this
-            // task has been terminated.
-            BasicCommunicationAdapter.this.wait(1000);
-          }
-          catch (InterruptedException exc) {
-            log.log(Level.WARNING, "Unexpectedly interrupted", exc);
-          }
-        }
-        if (!isTerminated()) {
+        if (!isTerminated() && canSendNextCommand()) {
           curCmd = getCommandQueue().poll();
           if (curCmd != null) {
-            sendCommand(curCmd);
             // Remember that we sent this command to the vehicle.
             sentQueue.add(curCmd);
-            // Update all views on this communication adapter.
-            updateViews();
+            generation = commandQueueGeneration;
+            commandDispatched(curCmd);
+          }
+        }
+      }
+      if (curCmd == null) {
+        awaitSignal();
+        return;
+      }
+      sendCommand(curCmd);
+      boolean cleared;
+      synchronized (BasicCommunicationAdapter.this) {
+        cleared = generation != commandQueueGeneration;
+      }
+      if (cleared) {
+        sentCommandCleared(curCmd);
+      }
+      // Update all views on this communication adapter.
+      updateViews();
+    }
+
+    /**
+     * Waits until this task is signalled or terminated, or until the check
+     * interval has passed.
+     */
+    private void awaitSignal() {
+      synchronized (signalLock) {
+        if (!signalled && !isTerminated()) {
+          try {
+            signalLock.wait(DISPATCHER_CHECK_INTERVAL);
+          }
+          catch (InterruptedException exc) {
+            log.log(Level.WARNING, "Unexpectedly interrupted", exc);
           }
         }
+        signalled = false;
       }
     }
   }
@@ -0,0 +1,258 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.drivers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import org.opentcs.data.model.Triple;
+
+/**
+ * Keeps the most recent telemetry samples of a vehicle in a ring buffer.
+ * <p>
+ * The ring buffer consists of preallocated primitive arrays, so adding a
+ * sample does not allocate any memory. Listeners registered with the history
+ * are notified about every sample added.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class TelemetryHistory {
+
+  /**
+   * The samples' timestamps.
+   */
+  private final long[] timestamps;
+  /**
+   * The x coordinates of the samples' positions.
+   */
+  private final long[] positionsX;
+  /**
+   * The y coordinates of the samples' positions.
+   */
+  private final long[] positionsY;
+  /**
+   * The z coordinates of the samples' positions.
+   */
+  private final long[] positionsZ;
+  /**
+   * Whether the samples' positions are known.
+   */
+  private final boolean[] positionsKnown;
+  /**
+   * The samples' orientation angles.
+   */
+  private final double[] angles;
+  /**
+   * The listeners to be notified about new samples.
+   */
+  private final Set<TelemetryListener> listeners = new CopyOnWriteArraySet<>();
+  /**
+   * The index of the element in the ring buffer to receive the next sample.
+   */
+  private int writeIndex;
+  /**
+   * The number of samples in the ring buffer.
+   */
+  private int sampleCount;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param capacity The maximum number of samples kept.
+   */
+  public TelemetryHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity is less than 1");
+    }
+    timestamps = new long[capacity];
+    positionsX = new long[capacity];
+    positionsY = new long[capacity];
+    positionsZ = new long[capacity];
+    positionsKnown = new boolean[capacity];
+    angles = new double[capacity];
+  }
+
+  /**
+   * Adds a sample to this history, replacing the oldest one if the history is
+   * full, and notifies listeners about it.
+   *
+   * @param timestamp The point of time at which the sample was reported.
+   * @param precisePosition The vehicle's precise position. May be
+   * <code>null</code>.
+   * @param orientationAngle The vehicle's orientation angle. May be
+   * <code>Double.NaN</code>.
+   */
+  public void addSample(long timestamp,
+                        Triple precisePosition,
+                        double orientationAngle) {
+    synchronized (timestamps) {
+      timestamps[writeIndex] = timestamp;
+      if (precisePosition != null) {
+        positionsX[writeIndex] = precisePosition.getX();
+        positionsY[writeIndex] = precisePosition.getY();
+        positionsZ[writeIndex] = precisePosition.getZ();
+        positionsKnown[writeIndex] = true;
+      }
+      else {
+        positionsKnown[writeIndex] = false;
+      }
+      angles[writeIndex] = orientationAngle;
+      writeIndex = (writeIndex + 1) % timestamps.length;
+      if (sampleCount < timestamps.length) {
+        sampleCount++;
+      }
+    }
+    for (TelemetryListener listener : listeners) {
+      listener.telemetrySampled(timestamp, precisePosition, orientationAngle);
+    }
+  }
+
+  /**
+   * Returns the samples in this history that were reported at or after the
+   * given point of time.
+   *
+   * @param minTimestamp The point of time.
+   * @return The samples, the oldest one first.
+   */
+  public List<Sample> getSamples(long minTimestamp) {
+    synchronized (timestamps) {
+      int capacity = timestamps.length;
+      int oldestIndex = (writeIndex - sampleCount + capacity) % capacity;
+      List<Sample> result = new ArrayList<>();
+      for (int i = 0; i < sampleCount; i++) {
+        int index = (oldestIndex + i) % capacity;
+        if (timestamps[index] >= minTimestamp) {
+          result.add(new Sample(
+              timestamps[index],
+              positionsKnown[index]
+                  ? new Triple(positionsX[index],
+                               positionsY[index],
+                               positionsZ[index])
+                  : null,
+              angles[index]));
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the number of samples in this history.
+   *
+   * @return The number of samples in this history.
+   */
+  public int getSampleCount() {
+    synchronized (timestamps) {
+      return sampleCount;
+    }
+  }
+
+  /**
+   * Returns the maximum number of samples kept by this history.
+   *
+   * @return The maximum number of samples kept by this history.
+   */
+  public int getCapacity() {
+    return timestamps.length;
+  }
+
+  /**
+   * Removes all samples from this history.
+   */
+  public void clear() {
+    synchronized (timestamps) {
+      writeIndex = 0;
+      sampleCount = 0;
+    }
+  }
+
+  /**
+   * Registers a listener to be notified about every new sample.
+   *
+   * @param listener The listener.
+   */
+  public void addListener(TelemetryListener listener) {
+    listeners.add(Objects.requireNonNull(listener, "listener is null"));
+  }
+
+  /**
+   * Unregisters a listener.
+   *
+   * @param listener The listener.
+   */
+  public void removeListener(TelemetryListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * A single telemetry sample.
+   */
+  public static final class Sample {
+
+    /**
+     * The point of time at which the sample was reported.
+     */
+    private final long timestamp;
+    /**
+     * The vehicle's precise position.
+     */
+    private final Triple precisePosition;
+    /**
+     * The vehicle's orientation angle.
+     */
+    private final double orientationAngle;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param timestamp The point of time at which the sample was reported.
+     * @param precisePosition The vehicle's precise position.
+     * @param orientationAngle The vehicle's orientation angle.
+     */
+    public Sample(long timestamp,
+                  Triple precisePosition,
+                  double orientationAngle) {
+      this.timestamp = timestamp;
+      this.precisePosition = precisePosition;
+      this.orientationAngle = orientationAngle;
+    }
+
+    /**
+     * Returns the point of time at which the sample was reported.
+     *
+     * @return The point of time at which the sample was reported.
+     */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    /**
+     * Returns the vehicle's precise position.
+     *
+     * @return The vehicle's precise position, or <code>null</code>, if it was
+     * not known.
+     */
+    public Triple getPrecisePosition() {
+      return precisePosition;
+    }
+
+    /**
+     * Returns the vehicle's orientation angle.
+     *
+     * @return The vehicle's orientation angle, or <code>Double.NaN</code>, if
+     * it was not known.
+     */
+    public double getOrientationAngle() {
+      return orientationAngle;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.drivers;
+
+import org.opentcs.data.model.Triple;
+
+/**
+ * Declares the method that is called to notify a listener about a new
+ * telemetry sample reported by a vehicle.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public interface TelemetryListener {
+
+  /**
+   * Called for every telemetry sample reported by a vehicle, at the vehicle's
+   * full rate.
+   * Implementations should return quickly, as they are called by the thread
+   * reporting the sample.
+   *
+   * @param timestamp The point of time at which the sample was reported.
+   * @param precisePosition The vehicle's precise position in mm. May be
+   * <code>null</code>.
+   * @param orientationAngle The vehicle's orientation angle. May be
+   * <code>Double.NaN</code>.
+   */
+  void telemetrySampled(long timestamp,
+                        Triple precisePosition,
+                        double orientationAngle);
+}
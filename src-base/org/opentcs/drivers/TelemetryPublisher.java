@@ -0,0 +1,337 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.drivers;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.opentcs.data.model.Triple;
+
+/**
+ * Records the telemetry samples reported by a vehicle at its full rate and
+ * decides which of them are published to the rest of the system.
+ * <p>
+ * A sample is published if the publish interval has passed since the last
+ * sample was published, or if the position or the orientation angle changed
+ * by more than the respective deadband. A sample not published immediately is
+ * published when the publish interval has passed, unless a newer sample
+ * replaced it by then, so the last reported state is always published
+ * eventually.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+final class TelemetryPublisher {
+
+  /**
+   * The executor publishing samples that were held back, shared by all
+   * instances.
+   */
+  private static final ScheduledExecutorService flushExecutor
+      = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "telemetryPublisher");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+  /**
+   * The history receiving all samples.
+   */
+  private final TelemetryHistory history;
+  /**
+   * The target to publish samples to.
+   */
+  private final Target target;
+  /**
+   * The minimum time (in ms) between publishing two samples without a
+   * significant change.
+   */
+  private long publishInterval;
+  /**
+   * The distance (in mm) the position must change by to be published
+   * immediately.
+   */
+  private long distanceDeadband;
+  /**
+   * The angle (in degrees) the orientation must change by to be published
+   * immediately.
+   */
+  private double angleDeadband;
+  /**
+   * The sequence number of the latest sample.
+   */
+  private long latestSequenceNumber;
+  /**
+   * The latest position reported.
+   */
+  private Triple latestPosition;
+  /**
+   * The latest orientation angle reported.
+   */
+  private double latestAngle = Double.NaN;
+  /**
+   * Whether any sample has been published, yet.
+   */
+  private boolean anyPublished;
+  /**
+   * The position published last.
+   */
+  private Triple publishedPosition;
+  /**
+   * The orientation angle published last.
+   */
+  private double publishedAngle = Double.NaN;
+  /**
+   * The point of time at which a sample was published last.
+   */
+  private long publishedTime;
+  /**
+   * The scheduled publishing of the latest sample, if any.
+   */
+  private ScheduledFuture<?> pendingFlush;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param history The history receiving all samples.
+   * @param target The target to publish samples to.
+   * @param publishInterval The minimum time (in ms) between publishing two
+   * samples without a significant change. Zero or less publishes every
+   * sample.
+   * @param distanceDeadband The distance (in mm) the position must change by
+   * to be published immediately. Zero or less disables the deadband.
+   * @param angleDeadband The angle (in degrees) the orientation must change by
+   * to be published immediately. Zero or less disables the deadband.
+   */
+  TelemetryPublisher(TelemetryHistory history,
+                     Target target,
+                     long publishInterval,
+                     long distanceDeadband,
+                     double angleDeadband) {
+    this.history = Objects.requireNonNull(history, "history is null");
+    this.target = Objects.requireNonNull(target, "target is null");
+    setPublishing(publishInterval, distanceDeadband, angleDeadband);
+  }
+
+  /**
+   * Sets the publishing parameters.
+   *
+   * @param publishInterval The minimum time (in ms) between publishing two
+   * samples without a significant change. Zero or less publishes every
+   * sample.
+   * @param distanceDeadband The distance (in mm) the position must change by
+   * to be published immediately. Zero or less disables the deadband.
+   * @param angleDeadband The angle (in degrees) the orientation must change by
+   * to be published immediately. Zero or less disables the deadband.
+   */
+  synchronized void setPublishing(long publishInterval,
+                                  long distanceDeadband,
+                                  double angleDeadband) {
+    this.publishInterval = publishInterval;
+    this.distanceDeadband = distanceDeadband;
+    this.angleDeadband = angleDeadband;
+  }
+
+  /**
+   * Records a new position, keeping the latest orientation angle.
+   *
+   * @param position The new position. May be <code>null</code>.
+   */
+  void updatePosition(Triple position) {
+    record(position, true, Double.NaN, false);
+  }
+
+  /**
+   * Records a new orientation angle, keeping the latest position.
+   *
+   * @param angle The new angle. May be <code>Double.NaN</code>.
+   */
+  void updateAngle(double angle) {
+    record(null, false, angle, true);
+  }
+
+  /**
+   * Records a new position and orientation angle.
+   *
+   * @param position The new position. May be <code>null</code>.
+   * @param angle The new angle. May be <code>Double.NaN</code>.
+   */
+  void update(Triple position, double angle) {
+    record(position, true, angle, true);
+  }
+
+  /**
+   * Records a new sample and publishes it, if necessary.
+   *
+   * @param position The new position, if given.
+   * @param positionGiven Whether a new position is given.
+   * @param angle The new angle, if given.
+   * @param angleGiven Whether a new angle is given.
+   */
+  private void record(Triple position,
+                      boolean positionGiven,
+                      double angle,
+                      boolean angleGiven) {
+    long now = System.currentTimeMillis();
+    long sequenceNumber;
+    Triple samplePosition;
+    double sampleAngle;
+    boolean publishNow;
+    synchronized (this) {
+      sequenceNumber = ++latestSequenceNumber;
+      if (positionGiven) {
+        latestPosition = position;
+      }
+      if (angleGiven) {
+        latestAngle = angle;
+      }
+      samplePosition = latestPosition;
+      sampleAngle = latestAngle;
+      publishNow = mustPublish(now);
+      if (publishNow) {
+        markPublished(now);
+      }
+      else if (pendingFlush == null && !isPublished(samplePosition, sampleAngle)) {
+        long delay = Math.max(0, publishedTime + publishInterval - now);
+        pendingFlush = flushExecutor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        }, delay, TimeUnit.MILLISECONDS);
+      }
+    }
+    history.addSample(now, samplePosition, sampleAngle);
+    if (publishNow) {
+      target.publish(sequenceNumber, samplePosition, sampleAngle);
+    }
+  }
+
+  /**
+   * Makes the next sample be published regardless of the previous ones, e.g.
+   * because the target's state was reset.
+   */
+  synchronized void forgetPublished() {
+    anyPublished = false;
+  }
+
+  /**
+   * Returns the latest position reported.
+   *
+   * @return The latest position reported.
+   */
+  synchronized Triple getLatestPosition() {
+    return latestPosition;
+  }
+
+  /**
+   * Returns the latest orientation angle reported.
+   *
+   * @return The latest orientation angle reported.
+   */
+  synchronized double getLatestAngle() {
+    return latestAngle;
+  }
+
+  /**
+   * Publishes the latest sample, if it has not been published, yet.
+   */
+  private void flush() {
+    long sequenceNumber;
+    Triple position;
+    double angle;
+    synchronized (this) {
+      pendingFlush = null;
+      if (isPublished(latestPosition, latestAngle)) {
+        return;
+      }
+      markPublished(System.currentTimeMillis());
+      sequenceNumber = latestSequenceNumber;
+      position = latestPosition;
+      angle = latestAngle;
+    }
+    target.publish(sequenceNumber, position, angle);
+  }
+
+  private boolean mustPublish(long now) {
+    if (!anyPublished) {
+      return true;
+    }
+    if (isPublished(latestPosition, latestAngle)) {
+      return false;
+    }
+    if (publishInterval <= 0 || now - publishedTime >= publishInterval) {
+      return true;
+    }
+    // Appearing or disappearing values are always significant.
+    if ((latestPosition == null) != (publishedPosition == null)
+        || Double.isNaN(latestAngle) != Double.isNaN(publishedAngle)) {
+      return true;
+    }
+    if (distanceDeadband > 0
+        && latestPosition != null
+        && distance(latestPosition, publishedPosition) >= distanceDeadband) {
+      return true;
+    }
+    return angleDeadband > 0
+        && !Double.isNaN(latestAngle)
+        && angleDifference(latestAngle, publishedAngle) >= angleDeadband;
+  }
+
+  private void markPublished(long now) {
+    anyPublished = true;
+    publishedPosition = latestPosition;
+    publishedAngle = latestAngle;
+    publishedTime = now;
+    if (pendingFlush != null) {
+      pendingFlush.cancel(false);
+      pendingFlush = null;
+    }
+  }
+
+  private boolean isPublished(Triple position, double angle) {
+    return anyPublished
+        && Objects.equals(position, publishedPosition)
+        && Double.compare(angle, publishedAngle) == 0;
+  }
+
+  private static double distance(Triple a, Triple b) {
+    double dx = a.getX() - b.getX();
+    double dy = a.getY() - b.getY();
+    double dz = a.getZ() - b.getZ();
+    return Math.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+
+  private static double angleDifference(double a, double b) {
+    double difference = Math.abs(a - b) % 360.0;
+    return difference > 180.0 ? 360.0 - difference : difference;
+  }
+
+  /**
+   * A target that samples are published to.
+   */
+  interface Target {
+
+    /**
+     * Publishes a sample.
+     * Calls may arrive from different threads and out of order; samples with
+     * a sequence number lower than one published before should be ignored.
+     *
+     * @param sequenceNumber The sample's sequence number.
+     * @param position The vehicle's precise position.
+     * @param angle The vehicle's orientation angle.
+     */
+    void publish(long sequenceNumber, Triple position, double angle);
+  }
+}
@@ -51,6 +51,22 @@ public interface VehicleManager {
    * @param angle The vehicle's current orientation angle.
    */
   void setVehicleOrientationAngle(double angle);
+
+  /**
+   * Informs the vehicle manager about the physical vehicle's current precise
+   * position and orientation angle at once.
+   * By default, this calls {@link #setVehiclePrecisePosition(Triple)} and
+   * {@link #setVehicleOrientationAngle(double)}; implementations may
+   * override it to update both in a single step.
+   *
+   * @param position The vehicle's current precise position.
+   * @param angle The vehicle's current orientation angle.
+   */
+  default void setVehiclePrecisePositionAndAngle(Triple position,
+                                                 double angle) {
+    setVehiclePrecisePosition(position);
+    setVehicleOrientationAngle(angle);
+  }
   
   /**
    * Informs the vehicle manager about the physical vehicle's current remaining
@@ -248,6 +248,28 @@ public final class VehicleModel
     vehicleManager.setVehicleOrientationAngle(angle);
   }
 
+  /**
+   * Updates the vehicle precise position and orientation angle, letting the
+   * kernel know about both with a single call.
+   * 
+   * @param position The new position.
+   * @param angle The new angle.
+   */
+  public void setVehiclePrecisePositionAndAngle(Triple position, double angle) {
+    synchronized (vehicle) {
+      // If neither is different from the previous one, do nothing.
+      if (Objects.equals(vehicle.getPrecisePosition(), position)
+          && Double.compare(angle, vehicle.getOrientationAngle()) == 0) {
+        return;
+      }
+      vehicle.setPrecisePosition(position);
+      vehicle.setOrientationAngle(angle);
+    }
+    setChanged();
+    notifyObservers();
+    vehicleManager.setVehiclePrecisePositionAndAngle(position, angle);
+  }
+
   /**
    * Updates the vehicle energy level.
    * 
@@ -38,7 +38,12 @@
  * vehicle.)
  * </li>
  * <li>
- * Optional: Override the method <code>canSendNextCommand()</code>.
+ * Optional: Override the method <code>canSendNextCommand()</code>. If you do,
+ * call <code>signalCommandDispatcher()</code> whenever a condition checked
+ * there changes in favour of sending a command; otherwise, the change is only
+ * noticed with a delay of up to one second. State that needs to change
+ * atomically with a command being taken from the queue should be updated by
+ * overriding <code>commandDispatched()</code>.
  * </li>
  * <li>
  * Optional: Override the method <code>getCustomDisplayPanels()</code> to make
@@ -72,6 +72,13 @@ public abstract class QueueProcessor<E>
       }
       if (element != null) {
         processQueueElement(element);
+        boolean drained;
+        synchronized (queue) {
+          drained = queue.isEmpty();
+        }
+        if (drained) {
+          queueDrained();
+        }
       }
     }
     terminated();
@@ -134,6 +141,16 @@ public abstract class QueueProcessor<E>
     // Do nada.
   }
 
+  /**
+   * Called after an element has been processed and the queue is empty.
+   * The default implementation does not do anything. Subclasses may override
+   * this method to complete work done for a batch of elements, e.g. flushing
+   * buffered output.
+   */
+  protected void queueDrained() {
+    // Do nada.
+  }
+
   /**
    * Processes a queue element.
    * 
@@ -8,6 +8,7 @@
  */
 package org.opentcs.util.communication.tcp;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -36,6 +37,31 @@ public abstract class ByteSequenceDissector<E> {
    */
   public abstract void addIncomingBytes(byte[] newData);
 
+  /**
+   * Constructs objects from the data remaining in the given buffer, parsing
+   * it in place.
+   * Implementations consume complete telegrams only: When this method returns,
+   * the buffer's position is at the start of the first incomplete telegram
+   * (or at its limit), and the caller presents the unconsumed bytes again,
+   * followed by newly received data, with the next call.
+   * <p>
+   * The default implementation copies all remaining bytes and passes them to
+   * {@link #addIncomingBytes(byte[])}. Subclasses should override it to parse
+   * telegrams directly from the buffer instead, as
+   * {@link LengthPrefixedDissector} does.
+   * </p>
+   *
+   * @param data The buffer containing the data to be added.
+   */
+  public void addIncomingBytes(ByteBuffer data) {
+    if (data == null) {
+      throw new NullPointerException("data is null");
+    }
+    byte[] newData = new byte[data.remaining()];
+    data.get(newData);
+    addIncomingBytes(newData);
+  }
+
   /**
    * Clears the internal buffer.
    */
@@ -0,0 +1,115 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.communication.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * A dissector for telegrams that start with a field containing the length of
+ * the telegram's content, parsing them in place.
+ * <p>
+ * The length field is one, two or four bytes long, in big-endian byte order,
+ * and contains the number of content bytes following it. When data is passed
+ * as a <code>ByteBuffer</code>, each telegram's content is handed to
+ * {@link #createTelegram(java.nio.ByteBuffer)} as a read-only view of the
+ * buffer, without any data being copied.
+ * </p>
+ *
+ * @param <E> The type of objects created from the byte stream.
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public abstract class LengthPrefixedDissector<E>
+    extends ByteSequenceDissector<E> {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(LengthPrefixedDissector.class.getName());
+  /**
+   * The size of the length field (in bytes).
+   */
+  private final int lengthFieldSize;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param lengthFieldSize The size of the length field (in bytes). Must be
+   * 1, 2 or 4.
+   */
+  protected LengthPrefixedDissector(int lengthFieldSize) {
+    if (lengthFieldSize != 1 && lengthFieldSize != 2 && lengthFieldSize != 4) {
+      throw new IllegalArgumentException("Illegal length field size: "
+          + lengthFieldSize);
+    }
+    this.lengthFieldSize = lengthFieldSize;
+  }
+
+  @Override
+  public void addIncomingBytes(byte[] newData) {
+    byte[] data = mergeData(newData);
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    addIncomingBytes(buffer);
+    processingData = Arrays.copyOfRange(data, buffer.position(), data.length);
+  }
+
+  @Override
+  public void addIncomingBytes(ByteBuffer data) {
+    if (data == null) {
+      throw new NullPointerException("data is null");
+    }
+    while (data.remaining() >= lengthFieldSize) {
+      int start = data.position();
+      int length = readLength(data, start);
+      if (length < 0) {
+        log.warning("Invalid telegram length " + length
+            + ", discarding received data");
+        data.position(data.limit());
+        return;
+      }
+      if (data.remaining() - lengthFieldSize < length) {
+        // Incomplete telegram - wait for the rest of it.
+        return;
+      }
+      ByteBuffer content = data.asReadOnlyBuffer();
+      content.position(start + lengthFieldSize);
+      content.limit(start + lengthFieldSize + length);
+      E telegram = createTelegram(content.slice());
+      data.position(start + lengthFieldSize + length);
+      if (telegram != null) {
+        addObject(telegram);
+      }
+    }
+  }
+
+  /**
+   * Constructs a telegram from the given content.
+   * The content buffer is only valid during this call, so implementations must
+   * not keep a reference to it.
+   *
+   * @param content A read-only buffer containing the telegram's content, from
+   * its position to its limit.
+   * @return The telegram, or <code>null</code>, if the content should be
+   * ignored.
+   */
+  protected abstract E createTelegram(ByteBuffer content);
+
+  private int readLength(ByteBuffer data, int index) {
+    switch (lengthFieldSize) {
+      case 1:
+        return data.get(index) & 0xff;
+      case 2:
+        return data.getShort(index) & 0xffff;
+      default:
+        return data.getInt(index);
+    }
+  }
+}
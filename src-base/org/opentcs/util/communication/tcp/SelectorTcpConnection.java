@@ -0,0 +1,475 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.communication.tcp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.opentcs.util.math.ByteConversions;
+
+/**
+ * A TCP connection to a peer with the peer being the server, served by the I/O
+ * threads of a {@link TcpConnectionReactor} instead of a thread of its own.
+ * <p>
+ * Incoming data is read into pooled direct buffers and passed to the
+ * dissector's {@link ByteSequenceDissector#addIncomingBytes(java.nio.ByteBuffer)}.
+ * Whether telegrams are parsed without copying the data depends on the
+ * dissector overriding that method, as e.g. {@link LengthPrefixedDissector}
+ * does.
+ * </p>
+ * <p>
+ * <b>Note:</b> Telegrams are passed to the telegram handler directly by the
+ * reactor's I/O thread, which serves many other connections as well. While the
+ * handler runs, none of these connections receives or sends any data, so the
+ * handler must return quickly and must never block, e.g. by waiting for a lock
+ * held while sending a telegram. Handlers that need to do more should hand the
+ * telegrams off to a thread of their own, e.g. via a single-threaded executor
+ * to preserve the telegrams' order.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class SelectorTcpConnection
+    extends TcpConnection {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(SelectorTcpConnection.class.getName());
+  /**
+   * The timeout for connection attempts (in ms).
+   */
+  private static final int connectTimeout = 10000;
+  /**
+   * The time to wait after a failed (re)connection attempt (in ms).
+   */
+  private static final int failedConnectDelay = 1000;
+  /**
+   * The I/O loop serving this connection.
+   */
+  private final TcpConnectionReactor.IoLoop ioLoop;
+  /**
+   * The handler for incoming telegrams.
+   */
+  private final IncomingTelegramHandler telegramHandler;
+  /**
+   * The tokenizer for incoming telegrams.
+   */
+  private final ByteSequenceDissector<? extends IncomingTelegram> telegramTokenizer;
+  /**
+   * The host to connect to.
+   */
+  private final String remoteHost;
+  /**
+   * The port to connect to.
+   */
+  private final int remotePort;
+  /**
+   * The timeout for receiving data (in ms).
+   */
+  private final int receiveTimeout;
+  /**
+   * The delay (in ms) to wait before re-establishing a lost connection.
+   */
+  private final int reconnectDelay;
+  /**
+   * Data waiting to be sent because the socket's send buffer was full.
+   */
+  private final Queue<ByteBuffer> pendingOutput = new ArrayDeque<>();
+  /**
+   * The channel to the peer, or <code>null</code>, if there is none.
+   */
+  private volatile SocketChannel channel;
+  /**
+   * The channel's selection key.
+   */
+  private SelectionKey selectionKey;
+  /**
+   * A buffer holding the beginning of an incomplete telegram, or
+   * <code>null</code>, if there is no incomplete telegram.
+   */
+  private ByteBuffer pendingInput;
+  /**
+   * Whether the connection to the peer is established.
+   */
+  private volatile boolean established;
+  /**
+   * The point of time at which data was received last, or at which the current
+   * connection attempt was started.
+   */
+  private long lastActivityTime;
+  /**
+   * The point of time at which to attempt the next connection.
+   */
+  private long nextConnectTime;
+
+  /**
+   * Creates a new SelectorTcpConnection.
+   *
+   * @param reactor The reactor serving this connection.
+   * @param handler The handler we send incoming telegrams to. It is called by
+   * the reactor's I/O thread and must not block.
+   * @param tokenizer A tokenizer to construct telegram objects from incoming
+   * bytes for us.
+   * @param host The peer host name or IP address.
+   * @param port The port number with the peer host.
+   * @param readTimeout A timeout for receiving data (in ms). If no data is
+   * received after this amount of time, the connection will be considered
+   * broken, the socket closed and a new connection attempted. A value of zero
+   * disables the timeout.
+   * @param reconnectDelay A delay (in ms) to wait before re-establishing the
+   * connection.
+   */
+  public SelectorTcpConnection(TcpConnectionReactor reactor,
+                               IncomingTelegramHandler handler,
+                               ByteSequenceDissector<? extends IncomingTelegram> tokenizer,
+                               String host,
+                               int port,
+                               int readTimeout,
+                               int reconnectDelay) {
+    super(reconnectDelay);
+    if (reactor == null) {
+      throw new NullPointerException("reactor is null");
+    }
+    if (handler == null) {
+      throw new NullPointerException("handler is null");
+    }
+    if (tokenizer == null) {
+      throw new NullPointerException("tokenizer is null");
+    }
+    if (host == null) {
+      throw new NullPointerException("host is null");
+    }
+    if (port < 1) {
+      throw new IllegalArgumentException("illegal port number: " + port);
+    }
+    if (readTimeout < 0) {
+      throw new IllegalArgumentException("illegal read timeout: " + readTimeout);
+    }
+    ioLoop = reactor.nextLoop();
+    telegramHandler = handler;
+    telegramTokenizer = tokenizer;
+    remoteHost = host;
+    remotePort = port;
+    receiveTimeout = readTimeout;
+    this.reconnectDelay = reconnectDelay;
+    ioLoop.execute(new Runnable() {
+      @Override
+      public void run() {
+        ioLoop.addConnection(SelectorTcpConnection.this);
+        establishConnection();
+      }
+    });
+  }
+
+  /**
+   * Creates a new SelectorTcpConnection served by the default reactor, with a
+   * reconnectDelay of zero.
+   *
+   * @param handler The handler we send incoming telegrams to. It is called by
+   * the reactor's I/O thread and must not block.
+   * @param tokenizer A tokenizer to construct telegram objects from incoming
+   * bytes for us.
+   * @param host The peer host name or IP address.
+   * @param port The port number with the peer host.
+   * @param readTimeout A timeout for receiving data (in ms). If no data is
+   * received after this amount of time, the connection will be considered
+   * broken, the socket closed and a new connection attempted. A value of zero
+   * disables the timeout.
+   */
+  public SelectorTcpConnection(IncomingTelegramHandler handler,
+                               ByteSequenceDissector<? extends IncomingTelegram> tokenizer,
+                               String host,
+                               int port,
+                               int readTimeout) {
+    this(TcpConnectionReactor.getDefault(),
+         handler,
+         tokenizer,
+         host,
+         port,
+         readTimeout,
+         0);
+  }
+
+  @Override
+  public boolean isConnected() {
+    return established;
+  }
+
+  @Override
+  public void disconnect() {
+    log.fine("method entry");
+    deactivate();
+    ioLoop.execute(new Runnable() {
+      @Override
+      public void run() {
+        closeChannel(false);
+        ioLoop.removeConnection(SelectorTcpConnection.this);
+      }
+    });
+  }
+
+  @Override
+  public void sendTelegram(byte[] telegram)
+      throws IOException {
+    if (telegram == null) {
+      throw new NullPointerException("telegram is null");
+    }
+    synchronized (pendingOutput) {
+      SocketChannel currentChannel = channel;
+      if (!established || currentChannel == null) {
+        throw new IOException("Not connected");
+      }
+      log.fine("Sending telegram to peer: "
+          + ByteConversions.byteArrayToHexString(telegram));
+      ByteBuffer data = ByteBuffer.wrap(telegram);
+      if (pendingOutput.isEmpty()) {
+        currentChannel.write(data);
+        if (!data.hasRemaining()) {
+          return;
+        }
+      }
+      // The socket's send buffer is full - let the I/O thread send the rest
+      // as soon as possible.
+      pendingOutput.add(data);
+    }
+    ioLoop.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (selectionKey != null && selectionKey.isValid()) {
+          selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+      }
+    });
+  }
+
+  /**
+   * Starts connecting to the peer.
+   * Called by the I/O thread only.
+   */
+  @Override
+  protected void establishConnection() {
+    if (!isActive() || channel != null) {
+      return;
+    }
+    log.fine("Establishing new connection to " + remoteHost + ":"
+        + remotePort + "...");
+    lastActivityTime = System.currentTimeMillis();
+    try {
+      channel = SocketChannel.open();
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+      if (channel.connect(new InetSocketAddress(remoteHost, remotePort))) {
+        selectionKey = channel.register(ioLoop.getSelector(),
+                                        SelectionKey.OP_READ,
+                                        this);
+        connectionEstablished();
+      }
+      else {
+        selectionKey = channel.register(ioLoop.getSelector(),
+                                        SelectionKey.OP_CONNECT,
+                                        this);
+      }
+    }
+    catch (IOException exc) {
+      log.warning("Couldn't connect to peer: " + exc.getMessage());
+      closeChannel(true);
+    }
+  }
+
+  /**
+   * Reads the data available from the peer and processes complete telegrams.
+   * Called by the I/O thread only.
+   */
+  @Override
+  protected void processVehicleTelegrams() {
+    ByteBuffer buffer = (pendingInput != null)
+        ? pendingInput
+        : ioLoop.acquireBuffer();
+    pendingInput = null;
+    try {
+      int bytesRead = channel.read(buffer);
+      if (bytesRead == -1) {
+        log.warning("Connection closed");
+        ioLoop.releaseBuffer(buffer);
+        closeChannel(true);
+        return;
+      }
+      lastActivityTime = System.currentTimeMillis();
+      buffer.flip();
+      telegramTokenizer.addIncomingBytes(buffer);
+      while (telegramTokenizer.hasObjects()) {
+        telegramHandler.handleTelegram(telegramTokenizer.getNextObject());
+      }
+      if (!buffer.hasRemaining()) {
+        ioLoop.releaseBuffer(buffer);
+      }
+      else if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+        log.warning("Incomplete telegram exceeds receive buffer, closing "
+            + "connection");
+        ioLoop.releaseBuffer(buffer);
+        closeChannel(true);
+      }
+      else {
+        // Keep the beginning of the incomplete telegram for the next read.
+        buffer.compact();
+        pendingInput = buffer;
+      }
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception reading from socket", exc);
+      ioLoop.releaseBuffer(buffer);
+      closeChannel(true);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SelectorTcpConnection{" + remoteHost + ":" + remotePort + "}";
+  }
+
+  /**
+   * Processes the events the given selection key is ready for.
+   * Called by the I/O thread only.
+   *
+   * @param key The selection key.
+   */
+  void processKey(SelectionKey key) {
+    if (!key.isValid()) {
+      return;
+    }
+    if (key.isConnectable()) {
+      try {
+        if (channel.finishConnect()) {
+          key.interestOps(SelectionKey.OP_READ);
+          connectionEstablished();
+        }
+      }
+      catch (IOException exc) {
+        log.warning("Couldn't connect to peer: " + exc.getMessage());
+        closeChannel(true);
+      }
+      return;
+    }
+    if (key.isWritable()) {
+      sendPendingOutput(key);
+    }
+    if (key.isValid() && key.isReadable()) {
+      processVehicleTelegrams();
+    }
+  }
+
+  /**
+   * Checks for timeouts and due reconnection attempts.
+   * Called by the I/O thread only.
+   *
+   * @param now The current time.
+   */
+  void checkTimers(long now) {
+    if (channel == null) {
+      if (isActive() && now >= nextConnectTime) {
+        establishConnection();
+      }
+    }
+    else if (!established) {
+      if (now - lastActivityTime > connectTimeout) {
+        log.warning("Couldn't connect to peer: timed out");
+        closeChannel(true);
+      }
+    }
+    else if (receiveTimeout > 0 && now - lastActivityTime > receiveTimeout) {
+      log.warning("No data received for " + receiveTimeout
+          + " ms, closing connection");
+      closeChannel(true);
+    }
+  }
+
+  /**
+   * Closes and discards the current channel, if any.
+   * Called by the I/O thread only.
+   *
+   * @param failed Whether the channel is closed because of a failure, in which
+   * case a new connection is attempted after a delay.
+   */
+  void closeChannel(boolean failed) {
+    boolean wasEstablished = established;
+    established = false;
+    if (selectionKey != null) {
+      selectionKey.cancel();
+      selectionKey = null;
+    }
+    if (channel != null) {
+      log.fine("Closing connection");
+      try {
+        channel.close();
+      }
+      catch (IOException exc) {
+        log.log(Level.WARNING, "Exception closing channel - ignored", exc);
+      }
+      channel = null;
+    }
+    if (pendingInput != null) {
+      ioLoop.releaseBuffer(pendingInput);
+      pendingInput = null;
+    }
+    synchronized (pendingOutput) {
+      pendingOutput.clear();
+    }
+    if (wasEstablished) {
+      notifyStateListeners(false);
+    }
+    nextConnectTime = System.currentTimeMillis()
+        + (wasEstablished || !failed ? reconnectDelay : failedConnectDelay);
+  }
+
+  /**
+   * Called when the connection to the peer has been established.
+   */
+  private void connectionEstablished() {
+    log.fine("Connection established.");
+    telegramTokenizer.reset();
+    lastActivityTime = System.currentTimeMillis();
+    established = true;
+    notifyStateListeners(true);
+  }
+
+  /**
+   * Sends data that could not be sent immediately.
+   *
+   * @param key The channel's selection key.
+   */
+  private void sendPendingOutput(SelectionKey key) {
+    try {
+      synchronized (pendingOutput) {
+        while (!pendingOutput.isEmpty()) {
+          ByteBuffer data = pendingOutput.peek();
+          channel.write(data);
+          if (data.hasRemaining()) {
+            return;
+          }
+          pendingOutput.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception writing to socket", exc);
+      closeChannel(true);
+    }
+  }
+}
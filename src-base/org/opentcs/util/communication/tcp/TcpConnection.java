@@ -157,7 +157,7 @@ public abstract class TcpConnection {
    * @param connected <code>true</code> if the connection went up,
    * <code>false</code> if it went down.
    */
-  private void notifyStateListeners(boolean connected) {
+  protected final void notifyStateListeners(boolean connected) {
     for (ConnectionStateListener listener : stateListeners) {
       listener.connectionStateChanged(this, connected);
     }
@@ -0,0 +1,289 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.communication.tcp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves any number of {@link SelectorTcpConnection}s with a fixed number of
+ * I/O threads.
+ * <p>
+ * Each I/O thread waits for events on the sockets of the connections assigned
+ * to it using a <code>Selector</code>, reads incoming data into pooled direct
+ * buffers and passes it to the connections' dissectors and telegram handlers.
+ * Telegram handlers are thus called by the I/O threads and should not block.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class TcpConnectionReactor {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(TcpConnectionReactor.class.getName());
+  /**
+   * The maximum time (in ms) an I/O thread waits for events before checking
+   * the connections' timers.
+   */
+  private static final long TIMER_INTERVAL = 50;
+  /**
+   * The maximum number of unused buffers kept in each I/O thread's pool.
+   */
+  private static final int MAX_POOLED_BUFFERS = 16;
+  /**
+   * The reactor shared by connections not created with a specific one.
+   */
+  private static TcpConnectionReactor defaultReactor;
+  /**
+   * The I/O loops, one per thread.
+   */
+  private final IoLoop[] ioLoops;
+  /**
+   * The index of the I/O loop the next connection is assigned to.
+   */
+  private final AtomicInteger nextLoopIndex = new AtomicInteger();
+
+  /**
+   * Creates a new reactor and starts its I/O threads.
+   *
+   * @param threadCount The number of I/O threads.
+   * @param bufferSize The size of the receive buffers (in bytes). Must be
+   * large enough to hold the largest telegram expected.
+   * @throws IllegalStateException If a selector could not be opened.
+   */
+  public TcpConnectionReactor(int threadCount, int bufferSize)
+      throws IllegalStateException {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount < 1: " + threadCount);
+    }
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize < 1: " + bufferSize);
+    }
+    ioLoops = new IoLoop[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      try {
+        ioLoops[i] = new IoLoop(Selector.open(), bufferSize);
+      }
+      catch (IOException exc) {
+        throw new IllegalStateException("Could not open selector", exc);
+      }
+      Thread ioThread = new Thread(ioLoops[i], "TcpConnectionReactor-" + i);
+      ioThread.setDaemon(true);
+      ioThread.start();
+    }
+  }
+
+  /**
+   * Returns the reactor shared by connections not created with a specific one,
+   * creating it with a single I/O thread if necessary.
+   *
+   * @return The default reactor.
+   */
+  public static synchronized TcpConnectionReactor getDefault() {
+    if (defaultReactor == null) {
+      defaultReactor
+          = new TcpConnectionReactor(1, TcpConnection.RECEIVE_BUFFER_SIZE);
+    }
+    return defaultReactor;
+  }
+
+  /**
+   * Terminates this reactor's I/O threads, closing all connections served by
+   * them without reconnecting.
+   */
+  public void terminate() {
+    for (IoLoop loop : ioLoops) {
+      loop.terminate();
+    }
+  }
+
+  /**
+   * Returns the I/O loop to serve a new connection.
+   *
+   * @return The I/O loop to serve a new connection.
+   */
+  IoLoop nextLoop() {
+    return ioLoops[Math.floorMod(nextLoopIndex.getAndIncrement(),
+                                 ioLoops.length)];
+  }
+
+  /**
+   * A single I/O thread's loop.
+   * All methods except {@link #execute(Runnable)}, {@link #wakeup()} and
+   * {@link #terminate()} may only be called by the loop's own thread.
+   */
+  static final class IoLoop
+      implements Runnable {
+
+    /**
+     * The selector waiting for socket events.
+     */
+    private final Selector selector;
+    /**
+     * The size of the receive buffers.
+     */
+    private final int bufferSize;
+    /**
+     * Tasks to be executed by the I/O thread.
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * Unused receive buffers.
+     */
+    private final Deque<ByteBuffer> bufferPool = new ArrayDeque<>();
+    /**
+     * The connections served by this loop.
+     */
+    private final Set<SelectorTcpConnection> connections = new HashSet<>();
+    /**
+     * Whether this loop is to be terminated.
+     */
+    private volatile boolean terminated;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param selector The selector waiting for socket events.
+     * @param bufferSize The size of the receive buffers.
+     */
+    IoLoop(Selector selector, int bufferSize) {
+      this.selector = selector;
+      this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void run() {
+      while (!terminated) {
+        try {
+          selector.select(TIMER_INTERVAL);
+        }
+        catch (IOException exc) {
+          log.log(Level.WARNING, "Exception selecting", exc);
+        }
+        runTasks();
+        Iterator<SelectionKey> keyIter = selector.selectedKeys().iterator();
+        while (keyIter.hasNext()) {
+          SelectionKey key = keyIter.next();
+          keyIter.remove();
+          SelectorTcpConnection connection
+              = (SelectorTcpConnection) key.attachment();
+          try {
+            connection.processKey(key);
+          }
+          catch (RuntimeException exc) {
+            log.log(Level.WARNING, "Exception processing " + connection, exc);
+          }
+        }
+        long now = System.currentTimeMillis();
+        for (SelectorTcpConnection connection
+                 : connections.toArray(
+                     new SelectorTcpConnection[connections.size()])) {
+          connection.checkTimers(now);
+        }
+      }
+      for (SelectorTcpConnection connection : connections) {
+        connection.closeChannel(false);
+      }
+      connections.clear();
+      try {
+        selector.close();
+      }
+      catch (IOException exc) {
+        log.log(Level.WARNING, "Exception closing selector", exc);
+      }
+    }
+
+    /**
+     * Executes the given task with the I/O thread.
+     *
+     * @param task The task.
+     */
+    void execute(Runnable task) {
+      tasks.add(task);
+      selector.wakeup();
+    }
+
+    /**
+     * Wakes up the I/O thread if it is waiting for events.
+     */
+    void wakeup() {
+      selector.wakeup();
+    }
+
+    /**
+     * Makes the I/O thread terminate.
+     */
+    void terminate() {
+      terminated = true;
+      selector.wakeup();
+    }
+
+    Selector getSelector() {
+      return selector;
+    }
+
+    void addConnection(SelectorTcpConnection connection) {
+      connections.add(connection);
+    }
+
+    void removeConnection(SelectorTcpConnection connection) {
+      connections.remove(connection);
+    }
+
+    /**
+     * Returns an empty receive buffer from the pool, allocating a new one if
+     * the pool is empty.
+     *
+     * @return An empty receive buffer.
+     */
+    ByteBuffer acquireBuffer() {
+      ByteBuffer buffer = bufferPool.poll();
+      return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Returns a receive buffer to the pool.
+     *
+     * @param buffer The buffer.
+     */
+    void releaseBuffer(ByteBuffer buffer) {
+      if (bufferPool.size() < MAX_POOLED_BUFFERS) {
+        buffer.clear();
+        bufferPool.push(buffer);
+      }
+    }
+
+    private void runTasks() {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        try {
+          task.run();
+        }
+        catch (RuntimeException exc) {
+          log.log(Level.WARNING, "Exception executing task", exc);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+/**
+ * Determines the points of time at which new transport orders arrive.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public interface ArrivalProcess {
+
+  /**
+   * The value returned by {@link #nextArrivalTime()} if there are no more
+   * arrivals.
+   */
+  long NO_MORE_ARRIVALS = Long.MAX_VALUE;
+
+  /**
+   * Returns the point of time of the next arrival.
+   * The values returned by subsequent calls never decrease.
+   *
+   * @return The point of time of the next arrival, relative to the start of
+   * the process (in ms), or {@link #NO_MORE_ARRIVALS}.
+   */
+  long nextArrivalTime();
+
+  /**
+   * Returns the average number of arrivals per hour this process produces.
+   *
+   * @return The average number of arrivals per hour.
+   */
+  double getOrdersPerHour();
+}
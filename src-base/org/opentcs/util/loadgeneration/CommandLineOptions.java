@@ -0,0 +1,92 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.rmi.registry.Registry;
+import java.util.HashMap;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import org.opentcs.access.rmi.DynamicRemoteKernelProxy;
+import org.opentcs.access.rmi.KernelProxy;
+import org.opentcs.access.rmi.RemoteKernel;
+import org.opentcs.util.eventsystem.AcceptingTCSEventFilter;
+
+/**
+ * Options given on the command line in the form <code>--name=value</code>.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class CommandLineOptions {
+
+  /**
+   * The options' values, mapped by their names.
+   */
+  private final Map<String, String> values = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param args The command line arguments.
+   * @throws IllegalArgumentException If an argument is not in the form
+   * <code>--name=value</code>.
+   */
+  CommandLineOptions(String[] args)
+      throws IllegalArgumentException {
+    requireNonNull(args, "args");
+    for (String arg : args) {
+      checkArgument(arg.startsWith("--") && arg.contains("="),
+                    "Invalid argument: %s",
+                    arg);
+      int separatorIndex = arg.indexOf('=');
+      values.put(arg.substring(2, separatorIndex),
+                 arg.substring(separatorIndex + 1));
+    }
+  }
+
+  /**
+   * Checks whether the option with the given name was given.
+   *
+   * @param name The option's name.
+   * @return <code>true</code> if, and only if, the option was given.
+   */
+  public boolean contains(String name) {
+    return values.containsKey(name);
+  }
+
+  /**
+   * Returns the value of the option with the given name.
+   *
+   * @param name The option's name.
+   * @param defaultValue The value to return if the option was not given.
+   * @return The option's value.
+   */
+  public String get(String name, String defaultValue) {
+    String value = values.get(name);
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * Connects to the remote kernel given by the options <code>host</code>,
+   * <code>port</code>, <code>user</code> and <code>password</code>, defaulting
+   * to the kernel on <code>localhost</code> and the guest account.
+   *
+   * @return A proxy for the remote kernel.
+   */
+  public KernelProxy connectKernel() {
+    return DynamicRemoteKernelProxy.getProxy(
+        get("host", "localhost"),
+        Integer.parseInt(get("port", String.valueOf(Registry.REGISTRY_PORT))),
+        get("user", RemoteKernel.guestUser),
+        get("password", RemoteKernel.guestPassword),
+        new AcceptingTCSEventFilter(),
+        1,
+        1000);
+  }
+}
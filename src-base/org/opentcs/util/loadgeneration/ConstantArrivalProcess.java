@@ -0,0 +1,57 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An arrival process with a constant time between two arrivals.
+ * The first arrival happens immediately.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ConstantArrivalProcess
+    implements ArrivalProcess {
+
+  /**
+   * The number of arrivals per hour.
+   */
+  private final double ordersPerHour;
+  /**
+   * The time between two arrivals (in ms).
+   */
+  private final double interArrivalTime;
+  /**
+   * The number of arrivals returned so far.
+   */
+  private long arrivalCount;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param ordersPerHour The number of arrivals per hour.
+   */
+  public ConstantArrivalProcess(double ordersPerHour) {
+    checkArgument(ordersPerHour > 0, "ordersPerHour <= 0: %s", ordersPerHour);
+    this.ordersPerHour = ordersPerHour;
+    this.interArrivalTime = 3600000.0 / ordersPerHour;
+  }
+
+  @Override
+  public long nextArrivalTime() {
+    long result = (long) (arrivalCount * interArrivalTime);
+    arrivalCount++;
+    return result;
+  }
+
+  @Override
+  public double getOrdersPerHour() {
+    return ordersPerHour;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Random;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.order.DriveOrder.Destination;
+
+/**
+ * Selects destinations randomly from a weighted mix of locations and
+ * operations.
+ * The destinations are resolved once when the mix is created, so selecting
+ * destinations does not require any calls to the kernel.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class DestinationMix
+    implements DestinationSelector {
+
+  /**
+   * The destinations to select from.
+   */
+  private final Destination[] destinations;
+  /**
+   * The cumulated weights of the destinations, in the same order.
+   */
+  private final double[] cumulatedWeights;
+  /**
+   * The number of destinations per transport order.
+   */
+  private final int orderSize;
+  /**
+   * The random number generator to use.
+   */
+  private final Random random;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param locations The locations in the model.
+   * @param entries The entries of the mix.
+   * @param orderSize The number of destinations per transport order.
+   * @param random The random number generator to use.
+   * @throws IllegalArgumentException If <code>entries</code> is empty or
+   * refers to a location that does not exist.
+   */
+  public DestinationMix(Collection<Location> locations,
+                        List<Entry> entries,
+                        int orderSize,
+                        Random random)
+      throws IllegalArgumentException {
+    requireNonNull(locations, "locations");
+    requireNonNull(entries, "entries");
+    checkArgument(!entries.isEmpty(), "entries is empty");
+    checkArgument(orderSize > 0, "orderSize <= 0: %s", orderSize);
+
+    Map<String, TCSObjectReference<Location>> locationRefs = new HashMap<>();
+    for (Location location : locations) {
+      locationRefs.put(location.getName(), location.getReference());
+    }
+
+    this.destinations = new Destination[entries.size()];
+    this.cumulatedWeights = new double[entries.size()];
+    double weightSum = 0.0;
+    for (int i = 0; i < entries.size(); i++) {
+      Entry entry = entries.get(i);
+      TCSObjectReference<Location> locationRef
+          = locationRefs.get(entry.getLocationName());
+      checkArgument(locationRef != null,
+                    "Unknown location: %s",
+                    entry.getLocationName());
+      destinations[i] = new Destination(locationRef, entry.getOperation());
+      weightSum += entry.getWeight();
+      cumulatedWeights[i] = weightSum;
+    }
+    this.orderSize = orderSize;
+    this.random = requireNonNull(random, "random");
+  }
+
+  @Override
+  public List<Destination> selectDestinations() {
+    List<Destination> result = new ArrayList<>(orderSize);
+    double weightSum = cumulatedWeights[cumulatedWeights.length - 1];
+    for (int i = 0; i < orderSize; i++) {
+      int index = Arrays.binarySearch(cumulatedWeights,
+                                      random.nextDouble() * weightSum);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      result.add(destinations[Math.min(index, destinations.length - 1)]);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a mix in which all of the given locations are selected with the
+   * same probability and no operation.
+   *
+   * @param locations The locations.
+   * @param orderSize The number of destinations per transport order.
+   * @param random The random number generator to use.
+   * @return The mix.
+   * @throws IllegalArgumentException If <code>locations</code> is empty.
+   */
+  public static DestinationMix uniform(Collection<Location> locations,
+                                       int orderSize,
+                                       Random random)
+      throws IllegalArgumentException {
+    requireNonNull(locations, "locations");
+
+    List<Entry> entries = new ArrayList<>(locations.size());
+    for (Location location : locations) {
+      entries.add(new Entry(location.getName(), Destination.OP_NOP, 1.0));
+    }
+    return new DestinationMix(locations, entries, orderSize, random);
+  }
+
+  /**
+   * Parses entries of a mix from the given string.
+   * The string is expected to contain entries separated by commas, with each
+   * entry consisting of a location name, an operation and an optional weight,
+   * separated by colons, e.g. <code>Storage-01:Load:3,Goods out:Unload</code>.
+   * The weight of an entry without one is 1.
+   *
+   * @param spec The string to parse.
+   * @return The entries parsed.
+   * @throws IllegalArgumentException If the string could not be parsed.
+   */
+  public static List<Entry> parseEntries(String spec)
+      throws IllegalArgumentException {
+    requireNonNull(spec, "spec");
+
+    List<Entry> result = new ArrayList<>();
+    for (String entrySpec : spec.split(",")) {
+      String[] parts = entrySpec.split(":");
+      checkArgument(parts.length == 2 || parts.length == 3,
+                    "Invalid entry: %s",
+                    entrySpec);
+      double weight = 1.0;
+      if (parts.length == 3) {
+        try {
+          weight = Double.parseDouble(parts[2].trim());
+        }
+        catch (NumberFormatException exc) {
+          throw new IllegalArgumentException("Invalid weight: " + entrySpec,
+                                             exc);
+        }
+      }
+      result.add(new Entry(parts[0].trim(), parts[1].trim(), weight));
+    }
+    return result;
+  }
+
+  /**
+   * An entry of a mix.
+   */
+  public static class Entry {
+
+    /**
+     * The name of the location.
+     */
+    private final String locationName;
+    /**
+     * The operation to be performed at the location.
+     */
+    private final String operation;
+    /**
+     * The entry's weight, relative to the weights of the other entries.
+     */
+    private final double weight;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param locationName The name of the location.
+     * @param operation The operation to be performed at the location.
+     * @param weight The entry's weight, relative to the weights of the other
+     * entries.
+     */
+    public Entry(String locationName, String operation, double weight) {
+      this.locationName = requireNonNull(locationName, "locationName");
+      this.operation = requireNonNull(operation, "operation");
+      checkArgument(weight > 0, "weight <= 0: %s", weight);
+      this.weight = weight;
+    }
+
+    /**
+     * Returns the name of the location.
+     *
+     * @return The name of the location.
+     */
+    public String getLocationName() {
+      return locationName;
+    }
+
+    /**
+     * Returns the operation to be performed at the location.
+     *
+     * @return The operation to be performed at the location.
+     */
+    public String getOperation() {
+      return operation;
+    }
+
+    /**
+     * Returns the entry's weight, relative to the weights of the other entries.
+     *
+     * @return The entry's weight.
+     */
+    public double getWeight() {
+      return weight;
+    }
+  }
+}
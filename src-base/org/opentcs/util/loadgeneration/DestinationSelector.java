@@ -0,0 +1,27 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.util.List;
+import org.opentcs.data.order.DriveOrder.Destination;
+
+/**
+ * Selects the destinations of transport orders to be generated.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public interface DestinationSelector {
+
+  /**
+   * Selects the destinations of the next transport order.
+   *
+   * @return The destinations of the next transport order.
+   */
+  List<Destination> selectDestinations();
+}
@@ -0,0 +1,133 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.opentcs.access.rmi.KernelProxy;
+import org.opentcs.data.model.Location;
+
+/**
+ * Generates load on a remote kernel from the command line.
+ * <p>
+ * Arguments are expected in the form <code>--name=value</code>:
+ * </p>
+ * <ul>
+ * <li><code>host</code>, <code>port</code>, <code>user</code>,
+ * <code>password</code>: The remote kernel to connect to. Defaults to the
+ * kernel on <code>localhost</code>, using the guest account.</li>
+ * <li><code>arrivals</code>: The arrival process, one of
+ * <code>constant:ORDERS_PER_HOUR</code>, <code>poisson:ORDERS_PER_HOUR</code>
+ * and <code>trace:FILE[:SPEED_FACTOR]</code>. Defaults to
+ * <code>constant:60</code>.</li>
+ * <li><code>mix</code>: The destination mix, as parsed by
+ * {@link DestinationMix#parseEntries(java.lang.String)}. Defaults to all
+ * locations with the same probability.</li>
+ * <li><code>orderSize</code>: The number of destinations per order. Defaults
+ * to 1.</li>
+ * <li><code>duration</code>: The maximum duration of the run (in s). Defaults
+ * to 3600.</li>
+ * <li><code>batchInterval</code>: The time between two batches (in ms).
+ * Defaults to 1000.</li>
+ * <li><code>seed</code>: The seed for random numbers, for reproducible
+ * runs.</li>
+ * </ul>
+ * <p>
+ * A report on the run is written to standard output in the end.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class HeadlessLoadGenerator {
+
+  /**
+   * Prevents instantiation.
+   */
+  private HeadlessLoadGenerator() {
+  }
+
+  /**
+   * Runs a load generator with the given arguments.
+   *
+   * @param args The arguments.
+   * @throws IOException If a trace file could not be read.
+   */
+  public static void main(String[] args)
+      throws IOException {
+    CommandLineOptions options = new CommandLineOptions(args);
+
+    Random random = options.contains("seed")
+        ? new Random(Long.parseLong(options.get("seed", null)))
+        : new Random();
+
+    KernelProxy kernel = options.connectKernel();
+    try {
+      Set<Location> locations = kernel.getTCSObjects(Location.class);
+      int orderSize = Integer.parseInt(options.get("orderSize", "1"));
+      DestinationMix mix = options.contains("mix")
+          ? new DestinationMix(locations,
+                               DestinationMix.parseEntries(options.get("mix", null)),
+                               orderSize,
+                               random)
+          : DestinationMix.uniform(locations, orderSize, random);
+
+      LoadGenerator generator = new LoadGenerator(
+          kernel,
+          createArrivalProcess(options.get("arrivals", "constant:60"), random),
+          mix,
+          Long.parseLong(options.get("batchInterval", "1000")));
+      LoadReport report
+          = generator.run(Long.parseLong(options.get("duration", "3600")) * 1000);
+      System.out.println(report);
+    }
+    finally {
+      kernel.logout();
+    }
+  }
+
+  /**
+   * Creates an arrival process from the given specification.
+   *
+   * @param spec The specification.
+   * @param random The random number generator to use.
+   * @return The arrival process.
+   * @throws IOException If a trace file could not be read.
+   * @throws IllegalArgumentException If the specification is invalid.
+   */
+  static ArrivalProcess createArrivalProcess(String spec, Random random)
+      throws IOException, IllegalArgumentException {
+    // Split only once, as file names may contain colons, too.
+    String[] parts = spec.split(":", 2);
+    checkArgument(parts.length == 2, "Invalid arrival process: %s", spec);
+    switch (parts[0]) {
+      case "constant":
+        return new ConstantArrivalProcess(Double.parseDouble(parts[1]));
+      case "poisson":
+        return new PoissonArrivalProcess(Double.parseDouble(parts[1]), random);
+      case "trace":
+        String fileName = parts[1];
+        double speedFactor = 1.0;
+        int separatorIndex = fileName.lastIndexOf(':');
+        if (separatorIndex > 0
+            && fileName.substring(separatorIndex + 1).matches("[0-9.]+")) {
+          speedFactor = Double.parseDouble(fileName.substring(separatorIndex + 1));
+          fileName = fileName.substring(0, separatorIndex);
+        }
+        List<Long> arrivalTimes
+            = TraceArrivalProcess.readArrivalTimes(new File(fileName));
+        return new TraceArrivalProcess(arrivalTimes, speedFactor);
+      default:
+        throw new IllegalArgumentException("Invalid arrival process: " + spec);
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.KernelRuntimeException;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.order.DriveOrder.Destination;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.AcceptingTCSEventFilter;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ * Generates transport orders with a kernel, independently of any user
+ * interface.
+ * <p>
+ * The points of time at which orders arrive are determined by an
+ * {@link ArrivalProcess}, their destinations by a {@link DestinationSelector}.
+ * Orders are not submitted individually at their arrival times, but in
+ * batches, once per batch interval, with all orders that arrived since the
+ * previous batch. While running, the generator keeps track of the orders it
+ * submitted, so it can report the throughput achieved by the kernel in the
+ * end.
+ * </p>
+ * <p>
+ * A generator is meant to be run once.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LoadGenerator {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(LoadGenerator.class.getName());
+  /**
+   * The kernel to submit orders to.
+   */
+  private final Kernel kernel;
+  /**
+   * The process determining the orders' arrival times.
+   */
+  private final ArrivalProcess arrivalProcess;
+  /**
+   * Selects the orders' destinations.
+   */
+  private final DestinationSelector destinationSelector;
+  /**
+   * The time between two batches (in ms).
+   */
+  private final long batchInterval;
+  /**
+   * Keeps track of the submitted orders' states.
+   */
+  private final EventListener<TCSEvent> orderListener = new OrderListener();
+  /**
+   * The names of the orders submitted.
+   */
+  private final Set<String> submittedOrderNames
+      = Collections.synchronizedSet(new HashSet<String>());
+  /**
+   * The names of all orders finished while running.
+   */
+  private final Set<String> finishedOrderNames
+      = Collections.synchronizedSet(new HashSet<String>());
+  /**
+   * The names of all orders failed while running.
+   */
+  private final Set<String> failedOrderNames
+      = Collections.synchronizedSet(new HashSet<String>());
+  /**
+   * The point of time of the next arrival, relative to the start (in ms).
+   */
+  private long nextArrivalTime;
+  /**
+   * The number of orders that could not be submitted.
+   */
+  private int failedSubmissions;
+  /**
+   * The number of batches submitted.
+   */
+  private int batchCount;
+  /**
+   * Whether this generator has been asked to terminate.
+   */
+  private volatile boolean terminated;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel to submit orders to.
+   * @param arrivalProcess The process determining the orders' arrival times.
+   * @param destinationSelector Selects the orders' destinations.
+   * @param batchInterval The time between two batches (in ms).
+   */
+  public LoadGenerator(Kernel kernel,
+                       ArrivalProcess arrivalProcess,
+                       DestinationSelector destinationSelector,
+                       long batchInterval) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.arrivalProcess = requireNonNull(arrivalProcess, "arrivalProcess");
+    this.destinationSelector = requireNonNull(destinationSelector,
+                                              "destinationSelector");
+    checkArgument(batchInterval > 0, "batchInterval <= 0: %s", batchInterval);
+    this.batchInterval = batchInterval;
+    this.nextArrivalTime = arrivalProcess.nextArrivalTime();
+  }
+
+  /**
+   * Generates orders until the given duration has passed, the arrival process
+   * does not provide any more arrivals or the generator is terminated.
+   * Blocks the calling thread until then.
+   *
+   * @param maxDuration The maximum duration of the run (in ms).
+   * @return A report on the run.
+   */
+  public LoadReport run(long maxDuration) {
+    checkArgument(maxDuration > 0, "maxDuration <= 0: %s", maxDuration);
+
+    kernel.addEventListener(orderListener, new AcceptingTCSEventFilter());
+    long startTime = System.currentTimeMillis();
+    try {
+      while (!terminated) {
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        if (elapsedTime >= maxDuration) {
+          break;
+        }
+        submitDueOrders(elapsedTime);
+        if (nextArrivalTime == ArrivalProcess.NO_MORE_ARRIVALS) {
+          break;
+        }
+        long nextBatchTime = (elapsedTime / batchInterval + 1) * batchInterval;
+        long sleepTime = Math.min(nextBatchTime, maxDuration)
+            - (System.currentTimeMillis() - startTime);
+        if (sleepTime > 0) {
+          Thread.sleep(sleepTime);
+        }
+      }
+    }
+    catch (InterruptedException exc) {
+      log.log(Level.WARNING, "Interrupted, stopping load generation", exc);
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      kernel.removeEventListener(orderListener);
+    }
+    return createReport(System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Makes a running generator stop after the current batch.
+   */
+  public void terminate() {
+    terminated = true;
+  }
+
+  /**
+   * Submits all orders that arrived up to the given point of time as a batch.
+   *
+   * @param elapsedTime The point of time, relative to the start (in ms).
+   * @return The number of orders submitted successfully.
+   */
+  int submitDueOrders(long elapsedTime) {
+    List<List<Destination>> batch = new ArrayList<>();
+    while (nextArrivalTime <= elapsedTime) {
+      batch.add(destinationSelector.selectDestinations());
+      nextArrivalTime = arrivalProcess.nextArrivalTime();
+    }
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    batchCount++;
+    int submitted = 0;
+    for (List<Destination> destinations : batch) {
+      try {
+        TransportOrder order = kernel.createTransportOrder(destinations);
+        kernel.activateTransportOrder(order.getReference());
+        submittedOrderNames.add(order.getName());
+        submitted++;
+      }
+      catch (KernelRuntimeException exc) {
+        log.log(Level.WARNING, "Could not submit transport order", exc);
+        failedSubmissions++;
+      }
+    }
+    return submitted;
+  }
+
+  /**
+   * Creates a report on the orders submitted so far.
+   *
+   * @param duration The duration of the run (in ms).
+   * @return The report.
+   */
+  LoadReport createReport(long duration) {
+    synchronized (submittedOrderNames) {
+      return new LoadReport(duration,
+                            arrivalProcess.getOrdersPerHour(),
+                            submittedOrderNames.size(),
+                            failedSubmissions,
+                            batchCount,
+                            countSubmitted(finishedOrderNames),
+                            countSubmitted(failedOrderNames));
+    }
+  }
+
+  private int countSubmitted(Set<String> orderNames) {
+    int result = 0;
+    synchronized (orderNames) {
+      for (String orderName : orderNames) {
+        if (submittedOrderNames.contains(orderName)) {
+          result++;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Keeps track of orders reaching a final state.
+   * As events may arrive before the creation of an order has been
+   * acknowledged, all orders are tracked here and filtered when the report
+   * is created.
+   */
+  private class OrderListener
+      implements EventListener<TCSEvent> {
+
+    @Override
+    public void processEvent(TCSEvent event) {
+      if (!(event instanceof TCSObjectEvent)) {
+        return;
+      }
+      TCSObject<?> object = ((TCSObjectEvent) event).getCurrentObjectState();
+      if (!(object instanceof TransportOrder)) {
+        return;
+      }
+      TransportOrder order = (TransportOrder) object;
+      if (order.hasState(TransportOrder.State.FINISHED)) {
+        finishedOrderNames.add(order.getName());
+      }
+      else if (order.hasState(TransportOrder.State.FAILED)) {
+        failedOrderNames.add(order.getName());
+      }
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+/**
+ * Summarizes the load generated and the throughput achieved in a run of a
+ * {@link LoadGenerator}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LoadReport {
+
+  /**
+   * The duration of the run (in ms).
+   */
+  private final long duration;
+  /**
+   * The number of orders per hour the arrival process aimed at.
+   */
+  private final double targetOrdersPerHour;
+  /**
+   * The number of orders submitted successfully.
+   */
+  private final int submittedOrders;
+  /**
+   * The number of orders that could not be submitted.
+   */
+  private final int failedSubmissions;
+  /**
+   * The number of batches in which the orders were submitted.
+   */
+  private final int batchCount;
+  /**
+   * The number of submitted orders that were finished during the run.
+   */
+  private final int finishedOrders;
+  /**
+   * The number of submitted orders that failed during the run.
+   */
+  private final int failedOrders;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param duration The duration of the run (in ms).
+   * @param targetOrdersPerHour The number of orders per hour the arrival
+   * process aimed at.
+   * @param submittedOrders The number of orders submitted successfully.
+   * @param failedSubmissions The number of orders that could not be submitted.
+   * @param batchCount The number of batches in which the orders were
+   * submitted.
+   * @param finishedOrders The number of submitted orders that were finished
+   * during the run.
+   * @param failedOrders The number of submitted orders that failed during the
+   * run.
+   */
+  public LoadReport(long duration,
+                    double targetOrdersPerHour,
+                    int submittedOrders,
+                    int failedSubmissions,
+                    int batchCount,
+                    int finishedOrders,
+                    int failedOrders) {
+    this.duration = duration;
+    this.targetOrdersPerHour = targetOrdersPerHour;
+    this.submittedOrders = submittedOrders;
+    this.failedSubmissions = failedSubmissions;
+    this.batchCount = batchCount;
+    this.finishedOrders = finishedOrders;
+    this.failedOrders = failedOrders;
+  }
+
+  /**
+   * Returns the duration of the run (in ms).
+   *
+   * @return The duration of the run.
+   */
+  public long getDuration() {
+    return duration;
+  }
+
+  /**
+   * Returns the number of orders per hour the arrival process aimed at.
+   *
+   * @return The number of orders per hour the arrival process aimed at.
+   */
+  public double getTargetOrdersPerHour() {
+    return targetOrdersPerHour;
+  }
+
+  /**
+   * Returns the number of orders submitted successfully.
+   *
+   * @return The number of orders submitted successfully.
+   */
+  public int getSubmittedOrders() {
+    return submittedOrders;
+  }
+
+  /**
+   * Returns the number of orders that could not be submitted.
+   *
+   * @return The number of orders that could not be submitted.
+   */
+  public int getFailedSubmissions() {
+    return failedSubmissions;
+  }
+
+  /**
+   * Returns the number of batches in which the orders were submitted.
+   *
+   * @return The number of batches.
+   */
+  public int getBatchCount() {
+    return batchCount;
+  }
+
+  /**
+   * Returns the number of submitted orders that were finished during the run.
+   *
+   * @return The number of submitted orders that were finished.
+   */
+  public int getFinishedOrders() {
+    return finishedOrders;
+  }
+
+  /**
+   * Returns the number of submitted orders that failed during the run.
+   *
+   * @return The number of submitted orders that failed.
+   */
+  public int getFailedOrders() {
+    return failedOrders;
+  }
+
+  /**
+   * Returns the number of orders submitted successfully per hour.
+   *
+   * @return The number of orders submitted successfully per hour.
+   */
+  public double getSubmittedOrdersPerHour() {
+    return perHour(submittedOrders);
+  }
+
+  /**
+   * Returns the number of submitted orders finished per hour.
+   *
+   * @return The number of submitted orders finished per hour.
+   */
+  public double getFinishedOrdersPerHour() {
+    return perHour(finishedOrders);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Duration: %d s%n"
+        + "Target orders per hour: %.1f%n"
+        + "Submitted orders: %d (%.1f per hour, %d batches)%n"
+        + "Failed submissions: %d%n"
+        + "Finished orders: %d (%.1f per hour)%n"
+        + "Failed orders: %d",
+                         duration / 1000,
+                         targetOrdersPerHour,
+                         submittedOrders,
+                         getSubmittedOrdersPerHour(),
+                         batchCount,
+                         failedSubmissions,
+                         finishedOrders,
+                         getFinishedOrdersPerHour(),
+                         failedOrders);
+  }
+
+  private double perHour(int count) {
+    return duration == 0 ? 0.0 : count * 3600000.0 / duration;
+  }
+}
@@ -0,0 +1,561 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.TreeMap;
+
+/**
+ * A recording of the transport orders that arrived at a kernel and of the
+ * times vehicles needed for processing them.
+ * <p>
+ * For each order, the trace contains everything needed to submit it again,
+ * i.e. its arrival time, destinations, intended vehicle and deadline, as well
+ * as its outcome. In addition, it contains the times vehicles needed for
+ * travelling to destinations and for executing operations there, which can be
+ * used to configure simulated vehicles for replaying the trace.
+ * </p>
+ * <p>
+ * Traces are stored as text, with one record per line and fields separated by
+ * <code>||</code>, like statistics logs. This class is thread-safe.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderTrace {
+
+  /**
+   * A separator for fields in the trace file.
+   */
+  private static final String fieldSeparator = "||";
+  /**
+   * Regular expression to find field separators in the trace file.
+   */
+  private static final String fieldSepRegexp = "\\|\\|";
+  /**
+   * The type of records describing orders.
+   */
+  private static final String ORDER_RECORD = "ORDER";
+  /**
+   * The type of records describing the times needed for operations.
+   */
+  private static final String OPERATION_RECORD = "OPERATION";
+  /**
+   * The type of records describing the times needed for travelling.
+   */
+  private static final String TRAVEL_RECORD = "TRAVEL";
+  /**
+   * The recorded orders, mapped by their names.
+   */
+  private final Map<String, OrderRecord> orders = new HashMap<>();
+  /**
+   * The times needed for executing operations, mapped by the operations.
+   */
+  private final Map<String, Timing> operationTimings = new TreeMap<>();
+  /**
+   * The times needed for travelling to destinations.
+   */
+  private Timing travelTiming = new Timing(0, 0);
+
+  /**
+   * Creates a new, empty trace.
+   */
+  public OrderTrace() {
+  }
+
+  /**
+   * Returns the recorded orders, sorted by their arrival times.
+   *
+   * @return The recorded orders.
+   */
+  public synchronized List<OrderRecord> getOrders() {
+    List<OrderRecord> result = new ArrayList<>(orders.values());
+    Collections.sort(result, new Comparator<OrderRecord>() {
+      @Override
+      public int compare(OrderRecord record1, OrderRecord record2) {
+        return Long.compare(record1.getArrivalTime(), record2.getArrivalTime());
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Returns the recorded order with the given name.
+   *
+   * @param name The order's name.
+   * @return The recorded order with the given name, or <code>null</code>, if
+   * there is no such order.
+   */
+  public synchronized OrderRecord getOrder(String name) {
+    return orders.get(name);
+  }
+
+  /**
+   * Adds the given order to this trace, replacing any order with the same
+   * name.
+   *
+   * @param order The order.
+   */
+  public synchronized void addOrder(OrderRecord order) {
+    requireNonNull(order, "order");
+    orders.put(order.getName(), order);
+  }
+
+  /**
+   * Returns the times needed for executing operations, mapped by the
+   * operations.
+   *
+   * @return The times needed for executing operations.
+   */
+  public synchronized Map<String, Timing> getOperationTimings() {
+    return new TreeMap<>(operationTimings);
+  }
+
+  /**
+   * Returns the times needed for travelling to destinations.
+   *
+   * @return The times needed for travelling to destinations.
+   */
+  public synchronized Timing getTravelTiming() {
+    return travelTiming;
+  }
+
+  /**
+   * Adds the time needed for executing the given operation once.
+   *
+   * @param operation The operation.
+   * @param duration The time needed (in ms).
+   */
+  public synchronized void addOperationTime(String operation, long duration) {
+    requireNonNull(operation, "operation");
+    Timing timing = operationTimings.get(operation);
+    operationTimings.put(operation,
+                         timing == null
+                             ? new Timing(1, duration)
+                             : timing.plus(duration));
+  }
+
+  /**
+   * Adds the time needed for travelling to a destination once.
+   *
+   * @param duration The time needed (in ms).
+   */
+  public synchronized void addTravelTime(long duration) {
+    travelTiming = travelTiming.plus(duration);
+  }
+
+  /**
+   * Summarizes the outcome of the recorded orders.
+   *
+   * @return The summary.
+   */
+  public synchronized TraceSummary summarize() {
+    List<Long> leadTimes = new ArrayList<>();
+    int failedCount = 0;
+    long firstArrivalTime = Long.MAX_VALUE;
+    long lastFinishedTime = Long.MIN_VALUE;
+    for (OrderRecord order : orders.values()) {
+      firstArrivalTime = Math.min(firstArrivalTime, order.getArrivalTime());
+      if (order.getOutcome() == Outcome.FINISHED) {
+        leadTimes.add(order.getFinishedTime() - order.getArrivalTime());
+        lastFinishedTime = Math.max(lastFinishedTime, order.getFinishedTime());
+      }
+      else if (order.getOutcome() == Outcome.FAILED) {
+        failedCount++;
+      }
+    }
+    long span = leadTimes.isEmpty() ? 0 : lastFinishedTime - firstArrivalTime;
+    return new TraceSummary(orders.size(), failedCount, leadTimes, span);
+  }
+
+  /**
+   * Writes this trace to the given writer.
+   *
+   * @param writer The writer.
+   * @throws IOException If writing failed.
+   */
+  public synchronized void write(Writer writer)
+      throws IOException {
+    requireNonNull(writer, "writer");
+
+    for (OrderRecord order : getOrders()) {
+      StringBuilder line = new StringBuilder();
+      line.append(ORDER_RECORD)
+          .append(fieldSeparator).append(order.getArrivalTime())
+          .append(fieldSeparator).append(order.getName())
+          .append(fieldSeparator)
+          .append(order.getIntendedVehicle() == null ? "" : order.getIntendedVehicle())
+          .append(fieldSeparator).append(order.getDeadline())
+          .append(fieldSeparator).append(order.getOutcome().name())
+          .append(fieldSeparator).append(order.getFinishedTime());
+      for (DestinationRecord destination : order.getDestinations()) {
+        line.append(fieldSeparator).append(destination.getLocationName())
+            .append(fieldSeparator).append(destination.getOperation());
+      }
+      writer.write(line.toString());
+      writer.write('\n');
+    }
+    for (Map.Entry<String, Timing> entry : operationTimings.entrySet()) {
+      writer.write(OPERATION_RECORD + fieldSeparator + entry.getKey()
+          + fieldSeparator + entry.getValue().getCount()
+          + fieldSeparator + entry.getValue().getTotalDuration() + '\n');
+    }
+    writer.write(TRAVEL_RECORD + fieldSeparator + travelTiming.getCount()
+        + fieldSeparator + travelTiming.getTotalDuration() + '\n');
+    writer.flush();
+  }
+
+  /**
+   * Reads a trace from the given reader.
+   *
+   * @param reader The reader.
+   * @return The trace read.
+   * @throws IOException If reading failed or the input could not be parsed.
+   */
+  public static OrderTrace read(Reader reader)
+      throws IOException {
+    requireNonNull(reader, "reader");
+
+    OrderTrace result = new OrderTrace();
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] fields = line.split(fieldSepRegexp, -1);
+      try {
+        switch (fields[0]) {
+          case ORDER_RECORD:
+            result.addOrder(parseOrder(fields));
+            break;
+          case OPERATION_RECORD:
+            checkFieldCount(fields, 4);
+            result.operationTimings.put(fields[1],
+                                        new Timing(Integer.parseInt(fields[2]),
+                                                   Long.parseLong(fields[3])));
+            break;
+          case TRAVEL_RECORD:
+            checkFieldCount(fields, 3);
+            result.travelTiming = new Timing(Integer.parseInt(fields[1]),
+                                             Long.parseLong(fields[2]));
+            break;
+          default:
+            throw new IOException("Unknown record type: " + line);
+        }
+      }
+      catch (IllegalArgumentException exc) {
+        throw new IOException("Could not parse '" + line + "'", exc);
+      }
+    }
+    return result;
+  }
+
+  private static OrderRecord parseOrder(String[] fields)
+      throws IOException {
+    if (fields.length < 9 || fields.length % 2 == 0) {
+      throw new IOException("Unexpected number of fields in order record: "
+          + fields.length);
+    }
+    List<DestinationRecord> destinations = new ArrayList<>();
+    for (int i = 7; i < fields.length; i += 2) {
+      destinations.add(new DestinationRecord(fields[i], fields[i + 1]));
+    }
+    OrderRecord result = new OrderRecord(fields[2],
+                                         Long.parseLong(fields[1]),
+                                         destinations,
+                                         fields[3].isEmpty() ? null : fields[3],
+                                         Long.parseLong(fields[4]));
+    result.setOutcome(Outcome.valueOf(fields[5]), Long.parseLong(fields[6]));
+    return result;
+  }
+
+  private static void checkFieldCount(String[] fields, int expectedCount)
+      throws IOException {
+    if (fields.length != expectedCount) {
+      throw new IOException("Expected " + expectedCount + " fields, got "
+          + fields.length);
+    }
+  }
+
+  /**
+   * The outcome of an order.
+   */
+  public enum Outcome {
+
+    /**
+     * The order was not finished while recording.
+     */
+    PENDING,
+    /**
+     * The order was finished successfully.
+     */
+    FINISHED,
+    /**
+     * The order failed.
+     */
+    FAILED
+  }
+
+  /**
+   * A recorded transport order.
+   */
+  public static class OrderRecord {
+
+    /**
+     * The order's name.
+     */
+    private final String name;
+    /**
+     * The order's arrival time (in ms since the epoch).
+     */
+    private final long arrivalTime;
+    /**
+     * The order's destinations.
+     */
+    private final List<DestinationRecord> destinations;
+    /**
+     * The name of the vehicle intended to process the order, or
+     * <code>null</code>.
+     */
+    private final String intendedVehicle;
+    /**
+     * The order's deadline (in ms since the epoch).
+     */
+    private final long deadline;
+    /**
+     * The order's outcome.
+     */
+    private volatile Outcome outcome = Outcome.PENDING;
+    /**
+     * The point of time at which the order was finished (in ms since the
+     * epoch), if it was finished.
+     */
+    private volatile long finishedTime = Long.MIN_VALUE;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param name The order's name.
+     * @param arrivalTime The order's arrival time (in ms since the epoch).
+     * @param destinations The order's destinations.
+     * @param intendedVehicle The name of the vehicle intended to process the
+     * order, or <code>null</code>.
+     * @param deadline The order's deadline (in ms since the epoch).
+     */
+    public OrderRecord(String name,
+                       long arrivalTime,
+                       List<DestinationRecord> destinations,
+                       String intendedVehicle,
+                       long deadline) {
+      this.name = requireNonNull(name, "name");
+      this.arrivalTime = arrivalTime;
+      this.destinations = Collections.unmodifiableList(
+          new ArrayList<>(requireNonNull(destinations, "destinations")));
+      this.intendedVehicle = intendedVehicle;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Returns the order's name.
+     *
+     * @return The order's name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the order's arrival time (in ms since the epoch).
+     *
+     * @return The order's arrival time.
+     */
+    public long getArrivalTime() {
+      return arrivalTime;
+    }
+
+    /**
+     * Returns the order's destinations.
+     *
+     * @return The order's destinations.
+     */
+    public List<DestinationRecord> getDestinations() {
+      return destinations;
+    }
+
+    /**
+     * Returns the name of the vehicle intended to process the order.
+     *
+     * @return The name of the vehicle intended to process the order, or
+     * <code>null</code>.
+     */
+    public String getIntendedVehicle() {
+      return intendedVehicle;
+    }
+
+    /**
+     * Returns the order's deadline (in ms since the epoch).
+     *
+     * @return The order's deadline.
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+
+    /**
+     * Returns the order's outcome.
+     *
+     * @return The order's outcome.
+     */
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    /**
+     * Returns the point of time at which the order was finished.
+     *
+     * @return The point of time at which the order was finished (in ms since
+     * the epoch), or <code>Long.MIN_VALUE</code>, if it is still pending.
+     */
+    public long getFinishedTime() {
+      return finishedTime;
+    }
+
+    /**
+     * Sets the order's outcome.
+     *
+     * @param outcome The order's outcome.
+     * @param finishedTime The point of time at which the order was finished
+     * (in ms since the epoch).
+     */
+    public void setOutcome(Outcome outcome, long finishedTime) {
+      this.outcome = requireNonNull(outcome, "outcome");
+      this.finishedTime = finishedTime;
+    }
+  }
+
+  /**
+   * A recorded destination of a transport order.
+   */
+  public static class DestinationRecord {
+
+    /**
+     * The name of the destination location.
+     */
+    private final String locationName;
+    /**
+     * The operation to be executed at the location.
+     */
+    private final String operation;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param locationName The name of the destination location.
+     * @param operation The operation to be executed at the location.
+     */
+    public DestinationRecord(String locationName, String operation) {
+      this.locationName = requireNonNull(locationName, "locationName");
+      this.operation = requireNonNull(operation, "operation");
+    }
+
+    /**
+     * Returns the name of the destination location.
+     *
+     * @return The name of the destination location.
+     */
+    public String getLocationName() {
+      return locationName;
+    }
+
+    /**
+     * Returns the operation to be executed at the location.
+     *
+     * @return The operation to be executed at the location.
+     */
+    public String getOperation() {
+      return operation;
+    }
+  }
+
+  /**
+   * The times recorded for some kind of activity.
+   */
+  public static class Timing {
+
+    /**
+     * The number of times the activity was recorded.
+     */
+    private final int count;
+    /**
+     * The total duration of all recorded activities (in ms).
+     */
+    private final long totalDuration;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param count The number of times the activity was recorded.
+     * @param totalDuration The total duration of all recorded activities (in
+     * ms).
+     */
+    public Timing(int count, long totalDuration) {
+      this.count = count;
+      this.totalDuration = totalDuration;
+    }
+
+    /**
+     * Returns the number of times the activity was recorded.
+     *
+     * @return The number of times the activity was recorded.
+     */
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Returns the total duration of all recorded activities (in ms).
+     *
+     * @return The total duration of all recorded activities.
+     */
+    public long getTotalDuration() {
+      return totalDuration;
+    }
+
+    /**
+     * Returns the mean duration of the recorded activities (in ms).
+     *
+     * @return The mean duration of the recorded activities, or 0, if none was
+     * recorded.
+     */
+    public long getMeanDuration() {
+      return count == 0 ? 0 : totalDuration / count;
+    }
+
+    /**
+     * Returns a timing with the given duration added to this one's.
+     *
+     * @param duration The duration to add (in ms).
+     * @return A timing with the given duration added.
+     */
+    public Timing plus(long duration) {
+      return new Timing(count + 1, totalDuration + duration);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ * Records the transport orders processed by a kernel and the times vehicles
+ * needed for processing them into an {@link OrderTrace}.
+ * <p>
+ * An order is recorded when it is activated, as by then its intended vehicle
+ * and deadline have been set. Orders activated before recording started are
+ * ignored. The times needed for travelling and for executing operations are
+ * taken from the state changes of the orders' drive orders.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderTraceRecorder
+    implements EventListener<TCSEvent> {
+
+  /**
+   * The trace to record into.
+   */
+  private final OrderTrace trace;
+  /**
+   * The drive order phases currently running, mapped by the orders' names.
+   */
+  private final Map<String, Phase> currentPhases = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param trace The trace to record into.
+   */
+  public OrderTraceRecorder(OrderTrace trace) {
+    this.trace = requireNonNull(trace, "trace");
+  }
+
+  /**
+   * Returns the trace recorded into.
+   *
+   * @return The trace recorded into.
+   */
+  public OrderTrace getTrace() {
+    return trace;
+  }
+
+  @Override
+  public void processEvent(TCSEvent event) {
+    processEvent(event, System.currentTimeMillis());
+  }
+
+  /**
+   * Processes the given event.
+   *
+   * @param event The event.
+   * @param now The current time (in ms since the epoch).
+   */
+  synchronized void processEvent(TCSEvent event, long now) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objectEvent = (TCSObjectEvent) event;
+    if (!(objectEvent.getCurrentObjectState() instanceof TransportOrder)
+        || !(objectEvent.getPreviousObjectState() instanceof TransportOrder)) {
+      // We cannot compare two states to find out what happened - ignore.
+      return;
+    }
+    TransportOrder orderOld = (TransportOrder) objectEvent.getPreviousObjectState();
+    TransportOrder orderNow = (TransportOrder) objectEvent.getCurrentObjectState();
+
+    if (orderNow.hasState(TransportOrder.State.ACTIVE)
+        && !orderOld.hasState(TransportOrder.State.ACTIVE)) {
+      trace.addOrder(createOrderRecord(orderNow));
+    }
+
+    OrderTrace.OrderRecord record = trace.getOrder(orderNow.getName());
+    if (record == null) {
+      return;
+    }
+    updatePhase(orderNow, now);
+
+    if (orderNow.getState().isFinalState()
+        && !orderOld.getState().isFinalState()) {
+      record.setOutcome(orderNow.hasState(TransportOrder.State.FINISHED)
+          ? OrderTrace.Outcome.FINISHED
+          : OrderTrace.Outcome.FAILED,
+                        orderNow.getFinishedTime());
+    }
+  }
+
+  private OrderTrace.OrderRecord createOrderRecord(TransportOrder order) {
+    List<OrderTrace.DestinationRecord> destinations = new ArrayList<>();
+    for (DriveOrder driveOrder : order.getAllDriveOrders()) {
+      DriveOrder.Destination destination = driveOrder.getDestination();
+      destinations.add(new OrderTrace.DestinationRecord(
+          destination.getLocation().getName(), destination.getOperation()));
+    }
+    return new OrderTrace.OrderRecord(
+        order.getName(),
+        order.getCreationTime(),
+        destinations,
+        order.getIntendedVehicle() == null
+            ? null
+            : order.getIntendedVehicle().getName(),
+        order.getDeadline());
+  }
+
+  /**
+   * Ends the phase of the given order's previous drive order state, if it has
+   * changed, and records its duration.
+   *
+   * @param order The order's current state.
+   * @param now The current time.
+   */
+  private void updatePhase(TransportOrder order, long now) {
+    DriveOrder driveOrder = order.getCurrentDriveOrder();
+    int index = order.getPastDriveOrders().size();
+    DriveOrder.State state = driveOrder == null ? null : driveOrder.getState();
+
+    Phase phase = currentPhases.get(order.getName());
+    if (phase != null && phase.index == index && phase.state == state) {
+      return;
+    }
+    if (phase != null) {
+      if (phase.state == DriveOrder.State.TRAVELLING) {
+        trace.addTravelTime(now - phase.startTime);
+      }
+      else if (phase.state == DriveOrder.State.OPERATING) {
+        trace.addOperationTime(phase.operation, now - phase.startTime);
+      }
+    }
+    if (state == DriveOrder.State.TRAVELLING
+        || state == DriveOrder.State.OPERATING) {
+      currentPhases.put(order.getName(),
+                        new Phase(index,
+                                  state,
+                                  driveOrder.getDestination().getOperation(),
+                                  now));
+    }
+    else {
+      currentPhases.remove(order.getName());
+    }
+  }
+
+  /**
+   * A phase in the processing of a drive order.
+   */
+  private static class Phase {
+
+    /**
+     * The index of the drive order within its transport order.
+     */
+    private final int index;
+    /**
+     * The drive order's state during this phase.
+     */
+    private final DriveOrder.State state;
+    /**
+     * The operation to be executed at the drive order's destination.
+     */
+    private final String operation;
+    /**
+     * The point of time at which this phase started.
+     */
+    private final long startTime;
+
+    private Phase(int index,
+                  DriveOrder.State state,
+                  String operation,
+                  long startTime) {
+      this.index = index;
+      this.state = state;
+      this.operation = operation;
+      this.startTime = startTime;
+    }
+  }
+}
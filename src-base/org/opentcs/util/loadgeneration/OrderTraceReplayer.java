@@ -0,0 +1,204 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.KernelRuntimeException;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder.Destination;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.AcceptingTCSEventFilter;
+
+/**
+ * Submits the orders of a recorded trace to a kernel again, at their recorded
+ * arrival times or faster, and records how the kernel processes them.
+ * <p>
+ * Orders are submitted in batches, like with a {@link LoadGenerator}, with
+ * their recorded destinations, intended vehicles and deadlines. Deadlines are
+ * kept relative to the orders' arrival times. The kernel is usually expected
+ * to run with simulated vehicles, configured with the times needed for
+ * travelling and executing operations found in the trace.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderTraceReplayer {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(OrderTraceReplayer.class.getName());
+  /**
+   * The time to wait between two checks for the replayed orders' outcome (in
+   * ms).
+   */
+  private static final long DRAIN_CHECK_INTERVAL = 1000;
+  /**
+   * The kernel to submit orders to.
+   */
+  private final Kernel kernel;
+  /**
+   * The trace to replay.
+   */
+  private final OrderTrace trace;
+  /**
+   * The factor by which the recorded arrival times are replayed faster.
+   */
+  private final double speedFactor;
+  /**
+   * The time between two batches (in ms).
+   */
+  private final long batchInterval;
+  /**
+   * The names of the orders submitted.
+   */
+  private final List<String> submittedOrderNames = new ArrayList<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel to submit orders to.
+   * @param trace The trace to replay.
+   * @param speedFactor The factor by which the recorded arrival times are
+   * replayed faster.
+   * @param batchInterval The time between two batches (in ms).
+   */
+  public OrderTraceReplayer(Kernel kernel,
+                            OrderTrace trace,
+                            double speedFactor,
+                            long batchInterval) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.trace = requireNonNull(trace, "trace");
+    checkArgument(speedFactor > 0, "speedFactor <= 0: %s", speedFactor);
+    checkArgument(batchInterval > 0, "batchInterval <= 0: %s", batchInterval);
+    this.speedFactor = speedFactor;
+    this.batchInterval = batchInterval;
+  }
+
+  /**
+   * Replays the trace and waits for the replayed orders to be finished.
+   * Blocks the calling thread until then.
+   *
+   * @param drainTimeout The maximum time to wait for the replayed orders to
+   * be finished after the last one was submitted (in ms).
+   * @return The trace recorded while replaying.
+   */
+  public OrderTrace replay(long drainTimeout) {
+    Map<String, TCSObjectReference<Location>> locationRefs = new HashMap<>();
+    for (Location location : kernel.getTCSObjects(Location.class)) {
+      locationRefs.put(location.getName(), location.getReference());
+    }
+    Map<String, TCSObjectReference<Vehicle>> vehicleRefs = new HashMap<>();
+    for (Vehicle vehicle : kernel.getTCSObjects(Vehicle.class)) {
+      vehicleRefs.put(vehicle.getName(), vehicle.getReference());
+    }
+
+    OrderTraceRecorder recorder = new OrderTraceRecorder(new OrderTrace());
+    kernel.addEventListener(recorder, new AcceptingTCSEventFilter());
+    try {
+      List<OrderTrace.OrderRecord> orders = trace.getOrders();
+      if (!orders.isEmpty()) {
+        long firstArrivalTime = orders.get(0).getArrivalTime();
+        long startTime = System.currentTimeMillis();
+        int nextIndex = 0;
+        while (nextIndex < orders.size()) {
+          long elapsedTime = System.currentTimeMillis() - startTime;
+          while (nextIndex < orders.size()
+              && getReplayTime(orders.get(nextIndex), firstArrivalTime) <= elapsedTime) {
+            submitOrder(orders.get(nextIndex), locationRefs, vehicleRefs);
+            nextIndex++;
+          }
+          Thread.sleep(batchInterval);
+        }
+      }
+      waitForOutcome(recorder.getTrace(), drainTimeout);
+    }
+    catch (InterruptedException exc) {
+      log.log(Level.WARNING, "Interrupted, stopping replay", exc);
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      kernel.removeEventListener(recorder);
+    }
+    return recorder.getTrace();
+  }
+
+  private long getReplayTime(OrderTrace.OrderRecord order,
+                             long firstArrivalTime) {
+    return (long) ((order.getArrivalTime() - firstArrivalTime) / speedFactor);
+  }
+
+  private void submitOrder(OrderTrace.OrderRecord order,
+                           Map<String, TCSObjectReference<Location>> locationRefs,
+                           Map<String, TCSObjectReference<Vehicle>> vehicleRefs) {
+    List<Destination> destinations = new ArrayList<>();
+    for (OrderTrace.DestinationRecord destination : order.getDestinations()) {
+      TCSObjectReference<Location> locationRef
+          = locationRefs.get(destination.getLocationName());
+      if (locationRef == null) {
+        log.warning("Skipping order " + order.getName() + ", unknown location "
+            + destination.getLocationName());
+        return;
+      }
+      destinations.add(new Destination(locationRef, destination.getOperation()));
+    }
+
+    try {
+      TransportOrder newOrder = kernel.createTransportOrder(destinations);
+      if (order.getIntendedVehicle() != null) {
+        kernel.setTransportOrderIntendedVehicle(
+            newOrder.getReference(), vehicleRefs.get(order.getIntendedVehicle()));
+      }
+      if (order.getDeadline() != Long.MAX_VALUE) {
+        long relativeDeadline = order.getDeadline() - order.getArrivalTime();
+        kernel.setTransportOrderDeadline(
+            newOrder.getReference(),
+            newOrder.getCreationTime() + (long) (relativeDeadline / speedFactor));
+      }
+      kernel.activateTransportOrder(newOrder.getReference());
+      submittedOrderNames.add(newOrder.getName());
+    }
+    catch (KernelRuntimeException exc) {
+      log.log(Level.WARNING, "Could not submit order " + order.getName(), exc);
+    }
+  }
+
+  private void waitForOutcome(OrderTrace replayTrace, long drainTimeout)
+      throws InterruptedException {
+    long endTime = System.currentTimeMillis() + drainTimeout;
+    while (System.currentTimeMillis() < endTime) {
+      if (isOutcomeKnown(replayTrace)) {
+        return;
+      }
+      Thread.sleep(DRAIN_CHECK_INTERVAL);
+    }
+    log.warning("Not all replayed orders were finished in time.");
+  }
+
+  private boolean isOutcomeKnown(OrderTrace replayTrace) {
+    for (String orderName : submittedOrderNames) {
+      OrderTrace.OrderRecord order = replayTrace.getOrder(orderName);
+      if (order == null || order.getOutcome() == OrderTrace.Outcome.PENDING) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
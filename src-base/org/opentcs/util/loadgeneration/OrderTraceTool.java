@@ -0,0 +1,171 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import org.opentcs.access.rmi.KernelProxy;
+import org.opentcs.util.eventsystem.AcceptingTCSEventFilter;
+
+/**
+ * Records, replays and compares order traces from the command line.
+ * <p>
+ * The first argument is expected to be the command, followed by options in
+ * the form <code>--name=value</code>. Options for connecting to a kernel are
+ * the same as for the {@link HeadlessLoadGenerator}.
+ * </p>
+ * <ul>
+ * <li><code>record --output=FILE --duration=SECONDS</code>: Records the orders
+ * processed by the kernel for the given duration.</li>
+ * <li><code>replay --trace=FILE [--output=FILE] [--speedFactor=FACTOR]
+ * [--batchInterval=MS] [--drainTimeout=SECONDS]</code>: Replays a trace and
+ * compares the outcome to the trace. For a speed factor other than 1, the
+ * replay's lead times are scaled back before comparing, assuming that the
+ * kernel's simulated vehicles run faster by the same factor.</li>
+ * <li><code>compare --baseline=FILE --candidate=FILE</code>: Compares two
+ * traces, e.g. replays of the same trace with different kernel versions or
+ * configurations.</li>
+ * </ul>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderTraceTool {
+
+  /**
+   * Prevents instantiation.
+   */
+  private OrderTraceTool() {
+  }
+
+  /**
+   * Runs the command given by the arguments.
+   *
+   * @param args The arguments.
+   * @throws IOException If reading or writing a trace failed.
+   * @throws InterruptedException If interrupted while recording.
+   */
+  public static void main(String[] args)
+      throws IOException, InterruptedException {
+    checkArgument(args.length >= 1, "Expected a command.");
+    CommandLineOptions options
+        = new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length));
+    switch (args[0]) {
+      case "record":
+        record(options);
+        break;
+      case "replay":
+        replay(options);
+        break;
+      case "compare":
+        compare(options);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command: " + args[0]);
+    }
+  }
+
+  private static void record(CommandLineOptions options)
+      throws IOException, InterruptedException {
+    File outputFile = new File(getRequired(options, "output"));
+    long duration = Long.parseLong(options.get("duration", "86400")) * 1000;
+
+    OrderTraceRecorder recorder = new OrderTraceRecorder(new OrderTrace());
+    KernelProxy kernel = options.connectKernel();
+    try {
+      kernel.addEventListener(recorder, new AcceptingTCSEventFilter());
+      Thread.sleep(duration);
+      kernel.removeEventListener(recorder);
+    }
+    finally {
+      kernel.logout();
+    }
+    writeTrace(recorder.getTrace(), outputFile);
+    System.out.println(recorder.getTrace().summarize());
+  }
+
+  private static void replay(CommandLineOptions options)
+      throws IOException {
+    OrderTrace baseline = readTrace(new File(getRequired(options, "trace")));
+    double speedFactor = Double.parseDouble(options.get("speedFactor", "1.0"));
+    printTimings(baseline);
+
+    OrderTrace candidate;
+    KernelProxy kernel = options.connectKernel();
+    try {
+      OrderTraceReplayer replayer
+          = new OrderTraceReplayer(kernel,
+                                   baseline,
+                                   speedFactor,
+                                   Long.parseLong(options.get("batchInterval",
+                                                              "1000")));
+      candidate = replayer.replay(
+          Long.parseLong(options.get("drainTimeout", "600")) * 1000);
+    }
+    finally {
+      kernel.logout();
+    }
+    if (options.contains("output")) {
+      writeTrace(candidate, new File(options.get("output", null)));
+    }
+    System.out.print(TraceSummary.formatComparison(
+        baseline.summarize(), candidate.summarize().timeScaled(speedFactor)));
+  }
+
+  private static void compare(CommandLineOptions options)
+      throws IOException {
+    OrderTrace baseline = readTrace(new File(getRequired(options, "baseline")));
+    OrderTrace candidate = readTrace(new File(getRequired(options, "candidate")));
+    System.out.print(TraceSummary.formatComparison(baseline.summarize(),
+                                                   candidate.summarize()));
+  }
+
+  /**
+   * Prints the recorded times needed by vehicles, for configuring simulated
+   * vehicles accordingly.
+   *
+   * @param trace The trace.
+   */
+  private static void printTimings(OrderTrace trace) {
+    System.out.println("Mean travel time per destination: "
+        + trace.getTravelTiming().getMeanDuration() + " ms");
+    for (Map.Entry<String, OrderTrace.Timing> entry
+             : trace.getOperationTimings().entrySet()) {
+      System.out.println("Mean time for operation " + entry.getKey() + ": "
+          + entry.getValue().getMeanDuration() + " ms");
+    }
+  }
+
+  private static String getRequired(CommandLineOptions options, String name) {
+    checkArgument(options.contains(name), "Missing option: --%s", name);
+    return options.get(name, null);
+  }
+
+  private static OrderTrace readTrace(File file)
+      throws IOException {
+    try (Reader reader = Files.newBufferedReader(file.toPath(),
+                                                 StandardCharsets.UTF_8)) {
+      return OrderTrace.read(reader);
+    }
+  }
+
+  private static void writeTrace(OrderTrace trace, File file)
+      throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file.toPath(),
+                                                 StandardCharsets.UTF_8)) {
+      trace.write(writer);
+    }
+  }
+}
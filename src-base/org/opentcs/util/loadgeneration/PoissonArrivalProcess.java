@@ -0,0 +1,69 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import java.util.Random;
+
+/**
+ * An arrival process in which arrivals happen independently of each other at
+ * a constant average rate, i.e. with exponentially distributed times between
+ * two arrivals.
+ * This usually models orders placed by many independent sources more
+ * realistically than a constant time between arrivals, including occasional
+ * bursts.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class PoissonArrivalProcess
+    implements ArrivalProcess {
+
+  /**
+   * The average number of arrivals per hour.
+   */
+  private final double ordersPerHour;
+  /**
+   * The average time between two arrivals (in ms).
+   */
+  private final double meanInterArrivalTime;
+  /**
+   * The random number generator to use.
+   */
+  private final Random random;
+  /**
+   * The point of time of the last arrival (in ms).
+   */
+  private double lastArrivalTime;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param ordersPerHour The average number of arrivals per hour.
+   * @param random The random number generator to use.
+   */
+  public PoissonArrivalProcess(double ordersPerHour, Random random) {
+    checkArgument(ordersPerHour > 0, "ordersPerHour <= 0: %s", ordersPerHour);
+    this.ordersPerHour = ordersPerHour;
+    this.meanInterArrivalTime = 3600000.0 / ordersPerHour;
+    this.random = requireNonNull(random, "random");
+  }
+
+  @Override
+  public long nextArrivalTime() {
+    // Inverse transform sampling of the exponential distribution.
+    lastArrivalTime += -Math.log(1.0 - random.nextDouble()) * meanInterArrivalTime;
+    return (long) lastArrivalTime;
+  }
+
+  @Override
+  public double getOrdersPerHour() {
+    return ordersPerHour;
+  }
+}
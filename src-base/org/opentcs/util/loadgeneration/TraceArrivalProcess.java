@@ -0,0 +1,114 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An arrival process replaying arrival times recorded before, optionally
+ * faster or slower than recorded.
+ * The first recorded arrival happens immediately, the following ones keep
+ * their (scaled) distances to it.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TraceArrivalProcess
+    implements ArrivalProcess {
+
+  /**
+   * The recorded arrival times, sorted.
+   */
+  private final List<Long> arrivalTimes;
+  /**
+   * The factor by which the recorded arrival times are replayed faster.
+   */
+  private final double speedFactor;
+  /**
+   * The index of the next arrival.
+   */
+  private int nextIndex;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param arrivalTimes The recorded arrival times (in ms).
+   * @param speedFactor The factor by which the recorded arrival times are
+   * replayed faster, e.g. 2.0 to replay with half the recorded times between
+   * arrivals.
+   */
+  public TraceArrivalProcess(List<Long> arrivalTimes, double speedFactor) {
+    requireNonNull(arrivalTimes, "arrivalTimes");
+    checkArgument(speedFactor > 0, "speedFactor <= 0: %s", speedFactor);
+    this.arrivalTimes = new ArrayList<>(arrivalTimes);
+    Collections.sort(this.arrivalTimes);
+    this.speedFactor = speedFactor;
+  }
+
+  @Override
+  public long nextArrivalTime() {
+    if (nextIndex >= arrivalTimes.size()) {
+      return NO_MORE_ARRIVALS;
+    }
+    long recordedOffset = arrivalTimes.get(nextIndex) - arrivalTimes.get(0);
+    nextIndex++;
+    return (long) (recordedOffset / speedFactor);
+  }
+
+  @Override
+  public double getOrdersPerHour() {
+    if (arrivalTimes.size() < 2) {
+      return 0.0;
+    }
+    long span = arrivalTimes.get(arrivalTimes.size() - 1) - arrivalTimes.get(0);
+    if (span == 0) {
+      return 0.0;
+    }
+    return (arrivalTimes.size() - 1) * 3600000.0 * speedFactor / span;
+  }
+
+  /**
+   * Reads recorded arrival times from the given file.
+   * The file is expected to contain one arrival time (in ms) per line. Empty
+   * lines and lines starting with <code>#</code> are ignored.
+   *
+   * @param file The file to read from.
+   * @return The arrival times read.
+   * @throws IOException If reading the file failed.
+   * @throws IllegalArgumentException If a line does not contain a valid
+   * arrival time.
+   */
+  public static List<Long> readArrivalTimes(File file)
+      throws IOException, IllegalArgumentException {
+    requireNonNull(file, "file");
+
+    List<Long> result = new ArrayList<>();
+    for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+      String trimmedLine = line.trim();
+      if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+        continue;
+      }
+      try {
+        result.add(Long.parseLong(trimmedLine));
+      }
+      catch (NumberFormatException exc) {
+        throw new IllegalArgumentException("Invalid arrival time: " + trimmedLine,
+                                           exc);
+      }
+    }
+    return result;
+  }
+}
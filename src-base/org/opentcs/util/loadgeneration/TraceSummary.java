@@ -0,0 +1,210 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summarizes the lead times and the throughput of the orders in a trace.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TraceSummary {
+
+  /**
+   * The number of orders in the trace.
+   */
+  private final int orderCount;
+  /**
+   * The number of orders that failed.
+   */
+  private final int failedCount;
+  /**
+   * The lead times of the orders finished successfully (in ms), sorted.
+   */
+  private final List<Long> leadTimes;
+  /**
+   * The time from the first arrival to the last order finished (in ms).
+   */
+  private final long span;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param orderCount The number of orders in the trace.
+   * @param failedCount The number of orders that failed.
+   * @param leadTimes The lead times of the orders finished successfully (in
+   * ms).
+   * @param span The time from the first arrival to the last order finished (in
+   * ms).
+   */
+  public TraceSummary(int orderCount,
+                      int failedCount,
+                      List<Long> leadTimes,
+                      long span) {
+    this.orderCount = orderCount;
+    this.failedCount = failedCount;
+    this.leadTimes = new ArrayList<>(requireNonNull(leadTimes, "leadTimes"));
+    Collections.sort(this.leadTimes);
+    this.span = span;
+  }
+
+  /**
+   * Returns the number of orders in the trace.
+   *
+   * @return The number of orders in the trace.
+   */
+  public int getOrderCount() {
+    return orderCount;
+  }
+
+  /**
+   * Returns the number of orders finished successfully.
+   *
+   * @return The number of orders finished successfully.
+   */
+  public int getFinishedCount() {
+    return leadTimes.size();
+  }
+
+  /**
+   * Returns the number of orders that failed.
+   *
+   * @return The number of orders that failed.
+   */
+  public int getFailedCount() {
+    return failedCount;
+  }
+
+  /**
+   * Returns the mean lead time of the orders finished successfully.
+   *
+   * @return The mean lead time (in ms), or 0, if no order was finished.
+   */
+  public long getMeanLeadTime() {
+    if (leadTimes.isEmpty()) {
+      return 0;
+    }
+    long sum = 0;
+    for (long leadTime : leadTimes) {
+      sum += leadTime;
+    }
+    return sum / leadTimes.size();
+  }
+
+  /**
+   * Returns the given percentile of the lead times of the orders finished
+   * successfully.
+   *
+   * @param percentile The percentile, between 0 and 100.
+   * @return The percentile (in ms), or 0, if no order was finished.
+   */
+  public long getLeadTimePercentile(double percentile) {
+    if (leadTimes.isEmpty()) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * leadTimes.size()) - 1;
+    return leadTimes.get(Math.max(0, Math.min(index, leadTimes.size() - 1)));
+  }
+
+  /**
+   * Returns the number of orders finished successfully per hour, from the
+   * first arrival to the last order finished.
+   *
+   * @return The number of orders finished successfully per hour.
+   */
+  public double getFinishedOrdersPerHour() {
+    return span == 0 ? 0.0 : leadTimes.size() * 3600000.0 / span;
+  }
+
+  /**
+   * Returns a summary with the lead times and the span of this one multiplied
+   * by the given factor, e.g. to compare a replay that ran faster than the
+   * recorded trace with the trace.
+   *
+   * @param speedFactor The factor.
+   * @return A summary with the lead times and the span multiplied.
+   */
+  public TraceSummary timeScaled(double speedFactor) {
+    List<Long> scaledLeadTimes = new ArrayList<>(leadTimes.size());
+    for (long leadTime : leadTimes) {
+      scaledLeadTimes.add((long) (leadTime * speedFactor));
+    }
+    return new TraceSummary(orderCount,
+                            failedCount,
+                            scaledLeadTimes,
+                            (long) (span * speedFactor));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Orders: %d (%d finished, %d failed)%n"
+        + "Lead time: mean %d ms, median %d ms, 95th percentile %d ms%n"
+        + "Throughput: %.1f orders per hour",
+                         orderCount,
+                         getFinishedCount(),
+                         failedCount,
+                         getMeanLeadTime(),
+                         getLeadTimePercentile(50),
+                         getLeadTimePercentile(95),
+                         getFinishedOrdersPerHour());
+  }
+
+  /**
+   * Describes how the given candidate's lead times and throughput compare to
+   * those of the given baseline.
+   *
+   * @param baseline The baseline, e.g. a trace recorded in production.
+   * @param candidate The candidate, e.g. a replay of the baseline with a
+   * different kernel version or configuration.
+   * @return A description of the comparison.
+   */
+  public static String formatComparison(TraceSummary baseline,
+                                        TraceSummary candidate) {
+    requireNonNull(baseline, "baseline");
+    requireNonNull(candidate, "candidate");
+
+    return String.format("%-24s%16s%16s%10s%n", "", "Baseline", "Candidate", "Change")
+        + formatRow("Finished orders",
+                    baseline.getFinishedCount(),
+                    candidate.getFinishedCount())
+        + formatRow("Failed orders",
+                    baseline.getFailedCount(),
+                    candidate.getFailedCount())
+        + formatRow("Mean lead time (ms)",
+                    baseline.getMeanLeadTime(),
+                    candidate.getMeanLeadTime())
+        + formatRow("Median lead time (ms)",
+                    baseline.getLeadTimePercentile(50),
+                    candidate.getLeadTimePercentile(50))
+        + formatRow("95th pct. lead time (ms)",
+                    baseline.getLeadTimePercentile(95),
+                    candidate.getLeadTimePercentile(95))
+        + formatRow("Orders per hour",
+                    baseline.getFinishedOrdersPerHour(),
+                    candidate.getFinishedOrdersPerHour());
+  }
+
+  private static String formatRow(String label,
+                                  double baselineValue,
+                                  double candidateValue) {
+    String change = baselineValue == 0.0
+        ? "-"
+        : String.format("%+.1f%%",
+                        (candidateValue - baselineValue) * 100.0 / baselineValue);
+    return String.format("%-24s%16.1f%16.1f%10s%n",
+                         label,
+                         baselineValue,
+                         candidateValue,
+                         change);
+  }
+}
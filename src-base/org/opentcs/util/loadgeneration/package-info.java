@@ -0,0 +1,6 @@
+/**
+ * Classes for generating transport orders to put load on a kernel and for
+ * recording and replaying order traces, without requiring a graphical user
+ * interface.
+ */
+package org.opentcs.util.loadgeneration;
@@ -0,0 +1,208 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implements the binary format for statistics records.
+ * <p>
+ * A binary log consists of segments, each starting with a header. A record
+ * consists of the event's ordinal (one byte), the difference to the previous
+ * record's timestamp and the index of the label in the segment's label
+ * dictionary (both as variable-length integers). If the index equals the
+ * dictionary's size, the label itself follows and is added to the dictionary.
+ * Each segment starts with an empty dictionary and a timestamp of zero, so
+ * segments can simply be appended to existing logs.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+final class BinaryRecords {
+
+  /**
+   * The first byte of a segment header. Never used as an event ordinal.
+   */
+  static final int HEADER_MARKER = 0xFF;
+  /**
+   * The remaining bytes of a segment header.
+   */
+  private static final byte[] HEADER_TAIL = {'S', 'T', 'A', 'T', 1};
+  /**
+   * The maximum number of labels in a segment's dictionary. A new segment is
+   * started when it is reached, so logs with many unique labels (e.g. order
+   * names) do not need unbounded memory for reading and writing.
+   */
+  private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+  /**
+   * All known events, indexed by their ordinals.
+   */
+  private static final StatisticsEvent[] EVENTS = StatisticsEvent.values();
+
+  /**
+   * Prevents undesired instantiation.
+   */
+  private BinaryRecords() {
+    // Do nada.
+  }
+
+  /**
+   * Writes records in the binary format.
+   */
+  static final class Encoder {
+
+    /**
+     * The labels in the current segment's dictionary, mapped to their indices.
+     */
+    private final Map<String, Integer> labelIndices = new HashMap<>();
+    /**
+     * The timestamp of the previous record in the current segment.
+     */
+    private long lastTimestamp;
+
+    /**
+     * Starts a new segment.
+     *
+     * @param output The output to write to.
+     * @throws IOException If there was a problem writing the header.
+     */
+    void writeHeader(DataOutput output)
+        throws IOException {
+      output.write(HEADER_MARKER);
+      output.write(HEADER_TAIL);
+      labelIndices.clear();
+      lastTimestamp = 0;
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param record The record.
+     * @param output The output to write to.
+     * @throws IOException If there was a problem writing the record.
+     */
+    void write(StatisticsRecord record, DataOutput output)
+        throws IOException {
+      if (labelIndices.size() >= MAX_DICTIONARY_SIZE) {
+        writeHeader(output);
+      }
+      output.write(record.getEvent().ordinal());
+      writeVarLong(output, zigZag(record.getTimestamp() - lastTimestamp));
+      lastTimestamp = record.getTimestamp();
+      Integer index = labelIndices.get(record.getLabel());
+      if (index != null) {
+        writeVarLong(output, index);
+      }
+      else {
+        writeVarLong(output, labelIndices.size());
+        output.writeUTF(record.getLabel());
+        labelIndices.put(record.getLabel(), labelIndices.size());
+      }
+    }
+  }
+
+  /**
+   * Reads records in the binary format.
+   */
+  static final class Decoder {
+
+    /**
+     * The labels in the current segment's dictionary.
+     */
+    private final List<String> labels = new ArrayList<>();
+    /**
+     * The timestamp of the previous record in the current segment.
+     */
+    private long lastTimestamp;
+
+    /**
+     * Reads the next record.
+     *
+     * @param input The stream to read from.
+     * @param dataInput The same stream for reading data types.
+     * @return The next record, or <code>null</code>, if the end of the stream
+     * has been reached.
+     * @throws IOException If there was a problem reading the stream or if it
+     * contains invalid data.
+     */
+    StatisticsRecord read(InputStream input, DataInput dataInput)
+        throws IOException {
+      int tag = input.read();
+      while (tag == HEADER_MARKER) {
+        byte[] tail = new byte[HEADER_TAIL.length];
+        dataInput.readFully(tail);
+        if (tail[HEADER_TAIL.length - 1] != HEADER_TAIL[HEADER_TAIL.length - 1]) {
+          throw new IOException("Unsupported format version "
+              + tail[HEADER_TAIL.length - 1]);
+        }
+        labels.clear();
+        lastTimestamp = 0;
+        tag = input.read();
+      }
+      if (tag < 0) {
+        return null;
+      }
+      if (tag >= EVENTS.length) {
+        throw new IOException("Unknown event ordinal " + tag);
+      }
+      lastTimestamp += unZigZag(readVarLong(dataInput));
+      long index = readVarLong(dataInput);
+      String label;
+      if (index < labels.size()) {
+        label = labels.get((int) index);
+      }
+      else if (index == labels.size()) {
+        label = dataInput.readUTF();
+        labels.add(label);
+      }
+      else {
+        throw new IOException("Invalid label index " + index);
+      }
+      return new StatisticsRecord(lastTimestamp, EVENTS[tag], label);
+    }
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(DataOutput output, long value)
+      throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.write((int) value);
+  }
+
+  private static long readVarLong(DataInput input)
+      throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = input.readByte();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new EOFException("Malformed variable-length integer");
+  }
+}
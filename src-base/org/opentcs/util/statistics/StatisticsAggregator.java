@@ -0,0 +1,323 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.inject.Inject;
+import org.opentcs.access.queries.QueryStatistics;
+
+/**
+ * Aggregates statistics records incrementally over a rolling window of time.
+ * <p>
+ * The window is split into a fixed number of buckets, so memory used and the
+ * time needed to process a record do not depend on the number of records
+ * processed. Only the lead times of orders finished within the window are
+ * kept individually for computing percentiles.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class StatisticsAggregator
+    implements StatisticsRecordVisitor {
+
+  /**
+   * The length of a bucket (in ms).
+   */
+  private final long bucketLength;
+  /**
+   * The number of buckets in the window.
+   */
+  private final int bucketCount;
+  /**
+   * The numbers of orders finished successfully.
+   */
+  private final TimeBuckets finishedOrders;
+  /**
+   * The numbers of orders failed.
+   */
+  private final TimeBuckets failedOrders;
+  /**
+   * The numbers of orders that crossed their deadline.
+   */
+  private final TimeBuckets lateOrders;
+  /**
+   * Completion times and lead times of orders finished, oldest first.
+   */
+  private final Deque<long[]> leadTimes = new ArrayDeque<>();
+  /**
+   * Activation times of orders not finished, yet, mapped by the orders' names.
+   */
+  private final Map<String, Long> activationTimes = new HashMap<>();
+  /**
+   * The vehicles' data, mapped by the vehicles' names.
+   */
+  private final Map<String, VehicleData> vehicles = new HashMap<>();
+  /**
+   * The points' occupation intervals, mapped by the points' names.
+   */
+  private final Map<String, Interval> points = new HashMap<>();
+  /**
+   * The point of time at which aggregation started.
+   */
+  private long startTime;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param windowLength The length of the window (in ms).
+   * @param bucketCount The number of buckets the window is split into.
+   */
+  @Inject
+  public StatisticsAggregator(@WindowLength long windowLength,
+                              @BucketCount int bucketCount) {
+    if (bucketCount < 1) {
+      throw new IllegalArgumentException("bucketCount < 1: " + bucketCount);
+    }
+    if (windowLength < bucketCount) {
+      throw new IllegalArgumentException("windowLength < bucketCount: "
+          + windowLength);
+    }
+    this.bucketLength = windowLength / bucketCount;
+    this.bucketCount = bucketCount;
+    this.finishedOrders = new TimeBuckets(bucketLength, bucketCount);
+    this.failedOrders = new TimeBuckets(bucketLength, bucketCount);
+    this.lateOrders = new TimeBuckets(bucketLength, bucketCount);
+    this.startTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Removes all data aggregated and starts aggregating anew.
+   *
+   * @param now The current point of time.
+   */
+  public synchronized void clear(long now) {
+    finishedOrders.clear();
+    failedOrders.clear();
+    lateOrders.clear();
+    leadTimes.clear();
+    activationTimes.clear();
+    vehicles.clear();
+    points.clear();
+    startTime = now;
+  }
+
+  @Override
+  public synchronized void visitRecord(StatisticsRecord record) {
+    long timestamp = record.getTimestamp();
+    String label = record.getLabel();
+    switch (record.getEvent()) {
+      case ORDER_ACTIVATED:
+        activationTimes.put(label, timestamp);
+        break;
+      case ORDER_FINISHED_SUCC:
+        finishedOrders.add(timestamp, 1);
+        Long activationTime = activationTimes.remove(label);
+        if (activationTime != null) {
+          leadTimes.addLast(new long[] {timestamp, timestamp - activationTime});
+          evictLeadTimes(timestamp);
+        }
+        break;
+      case ORDER_FINISHED_FAIL:
+        failedOrders.add(timestamp, 1);
+        activationTimes.remove(label);
+        break;
+      case ORDER_CROSSED_DEADLINE:
+        lateOrders.add(timestamp, 1);
+        break;
+      case VEHICLE_STARTS_PROCESSING:
+        getVehicle(label).processing.start(timestamp);
+        break;
+      case VEHICLE_STOPS_PROCESSING:
+        VehicleData vehicle = getVehicle(label);
+        vehicle.processing.stop(timestamp);
+        vehicle.ordersProcessed.add(timestamp, 1);
+        break;
+      case VEHICLE_STARTS_CHARGING:
+        getVehicle(label).charging.start(timestamp);
+        break;
+      case VEHICLE_STOPS_CHARGING:
+        getVehicle(label).charging.stop(timestamp);
+        break;
+      case VEHICLE_STARTS_WAITING:
+        getVehicle(label).waiting.start(timestamp);
+        break;
+      case VEHICLE_STOPS_WAITING:
+        getVehicle(label).waiting.stop(timestamp);
+        break;
+      case POINT_OCCUPIED:
+        getPoint(label).start(timestamp);
+        break;
+      case POINT_FREED:
+        getPoint(label).stop(timestamp);
+        break;
+      default:
+    }
+  }
+
+  /**
+   * Returns the statistics for the window ending at the given point of time.
+   *
+   * @param now The end of the window.
+   * @return The statistics.
+   */
+  public synchronized QueryStatistics getStatistics(long now) {
+    long windowStart = Math.max(startTime, finishedOrders.getWindowStart(now));
+    long coveredTime = Math.max(0, now - windowStart);
+    evictLeadTimes(now);
+    long[] leadTimeValues = new long[leadTimes.size()];
+    int i = 0;
+    for (long[] leadTime : leadTimes) {
+      leadTimeValues[i] = leadTime[1];
+      i++;
+    }
+    Map<String, QueryStatistics.VehicleStatistics> vehicleStats
+        = new HashMap<>();
+    for (Map.Entry<String, VehicleData> entry : vehicles.entrySet()) {
+      VehicleData vehicle = entry.getValue();
+      vehicleStats.put(entry.getKey(), new QueryStatistics.VehicleStatistics(
+          coveredTime,
+          vehicle.processing.total(windowStart, now),
+          vehicle.charging.total(windowStart, now),
+          vehicle.waiting.total(windowStart, now),
+          (int) vehicle.ordersProcessed.sum(now)));
+    }
+    Map<String, QueryStatistics.PointStatistics> pointStats = new HashMap<>();
+    for (Map.Entry<String, Interval> entry : points.entrySet()) {
+      pointStats.put(entry.getKey(), new QueryStatistics.PointStatistics(
+          coveredTime,
+          entry.getValue().total(windowStart, now)));
+    }
+    return new QueryStatistics(now,
+                               coveredTime,
+                               (int) finishedOrders.sum(now),
+                               (int) failedOrders.sum(now),
+                               (int) lateOrders.sum(now),
+                               leadTimeValues,
+                               vehicleStats,
+                               pointStats);
+  }
+
+  private void evictLeadTimes(long now) {
+    long windowStart = finishedOrders.getWindowStart(now);
+    Iterator<long[]> iter = leadTimes.iterator();
+    while (iter.hasNext() && iter.next()[0] < windowStart) {
+      iter.remove();
+    }
+  }
+
+  private VehicleData getVehicle(String name) {
+    VehicleData vehicle = vehicles.get(name);
+    if (vehicle == null) {
+      vehicle = new VehicleData();
+      vehicles.put(name, vehicle);
+    }
+    return vehicle;
+  }
+
+  private Interval getPoint(String name) {
+    Interval point = points.get(name);
+    if (point == null) {
+      point = new Interval();
+      points.put(name, point);
+    }
+    return point;
+  }
+
+  /**
+   * Annotation type for marking the length of the aggregation window.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface WindowLength {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for marking the number of buckets in the aggregation
+   * window.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface BucketCount {
+    // Nothing here.
+  }
+
+  /**
+   * Accumulates the time spent in some state.
+   */
+  private final class Interval {
+
+    /**
+     * The time spent in the state, excluding the current stay.
+     */
+    private final TimeBuckets buckets = new TimeBuckets(bucketLength,
+                                                        bucketCount);
+    /**
+     * The point of time the current stay in the state started, or -1, if not
+     * in the state.
+     */
+    private long activeSince = -1;
+
+    void start(long timestamp) {
+      if (activeSince < 0) {
+        activeSince = timestamp;
+      }
+    }
+
+    void stop(long timestamp) {
+      if (activeSince >= 0) {
+        buckets.addInterval(activeSince, timestamp);
+        activeSince = -1;
+      }
+    }
+
+    long total(long windowStart, long now) {
+      long result = buckets.sum(now);
+      if (activeSince >= 0 && activeSince < now) {
+        result += now - Math.max(activeSince, windowStart);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * The data aggregated for a vehicle.
+   */
+  private final class VehicleData {
+
+    /**
+     * The time spent processing orders.
+     */
+    private final Interval processing = new Interval();
+    /**
+     * The time spent charging.
+     */
+    private final Interval charging = new Interval();
+    /**
+     * The time spent waiting.
+     */
+    private final Interval waiting = new Interval();
+    /**
+     * The numbers of orders processed.
+     */
+    private final TimeBuckets ordersProcessed = new TimeBuckets(bucketLength,
+                                                                bucketCount);
+  }
+}
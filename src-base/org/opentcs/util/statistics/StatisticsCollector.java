@@ -8,11 +8,13 @@
  */
 package org.opentcs.util.statistics;
 
+import com.google.inject.BindingAnnotation;
 import java.io.File;
 import java.io.IOException;
-import java.text.Format;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -46,9 +48,21 @@ public class StatisticsCollector
    */
   private final File logDir;
   /**
-   * The file we're writing collected data to.
+   * The aggregator for live statistics.
    */
-  private final File logFile;
+  private final StatisticsAggregator aggregator;
+  /**
+   * The format to write collected data in.
+   */
+  private final StatisticsLogFormat logFormat;
+  /**
+   * The size (in bytes) at which a log file is rotated.
+   */
+  private final long maxFileSize;
+  /**
+   * The age (in ms) at which a log file is rotated.
+   */
+  private final long maxFileAge;
   /**
    * Indicates whether this instance is currently enabled or not.
    */
@@ -71,20 +85,32 @@ public class StatisticsCollector
    *
    * @param kernel The kernel we're working with.
    * @param homeDir The kernel's home directory.
+   * @param aggregator The aggregator for live statistics.
+   * @param logFormat The name of the format to write collected data in.
+   * @param maxFileSize The size (in bytes) at which a log file is rotated.
+   * Zero or less means no size limit.
+   * @param maxFileAge The age (in ms) at which a log file is rotated. Zero or
+   * less means no age limit.
    */
   @Inject
   public StatisticsCollector(LocalKernel kernel,
-                             @ApplicationHome File homeDir) {
+                             @ApplicationHome File homeDir,
+                             StatisticsAggregator aggregator,
+                             @LogFormat String logFormat,
+                             @MaxFileSize long maxFileSize,
+                             @MaxFileAge long maxFileAge) {
     this.kernel = Objects.requireNonNull(kernel, "kernel is null");
+    this.aggregator = Objects.requireNonNull(aggregator, "aggregator is null");
+    this.logFormat = StatisticsLogFormat.valueOf(
+        Objects.requireNonNull(logFormat, "logFormat is null"));
+    this.maxFileSize = maxFileSize;
+    this.maxFileAge = maxFileAge;
     Objects.requireNonNull(homeDir, "homeDir is null");
     this.logDir = new File(homeDir, "log/statistics");
     if (!logDir.isDirectory() && !logDir.mkdirs()) {
       throw new IllegalArgumentException(logDir.getPath()
           + " is not an existing directory and could not be created, either.");
     }
-    Format format = new SimpleDateFormat("yyyyMMdd-HHmmss");
-    logFile = new File(logDir,
-                       "openTCS-statistics-" + format.format(new Date()) + ".txt");
   }
 
   @Override
@@ -100,12 +126,12 @@ public class StatisticsCollector
     if (!enabled) {
       try {
         // Create and start queue processor for kernel events.
-        log.info("Enabling logging to " + logFile.getAbsolutePath() + "...");
-        if (logFile.exists()) {
-          // XXX Rename to file name with timestamp?!
-          logFile.renameTo(new File(logDir, "openTCS-statistics-txt.old"));
-        }
-        statisticsLogger = new StatisticsEventLogger(logFile);
+        StatisticsLogWriter logWriter = new StatisticsLogWriter(
+            logDir, "openTCS-statistics", logFormat, maxFileSize, maxFileAge);
+        log.info("Enabling logging to "
+            + logWriter.getCurrentFile().getAbsolutePath() + "...");
+        aggregator.clear(System.currentTimeMillis());
+        statisticsLogger = new StatisticsEventLogger(logWriter, aggregator);
         loggerThread = new Thread(statisticsLogger, "statisticsLogger");
         loggerThread.start();
         // Create event listener and register it with the kernel.
@@ -147,4 +173,34 @@ public class StatisticsCollector
       }
     }
   }
+
+  /**
+   * Annotation type for marking the name of the log format.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface LogFormat {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for marking the size at which log files are rotated.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface MaxFileSize {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for marking the age at which log files are rotated.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface MaxFileAge {
+    // Nothing here.
+  }
 }
@@ -10,6 +10,8 @@ package org.opentcs.util.statistics;
 
 /**
  * Defines labels for events relevant to statistics.
+ * Binary statistics logs refer to events by their ordinals, so new constants
+ * must only be appended.
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -9,10 +9,9 @@
 package org.opentcs.util.statistics;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.Objects;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.opentcs.data.TCSObject;
 import org.opentcs.data.TCSObjectEvent;
@@ -24,6 +23,8 @@ import org.opentcs.util.eventsystem.TCSEvent;
 
 /**
  * Writes received events to a file.
+ * Records are buffered and written in batches whenever the queue of events
+ * has been processed completely.
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -36,13 +37,13 @@ public class StatisticsEventLogger
   private static final Logger log =
       Logger.getLogger(StatisticsEventLogger.class.getName());
   /**
-   * The output file.
+   * Our output sink.
    */
-  private final File outputFile;
+  private final StatisticsLogWriter outputWriter;
   /**
-   * Our output sink.
+   * A visitor receiving all records written, if any.
    */
-  private final PrintWriter outputWriter;
+  private final StatisticsRecordVisitor recordVisitor;
 
   /**
    * Creates a new instance.
@@ -53,8 +54,35 @@ public class StatisticsEventLogger
    */
   public StatisticsEventLogger(final File outputFile)
       throws IOException {
-    this.outputFile = Objects.requireNonNull(outputFile, "outputFile is null");
-    outputWriter = new PrintWriter(new FileWriter(outputFile, true), true);
+    this(new StatisticsLogWriter(outputFile, StatisticsLogFormat.TEXT));
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param outputWriter The writer to write log output to. Will be closed
+   * when this instance is terminated.
+   */
+  public StatisticsEventLogger(final StatisticsLogWriter outputWriter) {
+    this.outputWriter = Objects.requireNonNull(outputWriter,
+                                               "outputWriter is null");
+    this.recordVisitor = null;
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param outputWriter The writer to write log output to. Will be closed
+   * when this instance is terminated.
+   * @param recordVisitor A visitor to pass all records written to, e.g. for
+   * aggregating them.
+   */
+  public StatisticsEventLogger(final StatisticsLogWriter outputWriter,
+                               final StatisticsRecordVisitor recordVisitor) {
+    this.outputWriter = Objects.requireNonNull(outputWriter,
+                                               "outputWriter is null");
+    this.recordVisitor = Objects.requireNonNull(recordVisitor,
+                                                "recordVisitor is null");
   }
 
   @Override
@@ -68,13 +96,23 @@ public class StatisticsEventLogger
     }
   }
 
+  @Override
+  protected void queueDrained() {
+    try {
+      outputWriter.flush();
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception flushing statistics records", exc);
+    }
+  }
+
   @Override
   protected void terminated() {
-    outputWriter.close();
-    // If we did not write anything to the file, remove it again for the sake of
-    // a cleaner hard drive.
-    if (outputFile.length() == 0) {
-      outputFile.delete();
+    try {
+      outputWriter.close();
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception closing statistics log", exc);
     }
   }
 
@@ -244,6 +282,14 @@ public class StatisticsEventLogger
     StatisticsRecord record = new StatisticsRecord(System.currentTimeMillis(),
                                                    event,
                                                    objectName);
-    outputWriter.println(record.toString());
+    try {
+      outputWriter.write(record);
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception writing statistics record", exc);
+    }
+    if (recordVisitor != null) {
+      recordVisitor.visitRecord(record);
+    }
   }
 }
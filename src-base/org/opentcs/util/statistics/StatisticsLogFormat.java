@@ -0,0 +1,51 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+/**
+ * Defines the formats statistics records can be written in.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public enum StatisticsLogFormat {
+
+  /**
+   * One line of text per record, as produced by
+   * {@link StatisticsRecord#toString()}.
+   */
+  TEXT(".txt"),
+  /**
+   * A compact binary encoding with delta-encoded timestamps and a dictionary
+   * of labels.
+   */
+  BINARY(".bin");
+
+  /**
+   * The suffix of files in this format.
+   */
+  private final String fileSuffix;
+
+  /**
+   * Creates a new constant.
+   *
+   * @param fileSuffix The suffix of files in this format.
+   */
+  private StatisticsLogFormat(String fileSuffix) {
+    this.fileSuffix = fileSuffix;
+  }
+
+  /**
+   * Returns the suffix of files in this format.
+   *
+   * @return The suffix of files in this format.
+   */
+  public String getFileSuffix() {
+    return fileSuffix;
+  }
+}
@@ -8,12 +8,10 @@
  */
 package org.opentcs.util.statistics;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
@@ -41,6 +39,8 @@ public final class StatisticsLogParser {
 
   /**
    * Parses the given log file and returns a list of records contained in it.
+   * As all records are kept in memory, this method is not suitable for large
+   * log files; use {@link #parseLog(File, StatisticsRecordVisitor)} for these.
    *
    * @param inputFile The file to be parsed.
    * @return A list of records contained in the file.
@@ -49,18 +49,39 @@ public final class StatisticsLogParser {
    */
   public static List<StatisticsRecord> parseLog(File inputFile)
       throws FileNotFoundException, IOException {
+    final List<StatisticsRecord> result = new ArrayList<>();
+    parseLog(inputFile, new StatisticsRecordVisitor() {
+      @Override
+      public void visitRecord(StatisticsRecord record) {
+        result.add(record);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Parses the given log file and passes each record contained in it to the
+   * given visitor, without keeping the records in memory.
+   * Both text and binary log files are supported.
+   *
+   * @param inputFile The file to be parsed.
+   * @param visitor The visitor to pass the records to.
+   * @return The number of records contained in the file.
+   * @throws FileNotFoundException If the given file was not found.
+   * @throws IOException If there was a problem reading the file.
+   */
+  public static long parseLog(File inputFile, StatisticsRecordVisitor visitor)
+      throws FileNotFoundException, IOException {
     Objects.requireNonNull(inputFile, "inputFile is null");
+    Objects.requireNonNull(visitor, "visitor is null");
 
-    List<StatisticsRecord> result = new LinkedList<>();
-    try (BufferedReader inputReader =
-            new BufferedReader(new FileReader(inputFile))) {
-      String inputLine = inputReader.readLine();
-      while (inputLine != null) {
-        StatisticsRecord record = StatisticsRecord.parseRecord(inputLine);
-        if (record != null) {
-          result.add(record);
-        }
-        inputLine = inputReader.readLine();
+    long recordCount = 0;
+    try (StatisticsLogReader reader = new StatisticsLogReader(inputFile)) {
+      StatisticsRecord record = reader.read();
+      while (record != null) {
+        visitor.visitRecord(record);
+        recordCount++;
+        record = reader.read();
       }
     }
     catch (IOException exc) {
@@ -68,6 +89,6 @@ public final class StatisticsLogParser {
       throw exc;
     }
 
-    return result;
+    return recordCount;
   }
 }
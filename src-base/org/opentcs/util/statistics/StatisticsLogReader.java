@@ -0,0 +1,120 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Reads statistics records from a file one by one, detecting the file's
+ * format automatically.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class StatisticsLogReader
+    implements Closeable {
+
+  /**
+   * The size of the input buffer (in bytes).
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /**
+   * The format of the file read.
+   */
+  private final StatisticsLogFormat format;
+  /**
+   * The input stream for binary files.
+   */
+  private final DataInputStream binaryInput;
+  /**
+   * The decoder for binary files.
+   */
+  private final BinaryRecords.Decoder decoder;
+  /**
+   * The reader for text files.
+   */
+  private final BufferedReader textInput;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param inputFile The file to read records from.
+   * @throws IOException If the file could not be opened.
+   */
+  public StatisticsLogReader(File inputFile)
+      throws IOException {
+    Objects.requireNonNull(inputFile, "inputFile is null");
+    BufferedInputStream input = new BufferedInputStream(
+        new FileInputStream(inputFile), BUFFER_SIZE);
+    input.mark(1);
+    int firstByte = input.read();
+    input.reset();
+    if (firstByte == BinaryRecords.HEADER_MARKER) {
+      format = StatisticsLogFormat.BINARY;
+      binaryInput = new DataInputStream(input);
+      decoder = new BinaryRecords.Decoder();
+      textInput = null;
+    }
+    else {
+      format = StatisticsLogFormat.TEXT;
+      binaryInput = null;
+      decoder = null;
+      textInput = new BufferedReader(
+          new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Returns the format of the file read.
+   *
+   * @return The format of the file read.
+   */
+  public StatisticsLogFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return The next record, or <code>null</code>, if the end of the file has
+   * been reached.
+   * @throws IOException If there was a problem reading the file or if it
+   * contains invalid data.
+   */
+  public StatisticsRecord read()
+      throws IOException {
+    if (format == StatisticsLogFormat.BINARY) {
+      return decoder.read(binaryInput, binaryInput);
+    }
+    String inputLine = textInput.readLine();
+    while (inputLine != null && inputLine.isEmpty()) {
+      inputLine = textInput.readLine();
+    }
+    return inputLine == null ? null : StatisticsRecord.parseRecord(inputLine);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    if (format == StatisticsLogFormat.BINARY) {
+      binaryInput.close();
+    }
+    else {
+      textInput.close();
+    }
+  }
+}
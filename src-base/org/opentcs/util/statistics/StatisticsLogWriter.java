@@ -0,0 +1,250 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Writes statistics records to files, buffering them and optionally rotating
+ * the files by size and age.
+ * <p>
+ * Records are only guaranteed to be written to the file after
+ * {@link #flush()} or {@link #close()} have been called. Files to which no
+ * records have been written are removed when they are closed.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class StatisticsLogWriter
+    implements Closeable {
+
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(StatisticsLogWriter.class.getName());
+  /**
+   * The size of the output buffer (in bytes).
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /**
+   * The directory to create rotated files in, or <code>null</code>, if files
+   * are not rotated.
+   */
+  private final File directory;
+  /**
+   * The prefix of rotated files' names.
+   */
+  private final String baseName;
+  /**
+   * The format to write records in.
+   */
+  private final StatisticsLogFormat format;
+  /**
+   * The size (in bytes) at which a file is rotated.
+   */
+  private final long maxFileSize;
+  /**
+   * The age (in ms) at which a file is rotated.
+   */
+  private final long maxFileAge;
+  /**
+   * The encoder for the binary format.
+   */
+  private final BinaryRecords.Encoder encoder = new BinaryRecords.Encoder();
+  /**
+   * The file currently written to.
+   */
+  private File currentFile;
+  /**
+   * The output stream for the current file.
+   */
+  private DataOutputStream output;
+  /**
+   * The current file's size before it was opened.
+   */
+  private long initialFileSize;
+  /**
+   * The point of time at which the current file was opened.
+   */
+  private long openedTime;
+  /**
+   * The number of records written to the current file.
+   */
+  private long recordCount;
+
+  /**
+   * Creates a new instance appending records to the given file without
+   * rotating it.
+   *
+   * @param file The file to append records to.
+   * @param format The format to write records in.
+   * @throws IOException If the file could not be opened.
+   */
+  public StatisticsLogWriter(File file, StatisticsLogFormat format)
+      throws IOException {
+    Objects.requireNonNull(file, "file is null");
+    this.directory = null;
+    this.baseName = null;
+    this.format = Objects.requireNonNull(format, "format is null");
+    this.maxFileSize = 0;
+    this.maxFileAge = 0;
+    open(file);
+  }
+
+  /**
+   * Creates a new instance writing records to files in the given directory,
+   * starting a new file when the current one reaches the given size or age.
+   * The files are named after the given base name and the point of time they
+   * were created.
+   *
+   * @param directory The directory to create files in.
+   * @param baseName The prefix of the files' names.
+   * @param format The format to write records in.
+   * @param maxFileSize The size (in bytes) at which a file is rotated. Zero or
+   * less means no size limit.
+   * @param maxFileAge The age (in ms) at which a file is rotated. Zero or less
+   * means no age limit.
+   * @throws IOException If the first file could not be opened.
+   */
+  public StatisticsLogWriter(File directory,
+                             String baseName,
+                             StatisticsLogFormat format,
+                             long maxFileSize,
+                             long maxFileAge)
+      throws IOException {
+    this.directory = Objects.requireNonNull(directory, "directory is null");
+    this.baseName = Objects.requireNonNull(baseName, "baseName is null");
+    this.format = Objects.requireNonNull(format, "format is null");
+    this.maxFileSize = maxFileSize;
+    this.maxFileAge = maxFileAge;
+    open(nextFile());
+  }
+
+  /**
+   * Writes a record.
+   *
+   * @param record The record.
+   * @throws IOException If there was a problem writing the record.
+   */
+  public void write(StatisticsRecord record)
+      throws IOException {
+    Objects.requireNonNull(record, "record is null");
+    if (output == null) {
+      throw new IOException("Writer is closed");
+    }
+    rotateIfNecessary();
+    if (format == StatisticsLogFormat.BINARY) {
+      encoder.write(record, output);
+    }
+    else {
+      output.write(record.toString().getBytes(StandardCharsets.UTF_8));
+      output.write('\n');
+    }
+    recordCount++;
+  }
+
+  /**
+   * Writes all buffered records to the current file and rotates it if it
+   * reached its maximum age.
+   *
+   * @throws IOException If there was a problem writing the records.
+   */
+  public void flush()
+      throws IOException {
+    if (output == null) {
+      return;
+    }
+    output.flush();
+    rotateIfNecessary();
+  }
+
+  /**
+   * Returns the file currently written to.
+   *
+   * @return The file currently written to, or <code>null</code>, if this
+   * writer has been closed.
+   */
+  public File getCurrentFile() {
+    return currentFile;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    if (output == null) {
+      return;
+    }
+    closeCurrentFile();
+  }
+
+  private void rotateIfNecessary()
+      throws IOException {
+    if (directory == null || recordCount == 0) {
+      return;
+    }
+    long size = initialFileSize + output.size();
+    long age = System.currentTimeMillis() - openedTime;
+    if ((maxFileSize > 0 && size >= maxFileSize)
+        || (maxFileAge > 0 && age >= maxFileAge)) {
+      closeCurrentFile();
+      open(nextFile());
+    }
+  }
+
+  private void open(File file)
+      throws IOException {
+    initialFileSize = file.length();
+    output = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(file, true), BUFFER_SIZE));
+    currentFile = file;
+    openedTime = System.currentTimeMillis();
+    recordCount = 0;
+    if (format == StatisticsLogFormat.BINARY) {
+      encoder.writeHeader(output);
+    }
+    log.fine("Writing statistics records to " + file.getPath());
+  }
+
+  private void closeCurrentFile()
+      throws IOException {
+    try {
+      output.close();
+    }
+    finally {
+      output = null;
+      // If we did not write anything to the file, remove it again for the sake
+      // of a cleaner hard drive.
+      if (recordCount == 0 && initialFileSize == 0) {
+        currentFile.delete();
+      }
+      currentFile = null;
+    }
+  }
+
+  private File nextFile() {
+    String name = baseName + "-"
+        + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+    File file = new File(directory, name + format.getFileSuffix());
+    for (int i = 1; file.exists(); i++) {
+      file = new File(directory, name + "-" + i + format.getFileSuffix());
+    }
+    return file;
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+/**
+ * Receives statistics records while a log is being parsed.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ * @see StatisticsLogParser#parseLog(java.io.File, StatisticsRecordVisitor)
+ */
+public interface StatisticsRecordVisitor {
+
+  /**
+   * Called for each record in the log, in the order they appear in it.
+   *
+   * @param record The record.
+   */
+  void visitRecord(StatisticsRecord record);
+}
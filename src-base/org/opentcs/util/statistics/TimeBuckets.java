@@ -0,0 +1,130 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Sums up values over a rolling window of time, split into a fixed number of
+ * buckets of equal length.
+ * Values older than the window are dropped as their buckets are reused, so
+ * adding and summing up values takes constant time and memory.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+final class TimeBuckets {
+
+  /**
+   * The length of a bucket (in ms).
+   */
+  private final long bucketLength;
+  /**
+   * The index of the time slot each bucket currently holds, or -1, if it is
+   * unused.
+   */
+  private final long[] slotIndices;
+  /**
+   * The sum of values in each bucket.
+   */
+  private final long[] values;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param bucketLength The length of a bucket (in ms).
+   * @param bucketCount The number of buckets.
+   */
+  TimeBuckets(long bucketLength, int bucketCount) {
+    if (bucketLength < 1) {
+      throw new IllegalArgumentException("bucketLength < 1: " + bucketLength);
+    }
+    if (bucketCount < 1) {
+      throw new IllegalArgumentException("bucketCount < 1: " + bucketCount);
+    }
+    this.bucketLength = bucketLength;
+    this.slotIndices = new long[bucketCount];
+    this.values = new long[bucketCount];
+    clear();
+  }
+
+  /**
+   * Adds a value at the given point of time.
+   *
+   * @param timestamp The point of time.
+   * @param amount The value.
+   */
+  void add(long timestamp, long amount) {
+    long slotIndex = timestamp / bucketLength;
+    int bucket = (int) (slotIndex % values.length);
+    if (slotIndices[bucket] > slotIndex) {
+      // Too old, the bucket holds a more recent slot already.
+      return;
+    }
+    if (slotIndices[bucket] < slotIndex) {
+      slotIndices[bucket] = slotIndex;
+      values[bucket] = 0;
+    }
+    values[bucket] += amount;
+  }
+
+  /**
+   * Adds the duration of the given interval, split up across the buckets it
+   * overlaps.
+   *
+   * @param start The interval's start time.
+   * @param end The interval's end time.
+   */
+  void addInterval(long start, long end) {
+    // Parts older than the window would be dropped anyway.
+    long time = Math.max(start, end - bucketLength * values.length);
+    while (time < end) {
+      long bucketEnd = (time / bucketLength + 1) * bucketLength;
+      long partEnd = Math.min(end, bucketEnd);
+      add(time, partEnd - time);
+      time = partEnd;
+    }
+  }
+
+  /**
+   * Returns the sum of the values in the window ending at the given point of
+   * time.
+   *
+   * @param now The end of the window.
+   * @return The sum of the values.
+   */
+  long sum(long now) {
+    long minSlotIndex = getWindowStart(now) / bucketLength;
+    long maxSlotIndex = now / bucketLength;
+    long result = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (slotIndices[i] >= minSlotIndex && slotIndices[i] <= maxSlotIndex) {
+        result += values[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the start of the window ending at the given point of time.
+   *
+   * @param now The end of the window.
+   * @return The start of the window.
+   */
+  long getWindowStart(long now) {
+    return (now / bucketLength - values.length + 1) * bucketLength;
+  }
+
+  /**
+   * Removes all values.
+   */
+  void clear() {
+    Arrays.fill(slotIndices, -1);
+    Arrays.fill(values, 0);
+  }
+}
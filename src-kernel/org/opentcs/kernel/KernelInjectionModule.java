@@ -38,7 +38,9 @@ import org.opentcs.util.eventsystem.EventListener;
 import org.opentcs.util.eventsystem.EventSource;
 import org.opentcs.util.eventsystem.SynchronousEventHub;
 import org.opentcs.util.eventsystem.TCSEvent;
+import org.opentcs.util.statistics.StatisticsAggregator;
 import org.opentcs.util.statistics.StatisticsCollector;
+import org.opentcs.util.statistics.StatisticsLogFormat;
 
 /**
  * A Guice module for the openTCS kernel application.
@@ -144,6 +146,38 @@ public class KernelInjectionModule
                                    KernelExtension.Operating.class);
     install(new XMLOrderInjectionModule());
     operatingExtBinder.addBinding().to(StatisticsCollector.class);
+    configureStatisticsCollector();
+  }
+
+  private void configureStatisticsCollector() {
+    ConfigurationStore statisticsConfigStore
+        = ConfigurationStore.getStore(StatisticsCollector.class.getName());
+    String configuredLogFormat = statisticsConfigStore.getEnum(
+        "logFormat", "TEXT", StatisticsLogFormat.class);
+    StatisticsLogFormat logFormat;
+    try {
+      logFormat = StatisticsLogFormat.valueOf(configuredLogFormat);
+    }
+    catch (IllegalArgumentException exc) {
+      log.log(Level.WARNING, "Illegal statistics log format, using TEXT", exc);
+      logFormat = StatisticsLogFormat.TEXT;
+    }
+    bindConstant()
+        .annotatedWith(StatisticsCollector.LogFormat.class)
+        .to(logFormat.name());
+    bindConstant()
+        .annotatedWith(StatisticsCollector.MaxFileSize.class)
+        .to(statisticsConfigStore.getLong("maxFileSize", 64 * 1024 * 1024));
+    bindConstant()
+        .annotatedWith(StatisticsCollector.MaxFileAge.class)
+        .to(statisticsConfigStore.getLong("maxFileAge", 24 * 60 * 60 * 1000));
+    bindConstant()
+        .annotatedWith(StatisticsAggregator.WindowLength.class)
+        .to(statisticsConfigStore.getLong("aggregationWindow", 60 * 60 * 1000));
+    bindConstant()
+        .annotatedWith(StatisticsAggregator.BucketCount.class)
+        .to(statisticsConfigStore.getInt("aggregationBuckets", 60));
+    bind(StatisticsAggregator.class).in(Singleton.class);
   }
 
   private void configureOrderCleanerTask() {
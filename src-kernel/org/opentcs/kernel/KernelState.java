@@ -23,6 +23,7 @@ import org.opentcs.access.ConfigurationItemTO;
 import org.opentcs.access.Kernel.State;
 import org.opentcs.access.TravelCosts;
 import org.opentcs.access.UnsupportedKernelOpException;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.access.queries.Queries;
 import org.opentcs.access.queries.Query;
 import org.opentcs.access.queries.QueryTopologyInfo;
@@ -242,6 +243,12 @@ abstract class KernelState {
     }
   }
 
+  public List<Message> getMessages(long minTimestamp) {
+    synchronized (globalSyncObject) {
+      return messageBuffer.getMessages(minTimestamp);
+    }
+  }
+
   public VisualLayout createVisualLayout() {
     throw new UnsupportedKernelOpException(unsupportedMsg());
   }
@@ -454,6 +461,12 @@ abstract class KernelState {
     throw new UnsupportedKernelOpException(unsupportedMsg());
   }
 
+  public Vehicle updateVehicle(TCSObjectReference<Vehicle> vehicleRef,
+                               VehicleUpdate update)
+      throws ObjectUnknownException {
+    throw new UnsupportedKernelOpException(unsupportedMsg());
+  }
+
   public LocationType createLocationType() {
     throw new UnsupportedKernelOpException(unsupportedMsg());
   }
@@ -16,25 +16,31 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import javax.inject.Inject;
 import org.opentcs.access.Kernel;
 import org.opentcs.access.TravelCosts;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.access.queries.Query;
 import org.opentcs.access.queries.QueryAvailableScriptFiles;
 import org.opentcs.access.queries.QueryRecoveryStatus;
 import org.opentcs.access.queries.QueryRoutingInfo;
 import org.opentcs.access.queries.QuerySchedulerAllocations;
+import org.opentcs.access.queries.QueryStatistics;
 import org.opentcs.algorithms.Dispatcher;
 import org.opentcs.algorithms.KernelExtension;
 import org.opentcs.algorithms.RecoveryEvaluator;
 import org.opentcs.algorithms.Router;
 import org.opentcs.algorithms.Scheduler;
+import org.opentcs.data.ObjectExistsException;
 import org.opentcs.data.ObjectUnknownException;
 import org.opentcs.data.TCSObject;
 import org.opentcs.data.TCSObjectReference;
@@ -55,12 +61,15 @@ import org.opentcs.drivers.LoadHandlingDevice;
 import org.opentcs.drivers.VehicleController;
 import org.opentcs.drivers.VehicleControllerPool;
 import org.opentcs.drivers.VehicleManagerPool;
+import org.opentcs.kernel.persistence.JournaledOrder;
+import org.opentcs.kernel.persistence.TransportOrderJournal;
 import org.opentcs.kernel.vehicles.StandardVehicleManagerPool;
 import org.opentcs.kernel.workingset.MessageBuffer;
 import org.opentcs.kernel.workingset.Model;
 import org.opentcs.kernel.workingset.TCSObjectPool;
 import org.opentcs.kernel.workingset.TransportOrderPool;
 import org.opentcs.kernel.xmlorders.ScriptFileManager;
+import org.opentcs.util.statistics.StatisticsAggregator;
 
 /**
  * This class implements the standard openTCS kernel in normal operation.
@@ -111,6 +120,14 @@ class KernelStateOperating
    * A task for periodically getting rid of old orders.
    */
   private final OrderCleanerTask orderCleanerTask;
+  /**
+   * The journal recording the live transport orders.
+   */
+  private final TransportOrderJournal orderJournal;
+  /**
+   * The aggregator for live statistics.
+   */
+  private final StatisticsAggregator statisticsAggregator;
   /**
    * This kernel state's local extensions.
    */
@@ -129,6 +146,8 @@ class KernelStateOperating
    * @param saveModelOnTerminate Whether to save the model when this state is
    * terminated.
    * @param recoveryEvaluator The recovery evaluator to be used.
+   * @param orderJournal The journal recording the live transport orders.
+   * @param statisticsAggregator The aggregator for live statistics.
    */
   @Inject
   KernelStateOperating(StandardKernel kernel,
@@ -146,6 +165,8 @@ class KernelStateOperating
                        CommunicationAdapterRegistry commAdapterRegistry,
                        ScriptFileManager scriptFileManager,
                        OrderCleanerTask orderCleanerTask,
+                       TransportOrderJournal orderJournal,
+                       StatisticsAggregator statisticsAggregator,
                        @KernelExtension.Operating Set<KernelExtension> extensions) {
     super(kernel, globalSyncObject, objectPool, model, messageBuffer,
           saveModelOnTerminate);
@@ -161,6 +182,9 @@ class KernelStateOperating
     this.commAdapterRegistry = requireNonNull(commAdapterRegistry,
                                               "commAdapterRegistry");
     this.orderCleanerTask = requireNonNull(orderCleanerTask, "orderCleanerTask");
+    this.orderJournal = requireNonNull(orderJournal, "orderJournal");
+    this.statisticsAggregator = requireNonNull(statisticsAggregator,
+                                               "statisticsAggregator");
     this.extensions = requireNonNull(extensions, "extensions");
   }
 
@@ -185,8 +209,26 @@ class KernelStateOperating
     }
     // (Re-)initialize the router.
     router.updateRoutingTables();
+    // Restore the transport orders of a previous run that was not terminated
+    // regularly and start journaling.
+    List<TCSObjectReference<TransportOrder>> restoredOrders;
+    synchronized (globalSyncObject) {
+      restoredOrders = restoreTransportOrders(orderJournal.recover());
+      orderJournal.start(orderPool.getTransportOrders((Pattern) null));
+    }
     // Initialize the dispatcher.
     dispatcher.initialize();
+    // Activate restored orders that had been activated before.
+    for (TCSObjectReference<TransportOrder> orderRef : restoredOrders) {
+      try {
+        activateTransportOrder(orderRef);
+      }
+      catch (ObjectUnknownException | IllegalArgumentException exc) {
+        log.log(Level.WARNING,
+                "Could not activate restored order " + orderRef.getName(),
+                exc);
+      }
+    }
 
     // Start a task for cleaning up orders regularly.
     Thread cleanerThread = new Thread(orderCleanerTask, "orderCleaner");
@@ -233,7 +275,9 @@ class KernelStateOperating
       setVehicleOrderSequence(curVehicle.getReference(), null);
     }
 
-    // Remove all orders and order sequences from the pool.
+    // Remove all orders and order sequences from the pool. As they are
+    // discarded regularly, they do not need to be recovered, either.
+    orderJournal.stop();
     orderPool.clear();
 
     initialized = false;
@@ -246,6 +290,124 @@ class KernelStateOperating
     return Kernel.State.OPERATING;
   }
 
+  /**
+   * Re-creates the given journaled transport orders in the order pool.
+   * Orders referring to locations or points that do not exist in the current
+   * model are skipped, as are references to vehicles or other orders that do
+   * not exist. The restored orders are left in state RAW. Orders that had been
+   * processed by a vehicle are not assigned to it again but dispatched anew
+   * after their activation, starting with their unfinished drive orders.
+   *
+   * @param journaledOrders The journaled transport orders.
+   * @return References to the restored orders that had been activated before
+   * and should be activated again.
+   */
+  private List<TCSObjectReference<TransportOrder>> restoreTransportOrders(
+      List<JournaledOrder> journaledOrders) {
+    List<TCSObjectReference<TransportOrder>> result = new LinkedList<>();
+    Map<JournaledOrder, TransportOrder> restored = new HashMap<>();
+    for (JournaledOrder jOrder : journaledOrders) {
+      List<Destination> destinations = new ArrayList<>();
+      for (JournaledOrder.Destination jDest : jOrder.getDestinations()) {
+        TCSObjectReference<Location> destRef
+            = resolveDestination(jDest.getLocation());
+        if (destRef == null) {
+          break;
+        }
+        destinations.add(new Destination(destRef,
+                                         jDest.getOperation(),
+                                         jDest.getProperties()));
+      }
+      if (destinations.isEmpty()
+          || destinations.size() != jOrder.getDestinations().size()) {
+        log.warning("Not restoring transport order " + jOrder.getName()
+            + ": unknown destination location or point");
+        continue;
+      }
+      TransportOrder order = orderPool.createTransportOrder(destinations);
+      try {
+        if (globalObjectPool.getObject(jOrder.getName()) == null) {
+          globalObjectPool.renameObject(order.getReference(), jOrder.getName());
+        }
+        else {
+          log.warning("Name of transport order " + jOrder.getName()
+              + " already taken, restored as " + order.getName());
+        }
+        orderPool.setTransportOrderDeadline(order.getReference(),
+                                            jOrder.getDeadline());
+        orderPool.setTransportOrderDispensable(order.getReference(),
+                                               jOrder.isDispensable());
+        if (jOrder.getIntendedVehicle() != null) {
+          Vehicle vehicle = globalObjectPool.getObject(
+              Vehicle.class, jOrder.getIntendedVehicle());
+          if (vehicle != null) {
+            orderPool.setTransportOrderIntendedVehicle(order.getReference(),
+                                                       vehicle.getReference());
+          }
+        }
+        for (Map.Entry<String, String> entry
+                 : jOrder.getProperties().entrySet()) {
+          globalObjectPool.setObjectProperty(order.getReference(),
+                                             entry.getKey(),
+                                             entry.getValue());
+        }
+      }
+      catch (ObjectUnknownException | ObjectExistsException exc) {
+        throw new IllegalStateException("Unexpected exception", exc);
+      }
+      restored.put(jOrder, orderPool.getTransportOrder(order.getReference()));
+    }
+    // Restore dependencies after all orders exist. Dependencies on orders that
+    // do not exist any more had been fulfilled.
+    for (Map.Entry<JournaledOrder, TransportOrder> entry : restored.entrySet()) {
+      for (String depName : entry.getKey().getDependencies()) {
+        TransportOrder dep = orderPool.getTransportOrder(depName);
+        if (dep != null) {
+          try {
+            orderPool.addTransportOrderDependency(
+                entry.getValue().getReference(), dep.getReference());
+          }
+          catch (ObjectUnknownException exc) {
+            throw new IllegalStateException("Unexpected exception", exc);
+          }
+        }
+      }
+    }
+    for (JournaledOrder jOrder : journaledOrders) {
+      TransportOrder order = restored.get(jOrder);
+      if (order != null && !jOrder.getState().equals(TransportOrder.State.RAW)) {
+        result.add(order.getReference());
+      }
+    }
+    if (!journaledOrders.isEmpty()) {
+      log.info("Restored " + restored.size() + " of " + journaledOrders.size()
+          + " journaled transport orders");
+    }
+    return result;
+  }
+
+  /**
+   * Resolves the name of a journaled destination.
+   * Destinations are usually locations, but may also be points wrapped in
+   * dummy location references, e.g. for parking orders.
+   *
+   * @param name The name of the destination.
+   * @return A reference to the destination location, a dummy reference for the
+   * destination point, or <code>null</code>, if neither exists.
+   */
+  private TCSObjectReference<Location> resolveDestination(String name) {
+    Location location = globalObjectPool.getObject(Location.class, name);
+    if (location != null) {
+      return location.getReference();
+    }
+    Point point = globalObjectPool.getObject(Point.class, name);
+    if (point != null) {
+      return TCSObjectReference.getDummyReference(Location.class,
+                                                  point.getName());
+    }
+    return null;
+  }
+
   @Override
   public void removeTCSObject(TCSObjectReference<?> ref)
       throws ObjectUnknownException {
@@ -469,6 +631,15 @@ class KernelStateOperating
     }
   }
 
+  @Override
+  public Vehicle updateVehicle(TCSObjectReference<Vehicle> vehicleRef,
+                               VehicleUpdate update)
+      throws ObjectUnknownException {
+    synchronized (globalSyncObject) {
+      return model.updateVehicle(vehicleRef, update).clone();
+    }
+  }
+
   @Override
   public TransportOrder createTransportOrder(List<Destination> destinations) {
     synchronized (globalSyncObject) {
@@ -868,6 +1039,10 @@ class KernelStateOperating
       return clazz.cast(
           new QuerySchedulerAllocations(scheduler.getAllocations()));
     }
+    else if (QueryStatistics.class.equals(clazz)) {
+      return clazz.cast(
+          statisticsAggregator.getStatistics(System.currentTimeMillis()));
+    }
     else {
       return super.query(clazz);
     }
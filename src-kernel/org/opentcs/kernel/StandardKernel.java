@@ -31,6 +31,7 @@ import org.opentcs.access.TCSKernelStateEvent;
 import org.opentcs.access.TCSModelTransitionEvent;
 import org.opentcs.access.TravelCosts;
 import org.opentcs.access.UnsupportedKernelOpException;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.access.queries.Query;
 import org.opentcs.algorithms.KernelExtension;
 import org.opentcs.algorithms.Scheduler;
@@ -456,6 +457,12 @@ final class StandardKernel
     return kernelState.publishMessage(message, type);
   }
 
+  @Override
+  public List<Message> getMessages(long minTimestamp) {
+    log.finer("method entry");
+    return kernelState.getMessages(minTimestamp);
+  }
+
   @Override
   public VisualLayout createVisualLayout()
       throws CredentialsException {
@@ -724,6 +731,14 @@ final class StandardKernel
     kernelState.setVehicleRouteProgressIndex(vehicleRef, index);
   }
 
+  @Override
+  public Vehicle updateVehicle(TCSObjectReference<Vehicle> vehicleRef,
+                               VehicleUpdate update)
+      throws ObjectUnknownException {
+    log.finer("method entry");
+    return kernelState.updateVehicle(vehicleRef, update);
+  }
+
   @Override
   public LocationType createLocationType() {
     log.finer("method entry");
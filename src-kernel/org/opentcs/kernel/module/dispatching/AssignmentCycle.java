@@ -0,0 +1,23 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+/**
+ * Marks a point in the dispatcher's queue at which orders and vehicles
+ * collected so far are to be assigned to each other.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+enum AssignmentCycle {
+
+  /**
+   * The single instance of this marker.
+   */
+  INSTANCE
+}
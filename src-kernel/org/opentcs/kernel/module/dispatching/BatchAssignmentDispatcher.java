@@ -0,0 +1,426 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.inject.Inject;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.algorithms.ParkingStrategy;
+import org.opentcs.algorithms.RechargeStrategy;
+import org.opentcs.algorithms.Router;
+import org.opentcs.algorithms.Scheduler;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.OrderSequence;
+import org.opentcs.data.order.Rejection;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * A dispatcher that assigns transport orders to idle vehicles in batches.
+ * <p>
+ * Instead of letting each order pick the cheapest vehicle or each idle vehicle
+ * pick the first processable order, this dispatcher collects dispatchable
+ * orders and idle vehicles and assigns them in a dispatch cycle. A cycle
+ * builds a matrix of the costs for each vehicle to reach each order's first
+ * destination (via {@link Router#getCostsByPointRef(Vehicle,
+ * TCSObjectReference, TCSObjectReference)}) and solves the assignment
+ * globally with the Hungarian method within a configurable time budget.
+ * Complete routes are computed only for the chosen combinations.
+ * </p>
+ * <p>
+ * Vehicles processing an order sequence, vehicles with a reserved order and
+ * vehicles that need to recharge are dispatched immediately, like the
+ * {@link OrderSequenceDispatcher} does. Orders that could not be assigned to
+ * an idle vehicle in a cycle are dispatched the same way, too, so they may
+ * still replace dispensable orders of other vehicles.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class BatchAssignmentDispatcher
+    extends OrderSequenceDispatcher {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(BatchAssignmentDispatcher.class.getName());
+  /**
+   * The maximum time (in ms) to spend on solving the assignment problem.
+   */
+  private final long solverTimeBudget;
+  /**
+   * The idle vehicles dispatched since the last cycle.
+   * Only accessed by the dispatcher thread.
+   */
+  private final Set<TCSObjectReference<Vehicle>> pendingVehicles
+      = new LinkedHashSet<>();
+  /**
+   * The orders dispatched since the last cycle.
+   * Only accessed by the dispatcher thread.
+   */
+  private final Set<TCSObjectReference<TransportOrder>> pendingOrders
+      = new LinkedHashSet<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param router The <code>Router</code> instance calculating route costs.
+   * @param scheduler The <code>Scheduler</code> instance managing resources.
+   * @param kernel The local kernel instance.
+   * @param parkingStrategy The strategy used for finding suitable parking
+   * positions.
+   * @param rechargeStrategy The strategy used for finding suitable recharge
+   * locations.
+   * @param parkIdleVehicles Whether to park vehicles that have finished their
+   * order and for which a new order is not available.
+   * @param rechargeVehiclesWhenIdle Whether to automatically create recharge
+   * orders for vehicles that do not have an order.
+   * @param rechargeVehiclesWhenEnergyCritical Whether to automatically create
+   * recharge orders for vehicles whose energy level is critical.
+   * @param evaluationThreads The number of threads to compute routes for
+   * candidate vehicles/orders with.
+   * @param solverTimeBudget The maximum time (in ms) to spend on solving the
+   * assignment problem in a cycle.
+   */
+  @Inject
+  public BatchAssignmentDispatcher(Router router,
+                                   Scheduler scheduler,
+                                   LocalKernel kernel,
+                                   ParkingStrategy parkingStrategy,
+                                   RechargeStrategy rechargeStrategy,
+                                   @ParkWhenIdle boolean parkIdleVehicles,
+                                   @RechargeWhenIdle boolean rechargeVehiclesWhenIdle,
+                                   @RechargeWhenEnergyCritical boolean rechargeVehiclesWhenEnergyCritical,
+                                   @EvaluationThreads int evaluationThreads,
+                                   @SolverTimeBudget long solverTimeBudget) {
+    super(router,
+          scheduler,
+          kernel,
+          parkingStrategy,
+          rechargeStrategy,
+          parkIdleVehicles,
+          rechargeVehiclesWhenIdle,
+          rechargeVehiclesWhenEnergyCritical,
+          evaluationThreads);
+    this.solverTimeBudget = solverTimeBudget;
+  }
+
+  @Override
+  void dispatchIdleVehicle(Vehicle vehicle) {
+    assert vehicle != null;
+
+    if (vehicle.getOrderSequence() != null
+        || hasOrderReservation(vehicle.getReference())
+        || (isRechargeVehiclesWhenEnergyCritical()
+            && vehicle.isEnergyLevelCritical())) {
+      super.dispatchIdleVehicle(vehicle);
+      return;
+    }
+    pendingVehicles.add(vehicle.getReference());
+    scheduleAssignmentCycle();
+  }
+
+  @Override
+  void dispatchOrder(TransportOrder order) {
+    assert order != null;
+
+    pendingOrders.add(order.getReference());
+    scheduleAssignmentCycle();
+  }
+
+  @Override
+  void performAssignmentCycle() {
+    LocalKernel kernel = getKernel();
+    final long startTime = System.nanoTime();
+    Set<OrderSequence> sequences = kernel.getTCSObjects(OrderSequence.class);
+    List<Vehicle> vehicles = getBatchVehicles();
+    List<TransportOrder> orders = getBatchOrders(sequences);
+    Set<TCSObjectReference<Vehicle>> assignedVehicles = new HashSet<>();
+
+    if (!vehicles.isEmpty() && !orders.isEmpty()) {
+      long[][] costs = computeCosts(vehicles, orders, sequences);
+      int[] solution = HungarianSolver.solve(
+          costs,
+          startTime + TimeUnit.MILLISECONDS.toNanos(solverTimeBudget));
+      for (int i = 0; i < solution.length; i++) {
+        if (solution[i] == HungarianSolver.UNASSIGNED) {
+          continue;
+        }
+        Vehicle vehicle = vehicles.get(i);
+        TransportOrder order = orders.get(solution[i]);
+        if (assignIfPossible(vehicle, order)) {
+          assignedVehicles.add(vehicle.getReference());
+          pendingOrders.remove(order.getReference());
+        }
+      }
+      log.fine("Assignment cycle for " + vehicles.size() + " vehicles and "
+          + orders.size() + " orders took "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+          + " ms, assigned " + assignedVehicles.size() + " orders");
+    }
+
+    // Let pending vehicles that did not receive an order in this cycle choose
+    // from what is left, or have them parked/recharged.
+    Set<TCSObjectReference<Vehicle>> vehicleRefs
+        = new LinkedHashSet<>(pendingVehicles);
+    pendingVehicles.clear();
+    for (TCSObjectReference<Vehicle> vehicleRef : vehicleRefs) {
+      Vehicle vehicle = kernel.getTCSObject(Vehicle.class, vehicleRef);
+      if (!assignedVehicles.contains(vehicleRef)
+          && vehicleDispatchable(vehicle)
+          && vehicle.hasProcState(Vehicle.ProcState.IDLE)) {
+        super.dispatchIdleVehicle(vehicle);
+      }
+    }
+    // Let pending orders that were not assigned look for vehicles that are not
+    // idle but could abandon a dispensable order.
+    Set<TCSObjectReference<TransportOrder>> orderRefs
+        = new LinkedHashSet<>(pendingOrders);
+    pendingOrders.clear();
+    for (TCSObjectReference<TransportOrder> orderRef : orderRefs) {
+      TransportOrder order = kernel.getTCSObject(TransportOrder.class, orderRef);
+      if (order != null
+          && order.hasState(TransportOrder.State.DISPATCHABLE)
+          && !isOrderReserved(orderRef)) {
+        super.dispatchOrder(order);
+      }
+    }
+  }
+
+  /**
+   * Returns all idle vehicles that take part in the assignment cycle.
+   *
+   * @return All idle vehicles that take part in the assignment cycle.
+   */
+  private List<Vehicle> getBatchVehicles() {
+    LocalKernel kernel = getKernel();
+    List<Vehicle> result = new ArrayList<>();
+    for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
+      if (vehicleDispatchable(curVehicle)
+          && curVehicle.hasProcState(Vehicle.ProcState.IDLE)
+          && availableForTransportOrder(curVehicle)
+          && curVehicle.getOrderSequence() == null
+          && !hasOrderReservation(curVehicle.getReference())
+          && !(isRechargeVehiclesWhenEnergyCritical()
+               && curVehicle.isEnergyLevelCritical())) {
+        result.add(curVehicle);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns all orders that take part in the assignment cycle.
+   *
+   * @param sequences All existing order sequences.
+   * @return All orders that take part in the assignment cycle.
+   */
+  private List<TransportOrder> getBatchOrders(Set<OrderSequence> sequences) {
+    LocalKernel kernel = getKernel();
+    Map<TCSObjectReference<OrderSequence>, OrderSequence> seqsByRef
+        = mapSequences(sequences);
+    List<TransportOrder> result = new ArrayList<>();
+    for (TransportOrder curOrder : kernel.getTCSObjects(TransportOrder.class)) {
+      if (!curOrder.hasState(TransportOrder.State.DISPATCHABLE)
+          || isOrderReserved(curOrder.getReference())) {
+        continue;
+      }
+      // Orders of sequences already being processed are left to the vehicle
+      // processing the sequence.
+      OrderSequence seq = seqsByRef.get(curOrder.getWrappingSequence());
+      if (seq != null && seq.getProcessingVehicle() != null) {
+        continue;
+      }
+      result.add(curOrder);
+    }
+    Collections.sort(result, TransportOrder.ageComparator);
+    return result;
+  }
+
+  /**
+   * Computes the cost matrix for the given vehicles and orders.
+   * The costs for a combination are the costs for the vehicle to travel to the
+   * order's first destination. Combinations of vehicles and orders which are
+   * not eligible for each other are marked as infeasible.
+   *
+   * @param vehicles The vehicles.
+   * @param orders The orders.
+   * @param sequences All existing order sequences.
+   * @return The cost matrix, indexed by vehicle and order.
+   */
+  private long[][] computeCosts(List<Vehicle> vehicles,
+                                List<TransportOrder> orders,
+                                Set<OrderSequence> sequences) {
+    Router router = getRouter();
+    Map<TCSObjectReference<OrderSequence>, OrderSequence> seqsByRef
+        = mapSequences(sequences);
+    Set<TransportOrder> orderSet = new HashSet<>(orders);
+    List<Set<TCSObjectReference<Point>>> destPoints
+        = new ArrayList<>(orders.size());
+    for (TransportOrder curOrder : orders) {
+      destPoints.add(getFirstDestinationPoints(curOrder));
+    }
+
+    long[][] result = new long[vehicles.size()][orders.size()];
+    for (int i = 0; i < vehicles.size(); i++) {
+      Vehicle vehicle = vehicles.get(i);
+      Set<TransportOrder> eligible
+          = Assignments.getOrdersForVehicle(orderSet, vehicle);
+      for (int j = 0; j < orders.size(); j++) {
+        TransportOrder order = orders.get(j);
+        result[i][j] = HungarianSolver.INFEASIBLE;
+        if (!eligible.contains(order)
+            || !sequenceAllows(seqsByRef.get(order.getWrappingSequence()),
+                               vehicle)) {
+          continue;
+        }
+        for (TCSObjectReference<Point> destPoint : destPoints.get(j)) {
+          long costs = router.getCostsByPointRef(vehicle,
+                                                 vehicle.getCurrentPosition(),
+                                                 destPoint);
+          result[i][j] = Math.min(result[i][j], costs);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes a route for the given vehicle and order and assigns the order if
+   * the vehicle can process it.
+   *
+   * @param vehicle The vehicle.
+   * @param order The order.
+   * @return <code>true</code> if, and only if, the order was assigned.
+   */
+  private boolean assignIfPossible(Vehicle vehicle, TransportOrder order) {
+    LocalKernel kernel = getKernel();
+    Router router = getRouter();
+    Point position = kernel.getTCSObject(Point.class,
+                                         vehicle.getCurrentPosition());
+    List<DriveOrder> driveOrders = router.getRoute(vehicle, position, order);
+    if (driveOrders == null) {
+      log.fine(vehicle.getName() + ": No route for order " + order);
+      kernel.addTransportOrderRejection(
+          order.getReference(),
+          new Rejection(vehicle.getReference(), "Unroutable"));
+      return false;
+    }
+    // Leave vehicles that should be recharged first to the greedy assignment,
+    // which takes care of recharging them.
+    if (rechargePreferred(vehicle, driveOrders)) {
+      log.fine(vehicle.getName() + ": Should be recharged before processing "
+          + order.getName());
+      return false;
+    }
+    if (!checkProcessability(vehicle, order)) {
+      return false;
+    }
+    log.fine(vehicle.getName() + ": Selected transport order "
+        + order.getName() + " in assignment cycle");
+    removeFromQueue(vehicle);
+    assignTransportOrder(vehicle, order, driveOrders);
+    return true;
+  }
+
+  /**
+   * Returns the points at which the given order's first drive order could
+   * be started.
+   *
+   * @param order The order.
+   * @return The points at which the given order's first drive order could be
+   * started.
+   */
+  private Set<TCSObjectReference<Point>> getFirstDestinationPoints(
+      TransportOrder order) {
+    LocalKernel kernel = getKernel();
+    Set<TCSObjectReference<Point>> result = new HashSet<>();
+    List<DriveOrder> driveOrders = order.getFutureDriveOrders();
+    if (driveOrders.isEmpty()) {
+      return result;
+    }
+    TCSObjectReference<Location> locRef
+        = driveOrders.get(0).getDestination().getLocation();
+    if (locRef.isDummy()) {
+      Point point = kernel.getTCSObject(Point.class, locRef.getName());
+      if (point != null) {
+        result.add(point.getReference());
+      }
+      return result;
+    }
+    Location location = kernel.getTCSObject(Location.class, locRef);
+    if (location != null) {
+      for (Location.Link curLink : location.getAttachedLinks()) {
+        result.add(curLink.getPoint());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the given order sequence may be processed by the given
+   * vehicle.
+   *
+   * @param seq The order sequence, or <code>null</code>.
+   * @param vehicle The vehicle.
+   * @return <code>true</code> if, and only if, the sequence is
+   * <code>null</code> or not intended for another vehicle.
+   */
+  private static boolean sequenceAllows(OrderSequence seq, Vehicle vehicle) {
+    return seq == null
+        || seq.getIntendedVehicle() == null
+        || Objects.equals(seq.getIntendedVehicle(), vehicle.getReference());
+  }
+
+  /**
+   * Maps the given order sequences by their references.
+   *
+   * @param sequences The order sequences.
+   * @return The order sequences mapped by their references.
+   */
+  private static Map<TCSObjectReference<OrderSequence>, OrderSequence> mapSequences(
+      Set<OrderSequence> sequences) {
+    Map<TCSObjectReference<OrderSequence>, OrderSequence> result
+        = new HashMap<>();
+    for (OrderSequence curSeq : sequences) {
+      result.put(curSeq.getReference(), curSeq);
+    }
+    return result;
+  }
+
+  /**
+   * Annotation type for injecting the time budget for solving the assignment
+   * problem.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface SolverTimeBudget {
+    // Nothing here.
+  }
+}
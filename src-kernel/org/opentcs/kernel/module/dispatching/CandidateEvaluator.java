@@ -0,0 +1,294 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+import java.util.ArrayList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.opentcs.algorithms.Router;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Computes route costs for vehicle/order combinations the dispatcher is
+ * considering.
+ * <p>
+ * Only the costs are computed (and cached, see {@link RouteCostCache}) here;
+ * the actual route is left to be computed for the winning candidate.
+ * Candidates are thus ranked by the costs from the router's routing tables,
+ * without penalties for congestion or reservations of other vehicles, which
+ * the router only applies to the winning candidate's route. This keeps the
+ * costs valid until the routing tables are updated and lets them be computed
+ * without holding the router's lock.
+ * </p>
+ * <p>
+ * If configured with more than one thread, candidates are evaluated in parallel
+ * on a bounded worker pool. The workers only ask the router with the
+ * (cloned) vehicle, position and order given in the candidate, i.e. they work
+ * on the snapshot taken by the dispatcher thread and never modify any kernel
+ * state. Checking processability and committing the assignment is left to the
+ * dispatcher thread.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class CandidateEvaluator {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(CandidateEvaluator.class.getName());
+  /**
+   * The number of candidates handed to each worker thread per batch when
+   * looking for the first acceptable candidate.
+   */
+  private static final int CANDIDATES_PER_THREAD = 2;
+  /**
+   * The cache providing route costs for candidates.
+   */
+  private final RouteCostCache costCache;
+  /**
+   * The number of threads to evaluate candidates with.
+   */
+  private final int threadCount;
+  /**
+   * The executor running evaluation tasks, or <code>null</code>, if candidates
+   * are evaluated in the calling thread.
+   */
+  private ExecutorService executor;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param router The router computing route costs for candidates.
+   * @param cacheSize The maximum number of route costs to be cached.
+   * @param threadCount The number of threads to evaluate candidates with. If
+   * this is less than 2, all candidates are evaluated in the calling thread.
+   */
+  CandidateEvaluator(Router router, int cacheSize, int threadCount) {
+    this.costCache = new RouteCostCache(requireNonNull(router, "router"),
+                                        cacheSize);
+    this.threadCount = Math.max(1, threadCount);
+  }
+
+  /**
+   * Initializes this evaluator, starting the worker pool if required.
+   */
+  public void initialize() {
+    if (threadCount > 1 && executor == null) {
+      log.fine("Evaluating dispatch candidates with " + threadCount
+          + " threads");
+      executor = Executors.newFixedThreadPool(threadCount,
+                                              new WorkerThreadFactory());
+    }
+  }
+
+  /**
+   * Terminates this evaluator, shutting down the worker pool.
+   */
+  public void terminate() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    costCache.clear();
+  }
+
+  /**
+   * Returns the number of candidates that should be evaluated in one call when
+   * looking for the first acceptable one in an ordered list of candidates.
+   *
+   * @return The number of candidates to be evaluated in one batch.
+   */
+  public int getBatchSize() {
+    return executor == null ? 1 : threadCount * CANDIDATES_PER_THREAD;
+  }
+
+  /**
+   * Computes route costs for all of the given candidates.
+   * Returns when all candidates have been evaluated.
+   *
+   * @param candidates The candidates to be evaluated.
+   */
+  public void evaluate(List<Candidate> candidates) {
+    requireNonNull(candidates, "candidates");
+
+    if (executor == null || candidates.size() < 2) {
+      for (Candidate candidate : candidates) {
+        candidate.evaluate(costCache);
+      }
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(candidates.size());
+    for (final Candidate candidate : candidates) {
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          candidate.evaluate(costCache);
+          return null;
+        }
+      }));
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < futures.size(); i++) {
+      if (interrupted) {
+        // Do not wait for the workers any more, but still provide a result for
+        // every candidate.
+        futures.get(i).cancel(false);
+        candidates.get(i).evaluate(costCache);
+        continue;
+      }
+      try {
+        futures.get(i).get();
+      }
+      catch (InterruptedException exc) {
+        log.log(Level.WARNING,
+                "Interrupted, evaluating remaining candidates sequentially",
+                exc);
+        interrupted = true;
+        candidates.get(i).evaluate(costCache);
+      }
+      catch (ExecutionException exc) {
+        // Fall back to evaluating the candidate here so the dispatcher still
+        // gets a result for it.
+        log.log(Level.WARNING, "Parallel evaluation failed, retrying", exc);
+        candidates.get(i).evaluate(costCache);
+      }
+    }
+    if (interrupted) {
+      // Preserve the interrupt for the caller.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * A vehicle/order combination to be evaluated.
+   */
+  static final class Candidate {
+
+    /**
+     * The vehicle.
+     */
+    private final Vehicle vehicle;
+    /**
+     * The vehicle's position at the time the candidate was created.
+     */
+    private final Point position;
+    /**
+     * The transport order.
+     */
+    private final TransportOrder order;
+    /**
+     * The costs of the computed route.
+     */
+    private volatile long costs = Long.MAX_VALUE;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param vehicle The vehicle.
+     * @param position The vehicle's current position.
+     * @param order The transport order.
+     */
+    Candidate(Vehicle vehicle, Point position, TransportOrder order) {
+      this.vehicle = requireNonNull(vehicle, "vehicle");
+      this.position = requireNonNull(position, "position");
+      this.order = requireNonNull(order, "order");
+    }
+
+    /**
+     * Returns the vehicle.
+     *
+     * @return The vehicle.
+     */
+    public Vehicle getVehicle() {
+      return vehicle;
+    }
+
+    /**
+     * Returns the vehicle's position at the time the candidate was created.
+     *
+     * @return The vehicle's position.
+     */
+    public Point getPosition() {
+      return position;
+    }
+
+    /**
+     * Returns the transport order.
+     *
+     * @return The transport order.
+     */
+    public TransportOrder getOrder() {
+      return order;
+    }
+
+    /**
+     * Returns the costs of the cheapest route for this candidate.
+     *
+     * @return The costs of the route computed for this candidate, or
+     * <code>Long.MAX_VALUE</code>, if the order is not routable for the
+     * vehicle.
+     */
+    public long getCosts() {
+      return costs;
+    }
+
+    /**
+     * Checks whether a route was found for this candidate.
+     *
+     * @return <code>true</code> if, and only if, a route was found.
+     */
+    public boolean isRoutable() {
+      return costs != Long.MAX_VALUE;
+    }
+
+    /**
+     * Computes the route costs for this candidate.
+     *
+     * @param costCache The cache providing route costs.
+     */
+    void evaluate(RouteCostCache costCache) {
+      costs = costCache.getCosts(vehicle, position, order);
+    }
+  }
+
+  /**
+   * Creates named daemon threads for the worker pool.
+   */
+  private static final class WorkerThreadFactory
+      implements ThreadFactory {
+
+    /**
+     * A counter for numbering created threads.
+     */
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable,
+                                 CandidateEvaluator.class.getName() + "-"
+                                 + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -51,6 +51,15 @@ final class Dispatchable {
     dispatchable = Objects.requireNonNull(withdrawal, "withdrawal is null");
   }
 
+  /**
+   * Creates a new instance for the given assignment cycle.
+   *
+   * @param cycle The assignment cycle.
+   */
+  Dispatchable(final AssignmentCycle cycle) {
+    dispatchable = Objects.requireNonNull(cycle, "cycle is null");
+  }
+
   /**
    * Returns the actual dispatchable object.
    *
@@ -9,6 +9,8 @@
 package org.opentcs.kernel.module.dispatching;
 
 import com.google.inject.AbstractModule;
+import java.util.Objects;
+import java.util.logging.Logger;
 import org.opentcs.algorithms.Dispatcher;
 import org.opentcs.util.configuration.ConfigurationStore;
 
@@ -19,6 +21,12 @@ import org.opentcs.util.configuration.ConfigurationStore;
 public class DispatcherInjectionModule
     extends AbstractModule {
 
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(DispatcherInjectionModule.class.getName());
+
   @Override
   protected void configure() {
     ConfigurationStore configStore
@@ -32,7 +40,33 @@ public class DispatcherInjectionModule
     bindConstant()
         .annotatedWith(OrderSequenceDispatcher.RechargeWhenEnergyCritical.class)
         .to(configStore.getBoolean("rechargeVehiclesWhenEnergyCritical", false));
+    bindConstant()
+        .annotatedWith(OrderSequenceDispatcher.EvaluationThreads.class)
+        .to(configStore.getInt("candidateEvaluationThreads", 1));
+
+    configureAssignmentType(configStore.getString("assignmentType", "GREEDY"));
+  }
 
-    bind(Dispatcher.class).to(OrderSequenceDispatcher.class);
+  private void configureAssignmentType(String assignmentType) {
+    if (Objects.equals(assignmentType, "BATCH")) {
+      configureBatchAssignment();
+    }
+    else if (Objects.equals(assignmentType, "GREEDY")) {
+      bind(Dispatcher.class).to(OrderSequenceDispatcher.class);
+    }
+    else {
+      log.warning("Unknown assignment type '" + assignmentType
+          + "', using GREEDY");
+      bind(Dispatcher.class).to(OrderSequenceDispatcher.class);
+    }
+  }
+
+  private void configureBatchAssignment() {
+    ConfigurationStore batchConfigStore
+        = ConfigurationStore.getStore(BatchAssignmentDispatcher.class.getName());
+    bindConstant()
+        .annotatedWith(BatchAssignmentDispatcher.SolverTimeBudget.class)
+        .to(batchConfigStore.getLong("solverTimeBudget", 500));
+    bind(Dispatcher.class).to(BatchAssignmentDispatcher.class);
   }
 }
@@ -0,0 +1,221 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Solves the (rectangular) assignment problem for a cost matrix using the
+ * Hungarian method.
+ * <p>
+ * Rows are added to the solution one at a time, each step taking
+ * O(rows * columns) time. If the given deadline passes before all rows have
+ * been added, the remaining rows are assigned greedily to the cheapest
+ * column still free.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+final class HungarianSolver {
+
+  /**
+   * Marks an infeasible combination of row and column in a cost matrix.
+   */
+  public static final long INFEASIBLE = Long.MAX_VALUE;
+  /**
+   * Marks a row that is not assigned to any column in a solution.
+   */
+  public static final int UNASSIGNED = -1;
+
+  /**
+   * Prevents undesired instantiation.
+   */
+  private HungarianSolver() {
+    // Do nada.
+  }
+
+  /**
+   * Computes an assignment of rows to columns with minimal total costs.
+   * Each row is assigned to at most one column and vice versa. Combinations
+   * with costs {@link #INFEASIBLE} are never part of the result.
+   *
+   * @param costs The cost matrix, indexed by row and column. All rows must have
+   * the same length.
+   * @param deadline The value of {@link System#nanoTime()} after which the
+   * remaining rows are to be assigned greedily.
+   * @return An array containing the column assigned to each row, or
+   * {@link #UNASSIGNED}.
+   */
+  public static int[] solve(long[][] costs, long deadline) {
+    requireNonNull(costs, "costs");
+
+    int rowCount = costs.length;
+    int colCount = rowCount == 0 ? 0 : costs[0].length;
+    int[] result = new int[rowCount];
+    Arrays.fill(result, UNASSIGNED);
+    if (rowCount == 0 || colCount == 0) {
+      return result;
+    }
+    // The algorithm requires at most as many rows as columns.
+    if (rowCount > colCount) {
+      int[] transposedResult = solve(transpose(costs), deadline);
+      for (int col = 0; col < transposedResult.length; col++) {
+        if (transposedResult[col] != UNASSIGNED) {
+          result[transposedResult[col]] = col;
+        }
+      }
+      return result;
+    }
+
+    long[][] matrix = normalize(costs);
+    // Potentials for rows and columns, the row assigned to each column and
+    // the predecessor of each column on the current augmenting path. Index 0
+    // is used as a virtual column/row.
+    long[] rowPotentials = new long[rowCount + 1];
+    long[] colPotentials = new long[colCount + 1];
+    int[] colAssignment = new int[colCount + 1];
+    int[] predecessors = new int[colCount + 1];
+    long[] minSlack = new long[colCount + 1];
+    boolean[] visited = new boolean[colCount + 1];
+
+    int row = 1;
+    for (; row <= rowCount && System.nanoTime() - deadline < 0; row++) {
+      colAssignment[0] = row;
+      int col0 = 0;
+      Arrays.fill(minSlack, Long.MAX_VALUE);
+      Arrays.fill(visited, false);
+      do {
+        visited[col0] = true;
+        int row0 = colAssignment[col0];
+        long delta = Long.MAX_VALUE;
+        int col1 = 0;
+        for (int col = 1; col <= colCount; col++) {
+          if (!visited[col]) {
+            long slack = matrix[row0 - 1][col - 1] - rowPotentials[row0]
+                - colPotentials[col];
+            if (slack < minSlack[col]) {
+              minSlack[col] = slack;
+              predecessors[col] = col0;
+            }
+            if (minSlack[col] < delta) {
+              delta = minSlack[col];
+              col1 = col;
+            }
+          }
+        }
+        for (int col = 0; col <= colCount; col++) {
+          if (visited[col]) {
+            rowPotentials[colAssignment[col]] += delta;
+            colPotentials[col] -= delta;
+          }
+          else {
+            minSlack[col] -= delta;
+          }
+        }
+        col0 = col1;
+      }
+      while (colAssignment[col0] != 0);
+      // Flip the augmenting path.
+      do {
+        int col1 = predecessors[col0];
+        colAssignment[col0] = colAssignment[col1];
+        col0 = col1;
+      }
+      while (col0 != 0);
+    }
+
+    boolean[] colTaken = new boolean[colCount];
+    for (int col = 1; col <= colCount; col++) {
+      if (colAssignment[col] != 0) {
+        result[colAssignment[col] - 1] = col - 1;
+        colTaken[col - 1] = true;
+      }
+    }
+    // If we ran out of time, assign the remaining rows greedily.
+    for (; row <= rowCount; row++) {
+      int bestCol = UNASSIGNED;
+      for (int col = 0; col < colCount; col++) {
+        if (!colTaken[col] && costs[row - 1][col] != INFEASIBLE
+            && (bestCol == UNASSIGNED
+                || costs[row - 1][col] < costs[row - 1][bestCol])) {
+          bestCol = col;
+        }
+      }
+      if (bestCol != UNASSIGNED) {
+        result[row - 1] = bestCol;
+        colTaken[bestCol] = true;
+      }
+    }
+    // Drop infeasible combinations the algorithm had to fill in.
+    for (int i = 0; i < rowCount; i++) {
+      if (result[i] != UNASSIGNED && costs[i][result[i]] == INFEASIBLE) {
+        result[i] = UNASSIGNED;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the transposed version of the given matrix.
+   *
+   * @param matrix The matrix.
+   * @return The transposed version of the given matrix.
+   */
+  private static long[][] transpose(long[][] matrix) {
+    long[][] result = new long[matrix[0].length][matrix.length];
+    for (int i = 0; i < matrix.length; i++) {
+      for (int j = 0; j < matrix[i].length; j++) {
+        result[j][i] = matrix[i][j];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a copy of the given matrix with infeasible entries replaced by a
+   * value that is large enough to never be preferred over any combination of
+   * feasible entries, but small enough not to overflow during the
+   * computation.
+   *
+   * @param matrix The matrix.
+   * @return The normalized copy of the matrix.
+   */
+  private static long[][] normalize(long[][] matrix) {
+    long maxFeasible = 0;
+    for (long[] curRow : matrix) {
+      for (long curCosts : curRow) {
+        if (curCosts != INFEASIBLE) {
+          if (curCosts < 0) {
+            throw new IllegalArgumentException("Negative costs in matrix");
+          }
+          maxFeasible = Math.max(maxFeasible, curCosts);
+        }
+      }
+    }
+    long limit = Long.MAX_VALUE / (4L * (matrix.length + matrix[0].length + 1));
+    long substitute;
+    if (maxFeasible >= limit / (matrix.length + 1)) {
+      substitute = limit;
+    }
+    else {
+      substitute = (maxFeasible + 1) * (matrix.length + 1);
+    }
+    long[][] result = new long[matrix.length][];
+    for (int i = 0; i < matrix.length; i++) {
+      result[i] = new long[matrix[i].length];
+      for (int j = 0; j < matrix[i].length; j++) {
+        result[i][j] = matrix[i][j] == INFEASIBLE
+            ? substitute
+            : Math.min(matrix[i][j], limit);
+      }
+    }
+    return result;
+  }
+}
@@ -13,6 +13,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -23,10 +24,12 @@ import java.util.Map;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 import javax.inject.Inject;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.algorithms.Dispatcher;
+import org.opentcs.algorithms.EnergyAwareRechargeStrategy;
 import org.opentcs.algorithms.ParkingStrategy;
 import org.opentcs.algorithms.RechargeStrategy;
 import org.opentcs.algorithms.ResourceUser;
@@ -44,6 +47,7 @@ import org.opentcs.data.order.TransportOrder;
 import org.opentcs.drivers.Processability;
 import org.opentcs.drivers.VehicleController;
 import org.opentcs.drivers.VehicleControllerPool;
+import org.opentcs.kernel.module.dispatching.CandidateEvaluator.Candidate;
 import org.opentcs.util.QueueProcessor;
 
 /**
@@ -60,6 +64,10 @@ class OrderSequenceDispatcher
    */
   private static final Logger log
       = Logger.getLogger(OrderSequenceDispatcher.class.getName());
+  /**
+   * The maximum number of route costs cached for vehicle/order combinations.
+   */
+  private static final int ROUTE_COST_CACHE_SIZE = 100000;
   /**
    * The Router instance calculating route costs.
    */
@@ -76,6 +84,14 @@ class OrderSequenceDispatcher
    * The task doing the actual dispatching.
    */
   private final DispatcherTask dispatcherTask = new DispatcherTask();
+  /**
+   * Whether an assignment cycle is waiting in the dispatcher thread's queue.
+   */
+  private final AtomicBoolean assignmentCycleQueued = new AtomicBoolean();
+  /**
+   * Computes route costs for the vehicle/order combinations considered.
+   */
+  private final CandidateEvaluator candidateEvaluator;
   /**
    * A flag indiciating whether to park vehicles that have finished their order
    * and for which a new order is not available.
@@ -127,6 +143,9 @@ class OrderSequenceDispatcher
    * orders for vehicles that do not have an order.
    * @param rechargeVehiclesWhenEnergyCritical Whether to automatically create
    * recharge orders for vehicles whose energy level is critical.
+   * @param evaluationThreads The number of threads to compute routes for
+   * candidate vehicles/orders with. Values less than 2 mean that all routes
+   * are computed sequentially by the dispatcher thread.
    */
   @Inject
   public OrderSequenceDispatcher(Router newRouter,
@@ -136,7 +155,8 @@ class OrderSequenceDispatcher
                                  RechargeStrategy rechargeStrategy,
                                  @ParkWhenIdle boolean parkIdleVehicles,
                                  @RechargeWhenIdle boolean rechargeVehiclesWhenIdle,
-                                 @RechargeWhenEnergyCritical boolean rechargeVehiclesWhenEnergyCritical) {
+                                 @RechargeWhenEnergyCritical boolean rechargeVehiclesWhenEnergyCritical,
+                                 @EvaluationThreads int evaluationThreads) {
     log.finer("method entry");
     this.router = requireNonNull(newRouter, "newRouter is null");
     this.scheduler = requireNonNull(newScheduler, "newScheduler is null");
@@ -146,6 +166,9 @@ class OrderSequenceDispatcher
     this.parkIdleVehicles = parkIdleVehicles;
     this.rechargeVehiclesWhenIdle = rechargeVehiclesWhenIdle;
     this.rechargeVehiclesWhenEnergyCritical = rechargeVehiclesWhenEnergyCritical;
+    this.candidateEvaluator = new CandidateEvaluator(router,
+                                                     ROUTE_COST_CACHE_SIZE,
+                                                     evaluationThreads);
   }
 
   // Methods declared in interface Dispatcher start here.
@@ -195,6 +218,7 @@ class OrderSequenceDispatcher
 
   @Override
   public void initialize() {
+    candidateEvaluator.initialize();
     // Initialize the dispatching thread.
     Thread dispatcherThread = new Thread(dispatcherTask,
                                          getClass().getName() + "-DispatcherTask");
@@ -204,6 +228,7 @@ class OrderSequenceDispatcher
   @Override
   public void terminate() {
     dispatcherTask.terminate();
+    candidateEvaluator.terminate();
   }
 
   @Override
@@ -238,9 +263,9 @@ class OrderSequenceDispatcher
    * @param vehicle The vehicle.
    * @param transportOrders The set of transport orders to choose from.
    */
-  private void assignBestOrderToVehicle(Vehicle vehicle,
-                                        Set<TransportOrder> transportOrders,
-                                        Set<OrderSequence> sequences) {
+  void assignBestOrderToVehicle(Vehicle vehicle,
+                                Set<TransportOrder> transportOrders,
+                                Set<OrderSequence> sequences) {
     assert vehicle != null;
     assert transportOrders != null;
     assert sequences != null;
@@ -248,38 +273,54 @@ class OrderSequenceDispatcher
     final Point vehiclePosition = kernel.getTCSObject(Point.class,
                                                       vehicle.getCurrentPosition());
     // Assuming the transport orders are sorted correctly, we can now just
-    // grab the first one that can be processed by the given vehicle.
+    // grab the first one that can be processed by the given vehicle. Routes
+    // are computed batch-wise so the candidate evaluator can work on several
+    // of them in parallel.
     final Iterator<TransportOrder> orderIter = transportOrders.iterator();
     TransportOrder selectedOrder = null;
     List<DriveOrder> driveOrders = null;
     while (selectedOrder == null && orderIter.hasNext()) {
-      TransportOrder curOrder = orderIter.next();
-      boolean canProcess;
-      // Get a route for the vehicle.
-      driveOrders = router.getRoute(vehicle, vehiclePosition, curOrder);
-      canProcess = driveOrders != null;
-      if (!canProcess) {
-        log.fine(vehicle.getName() + ": No route for order " + curOrder);
-        Rejection rejection = new Rejection(vehicle.getReference(),
-                                            "Unroutable");
-        kernel.addTransportOrderRejection(curOrder.getReference(), rejection);
+      List<Candidate> batch = new ArrayList<>(candidateEvaluator.getBatchSize());
+      while (orderIter.hasNext()
+          && batch.size() < candidateEvaluator.getBatchSize()) {
+        batch.add(new Candidate(vehicle, vehiclePosition, orderIter.next()));
       }
-      // Check if the vehicle can process the order right now.
-      canProcess = canProcess && checkProcessability(vehicle, curOrder);
-      // If the vehicle can process this order, choose it.
-      if (canProcess) {
-        selectedOrder = curOrder;
+      candidateEvaluator.evaluate(batch);
+      for (Candidate candidate : batch) {
+        TransportOrder curOrder = candidate.getOrder();
+        boolean canProcess = candidate.isRoutable();
+        if (!canProcess) {
+          log.fine(vehicle.getName() + ": No route for order " + curOrder);
+          Rejection rejection = new Rejection(vehicle.getReference(),
+                                              "Unroutable");
+          kernel.addTransportOrderRejection(curOrder.getReference(), rejection);
+        }
+        // Check if the vehicle can process the order right now.
+        canProcess = canProcess && checkProcessability(vehicle, curOrder);
+        // If the vehicle can process this order, choose it and compute the
+        // actual route for it.
+        if (canProcess) {
+          driveOrders = router.getRoute(vehicle, vehiclePosition, curOrder);
+          if (driveOrders != null) {
+            selectedOrder = curOrder;
+            break;
+          }
+        }
       }
     }
     // A flag to remember if we already created an order for the vehicle.
     boolean orderCreated = false;
+    boolean selectedOrderMandatory = selectedOrder != null
+        && orderMandatory(selectedOrder, sequences);
     // If automatic creation of recharge orders is enabled, the vehicle's energy
-    // level is critical and the selected order (if any) is not mandatory,
-    // create an order to recharge and assign that instead.
+    // level is critical (or would be after processing the selected order) and
+    // the selected order (if any) is not mandatory, create an order to
+    // recharge and assign that instead.
     if (rechargeVehiclesWhenEnergyCritical
-        && vehicle.isEnergyLevelCritical()
-        && (selectedOrder == null
-            || !orderMandatory(selectedOrder, sequences))) {
+        && (vehicle.isEnergyLevelCritical()
+            || (selectedOrder != null
+                && rechargeRequired(vehicle, driveOrders)))
+        && !selectedOrderMandatory) {
       // If the vehicle is already charging, don't create a new order but leave
       // it like that.
       if (vehicle.hasState(Vehicle.State.CHARGING)) {
@@ -290,7 +331,25 @@ class OrderSequenceDispatcher
       else {
         log.fine(vehicle.getName() + ": Energy level critical, "
             + "looking for recharge location.");
-        orderCreated = rechargeVehicle(vehicle, vehiclePosition);
+        orderCreated = rechargeVehicle(vehicle, vehiclePosition, false);
+      }
+    }
+    // If the recharge strategy advises to use the current demand for
+    // recharging, do that instead of processing the selected order.
+    if (!orderCreated
+        && rechargeVehiclesWhenIdle
+        && selectedOrder != null
+        && !selectedOrderMandatory
+        && rechargeAdvisable(vehicle)) {
+      if (vehicle.hasState(Vehicle.State.CHARGING)) {
+        log.fine(vehicle.getName() + ": Low demand and vehicle is already "
+            + "charging - leaving it alone.");
+        orderCreated = true;
+      }
+      else {
+        log.fine(vehicle.getName() + ": Low demand, looking for recharge "
+            + "location.");
+        orderCreated = rechargeVehicle(vehicle, vehiclePosition, true);
       }
     }
 
@@ -322,7 +381,7 @@ class OrderSequenceDispatcher
       else {
         log.fine(vehicle.getName() + ": No transport order, looking for "
             + "recharge location.");
-        orderCreated = rechargeVehicle(vehicle, vehiclePosition);
+        orderCreated = rechargeVehicle(vehicle, vehiclePosition, true);
       }
     }
     // If auto parking is enabled and the vehicle's not at a parking position,
@@ -399,16 +458,64 @@ class OrderSequenceDispatcher
     }
   } // void parkVehicle()
 
+  /**
+   * Checks whether the given vehicle should rather be recharged than process
+   * a transport order with the given drive orders.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The order's drive orders.
+   * @return <code>true</code> if, and only if, the vehicle should rather be
+   * recharged.
+   */
+  boolean rechargePreferred(Vehicle vehicle, List<DriveOrder> driveOrders) {
+    return (rechargeVehiclesWhenEnergyCritical
+            && rechargeRequired(vehicle, driveOrders))
+        || (rechargeVehiclesWhenIdle && rechargeAdvisable(vehicle));
+  }
+
+  /**
+   * Checks whether the recharge strategy predicts that the given vehicle needs
+   * to be recharged before processing the given drive orders.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The drive orders.
+   * @return <code>true</code> if, and only if, the vehicle needs to be
+   * recharged first.
+   */
+  private boolean rechargeRequired(Vehicle vehicle,
+                                   List<DriveOrder> driveOrders) {
+    return rechargeStrategy instanceof EnergyAwareRechargeStrategy
+        && ((EnergyAwareRechargeStrategy) rechargeStrategy)
+            .isRechargeRequired(vehicle, driveOrders);
+  }
+
+  /**
+   * Checks whether the recharge strategy advises recharging the given vehicle
+   * now.
+   *
+   * @param vehicle The vehicle.
+   * @return <code>true</code> if, and only if, the vehicle should be
+   * recharged now.
+   */
+  private boolean rechargeAdvisable(Vehicle vehicle) {
+    return rechargeStrategy instanceof EnergyAwareRechargeStrategy
+        && ((EnergyAwareRechargeStrategy) rechargeStrategy)
+            .isRechargeAdvisable(vehicle);
+  }
+
   /**
    * Sends a vehicle to a charging location.
    *
    * @param vehicle The vehicle to be parked.
    * @param vehiclePosition The vehicle's current position.
+   * @param dispensable Whether the charging order may be withdrawn in favour
+   * of a transport order, provided the vehicle's energy level is not critical.
    * @return <code>true</code> if, and only if, a charging order was actually
    * created and assigned.
    */
   private boolean rechargeVehicle(Vehicle vehicle,
-                                  Point vehiclePosition) {
+                                  Point vehiclePosition,
+                                  boolean dispensable) {
     assert vehicle != null;
     assert vehiclePosition != null;
 
@@ -429,7 +536,7 @@ class OrderSequenceDispatcher
     TransportOrder rechargeOrder
         = kernel.createTransportOrder(Collections.singletonList(dst));
     // The recharge order may be withdrawn unless its energy level is critical.
-    if (!vehicle.isEnergyLevelCritical()) {
+    if (dispensable && !vehicle.isEnergyLevelCritical()) {
       kernel.setTransportOrderDispensable(rechargeOrder.getReference(), true);
     }
     kernel.setTransportOrderIntendedVehicle(rechargeOrder.getReference(),
@@ -461,9 +568,9 @@ class OrderSequenceDispatcher
    * @param driveOrders The list of drive orders describing the route for the
    * vehicle.
    */
-  private void assignTransportOrder(Vehicle vehicle,
-                                    TransportOrder transportOrder,
-                                    List<DriveOrder> driveOrders) {
+  void assignTransportOrder(Vehicle vehicle,
+                            TransportOrder transportOrder,
+                            List<DriveOrder> driveOrders) {
     log.finer("method entry");
     assert vehicle != null;
     assert transportOrder != null;
@@ -524,7 +631,7 @@ class OrderSequenceDispatcher
    * @return <code>true</code> if, and only if, the given vehicle can process
    * the given order.
    */
-  private boolean checkProcessability(Vehicle vehicle, TransportOrder order) {
+  boolean checkProcessability(Vehicle vehicle, TransportOrder order) {
     assert vehicle != null;
     assert order != null;
     final VehicleController vehicleController
@@ -553,7 +660,7 @@ class OrderSequenceDispatcher
     }
   }
 
-  private static boolean vehicleDispatchable(Vehicle vehicle) {
+  static boolean vehicleDispatchable(Vehicle vehicle) {
     assert vehicle != null;
 
     if (vehicle.getCurrentPosition() == null) {
@@ -586,7 +693,7 @@ class OrderSequenceDispatcher
    * @return <code>true</code> if, and only if, the given vehicle is available
    * for processing a transport order.
    */
-  private boolean availableForTransportOrder(Vehicle vehicle) {
+  boolean availableForTransportOrder(Vehicle vehicle) {
     assert vehicle != null;
 
     // A vehicle must be at a known position.
@@ -723,6 +830,121 @@ class OrderSequenceDispatcher
     return result;
   }
 
+  /**
+   * Returns the router calculating route costs.
+   *
+   * @return The router calculating route costs.
+   */
+  final Router getRouter() {
+    return router;
+  }
+
+  /**
+   * Returns the local kernel instance.
+   *
+   * @return The local kernel instance.
+   */
+  final LocalKernel getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Checks whether recharge orders are automatically created for vehicles
+   * whose energy level is critical.
+   *
+   * @return <code>true</code> if, and only if, recharge orders are created for
+   * vehicles whose energy level is critical.
+   */
+  final boolean isRechargeVehiclesWhenEnergyCritical() {
+    return rechargeVehiclesWhenEnergyCritical;
+  }
+
+  /**
+   * Checks whether an order is reserved for the given vehicle.
+   *
+   * @param vehicleRef A reference to the vehicle.
+   * @return <code>true</code> if, and only if, an order is reserved for the
+   * given vehicle.
+   */
+  boolean hasOrderReservation(TCSObjectReference<Vehicle> vehicleRef) {
+    return orderReservations.containsValue(vehicleRef);
+  }
+
+  /**
+   * Checks whether the given order is reserved for any vehicle.
+   *
+   * @param orderRef A reference to the order.
+   * @return <code>true</code> if, and only if, the given order is reserved.
+   */
+  boolean isOrderReserved(TCSObjectReference<TransportOrder> orderRef) {
+    return orderReservations.containsKey(orderRef);
+  }
+
+  /**
+   * Tries to dispatch an IDLE vehicle by finding a transport order to be
+   * processed by it.
+   * This implementation immediately selects the best order for the vehicle.
+   *
+   * @param vehicle The vehicle to be dispatched.
+   */
+  void dispatchIdleVehicle(Vehicle vehicle) {
+    assert vehicle != null;
+
+    // The vehicle is not processing a transport order - try to find one for
+    // it.
+    Set<TransportOrder> transportOrders = getOrderForVehicle(vehicle);
+    // If the result was null, the vehicle should not receive any order at
+    // this point. Otherwise select one.
+    if (transportOrders != null) {
+      assignBestOrderToVehicle(vehicle,
+                               transportOrders,
+                               kernel.getTCSObjects(OrderSequence.class));
+    }
+    else {
+      log.fine(vehicle.getName() + ": Suppressing order assignment.");
+    }
+  }
+
+  /**
+   * Tries to dispatch a transport order by finding a vehicle to process it.
+   * This implementation immediately selects the best vehicle for the order.
+   *
+   * @param order The transport order to be dispatched.
+   */
+  void dispatchOrder(TransportOrder order) {
+    dispatcherTask.dispatchTransportOrder(order);
+  }
+
+  /**
+   * Assigns orders to vehicles collected since the last assignment cycle.
+   * Called by the dispatcher thread for every assignment cycle scheduled via
+   * {@link #scheduleAssignmentCycle()}. This implementation does nothing.
+   */
+  void performAssignmentCycle() {
+    // Do nada.
+  }
+
+  /**
+   * Schedules an assignment cycle to be performed by the dispatcher thread
+   * after all elements currently in its queue have been processed.
+   * Scheduling a cycle while another one is still waiting in the queue has no
+   * effect, i.e. the waiting cycle keeps its position in the queue.
+   */
+  final void scheduleAssignmentCycle() {
+    if (assignmentCycleQueued.compareAndSet(false, true)) {
+      dispatcherTask.addToQueue(new Dispatchable(AssignmentCycle.INSTANCE));
+    }
+  }
+
+  /**
+   * Removes the given vehicle from the dispatcher thread's queue.
+   *
+   * @param vehicle The vehicle.
+   */
+  final void removeFromQueue(Vehicle vehicle) {
+    dispatcherTask.removeFromQueue(new Dispatchable(vehicle));
+  }
+
   private void clearOrderReservations(TCSObjectReference<Vehicle> vehicleRef) {
     assert vehicleRef != null;
 
@@ -802,6 +1024,17 @@ class OrderSequenceDispatcher
     // Nothing here.
   }
 
+  /**
+   * Annotation type for injecting the number of threads used for evaluating
+   * dispatch candidates.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface EvaluationThreads {
+    // Nothing here.
+  }
+
   /**
    * The task doing the actual dispatching of transport orders and vehicles.
    */
@@ -820,7 +1053,7 @@ class OrderSequenceDispatcher
         log.warning("dispatchable is null, ignored");
       }
       else if (dispatchable.getDispatchable() instanceof TransportOrder) {
-        dispatchTransportOrder((TransportOrder) dispatchable.getDispatchable());
+        dispatchOrder((TransportOrder) dispatchable.getDispatchable());
       }
       else if (dispatchable.getDispatchable() instanceof Vehicle) {
         dispatchVehicle((Vehicle) dispatchable.getDispatchable());
@@ -828,6 +1061,11 @@ class OrderSequenceDispatcher
       else if (dispatchable.getDispatchable() instanceof Withdrawal) {
         abortOrder((Withdrawal) dispatchable.getDispatchable());
       }
+      else if (dispatchable.getDispatchable() instanceof AssignmentCycle) {
+        // Changes during the cycle need to be handled by another one.
+        assignmentCycleQueued.set(false);
+        performAssignmentCycle();
+      }
       // If dispatchable is null, we've been terminated or the queue was
       // empty. If dispatchable is of an unhandled subtype, we just ignore
       // it.
@@ -850,31 +1088,39 @@ class OrderSequenceDispatcher
         return;
       }
       List<Vehicle> vehicles = getVehiclesForOrder(order);
-      // Get the vehicle that needs the least time to process the
-      // transport order.
-      Vehicle closestVehicle = null;
-      long closestCosts = Long.MAX_VALUE;
-      List<DriveOrder> closestDriveOrders = null;
+      // Compute routes for all available vehicles, starting at their current
+      // positions.
+      List<Candidate> candidates = new ArrayList<>(vehicles.size());
       for (Vehicle curVehicle : vehicles) {
         Point curPosition = kernel.getTCSObject(Point.class,
                                                 curVehicle.getCurrentPosition());
-        // Get a route for the vehicle, starting at it's current position.
-        List<DriveOrder> tmpDriveOrders = router.getRoute(curVehicle,
-                                                          curPosition,
-                                                          order);
+        candidates.add(new Candidate(curVehicle, curPosition, order));
+      }
+      candidateEvaluator.evaluate(candidates);
+      // Get the vehicle that needs the least time to process the
+      // transport order.
+      Candidate closestCandidate = null;
+      for (Candidate candidate : candidates) {
         // Check if the vehicle can process the order right now.
-        if (tmpDriveOrders != null && checkProcessability(curVehicle, order)) {
-          long costs = 0;
-          for (DriveOrder curDriveOrder : tmpDriveOrders) {
-            costs += curDriveOrder.getRoute().getCosts();
-          }
-          if (costs < closestCosts) {
-            closestVehicle = curVehicle;
-            closestDriveOrders = tmpDriveOrders;
-            closestCosts = costs;
+        if (candidate.isRoutable()
+            && checkProcessability(candidate.getVehicle(), order)) {
+          if (closestCandidate == null
+              || candidate.getCosts() < closestCandidate.getCosts()) {
+            closestCandidate = candidate;
           }
         }
       }
+      // Compute the actual route only for the vehicle selected.
+      Vehicle closestVehicle = null;
+      List<DriveOrder> closestDriveOrders = null;
+      if (closestCandidate != null) {
+        closestDriveOrders = router.getRoute(closestCandidate.getVehicle(),
+                                             closestCandidate.getPosition(),
+                                             order);
+        if (closestDriveOrders != null) {
+          closestVehicle = closestCandidate.getVehicle();
+        }
+      }
       // If we found a vehicle that can process the transport order, assign the
       // order to it, store the computed route in the transport order, correct
       // the state of vehicle and transport order and start processing of the
@@ -926,19 +1172,7 @@ class OrderSequenceDispatcher
       // Is the vehicle idle/without a transport order?
       if (vehicle.hasProcState(Vehicle.ProcState.IDLE)) {
         log.fine(vehicle.getName() + ": IDLE, looking for a transport order");
-        // The vehicle is not processing a transport order - try to find one for
-        // it.
-        Set<TransportOrder> transportOrders = getOrderForVehicle(vehicle);
-        // If the result was null, the vehicle should not receive any order at
-        // this point. Otherwise select one.
-        if (transportOrders != null) {
-          assignBestOrderToVehicle(vehicle,
-                                   transportOrders,
-                                   kernel.getTCSObjects(OrderSequence.class));
-        }
-        else {
-          log.fine(vehicle.getName() + ": Suppressing order assignment.");
-        }
+        dispatchIdleVehicle(vehicle);
       }
       // Is the vehicle waiting for the next drive order?
       else if (vehicle.hasProcState(Vehicle.ProcState.AWAITING_ORDER)) {
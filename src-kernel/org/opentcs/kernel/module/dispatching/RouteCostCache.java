@@ -0,0 +1,189 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opentcs.algorithms.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Caches the costs of routes for transport orders computed by the router.
+ * <p>
+ * Entries are keyed by the vehicle (whose routing table is used), the source
+ * point and the destinations of the order's future drive orders, so orders with
+ * the same destinations share entries. All entries are discarded when the
+ * router reports a new routing table version. This class is thread-safe.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class RouteCostCache {
+
+  /**
+   * The router computing costs.
+   */
+  private final Router router;
+  /**
+   * The maximum number of entries kept before the cache is cleared.
+   */
+  private final int maxEntries;
+  /**
+   * The cached costs.
+   */
+  private final Map<Key, Long> costsByKey = new ConcurrentHashMap<>();
+  /**
+   * The routing table version the cached entries were computed with.
+   */
+  private volatile long routingTablesVersion = Long.MIN_VALUE;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param router The router computing costs.
+   * @param maxEntries The maximum number of entries kept before the cache is
+   * cleared.
+   */
+  RouteCostCache(Router router, int maxEntries) {
+    this.router = requireNonNull(router, "router");
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the costs for the given vehicle starting on the given point to
+   * process the given transport order.
+   *
+   * @param vehicle The vehicle.
+   * @param sourcePoint The point the vehicle would start at.
+   * @param order The transport order.
+   * @return The costs, or <code>Long.MAX_VALUE</code>, if the order is not
+   * routable for the vehicle.
+   * @see Router#getCosts(Vehicle, Point, TransportOrder)
+   */
+  public long getCosts(Vehicle vehicle, Point sourcePoint, TransportOrder order) {
+    requireNonNull(vehicle, "vehicle");
+    requireNonNull(sourcePoint, "sourcePoint");
+    requireNonNull(order, "order");
+
+    checkRoutingTablesVersion();
+    Key key = new Key(vehicle.getReference(),
+                      sourcePoint.getReference(),
+                      order.getFutureDriveOrders());
+    Long costs = costsByKey.get(key);
+    if (costs == null) {
+      costs = router.getCosts(vehicle, sourcePoint, order);
+      if (costsByKey.size() >= maxEntries) {
+        costsByKey.clear();
+      }
+      costsByKey.put(key, costs);
+    }
+    return costs;
+  }
+
+  /**
+   * Discards all cached entries.
+   */
+  public void clear() {
+    costsByKey.clear();
+  }
+
+  /**
+   * Discards all cached entries if the router's routing tables have changed
+   * since they were computed.
+   */
+  private void checkRoutingTablesVersion() {
+    long currentVersion = router.getRoutingTablesVersion();
+    if (currentVersion != routingTablesVersion) {
+      synchronized (this) {
+        if (currentVersion != routingTablesVersion) {
+          costsByKey.clear();
+          routingTablesVersion = currentVersion;
+        }
+      }
+    }
+  }
+
+  /**
+   * A cache key.
+   */
+  private static final class Key {
+
+    /**
+     * The vehicle whose routing table is used.
+     */
+    private final TCSObjectReference<Vehicle> vehicleRef;
+    /**
+     * The source point.
+     */
+    private final TCSObjectReference<Point> sourcePointRef;
+    /**
+     * The names of the destination locations to be visited. (Names instead of
+     * references, since dummy references for points do not have a distinct
+     * ID.)
+     */
+    private final List<String> destLocations;
+    /**
+     * The operations to be executed at the destinations.
+     */
+    private final List<String> destOperations;
+    /**
+     * This key's hash code.
+     */
+    private final int hash;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param vehicleRef The vehicle whose routing table is used.
+     * @param sourcePointRef The source point.
+     * @param driveOrders The drive orders whose destinations are to be visited.
+     */
+    Key(TCSObjectReference<Vehicle> vehicleRef,
+        TCSObjectReference<Point> sourcePointRef,
+        List<DriveOrder> driveOrders) {
+      this.vehicleRef = requireNonNull(vehicleRef, "vehicleRef");
+      this.sourcePointRef = requireNonNull(sourcePointRef, "sourcePointRef");
+      this.destLocations = new ArrayList<>(driveOrders.size());
+      this.destOperations = new ArrayList<>(driveOrders.size());
+      for (DriveOrder curDriveOrder : driveOrders) {
+        DriveOrder.Destination dest = curDriveOrder.getDestination();
+        destLocations.add(dest.getLocation().getName());
+        destOperations.add(dest.getOperation());
+      }
+      this.hash = Objects.hash(vehicleRef, sourcePointRef, destLocations,
+                               destOperations);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash == other.hash
+          && vehicleRef.equals(other.vehicleRef)
+          && sourcePointRef.equals(other.sourcePointRef)
+          && destLocations.equals(other.destLocations)
+          && destOperations.equals(other.destOperations);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.recharging;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+import java.util.logging.Logger;
+import javax.inject.Inject;
+import org.opentcs.data.ObjectPropConstants;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+
+/**
+ * Estimates the energy vehicles consume for travelling and executing
+ * operations, in percent of their energy storage's capacity.
+ * <p>
+ * The energy consumed per meter travelled is derived from a vehicle's
+ * movement power property (the one the loopback driver uses for simulating
+ * energy consumption) and its maximum velocity, if the property is set.
+ * Otherwise, a configured default is used.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class EnergyModel {
+
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(EnergyModel.class.getName());
+  /**
+   * The default energy consumed per meter travelled (in percent).
+   */
+  private final double consumptionPerMeter;
+  /**
+   * The energy consumed per operation executed (in percent).
+   */
+  private final double consumptionPerOperation;
+  /**
+   * The capacity of vehicles' energy storages (in Ws).
+   */
+  private final double energyCapacity;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param consumptionPerMeter The default energy consumed per meter travelled
+   * (in percent).
+   * @param consumptionPerOperation The energy consumed per operation executed
+   * (in percent).
+   * @param energyCapacity The capacity of vehicles' energy storages (in Ws).
+   */
+  @Inject
+  EnergyModel(@ConsumptionPerMeter double consumptionPerMeter,
+              @ConsumptionPerOperation double consumptionPerOperation,
+              @EnergyCapacity double energyCapacity) {
+    if (consumptionPerMeter < 0) {
+      throw new IllegalArgumentException("consumptionPerMeter < 0: "
+          + consumptionPerMeter);
+    }
+    if (consumptionPerOperation < 0) {
+      throw new IllegalArgumentException("consumptionPerOperation < 0: "
+          + consumptionPerOperation);
+    }
+    if (energyCapacity <= 0) {
+      throw new IllegalArgumentException("energyCapacity <= 0: "
+          + energyCapacity);
+    }
+    this.consumptionPerMeter = consumptionPerMeter;
+    this.consumptionPerOperation = consumptionPerOperation;
+    this.energyCapacity = energyCapacity;
+  }
+
+  /**
+   * Returns the energy the given vehicle consumes for processing the given
+   * drive orders.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The drive orders, with their routes set.
+   * @return The energy consumed (in percent).
+   */
+  public double getConsumption(Vehicle vehicle, List<DriveOrder> driveOrders) {
+    double result = 0.0;
+    for (DriveOrder curOrder : driveOrders) {
+      if (curOrder.getRoute() != null) {
+        result += getConsumption(vehicle, getLength(curOrder.getRoute()));
+      }
+      result += consumptionPerOperation;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the energy the given vehicle consumes for travelling the given
+   * distance.
+   *
+   * @param vehicle The vehicle.
+   * @param length The distance (in mm).
+   * @return The energy consumed (in percent).
+   */
+  public double getConsumption(Vehicle vehicle, long length) {
+    return getConsumptionPerMeter(vehicle) * length / 1000.0;
+  }
+
+  /**
+   * Returns the energy the given vehicle consumes per meter travelled.
+   *
+   * @param vehicle The vehicle.
+   * @return The energy consumed per meter (in percent).
+   */
+  public double getConsumptionPerMeter(Vehicle vehicle) {
+    String powerProp = vehicle.getProperties().get(
+        ObjectPropConstants.VIRTUAL_VEHICLE_MOVEMENT_ENERGY);
+    if (powerProp == null || vehicle.getMaxVelocity() <= 0) {
+      return consumptionPerMeter;
+    }
+    try {
+      // At maximum velocity (in mm/s), travelling one meter takes
+      // 1000 / velocity seconds.
+      double movementPower = Double.parseDouble(powerProp);
+      return movementPower * 1000.0 / vehicle.getMaxVelocity()
+          / energyCapacity * 100.0;
+    }
+    catch (NumberFormatException exc) {
+      log.fine("Invalid movement energy usage specified for vehicle "
+          + vehicle.getName() + ". Using default instead.");
+      return consumptionPerMeter;
+    }
+  }
+
+  /**
+   * Returns the length of the given route.
+   *
+   * @param route The route.
+   * @return The length of the route (in mm).
+   */
+  public static long getLength(Route route) {
+    long result = 0;
+    for (Route.Step curStep : route.getSteps()) {
+      if (curStep.getPath() != null) {
+        result += curStep.getPath().getLength();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Annotation type for injecting the default energy consumed per meter.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface ConsumptionPerMeter {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the energy consumed per operation.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface ConsumptionPerOperation {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the capacity of vehicles' energy storages.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface EnergyCapacity {
+    // Nothing here.
+  }
+}
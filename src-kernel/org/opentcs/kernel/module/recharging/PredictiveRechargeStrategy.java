@@ -0,0 +1,381 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.recharging;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+import javax.inject.Inject;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.algorithms.EnergyAwareRechargeStrategy;
+import org.opentcs.algorithms.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * A recharge strategy that predicts the energy vehicles consume.
+ * <p>
+ * A vehicle needs to be recharged before processing a transport order if,
+ * according to the energy model, its energy level would drop below the
+ * critical level on its way from the order's final destination to the nearest
+ * recharge location. Vehicles whose energy level is not good any more are
+ * advised to recharge while there are fewer transport orders waiting than idle
+ * vehicles available, with the ones having the lowest energy levels going
+ * first and only a limited number of vehicles recharging at the same time.
+ * Recharge locations are chosen like by {@link SimpleRechargeStrategy}, with
+ * penalties added for the number of unfinished transport orders ending at
+ * them to spread the use of recharge locations.
+ * </p>
+ * <p>
+ * The states of vehicles and transport orders these decisions are based on
+ * are read from the kernel at most once per update interval. Recharge
+ * locations chosen since then are counted as if the transport orders for
+ * them already existed.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class PredictiveRechargeStrategy
+    extends SimpleRechargeStrategy
+    implements EnergyAwareRechargeStrategy {
+
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(PredictiveRechargeStrategy.class.getName());
+  /**
+   * Our kernel.
+   */
+  private final LocalKernel kernel;
+  /**
+   * Our router.
+   */
+  private final Router router;
+  /**
+   * The energy model used for predicting energy consumption.
+   */
+  private final EnergyModel energyModel;
+  /**
+   * The maximum number of vehicles recharging in low-demand phases.
+   */
+  private final int maxRechargingVehicles;
+  /**
+   * The costs added per unfinished transport order ending at a recharge
+   * location.
+   */
+  private final long usagePenalty;
+  /**
+   * The minimum time (in ms) between two updates of the vehicles' and
+   * transport orders' states.
+   */
+  private final long demandUpdateInterval;
+  /**
+   * The point of time the vehicles' and transport orders' states were last
+   * updated at.
+   */
+  private long demandUpdateTime;
+  /**
+   * Whether the vehicles' and transport orders' states have been read, yet.
+   */
+  private boolean demandKnown;
+  /**
+   * The vehicles that are idle and have a known position.
+   */
+  private final List<Vehicle> idleVehicles = new ArrayList<>();
+  /**
+   * The names of the vehicles recharging or on their way to recharge.
+   */
+  private final Set<String> rechargingVehicles = new HashSet<>();
+  /**
+   * The number of dispatchable transport orders.
+   */
+  private int dispatchableCount;
+  /**
+   * The number of unfinished transport orders ending at locations, plus the
+   * number of times they have been chosen since the last update, mapped by
+   * the locations.
+   */
+  private final Map<TCSObjectReference<Location>, Integer> usageCounts
+      = new HashMap<>();
+  /**
+   * The lengths of the routes from points to the nearest recharge location,
+   * mapped by vehicle and point names.
+   */
+  private final Map<String, Long> rechargeDistances = new HashMap<>();
+  /**
+   * The version of the routing tables the distances have been computed with.
+   */
+  private long rechargeDistancesVersion = -1;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel we're working for.
+   * @param router The router to use.
+   * @param energyModel The energy model used for predicting energy
+   * consumption.
+   * @param maxRechargingVehicles The maximum number of vehicles recharging in
+   * low-demand phases.
+   * @param usagePenalty The costs added per unfinished transport order ending
+   * at a recharge location.
+   * @param demandUpdateInterval The minimum time (in ms) between two updates
+   * of the vehicles' and transport orders' states.
+   */
+  @Inject
+  PredictiveRechargeStrategy(LocalKernel kernel,
+                             Router router,
+                             EnergyModel energyModel,
+                             @MaxRechargingVehicles int maxRechargingVehicles,
+                             @UsagePenalty long usagePenalty,
+                             @DemandUpdateInterval long demandUpdateInterval) {
+    super(kernel, router);
+    this.kernel = Objects.requireNonNull(kernel, "kernel is null");
+    this.router = Objects.requireNonNull(router, "router is null");
+    this.energyModel = Objects.requireNonNull(energyModel,
+                                              "energyModel is null");
+    this.maxRechargingVehicles = maxRechargingVehicles;
+    this.usagePenalty = usagePenalty;
+    this.demandUpdateInterval = demandUpdateInterval;
+  }
+
+  @Override
+  public synchronized Location getRechargeLocation(Vehicle vehicle) {
+    updateDemand();
+    Location result = super.getRechargeLocation(vehicle);
+    if (result != null) {
+      Integer count = usageCounts.get(result.getReference());
+      usageCounts.put(result.getReference(), count == null ? 1 : count + 1);
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized boolean isRechargeRequired(Vehicle vehicle,
+                                                 List<DriveOrder> driveOrders) {
+    Objects.requireNonNull(vehicle, "vehicle is null");
+    Objects.requireNonNull(driveOrders, "driveOrders is null");
+
+    // Recharging a vehicle whose energy level is good would not make a
+    // difference, so let it go anyway.
+    if (driveOrders.isEmpty() || vehicle.isEnergyLevelGood()) {
+      return false;
+    }
+    Route lastRoute = driveOrders.get(driveOrders.size() - 1).getRoute();
+    if (lastRoute == null) {
+      return false;
+    }
+    long rechargeDistance
+        = getRechargeDistance(vehicle, lastRoute.getFinalDestinationPoint());
+    if (rechargeDistance == Long.MAX_VALUE) {
+      // No recharge location to be reached from there - nothing to predict.
+      return false;
+    }
+    double predictedLevel = vehicle.getEnergyLevel()
+        - energyModel.getConsumption(vehicle, driveOrders)
+        - energyModel.getConsumption(vehicle, rechargeDistance);
+    log.fine(vehicle.getName() + ": Predicted energy level at recharge "
+        + "location after processing order: " + predictedLevel);
+    return predictedLevel < vehicle.getEnergyLevelCritical();
+  }
+
+  @Override
+  public synchronized boolean isRechargeAdvisable(Vehicle vehicle) {
+    Objects.requireNonNull(vehicle, "vehicle is null");
+
+    if (vehicle.isEnergyLevelGood()) {
+      return false;
+    }
+    updateDemand();
+    // The vehicle itself is idle, so count it in.
+    int idleCount = 1;
+    int lowerLevelCount = 0;
+    for (Vehicle curVehicle : idleVehicles) {
+      if (curVehicle.equals(vehicle)) {
+        continue;
+      }
+      idleCount++;
+      if (!curVehicle.isEnergyLevelGood()
+          && hasLowerEnergyLevel(curVehicle, vehicle)) {
+        lowerLevelCount++;
+      }
+    }
+    int rechargingCount = rechargingVehicles.size();
+    if (rechargingVehicles.contains(vehicle.getName())) {
+      rechargingCount--;
+    }
+    // Only recharge if other idle vehicles can take care of all waiting orders.
+    if (dispatchableCount >= idleCount) {
+      return false;
+    }
+    // A vehicle that is recharging already may continue to do so.
+    if (vehicle.hasState(Vehicle.State.CHARGING)) {
+      return true;
+    }
+    // Let the vehicles with the lowest energy levels use the free chargers.
+    return lowerLevelCount < maxRechargingVehicles - rechargingCount;
+  }
+
+  @Override
+  long getLocationPenalty(Location location) {
+    Integer count = usageCounts.get(location.getReference());
+    return count == null ? 0 : count * usagePenalty;
+  }
+
+  /**
+   * Returns the length of the shortest route from the given point to an access
+   * point of a location providing the given vehicle's recharge operation.
+   *
+   * @param vehicle The vehicle.
+   * @param point The point.
+   * @return The length of the route (in mm), or <code>Long.MAX_VALUE</code>,
+   * if there is no such route.
+   */
+  private long getRechargeDistance(Vehicle vehicle, Point point) {
+    if (router.getRoutingTablesVersion() != rechargeDistancesVersion) {
+      rechargeDistances.clear();
+      rechargeDistancesVersion = router.getRoutingTablesVersion();
+    }
+    String key = vehicle.getName() + ":" + point.getName();
+    Long result = rechargeDistances.get(key);
+    if (result == null) {
+      result = Long.MAX_VALUE;
+      for (ChargerCandidate candidate
+               : getCandidates(vehicle.getRechargeOperation())) {
+        for (Point accessPoint : candidate.getAccessPoints().keySet()) {
+          Route route = router.getRoute(vehicle, point, accessPoint);
+          if (route != null) {
+            result = Math.min(result, EnergyModel.getLength(route));
+          }
+        }
+      }
+      rechargeDistances.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Reads the current states of vehicles and transport orders from the kernel,
+   * unless they have been read less than the update interval ago.
+   */
+  private void updateDemand() {
+    long now = System.currentTimeMillis();
+    if (demandKnown && now - demandUpdateTime < demandUpdateInterval) {
+      return;
+    }
+    demandKnown = true;
+    demandUpdateTime = now;
+    dispatchableCount = 0;
+    usageCounts.clear();
+    // The final operations of orders being processed, for recognizing
+    // vehicles on their way to recharge without looking up their orders.
+    Map<TCSObjectReference<TransportOrder>, String> finalOperations
+        = new HashMap<>();
+    for (TransportOrder curOrder : kernel.getTCSObjects(TransportOrder.class)) {
+      if (curOrder.getState().isFinalState()) {
+        continue;
+      }
+      if (curOrder.hasState(TransportOrder.State.DISPATCHABLE)) {
+        dispatchableCount++;
+      }
+      List<DriveOrder> driveOrders = curOrder.getAllDriveOrders();
+      if (driveOrders.isEmpty()) {
+        continue;
+      }
+      DriveOrder.Destination dest
+          = driveOrders.get(driveOrders.size() - 1).getDestination();
+      if (!dest.getLocation().isDummy()) {
+        Integer count = usageCounts.get(dest.getLocation());
+        usageCounts.put(dest.getLocation(), count == null ? 1 : count + 1);
+      }
+      finalOperations.put(curOrder.getReference(), dest.getOperation());
+    }
+    idleVehicles.clear();
+    rechargingVehicles.clear();
+    for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
+      if (curVehicle.hasState(Vehicle.State.CHARGING)
+          || (curVehicle.hasProcState(Vehicle.ProcState.PROCESSING_ORDER)
+              && curVehicle.getTransportOrder() != null
+              && Objects.equals(
+                  finalOperations.get(curVehicle.getTransportOrder()),
+                  curVehicle.getRechargeOperation()))) {
+        rechargingVehicles.add(curVehicle.getName());
+      }
+      else if (curVehicle.hasProcState(Vehicle.ProcState.IDLE)
+          && curVehicle.hasState(Vehicle.State.IDLE)
+          && curVehicle.getCurrentPosition() != null) {
+        idleVehicles.add(curVehicle);
+      }
+    }
+  }
+
+  /**
+   * Checks whether the first vehicle's energy level is lower than the second
+   * one's, using the vehicles' names to break ties.
+   *
+   * @param vehicle The first vehicle.
+   * @param other The second vehicle.
+   * @return <code>true</code> if, and only if, the first vehicle's energy
+   * level is lower.
+   */
+  private static boolean hasLowerEnergyLevel(Vehicle vehicle, Vehicle other) {
+    if (vehicle.getEnergyLevel() != other.getEnergyLevel()) {
+      return vehicle.getEnergyLevel() < other.getEnergyLevel();
+    }
+    return vehicle.getName().compareTo(other.getName()) < 0;
+  }
+
+  /**
+   * Annotation type for injecting the maximum number of vehicles recharging in
+   * low-demand phases.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface MaxRechargingVehicles {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the costs added per unfinished transport
+   * order ending at a recharge location.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface UsagePenalty {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the minimum time between two updates of the
+   * vehicles' and transport orders' states.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface DemandUpdateInterval {
+    // Nothing here.
+  }
+}
@@ -9,7 +9,10 @@
 package org.opentcs.kernel.module.recharging;
 
 import com.google.inject.AbstractModule;
+import java.util.Objects;
+import java.util.logging.Logger;
 import org.opentcs.algorithms.RechargeStrategy;
+import org.opentcs.util.configuration.ConfigurationStore;
 
 /**
  *
@@ -18,8 +21,51 @@ import org.opentcs.algorithms.RechargeStrategy;
 public class RechargingInjectionModule
     extends AbstractModule {
 
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(RechargingInjectionModule.class.getName());
+
   @Override
   protected void configure() {
-    bind(RechargeStrategy.class).to(SimpleRechargeStrategy.class);
+    ConfigurationStore configStore
+        = ConfigurationStore.getStore(RechargingInjectionModule.class.getName());
+    String strategyType = configStore.getString("strategyType", "SIMPLE");
+    if (Objects.equals(strategyType, "PREDICTIVE")) {
+      configurePredictiveStrategy();
+    }
+    else if (Objects.equals(strategyType, "SIMPLE")) {
+      bind(RechargeStrategy.class).to(SimpleRechargeStrategy.class);
+    }
+    else {
+      log.warning("Unknown recharge strategy type '" + strategyType
+          + "', using SIMPLE");
+      bind(RechargeStrategy.class).to(SimpleRechargeStrategy.class);
+    }
+  }
+
+  private void configurePredictiveStrategy() {
+    ConfigurationStore configStore
+        = ConfigurationStore.getStore(PredictiveRechargeStrategy.class.getName());
+    bindConstant()
+        .annotatedWith(EnergyModel.ConsumptionPerMeter.class)
+        .to(configStore.getDouble("consumptionPerMeter", 0.05));
+    bindConstant()
+        .annotatedWith(EnergyModel.ConsumptionPerOperation.class)
+        .to(configStore.getDouble("consumptionPerOperation", 0.5));
+    bindConstant()
+        .annotatedWith(EnergyModel.EnergyCapacity.class)
+        .to(configStore.getDouble("energyCapacity", 1000.0));
+    bindConstant()
+        .annotatedWith(PredictiveRechargeStrategy.MaxRechargingVehicles.class)
+        .to(configStore.getInt("maxRechargingVehicles", 1));
+    bindConstant()
+        .annotatedWith(PredictiveRechargeStrategy.UsagePenalty.class)
+        .to(configStore.getLong("usagePenalty", 1000));
+    bindConstant()
+        .annotatedWith(PredictiveRechargeStrategy.DemandUpdateInterval.class)
+        .to(configStore.getLong("demandUpdateInterval", 1000));
+    bind(RechargeStrategy.class).to(PredictiveRechargeStrategy.class);
   }
 }
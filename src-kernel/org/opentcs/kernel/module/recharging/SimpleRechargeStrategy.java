@@ -8,8 +8,12 @@
  */
 package org.opentcs.kernel.module.recharging;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -28,6 +32,12 @@ import org.opentcs.data.model.Vehicle;
 /**
  * Tries to find recharge locations for vehicles that are off the route of other
  * vehicles.
+ * <p>
+ * The locations providing a recharge operation and their usable access points
+ * are determined once per operation, along with the points sharing a block
+ * with each access point, so requests only need to check the current state of
+ * these points.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -43,13 +53,20 @@ class SimpleRechargeStrategy
    */
   private final Router router;
   /**
-   * Maps locations' access points to points sharing the same block(s).
+   * Maps points to the points sharing the same block(s), including the points
+   * themselves. Points that are not a member of any block are not contained.
    */
-  private final Map<Point, Set<Point>> accessPoints = new HashMap<>();
+  private final Map<TCSObjectReference<Point>, Set<TCSObjectReference<Point>>> blockedPoints
+      = new HashMap<>();
+  /**
+   * The charger candidates, mapped by the recharge operations they provide.
+   */
+  private final Map<String, List<ChargerCandidate>> candidatesByOperation
+      = new HashMap<>();
 
   /**
    * Creates a new instance.
-   * 
+   *
    * @param kernel The kernel we're working for.
    * @param router The router to use.
    */
@@ -58,13 +75,11 @@ class SimpleRechargeStrategy
     this.kernel = Objects.requireNonNull(kernel, "kernel is null");
     this.router = Objects.requireNonNull(router, "router is null");
 
-    Set<Block> allBlocks = kernel.getTCSObjects(Block.class);
-    // Get all locations from the kernel, and for each of their access points,
-    // build a set of points that share the same block(s).
-    for (Location curLoc : kernel.getTCSObjects(Location.class)) {
-      for (Point accessPoint : getAccessPoints(curLoc)) {
-        accessPoints.put(accessPoint, getBlockedPoints(accessPoint, allBlocks));
-      }
+    indexBlockedPoints(kernel.getTCSObjects(Block.class));
+    // Determine the candidates for all recharge operations known by now.
+    // Candidates for other operations are determined when they are requested.
+    for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
+      getCandidates(curVehicle.getRechargeOperation());
     }
   }
 
@@ -74,144 +89,238 @@ class SimpleRechargeStrategy
     Objects.requireNonNull(vehicle.getCurrentPosition(),
                            "vehicle's current position is null");
 
-    String rechargeOp = vehicle.getRechargeOperation();
     Point curPos = kernel.getTCSObject(Point.class,
                                        vehicle.getCurrentPosition());
     Set<Point> targetedPoints = router.getTargetedPoints();
     Location bestLocation = null;
     long bestCosts = Long.MAX_VALUE;
-    for (Location curLoc : kernel.getTCSObjects(Location.class)) {
-      LocationType lType = kernel.getTCSObject(LocationType.class,
-                                               curLoc.getType());
-      // If the location provides the vehicle's recharge operation
-      // AND has an untargeted access point
-      // AND that access point is closer than the best we found so far,
-      // then the location is our new candidate.
-      if (lType.isAllowedOperation(rechargeOp)) {
-        long costs = getBestUntargetedAccessPointCosts(vehicle,
-                                                       curPos,
-                                                       curLoc,
-                                                       targetedPoints,
-                                                       rechargeOp);
-        if (costs < bestCosts) {
-          bestCosts = costs;
-          bestLocation = curLoc;
-        }
+    for (ChargerCandidate candidate
+             : getCandidates(vehicle.getRechargeOperation())) {
+      // If the location has an untargeted access point AND that access point
+      // is closer than the best we found so far, then the location is our new
+      // candidate.
+      long costs = getBestUntargetedAccessPointCosts(vehicle,
+                                                     curPos,
+                                                     candidate,
+                                                     targetedPoints);
+      if (costs == Long.MAX_VALUE) {
+        continue;
+      }
+      costs += getLocationPenalty(candidate.getLocation());
+      if (costs < bestCosts) {
+        bestCosts = costs;
+        bestLocation = candidate.getLocation();
       }
     }
     return bestLocation;
   }
 
+  /**
+   * Returns the costs added to the costs of travelling to the given location
+   * when choosing a recharge location.
+   * This implementation always returns 0.
+   *
+   * @param location The location.
+   * @return The costs added to the costs of travelling to the given location.
+   */
+  long getLocationPenalty(Location location) {
+    return 0;
+  }
+
+  /**
+   * Returns the locations providing the given recharge operation, along with
+   * the access points at which the operation may be executed.
+   *
+   * @param rechargeOp The recharge operation.
+   * @return The locations providing the given recharge operation.
+   */
+  synchronized List<ChargerCandidate> getCandidates(String rechargeOp) {
+    List<ChargerCandidate> result = candidatesByOperation.get(rechargeOp);
+    if (result == null) {
+      result = new ArrayList<>();
+      for (Location curLoc : kernel.getTCSObjects(Location.class)) {
+        LocationType lType = kernel.getTCSObject(LocationType.class,
+                                                 curLoc.getType());
+        if (lType.isAllowedOperation(rechargeOp)) {
+          ChargerCandidate candidate = createCandidate(curLoc, rechargeOp);
+          if (!candidate.getAccessPoints().isEmpty()) {
+            result.add(candidate);
+          }
+        }
+      }
+      result = Collections.unmodifiableList(result);
+      candidatesByOperation.put(rechargeOp, result);
+    }
+    return result;
+  }
+
   /**
    * Returns the lowest possible costs for the given  vehicle travelling to an
-   * untargeted access point of the given location.
+   * untargeted access point of the given candidate.
    *
    * @param vehicle The vehicle for which to compute the routes.
    * @param srcPosition The position from which the vehicle would travel.
-   * @param location The location the vehicle would travel to.
+   * @param candidate The candidate the vehicle would travel to.
    * @param targetedPoints All points currently targeted by vehicles.
-   * @param rechargeOp The vehicle's recharge operation.
    * @return The lowest possible costs for the given  vehicle travelling to an
    * untargeted access point of the given location.
    */
   private long getBestUntargetedAccessPointCosts(Vehicle vehicle,
                                                  Point srcPosition,
-                                                 Location location,
-                                                 Set<Point> targetedPoints,
-                                                 String rechargeOp) {
+                                                 ChargerCandidate candidate,
+                                                 Set<Point> targetedPoints) {
     assert vehicle != null;
     assert srcPosition != null;
-    assert location != null;
+    assert candidate != null;
     assert targetedPoints != null;
 
     long bestLinkCosts = Long.MAX_VALUE;
+    for (Map.Entry<Point, Set<TCSObjectReference<Point>>> entry
+             : candidate.getAccessPoints().entrySet()) {
+      boolean linkUsable = true;
+      for (TCSObjectReference<Point> blockedPoint : entry.getValue()) {
+        Point blockedPointActu = kernel.getTCSObject(Point.class, blockedPoint);
+        // If the point is occupied by another vehicle, give up this link.
+        if (blockedPointActu.getOccupyingVehicle() != null
+            && !blockedPointActu.getOccupyingVehicle().equals(vehicle.getReference())) {
+          linkUsable = false;
+          break;
+        }
+        // If the point is targeted by another vehicle, give up this link.
+        else if (targetedPoints.contains(blockedPointActu)) {
+          linkUsable = false;
+          break;
+        }
+      }
+
+      if (linkUsable) {
+        long linkCosts = router.getCostsByPointRef(vehicle,
+                                                   srcPosition.getReference(),
+                                                   entry.getKey().getReference());
+        bestLinkCosts = Math.min(linkCosts, bestLinkCosts);
+      }
+    }
+    return bestLinkCosts;
+  }
+
+  /**
+   * Creates a candidate for the given location and recharge operation.
+   *
+   * @param location The location.
+   * @param rechargeOp The recharge operation.
+   * @return The candidate.
+   */
+  private ChargerCandidate createCandidate(Location location,
+                                           String rechargeOp) {
+    assert location != null;
+    assert rechargeOp != null;
+
+    Map<Point, Set<TCSObjectReference<Point>>> accessPoints
+        = new LinkedHashMap<>();
     for (Location.Link curLink : location.getAttachedLinks()) {
       // This link is only interesting if it either does not define any allowed
       // operations at all or, if it does, allows the required recharge
       // operation.
       if (curLink.getAllowedOperations().isEmpty()
           || curLink.hasAllowedOperation(rechargeOp)) {
-
         Point accessPoint = kernel.getTCSObject(Point.class,
                                                 curLink.getPoint());
-        Set<Point> blockedPoints = accessPoints.get(accessPoint);
-
-        boolean linkUsable = true;
-        for (Point blockedPoint : blockedPoints) {
-          Point blockedPointActu = kernel.getTCSObject(Point.class,
-                                                       blockedPoint.getReference());
-          // If the point is occupied by another vehicle, give up this link.
-          if (blockedPointActu.getOccupyingVehicle() != null
-              && !blockedPointActu.getOccupyingVehicle().equals(vehicle.getReference())) {
-            linkUsable = false;
-            break;
-          }
-          // If the point is targeted by another vehicle, give up this link.
-          else if (targetedPoints.contains(blockedPointActu)) {
-            linkUsable = false;
-            break;
-          }
-        }
-
-        if (linkUsable) {
-          long linkCosts = router.getCostsByPointRef(vehicle,
-                                                     srcPosition.getReference(),
-                                                     curLink.getPoint());
-          bestLinkCosts = Math.min(linkCosts, bestLinkCosts);
-        }
+        accessPoints.put(accessPoint, getBlockedPoints(curLink.getPoint()));
       }
     }
-    return bestLinkCosts;
+    return new ChargerCandidate(location, accessPoints);
+  }
+
+  /**
+   * Returns the points that are blocked when the given point is, i.e. the
+   * point itself and all points sharing a block with it.
+   *
+   * @param pointRef A reference to the point.
+   * @return The points that are blocked when the given point is.
+   */
+  private Set<TCSObjectReference<Point>> getBlockedPoints(
+      TCSObjectReference<Point> pointRef) {
+    Set<TCSObjectReference<Point>> result = blockedPoints.get(pointRef);
+    return result == null ? Collections.singleton(pointRef) : result;
   }
 
   /**
-   * Gathers a set of all points from all given blocks that the given point is a
-   * member of.
+   * Maps all points that are a member of any of the given blocks to the points
+   * sharing the same block(s).
    *
-   * @param point The point to check.
-   * @param blocks The blocks to scan for the point.
-   * @return A set of all points from all given blocks that the given point is a
-   * member of.
+   * @param blocks The blocks.
    */
   @SuppressWarnings("unchecked")
-  private Set<Point> getBlockedPoints(Point point, Set<Block> blocks) {
-    assert point != null;
+  private void indexBlockedPoints(Set<Block> blocks) {
     assert blocks != null;
-    Set<Point> result = new HashSet<>();
 
-    // The point itself is always required.
-    result.add(point);
-
-    // Check for every block if the given point is part of it.
     for (Block curBlock : blocks) {
-      if (curBlock.containsMember(point.getReference())) {
-        // Check for every member of the block if it's a point. If it is, add it
-        // to the resulting set.
-        for (TCSObjectReference<?> memberRef : curBlock.getMembers()) {
-          if (Point.class.equals(memberRef.getReferentClass())) {
-            result.add(kernel.getTCSObject(Point.class,
-                                           (TCSObjectReference<Point>) memberRef));
-          }
+      // Collect all members of the block that are points.
+      Set<TCSObjectReference<Point>> blockPoints = new HashSet<>();
+      for (TCSObjectReference<?> memberRef : curBlock.getMembers()) {
+        if (Point.class.equals(memberRef.getReferentClass())) {
+          blockPoints.add((TCSObjectReference<Point>) memberRef);
         }
       }
+      // Each of them blocks all the others.
+      for (TCSObjectReference<Point> pointRef : blockPoints) {
+        Set<TCSObjectReference<Point>> pointSet = blockedPoints.get(pointRef);
+        if (pointSet == null) {
+          pointSet = new HashSet<>();
+          blockedPoints.put(pointRef, pointSet);
+        }
+        pointSet.addAll(blockPoints);
+      }
     }
-    return result;
   }
 
   /**
-   * Returns a set of points from which the given location can be accessed.
-   *
-   * @param location The location.
-   * @return A set of points from which the given location can be accessed.
+   * A location providing a recharge operation, along with the points from
+   * which the operation can be executed.
    */
-  private Set<Point> getAccessPoints(Location location) {
-    assert location != null;
-    Set<Point> result = new HashSet<>();
+  static class ChargerCandidate {
 
-    for (Location.Link curLink : location.getAttachedLinks()) {
-      result.add(kernel.getTCSObject(Point.class, curLink.getPoint()));
+    /**
+     * The location.
+     */
+    private final Location location;
+    /**
+     * The access points at which the recharge operation may be executed,
+     * mapped to the points sharing the same block(s).
+     */
+    private final Map<Point, Set<TCSObjectReference<Point>>> accessPoints;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param location The location.
+     * @param accessPoints The access points at which the recharge operation may
+     * be executed, mapped to the points sharing the same block(s).
+     */
+    ChargerCandidate(Location location,
+                     Map<Point, Set<TCSObjectReference<Point>>> accessPoints) {
+      this.location = Objects.requireNonNull(location, "location is null");
+      this.accessPoints = Objects.requireNonNull(accessPoints,
+                                                 "accessPoints is null");
     }
 
-    return result;
+    /**
+     * Returns the location.
+     *
+     * @return The location.
+     */
+    Location getLocation() {
+      return location;
+    }
+
+    /**
+     * Returns the access points at which the recharge operation may be
+     * executed, mapped to the points sharing the same block(s).
+     *
+     * @return The access points.
+     */
+    Map<Point, Set<TCSObjectReference<Point>>> getAccessPoints() {
+      return accessPoints;
+    }
   }
 }
@@ -40,6 +40,12 @@ import org.opentcs.kernel.workingset.Model;
 
 /**
  * A basic <code>Router</code> implementation.
+ * <p>
+ * Routes are computed and selected while holding this router's lock, which
+ * also guards the reservation table and the selected routes. Costs are looked
+ * up in the routing tables without locking, so they may be queried by several
+ * threads concurrently.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -51,6 +57,10 @@ class BasicRouter
    */
   private static final Logger log
       = Logger.getLogger(BasicRouter.class.getName());
+  /**
+   * The maximum number of routes cached for vehicle/order combinations.
+   */
+  private static final int ROUTE_CACHE_SIZE = 100000;
   /**
    * Whether to explicitly look for a (static or computed) route even if the
    * destination position is the source position.
@@ -62,6 +72,7 @@ class BasicRouter
   private final Model model;
   /**
    * The routes selected for each vehicle.
+   * Guarded by this router's lock.
    */
   private final Map<Vehicle, List<DriveOrder>> routesByVehicle = new HashMap<>();
   /**
@@ -70,24 +81,96 @@ class BasicRouter
   private final RoutingTableBuilder tableBuilder;
   /**
    * The routing nets by vehicle.
-   * XXX Access to this should probably be synchronized!
+   * The map is never modified but replaced as a whole when the routing tables
+   * are updated, so it may be read by several threads (e.g. the dispatcher's
+   * candidate evaluation workers) without further synchronization.
+   */
+  private volatile Map<Vehicle, RoutingTable> netsByVehicle
+      = Collections.emptyMap();
+  /**
+   * The version of the routing tables, incremented with every update.
+   */
+  private volatile long routingTablesVersion;
+  /**
+   * Whether the model contained any static routes when the routing tables
+   * were last updated.
+   */
+  private volatile boolean staticRoutesPresent;
+  /**
+   * The cheapest routes computed from the routing tables for transport
+   * orders.
+   */
+  private final OrderRouteCache routeCache
+      = new OrderRouteCache(ROUTE_CACHE_SIZE);
+  /**
+   * Computes the costs of single route steps for routes computed at query
+   * time. May be <code>null</code> if no congestion monitor is used.
+   */
+  private final RouteEvaluator routeEvaluator;
+  /**
+   * Rates resources occupied by other vehicles for routes computed at query
+   * time. May be <code>null</code>.
+   */
+  private final CongestionMonitor congestionMonitor;
+  /**
+   * Keeps the time windows in which vehicles are expected to occupy resources
+   * along their selected routes. May be <code>null</code>.
+   * Guarded by this router's lock.
    */
-  private final Map<Vehicle, RoutingTable> netsByVehicle = new HashMap<>();
+  private final ReservationTable reservationTable;
+
+  /**
+   * Creates a new instance that always uses its routing tables.
+   *
+   * @param model The model on which this router's tables are based.
+   * @param tableBuilder A builder for constructing routing tables.
+   * @param routeToCurrentPosition Whether to explicitly look for a (static or
+   * computed) route even if the destination position is the source position.
+   */
+  BasicRouter(Model model,
+              RoutingTableBuilder tableBuilder,
+              boolean routeToCurrentPosition) {
+    this.model = requireNonNull(model, "model");
+    this.tableBuilder = requireNonNull(tableBuilder, "tableBuilder");
+    this.routeToCurrentPosition = routeToCurrentPosition;
+    this.routeEvaluator = null;
+    this.congestionMonitor = null;
+    this.reservationTable = null;
+  }
 
   /**
    * Creates a new instance.
+   * If planning with the given reservation table is enabled or the given
+   * congestion monitor reports penalties for resources occupied by other
+   * vehicles, routes for transport orders and between points are computed at
+   * query time instead of being taken from the routing tables. The costs
+   * returned by the <code>getCosts()</code> methods are always taken from the
+   * routing tables, though.
    *
    * @param model The model on which this router's tables are based.
    * @param tableBuilder A builder for constructing routing tables.
+   * @param routeEvaluator Computes the costs of route steps for routes
+   * computed at query time.
+   * @param congestionMonitor Rates resources occupied by other vehicles.
+   * @param reservationTable Keeps the time windows in which vehicles are
+   * expected to occupy resources along their selected routes.
    * @param routeToCurrentPosition Whether to explicitly look for a (static or
    * computed) route even if the destination position is the source position.
    */
   @Inject
   BasicRouter(Model model,
               RoutingTableBuilder tableBuilder,
+              RouteEvaluator routeEvaluator,
+              CongestionMonitor congestionMonitor,
+              ReservationTable reservationTable,
               @RouteToCurrentPos boolean routeToCurrentPosition) {
     this.model = requireNonNull(model, "model");
     this.tableBuilder = requireNonNull(tableBuilder, "tableBuilder");
+    this.routeEvaluator = requireNonNull(routeEvaluator, "routeEvaluator");
+    this.congestionMonitor = requireNonNull(congestionMonitor,
+                                            "congestionMonitor");
+    this.reservationTable = requireNonNull(reservationTable,
+                                           "reservationTable");
     this.routeToCurrentPosition = routeToCurrentPosition;
   }
 
@@ -96,27 +179,25 @@ class BasicRouter
     requireNonNull(order, "order is null");
 
     Set<Vehicle> result = new HashSet<>();
-    List<DriveOrder> driveOrderList = order.getFutureDriveOrders();
-    DriveOrder[] driveOrders
-        = driveOrderList.toArray(new DriveOrder[driveOrderList.size()]);
+    List<Set<Point>> destPoints = new ArrayList<>();
+    for (DriveOrder curDriveOrder : order.getFutureDriveOrders()) {
+      destPoints.add(getDestinationPoints(curDriveOrder));
+    }
     for (Map.Entry<Vehicle, RoutingTable> curEntry : netsByVehicle.entrySet()) {
-      // Get all points at the first location at which a vehicle of the current
-      // type can execute the desired operation and check if an acceptable route
-      // originating in one of them exists.
-      for (Point curStartPoint : getDestinationPoints(driveOrders[0])) {
-        if (isRoutable(curStartPoint, driveOrders, 1, curEntry.getValue())) {
-          result.add(curEntry.getKey());
-          break;
-        }
+      // Start at all points at the first location at which a vehicle of the
+      // current type can execute the desired operation and check if an
+      // acceptable route originating in one of them exists.
+      if (isRoutable(destPoints, curEntry.getValue())) {
+        result.add(curEntry.getKey());
       }
     }
     return result;
   }
 
   @Override
-  public List<DriveOrder> getRoute(Vehicle vehicle,
-                                   Point sourcePoint,
-                                   TransportOrder transportOrder) {
+  public synchronized List<DriveOrder> getRoute(Vehicle vehicle,
+                                                Point sourcePoint,
+                                                TransportOrder transportOrder) {
     requireNonNull(vehicle, "vehicle is null");
     requireNonNull(sourcePoint, "sourcePoint is null");
     requireNonNull(transportOrder, "transportOrder is null");
@@ -124,25 +205,63 @@ class BasicRouter
     List<DriveOrder> driveOrderList = transportOrder.getFutureDriveOrders();
     DriveOrder[] driveOrders
         = driveOrderList.toArray(new DriveOrder[driveOrderList.size()]);
+    for (RouteFinder finder : getRouteFinders(vehicle)) {
+      List<DriveOrder> result
+          = computeOrderRoute(vehicle, sourcePoint, driveOrders, finder);
+      if (result != null) {
+        return result;
+      }
+    }
+    OrderRouteCache.OrderRoute orderRoute
+        = getCheapestOrderRoute(vehicle, sourcePoint, driveOrderList);
+    if (!orderRoute.isRoutable()) {
+      return null;
+    }
     RoutingTable net = netsByVehicle.get(vehicle);
-    OrderRouteParameterStruct params
-        = new OrderRouteParameterStruct(driveOrders, net);
-    OrderRouteResultStruct resultStruct
-        = new OrderRouteResultStruct(driveOrderList.size());
-    computeCheapestOrderRoute(sourcePoint, params, 0, resultStruct);
-    return (resultStruct.bestCosts == Long.MAX_VALUE)
-        ? null
-        : Arrays.asList(resultStruct.bestRoute);
+    List<DriveOrder> result = new ArrayList<>(driveOrders.length);
+    Point hopStart = sourcePoint;
+    for (int hopIndex = 0; hopIndex < driveOrders.length; hopIndex++) {
+      Point hopDestination = orderRoute.getHopDestination(hopIndex);
+      result.add(createHopOrder(driveOrders[hopIndex],
+                                hopStart,
+                                net.getRouteSteps(hopStart, hopDestination),
+                                net.getCosts(hopStart, hopDestination)));
+      hopStart = hopDestination;
+    }
+    return result;
   }
 
   @Override
-  public Route getRoute(Vehicle vehicle,
-                        Point sourcePoint,
-                        Point destinationPoint) {
+  public long getCosts(Vehicle vehicle,
+                       Point sourcePoint,
+                       TransportOrder transportOrder) {
+    requireNonNull(vehicle, "vehicle is null");
+    requireNonNull(sourcePoint, "sourcePoint is null");
+    requireNonNull(transportOrder, "transportOrder is null");
+
+    return getCheapestOrderRoute(vehicle,
+                                 sourcePoint,
+                                 transportOrder.getFutureDriveOrders())
+        .getCosts();
+  }
+
+  @Override
+  public synchronized Route getRoute(Vehicle vehicle,
+                                     Point sourcePoint,
+                                     Point destinationPoint) {
     requireNonNull(vehicle, "vehicle is null");
     requireNonNull(sourcePoint, "sourcePoint is null");
     requireNonNull(destinationPoint, "destinationPoint is null");
 
+    for (RouteFinder finder : getRouteFinders(vehicle)) {
+      List<Route.Step> steps = finder
+          .findRoutes(Collections.singletonMap(sourcePoint, 0L))
+          .getSteps(destinationPoint);
+      if (steps != null) {
+        return new Route(
+            steps, routeEvaluator.computeCosts(vehicle, sourcePoint, steps));
+      }
+    }
     RoutingTable net = netsByVehicle.get(vehicle);
     long costs = net.getCosts(sourcePoint, destinationPoint);
     if (costs == INFINITE_COSTS) {
@@ -200,7 +319,8 @@ class BasicRouter
   }
 
   @Override
-  public void selectRoute(Vehicle vehicle, List<DriveOrder> driveOrders) {
+  public synchronized void selectRoute(Vehicle vehicle,
+                                       List<DriveOrder> driveOrders) {
     requireNonNull(vehicle, "vehicle is null");
 
     if (driveOrders == null) {
@@ -210,6 +330,12 @@ class BasicRouter
     else {
       routesByVehicle.put(vehicle, driveOrders);
     }
+    if (reservationTable != null && reservationTable.isEnabled()) {
+      reservationTable.release(vehicle.getName());
+      if (driveOrders != null) {
+        reserveRoute(vehicle, driveOrders, System.currentTimeMillis());
+      }
+    }
   }
 
   @Override
@@ -218,7 +344,7 @@ class BasicRouter
   }
 
   @Override
-  public Set<Point> getTargetedPoints() {
+  public synchronized Set<Point> getTargetedPoints() {
     Set<Point> result = new HashSet<>();
     for (List<DriveOrder> curOrderList : routesByVehicle.values()) {
       DriveOrder finalOrder = curOrderList.get(curOrderList.size() - 1);
@@ -229,12 +355,20 @@ class BasicRouter
 
   @Override
   public void updateRoutingTables() {
-    netsByVehicle.clear();
+    Map<Vehicle, RoutingTable> nets = new HashMap<>();
     for (Vehicle curVehicle : model.getVehicles(null)) {
       RoutingTable routingNet = tableBuilder.computeTable(model, curVehicle);
-      netsByVehicle.put(curVehicle, routingNet);
+      nets.put(curVehicle, routingNet);
     }
-    log.fine("Number of nets computed: " + netsByVehicle.size());
+    netsByVehicle = Collections.unmodifiableMap(nets);
+    staticRoutesPresent = !model.getStaticRoutes(null).isEmpty();
+    routingTablesVersion++;
+    log.fine("Number of nets computed: " + nets.size());
+  }
+
+  @Override
+  public long getRoutingTablesVersion() {
+    return routingTablesVersion;
   }
 
   @Override
@@ -242,124 +376,310 @@ class BasicRouter
     return "Computed nets/routing tables: " + netsByVehicle.size();
   }
 
+  /**
+   * Returns the finders to compute routes with at query time, in the order in
+   * which they are to be tried before falling back to the routing tables.
+   * Static routes are known to the routing tables only, so routes are always
+   * taken from the tables if the model contained any when the tables were
+   * updated.
+   * Must be called while holding this router's lock, as the finders use the
+   * reservation table and the selected routes.
+   *
+   * @param vehicle The vehicle for which a route is to be computed.
+   * @return The finders to compute routes with. If empty, routes are to be
+   * taken from the routing tables.
+   */
+  private List<RouteFinder> getRouteFinders(Vehicle vehicle) {
+    if (routeEvaluator == null || staticRoutesPresent) {
+      return Collections.emptyList();
+    }
+    List<RouteFinder> result = new ArrayList<>(2);
+    if (reservationTable.isEnabled()) {
+      long now = System.currentTimeMillis();
+      reservationTable.removeExpired(now);
+      result.add(new SpaceTimeRouteFinder(model, reservationTable, vehicle, now));
+    }
+    if (congestionMonitor.isEnabled()) {
+      Map<String, Long> penalties
+          = congestionMonitor.getPenalties(vehicle, routesByVehicle);
+      if (!penalties.isEmpty()) {
+        result.add(new PenalizedRouteFinder(model,
+                                            routeEvaluator,
+                                            vehicle,
+                                            penalties));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reserves the resources along the given route in the reservation table,
+   * assuming the vehicle starts travelling at the given point of time and does
+   * not stop on the way. The final destination is reserved indefinitely.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The drive orders with the vehicle's route.
+   * @param startTime The point of time at which the vehicle starts.
+   */
+  private void reserveRoute(Vehicle vehicle,
+                            List<DriveOrder> driveOrders,
+                            long startTime) {
+    reservationTable.removeExpired(startTime);
+    String vehicleName = vehicle.getName();
+    long time = startTime;
+    Point lastPoint = null;
+    for (DriveOrder driveOrder : driveOrders) {
+      if (driveOrder.getRoute() == null
+          || driveOrder.getState() == DriveOrder.State.FINISHED
+          || driveOrder.getState() == DriveOrder.State.FAILED) {
+        continue;
+      }
+      for (Route.Step step : driveOrder.getRoute().getSteps()) {
+        lastPoint = step.getDestinationPoint();
+        if (step.getPath() == null) {
+          continue;
+        }
+        long travelTime = SpaceTimeRouteFinder.getTravelTime(vehicle, step);
+        if (travelTime == INFINITE_COSTS) {
+          // The vehicle will not get here in any predictable time.
+          return;
+        }
+        reservationTable.reserve(vehicleName,
+                                 step.getPath().getName(),
+                                 time,
+                                 time + travelTime);
+        time += travelTime;
+        reservationTable.reserve(vehicleName, lastPoint.getName(), time, time);
+      }
+    }
+    if (lastPoint != null) {
+      reservationTable.reserve(vehicleName,
+                               lastPoint.getName(),
+                               time,
+                               Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Computes the cheapest route along a list of drive orders at query time.
+   * For every drive order, a single search starting at all candidate points
+   * of the previous one (with their costs so far) yields the cheapest way of
+   * reaching each of the drive order's candidate points.
+   *
+   * @param vehicle The vehicle for which to compute the route.
+   * @param sourcePoint The point at which the route is supposed to start.
+   * @param driveOrders The drive orders containing the route's checkpoints.
+   * @param finder The finder to compute routes with.
+   * @return The drive orders with their routes set, or <code>null</code>, if
+   * no route exists.
+   */
+  private List<DriveOrder> computeOrderRoute(Vehicle vehicle,
+                                             Point sourcePoint,
+                                             DriveOrder[] driveOrders,
+                                             RouteFinder finder) {
+    List<RouteSearchResult> hopResults = new ArrayList<>(driveOrders.length);
+    Map<Point, Long> hopCosts = Collections.singletonMap(sourcePoint, 0L);
+    for (DriveOrder driveOrder : driveOrders) {
+      RouteSearchResult result = finder.findRoutes(hopCosts);
+      Map<Point, Long> nextHopCosts = new HashMap<>();
+      for (Point curDestPoint : getDestinationPoints(driveOrder)) {
+        long costs = result.getCosts(curDestPoint);
+        if (costs != INFINITE_COSTS) {
+          nextHopCosts.put(curDestPoint, costs);
+        }
+      }
+      if (nextHopCosts.isEmpty()) {
+        return null;
+      }
+      hopResults.add(result);
+      hopCosts = nextHopCosts;
+    }
+    // Trace the cheapest route back from the final destination.
+    Point hopDestination = null;
+    for (Map.Entry<Point, Long> entry : hopCosts.entrySet()) {
+      if (hopDestination == null
+          || entry.getValue() < hopCosts.get(hopDestination)) {
+        hopDestination = entry.getKey();
+      }
+    }
+    DriveOrder[] route = new DriveOrder[driveOrders.length];
+    for (int hopIndex = driveOrders.length - 1; hopIndex >= 0; hopIndex--) {
+      RouteSearchResult result = hopResults.get(hopIndex);
+      Point hopStart = result.getOrigin(hopDestination);
+      List<Route.Step> steps = result.getSteps(hopDestination);
+      long costs = steps.isEmpty()
+          ? 0
+          : routeEvaluator.computeCosts(vehicle, hopStart, steps);
+      route[hopIndex] = createHopOrder(driveOrders[hopIndex],
+                                       hopStart,
+                                       steps,
+                                       costs);
+      hopDestination = hopStart;
+    }
+    return Arrays.asList(route);
+  }
+
+  /**
+   * Copies the given drive order and sets the given route on the copy.
+   *
+   * @param driveOrder The drive order.
+   * @param startPoint The point at which the route starts.
+   * @param steps The route's steps. If empty, a single step without a path is
+   * created for the start point.
+   * @param costs The route's costs.
+   * @return The copy of the drive order.
+   */
+  private DriveOrder createHopOrder(DriveOrder driveOrder,
+                                    Point startPoint,
+                                    List<Route.Step> steps,
+                                    long costs) {
+    if (steps.isEmpty()) {
+      // If the list of steps is empty, we're already at the destination point
+      // of the drive order - create a single step without a path.
+      steps = new ArrayList<>(1);
+      steps.add(new Route.Step(null,
+                               startPoint,
+                               Vehicle.Orientation.UNDEFINED,
+                               0));
+    }
+    DriveOrder hopOrder = driveOrder.clone();
+    hopOrder.setRoute(new Route(steps, costs));
+    return hopOrder;
+  }
+
   /**
    * Checks if a route exists for a vehicle of a given type which allows the
    * vehicle to process a given list of drive orders.
    *
-   * @param startPoint The point at which the route is supposed to start.
-   * @param driveOrders The list of drive orders, in the order they are to be
-   * processed.
-   * @param nextHopIndex The index of the next drive order in the list.
+   * @param destPoints The candidate destination points of the drive orders, in
+   * the order they are to be processed. The route may start at any of the
+   * first drive order's points.
    * @param net The routing net to use.
    * @return <code>true</code> if, and only if, at least one route exists which
    * would allow a vehicle of the given type to process the whole list of drive
    * orders.
    */
-  private boolean isRoutable(Point startPoint,
-                             DriveOrder[] driveOrders,
-                             int nextHopIndex,
-                             RoutingTable net) {
-    assert startPoint != null;
-    assert driveOrders != null;
+  private boolean isRoutable(List<Set<Point>> destPoints, RoutingTable net) {
+    assert destPoints != null;
     assert net != null;
 
-    if (nextHopIndex < driveOrders.length) {
-      for (Point curPoint : getDestinationPoints(driveOrders[nextHopIndex])) {
-        // Check if there is a route from the starting point to the current
-        // point and if the rest of the orders are routable from there, too.
-        if (net.getCosts(startPoint, curPoint) != INFINITE_COSTS
-            && isRoutable(curPoint, driveOrders, nextHopIndex + 1, net)) {
-          // If it was possible to reach the end of the order list from here,
-          // propagate the result back to the caller.
-          return true;
+    // The points that can be reached after processing the current hop.
+    Set<Point> reachedPoints = destPoints.get(0);
+    for (int hopIndex = 1; hopIndex < destPoints.size(); hopIndex++) {
+      Set<Point> nextReachedPoints = new HashSet<>();
+      for (Point curPoint : destPoints.get(hopIndex)) {
+        for (Point curStartPoint : reachedPoints) {
+          if (net.getCosts(curStartPoint, curPoint) != INFINITE_COSTS) {
+            nextReachedPoints.add(curPoint);
+            break;
+          }
         }
       }
-      // If we haven't found an acceptable route, return false.
-      return false;
+      if (nextReachedPoints.isEmpty()) {
+        return false;
+      }
+      reachedPoints = nextReachedPoints;
     }
-    // If we have reached the end of the list, it seems we have found a route.
-    else {
-      return true;
+    return !reachedPoints.isEmpty();
+  }
+
+  /**
+   * Returns the cheapest sequence of destination points for the given vehicle
+   * to process the given drive orders, according to the vehicle's routing
+   * table.
+   *
+   * @param vehicle The vehicle.
+   * @param sourcePoint The point at which the route is supposed to start.
+   * @param driveOrders The drive orders, in the order they are to be
+   * processed.
+   * @return The cheapest sequence of destination points.
+   */
+  private OrderRouteCache.OrderRoute getCheapestOrderRoute(
+      Vehicle vehicle,
+      Point sourcePoint,
+      List<DriveOrder> driveOrders) {
+    long version = routingTablesVersion;
+    OrderRouteCache.OrderRoute result
+        = routeCache.get(vehicle, sourcePoint, driveOrders, version);
+    if (result == null) {
+      result = computeCheapestOrderRoute(netsByVehicle.get(vehicle),
+                                         sourcePoint,
+                                         driveOrders);
+      routeCache.put(vehicle, sourcePoint, driveOrders, version, result);
     }
+    return result;
   }
 
   /**
-   * Compute the cheapest route along a list of drive orders/checkpoints.
+   * Computes the cheapest sequence of destination points along a list of
+   * drive orders.
+   * For every drive order, the cheapest costs for reaching each of its
+   * candidate points are computed from those of the previous drive order's
+   * candidate points, so the effort is linear in the number of drive orders
+   * and quadratic in the number of candidate points per drive order.
    *
-   * @param startPoint The current checkpoint which to start at.
-   * @param params A struct describing parameters for the route to be computed.
-   * @param hopIndex The current index in the list of drive orders/checkpoints.
-   * @param result A struct for keeping the (partial) result in.
+   * @param net The routing table to use.
+   * @param sourcePoint The point at which the route is supposed to start.
+   * @param driveOrders The drive orders, in the order they are to be
+   * processed.
+   * @return The cheapest sequence of destination points.
    */
-  private void computeCheapestOrderRoute(Point startPoint,
-                                         OrderRouteParameterStruct params,
-                                         int hopIndex,
-                                         OrderRouteResultStruct result) {
-    log.finer("method entry");
-    assert startPoint != null;
-    assert params != null;
-    assert result != null;
-    // If we haven't reached the final drive order in the list, yet...
-    if (hopIndex < params.driveOrders.length) {
-      // ...try every possible destination point of the current drive order as
-      // the next checkpoint and recursively route from there.
-      final long currentRouteCosts = result.currentCosts;
-      Set<Point> destPoints = getDestinationPoints(params.driveOrders[hopIndex]);
-      // If the set of destination points contains the starting point, keep only
-      // that one. This is just a shortcut - it is the cheapest way to go.
-      if (!routeToCurrentPosition && destPoints.contains(startPoint)) {
-        log.fine("Shortcutting route to " + startPoint);
-        destPoints.clear();
-        destPoints.add(startPoint);
-      }
-      boolean routable = false;
-      for (Point curDestPoint : destPoints) {
-        final long hopCosts = params.net.getCosts(startPoint, curDestPoint);
-        if (hopCosts == INFINITE_COSTS) {
-          continue;
-        }
-        // Get the list of steps for the route of the current drive order.
-        List<Route.Step> steps
-            = params.net.getRouteSteps(startPoint, curDestPoint);
-        if (steps.isEmpty()) {
-          // If the list of steps returned is empty, we're already at the
-          // destination point of the drive order - create a single step
-          // without a path.
-          steps = new ArrayList<>(1);
-          steps.add(new Route.Step(null,
-                                   startPoint,
-                                   Vehicle.Orientation.UNDEFINED,
-                                   0));
+  private OrderRouteCache.OrderRoute computeCheapestOrderRoute(
+      RoutingTable net,
+      Point sourcePoint,
+      List<DriveOrder> driveOrders) {
+    // For each drive order, the candidate point from which each of its
+    // candidate points is reached most cheaply.
+    List<Map<Point, Point>> predecessors = new ArrayList<>(driveOrders.size());
+    // The cheapest costs for reaching each candidate point of the current hop.
+    Map<Point, Long> hopCosts = Collections.singletonMap(sourcePoint, 0L);
+    for (DriveOrder curDriveOrder : driveOrders) {
+      Set<Point> destPoints = getDestinationPoints(curDriveOrder);
+      Map<Point, Long> nextHopCosts = new HashMap<>();
+      Map<Point, Point> hopPredecessors = new HashMap<>();
+      for (Map.Entry<Point, Long> curEntry : hopCosts.entrySet()) {
+        Point startPoint = curEntry.getKey();
+        // If the set of destination points contains the starting point, keep
+        // only that one. This is just a shortcut - it is the cheapest way to
+        // go.
+        Set<Point> reachablePoints
+            = (!routeToCurrentPosition && destPoints.contains(startPoint))
+                ? Collections.singleton(startPoint)
+                : destPoints;
+        for (Point curDestPoint : reachablePoints) {
+          long costs = net.getCosts(startPoint, curDestPoint);
+          if (costs == INFINITE_COSTS) {
+            continue;
+          }
+          long totalCosts = curEntry.getValue() + costs;
+          Long knownCosts = nextHopCosts.get(curDestPoint);
+          if (knownCosts == null || totalCosts < knownCosts) {
+            nextHopCosts.put(curDestPoint, totalCosts);
+            hopPredecessors.put(curDestPoint, startPoint);
+          }
         }
-        // Create a route from the list of steps gathered.
-        Route hopRoute = new Route(steps, hopCosts);
-        // Copy the current drive order, add the computed route to it and
-        // place it in the result struct.
-        DriveOrder hopOrder = params.driveOrders[hopIndex].clone();
-        hopOrder.setRoute(hopRoute);
-        result.currentRoute[hopIndex] = hopOrder;
-        // Calculate the costs for the route so far, too.
-        result.currentCosts = currentRouteCosts + hopRoute.getCosts();
-        computeCheapestOrderRoute(curDestPoint, params, hopIndex + 1, result);
-        // Remember that we did find at least one route that works.
-        routable = true;
       }
-      if (!routable) {
-        // Setting currentCosts is not strictly necessary for this algorithm,
-        // but might help with debugging.
-        result.currentCosts = Long.MAX_VALUE;
+      if (nextHopCosts.isEmpty()) {
+        return new OrderRouteCache.OrderRoute(null, Long.MAX_VALUE);
       }
+      predecessors.add(hopPredecessors);
+      hopCosts = nextHopCosts;
     }
-    // If we have reached the final drive order, ...
-    else {
-      // If the route computed is cheaper than the best route found so far,
-      // replace the latter.
-      if (result.currentCosts < result.bestCosts) {
-        System.arraycopy(result.currentRoute, 0, result.bestRoute, 0,
-                         result.currentRoute.length);
-        result.bestCosts = result.currentCosts;
+    // Trace the cheapest route back from the final destination.
+    Point hopDestination = null;
+    for (Map.Entry<Point, Long> curEntry : hopCosts.entrySet()) {
+      if (hopDestination == null
+          || curEntry.getValue() < hopCosts.get(hopDestination)) {
+        hopDestination = curEntry.getKey();
       }
     }
+    long costs = hopCosts.get(hopDestination);
+    Point[] hopDestinations = new Point[driveOrders.size()];
+    for (int hopIndex = hopDestinations.length - 1; hopIndex >= 0; hopIndex--) {
+      hopDestinations[hopIndex] = hopDestination;
+      hopDestination = predecessors.get(hopIndex).get(hopDestination);
+    }
+    return new OrderRouteCache.OrderRoute(hopDestinations, costs);
   }
 
   /**
@@ -428,68 +748,4 @@ class BasicRouter
   static @interface RouteToCurrentPos {
     // Nothing here.
   }
-  /**
-   * Contains parameters for a route to be computed.
-   */
-  private static final class OrderRouteParameterStruct {
-
-    /**
-     * The drive orders containing the route's checkpoints.
-     */
-    private final DriveOrder[] driveOrders;
-    /**
-     * The routing net for the vehicle type.
-     */
-    private final RoutingTable net;
-
-    /**
-     * Creates a new OrderRouteParameterStruct.
-     *
-     * @param driveOrders A list of drive orders to be processed as checkpoints
-     * of the route to be computed.
-     * @param net The routing net for the vehicle type.
-     */
-    public OrderRouteParameterStruct(DriveOrder[] driveOrders,
-                                     RoutingTable net) {
-      this.driveOrders = requireNonNull(driveOrders, "driveOrders is null");
-      this.net = requireNonNull(net, "net is null");
-    }
-  }
-
-  /**
-   * A struct supporting cheapest route calculation.
-   */
-  private static final class OrderRouteResultStruct {
-
-    /**
-     * The (possibly partial) route currently being examined.
-     */
-    private DriveOrder[] currentRoute;
-    /**
-     * The costs of the route currently being examined.
-     */
-    private long currentCosts;
-    /**
-     * The best route found so far.
-     */
-    private DriveOrder[] bestRoute;
-    /**
-     * The costs of the best route found so far.
-     */
-    private long bestCosts;
-
-    /**
-     * Creates a new OrderRouteResultStruct.
-     *
-     * @param driveOrderCount The number of <code>DriveOrder</code>s in the
-     * <code>TransportOrder</code> for which this struct is to store the
-     * routing result.
-     */
-    public OrderRouteResultStruct(int driveOrderCount) {
-      currentRoute = new DriveOrder[driveOrderCount];
-      currentCosts = 0;
-      bestRoute = new DriveOrder[driveOrderCount];
-      bestCosts = Long.MAX_VALUE;
-    }
-  }
 }
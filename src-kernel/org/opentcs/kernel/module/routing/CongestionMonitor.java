@@ -0,0 +1,184 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.access.UnsupportedKernelOpException;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+
+/**
+ * Rates the current and predicted occupancy of resources by vehicles, so
+ * routes can be computed around congested parts of the model.
+ * <p>
+ * A resource's current occupancy is given by its allocation in the scheduler,
+ * its predicted occupancy by the routes selected for vehicles. Each vehicle
+ * allocating a resource or having it on its selected route adds the
+ * respective penalty to the resource's routing costs.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class CongestionMonitor {
+
+  /**
+   * Provides the kernel, whose scheduler knows the current allocations.
+   */
+  private final Provider<LocalKernel> kernelProvider;
+  /**
+   * The penalty for a resource allocated by another vehicle.
+   */
+  private final long allocationPenalty;
+  /**
+   * The penalty for a resource on another vehicle's selected route.
+   */
+  private final long selectedRoutePenalty;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernelProvider Provides the kernel.
+   * @param allocationPenalty The penalty for a resource allocated by another
+   * vehicle.
+   * @param selectedRoutePenalty The penalty for a resource on another
+   * vehicle's selected route.
+   */
+  @Inject
+  CongestionMonitor(Provider<LocalKernel> kernelProvider,
+                    @AllocationPenalty long allocationPenalty,
+                    @SelectedRoutePenalty long selectedRoutePenalty) {
+    this.kernelProvider = requireNonNull(kernelProvider, "kernelProvider");
+    if (allocationPenalty < 0) {
+      throw new IllegalArgumentException("allocationPenalty < 0: "
+          + allocationPenalty);
+    }
+    if (selectedRoutePenalty < 0) {
+      throw new IllegalArgumentException("selectedRoutePenalty < 0: "
+          + selectedRoutePenalty);
+    }
+    this.allocationPenalty = allocationPenalty;
+    this.selectedRoutePenalty = selectedRoutePenalty;
+  }
+
+  /**
+   * Checks whether any penalties are configured.
+   *
+   * @return <code>true</code> if, and only if, any penalties are configured.
+   */
+  public boolean isEnabled() {
+    return allocationPenalty > 0 || selectedRoutePenalty > 0;
+  }
+
+  /**
+   * Returns the penalties for resources occupied by vehicles other than the
+   * given one.
+   *
+   * @param vehicle The vehicle for which a route is to be computed.
+   * @param selectedRoutes The routes currently selected for vehicles.
+   * @return The penalties, mapped by the names of the resources. Resources
+   * without penalties are not contained.
+   */
+  public Map<String, Long> getPenalties(
+      Vehicle vehicle,
+      Map<Vehicle, List<DriveOrder>> selectedRoutes) {
+    requireNonNull(vehicle, "vehicle");
+    requireNonNull(selectedRoutes, "selectedRoutes");
+
+    Map<String, Long> result = new HashMap<>();
+    if (allocationPenalty > 0) {
+      for (Map.Entry<String, Set<TCSResource>> entry
+               : getAllocations().entrySet()) {
+        if (vehicle.getName().equals(entry.getKey())) {
+          continue;
+        }
+        for (TCSResource resource : entry.getValue()) {
+          addPenalty(result, resource.getName(), allocationPenalty);
+        }
+      }
+    }
+    if (selectedRoutePenalty > 0) {
+      for (Map.Entry<Vehicle, List<DriveOrder>> entry
+               : selectedRoutes.entrySet()) {
+        if (vehicle.getName().equals(entry.getKey().getName())) {
+          continue;
+        }
+        for (DriveOrder driveOrder : entry.getValue()) {
+          if (driveOrder.getRoute() == null
+              || driveOrder.getState() == DriveOrder.State.FINISHED
+              || driveOrder.getState() == DriveOrder.State.FAILED) {
+            continue;
+          }
+          for (Route.Step step : driveOrder.getRoute().getSteps()) {
+            if (step.getPath() != null) {
+              addPenalty(result, step.getPath().getName(), selectedRoutePenalty);
+            }
+            addPenalty(result,
+                       step.getDestinationPoint().getName(),
+                       selectedRoutePenalty);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private Map<String, Set<TCSResource>> getAllocations() {
+    try {
+      return kernelProvider.get().getScheduler().getAllocations();
+    }
+    catch (UnsupportedKernelOpException exc) {
+      // Not in operating state - nothing is allocated, then.
+      return Collections.emptyMap();
+    }
+  }
+
+  private static void addPenalty(Map<String, Long> penalties,
+                                 String resourceName,
+                                 long penalty) {
+    Long knownPenalty = penalties.get(resourceName);
+    penalties.put(resourceName,
+                  knownPenalty == null ? penalty : knownPenalty + penalty);
+  }
+
+  /**
+   * Annotation type for injecting the penalty for allocated resources.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface AllocationPenalty {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the penalty for resources on selected
+   * routes.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface SelectedRoutePenalty {
+    // Nothing here.
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+
+/**
+ * Caches the cheapest sequences of destination points computed for transport
+ * orders from the routing tables.
+ * <p>
+ * Entries are keyed by the vehicle (whose routing table is used), the source
+ * point and the destinations of the order's future drive orders, so orders with
+ * the same destinations share entries. All entries are discarded when a new
+ * routing table version is passed in. This class is thread-safe.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class OrderRouteCache {
+
+  /**
+   * The maximum number of entries kept before the cache is cleared.
+   */
+  private final int maxEntries;
+  /**
+   * The cached entries.
+   */
+  private final Map<Key, OrderRoute> routesByKey = new ConcurrentHashMap<>();
+  /**
+   * The routing table version the cached entries were computed with.
+   */
+  private volatile long routingTablesVersion = Long.MIN_VALUE;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxEntries The maximum number of entries kept before the cache is
+   * cleared.
+   */
+  OrderRouteCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the cached route for the given vehicle starting on the given point
+   * to process the given drive orders.
+   *
+   * @param vehicle The vehicle.
+   * @param sourcePoint The point the vehicle would start at.
+   * @param driveOrders The drive orders.
+   * @param currentVersion The current routing table version.
+   * @return The cached route, or <code>null</code>, if there is none.
+   */
+  public OrderRoute get(Vehicle vehicle,
+                        Point sourcePoint,
+                        List<DriveOrder> driveOrders,
+                        long currentVersion) {
+    checkRoutingTablesVersion(currentVersion);
+    return routesByKey.get(new Key(vehicle.getReference(),
+                                   sourcePoint.getReference(),
+                                   driveOrders));
+  }
+
+  /**
+   * Caches the route for the given vehicle starting on the given point to
+   * process the given drive orders.
+   *
+   * @param vehicle The vehicle.
+   * @param sourcePoint The point the vehicle would start at.
+   * @param driveOrders The drive orders.
+   * @param currentVersion The routing table version the route was computed
+   * with.
+   * @param route The route.
+   */
+  public void put(Vehicle vehicle,
+                  Point sourcePoint,
+                  List<DriveOrder> driveOrders,
+                  long currentVersion,
+                  OrderRoute route) {
+    requireNonNull(route, "route");
+
+    checkRoutingTablesVersion(currentVersion);
+    if (routesByKey.size() >= maxEntries) {
+      routesByKey.clear();
+    }
+    routesByKey.put(new Key(vehicle.getReference(),
+                            sourcePoint.getReference(),
+                            driveOrders),
+                    route);
+  }
+
+  /**
+   * Discards all cached entries if the routing tables have changed since they
+   * were computed.
+   *
+   * @param currentVersion The current routing table version.
+   */
+  private void checkRoutingTablesVersion(long currentVersion) {
+    if (currentVersion != routingTablesVersion) {
+      synchronized (this) {
+        if (currentVersion != routingTablesVersion) {
+          routesByKey.clear();
+          routingTablesVersion = currentVersion;
+        }
+      }
+    }
+  }
+
+  /**
+   * The cheapest sequence of destination points for processing a list of
+   * drive orders.
+   */
+  static final class OrderRoute {
+
+    /**
+     * The destination point for each drive order, or <code>null</code>, if
+     * the drive orders cannot be processed.
+     */
+    private final Point[] hopDestinations;
+    /**
+     * The total costs.
+     */
+    private final long costs;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hopDestinations The destination point for each drive order, or
+     * <code>null</code>, if the drive orders cannot be processed.
+     * @param costs The total costs.
+     */
+    OrderRoute(Point[] hopDestinations, long costs) {
+      this.hopDestinations = hopDestinations;
+      this.costs = costs;
+    }
+
+    /**
+     * Checks whether the drive orders can be processed.
+     *
+     * @return <code>true</code> if, and only if, the drive orders can be
+     * processed.
+     */
+    public boolean isRoutable() {
+      return hopDestinations != null;
+    }
+
+    /**
+     * Returns the destination point for the drive order with the given index.
+     *
+     * @param hopIndex The index of the drive order.
+     * @return The destination point.
+     */
+    public Point getHopDestination(int hopIndex) {
+      return hopDestinations[hopIndex];
+    }
+
+    /**
+     * Returns the total costs.
+     *
+     * @return The total costs, or <code>Long.MAX_VALUE</code>, if the drive
+     * orders cannot be processed.
+     */
+    public long getCosts() {
+      return costs;
+    }
+  }
+
+  /**
+   * A cache key.
+   */
+  private static final class Key {
+
+    /**
+     * The vehicle whose routing table is used.
+     */
+    private final TCSObjectReference<Vehicle> vehicleRef;
+    /**
+     * The source point.
+     */
+    private final TCSObjectReference<Point> sourcePointRef;
+    /**
+     * The names of the destination locations to be visited. (Names instead of
+     * references, since dummy references for points do not have a distinct
+     * ID.)
+     */
+    private final List<String> destLocations;
+    /**
+     * The operations to be executed at the destinations.
+     */
+    private final List<String> destOperations;
+    /**
+     * This key's hash code.
+     */
+    private final int hash;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param vehicleRef The vehicle whose routing table is used.
+     * @param sourcePointRef The source point.
+     * @param driveOrders The drive orders whose destinations are to be visited.
+     */
+    Key(TCSObjectReference<Vehicle> vehicleRef,
+        TCSObjectReference<Point> sourcePointRef,
+        List<DriveOrder> driveOrders) {
+      this.vehicleRef = requireNonNull(vehicleRef, "vehicleRef");
+      this.sourcePointRef = requireNonNull(sourcePointRef, "sourcePointRef");
+      this.destLocations = new ArrayList<>(driveOrders.size());
+      this.destOperations = new ArrayList<>(driveOrders.size());
+      for (DriveOrder curDriveOrder : driveOrders) {
+        DriveOrder.Destination dest = curDriveOrder.getDestination();
+        destLocations.add(dest.getLocation().getName());
+        destOperations.add(dest.getOperation());
+      }
+      this.hash = Objects.hash(vehicleRef, sourcePointRef, destLocations,
+                               destOperations);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash == other.hash
+          && vehicleRef.equals(other.vehicleRef)
+          && sourcePointRef.equals(other.sourcePointRef)
+          && destLocations.equals(other.destLocations)
+          && destOperations.equals(other.destOperations);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.Collections;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import static org.opentcs.kernel.module.routing.RoutingTable.INFINITE_COSTS;
+import org.opentcs.kernel.workingset.Model;
+
+/**
+ * Finds the cheapest routes for a vehicle at the time they are requested,
+ * adding penalties for congested resources to the costs computed by a route
+ * evaluator.
+ * <p>
+ * Each step is rated on its own, so evaluators that rate sequences of steps
+ * (e.g. turns) do not influence the choice of route.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class PenalizedRouteFinder
+    implements RouteFinder {
+
+  /**
+   * The model providing the topology.
+   */
+  private final Model model;
+  /**
+   * The evaluator computing the costs of single steps.
+   */
+  private final RouteEvaluator routeEvaluator;
+  /**
+   * The vehicle to find routes for.
+   */
+  private final Vehicle vehicle;
+  /**
+   * The penalties, mapped by resource names.
+   */
+  private final Map<String, Long> penalties;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param model The model providing the topology.
+   * @param routeEvaluator The evaluator computing the costs of single steps.
+   * @param vehicle The vehicle to find routes for.
+   * @param penalties The penalties, mapped by resource names.
+   */
+  PenalizedRouteFinder(Model model,
+                       RouteEvaluator routeEvaluator,
+                       Vehicle vehicle,
+                       Map<String, Long> penalties) {
+    this.model = requireNonNull(model, "model");
+    this.routeEvaluator = requireNonNull(routeEvaluator, "routeEvaluator");
+    this.vehicle = requireNonNull(vehicle, "vehicle");
+    this.penalties = requireNonNull(penalties, "penalties");
+  }
+
+  @Override
+  public RouteSearchResult findRoutes(Map<Point, Long> startCosts) {
+    requireNonNull(startCosts, "startCosts");
+
+    RouteSearchResult result = new RouteSearchResult();
+    Queue<QueueEntry> queue = new PriorityQueue<>();
+    for (Map.Entry<Point, Long> entry : startCosts.entrySet()) {
+      RouteSearchResult.Label label
+          = new RouteSearchResult.Label(entry.getKey(), entry.getValue());
+      result.offer(label);
+      queue.add(new QueueEntry(label));
+    }
+    while (!queue.isEmpty()) {
+      RouteSearchResult.Label label = queue.remove().label;
+      if (result.getLabel(label.point) != label) {
+        // Outdated entry, the point has been reached more cheaply since.
+        continue;
+      }
+      for (TCSObjectReference<Path> pathRef : label.point.getOutgoingPaths()) {
+        Path path = model.getPath(pathRef);
+        if (path.isNavigableForward()) {
+          relax(result, queue, label,
+                new Route.Step(path,
+                               model.getPoint(path.getDestinationPoint()),
+                               Vehicle.Orientation.FORWARD,
+                               0));
+        }
+      }
+      for (TCSObjectReference<Path> pathRef : label.point.getIncomingPaths()) {
+        Path path = model.getPath(pathRef);
+        if (path.isNavigableReverse()) {
+          relax(result, queue, label,
+                new Route.Step(path,
+                               model.getPoint(path.getSourcePoint()),
+                               Vehicle.Orientation.BACKWARD,
+                               0));
+        }
+      }
+    }
+    return result;
+  }
+
+  private void relax(RouteSearchResult result,
+                     Queue<QueueEntry> queue,
+                     RouteSearchResult.Label label,
+                     Route.Step step) {
+    long costs = getStepCosts(label.point, step);
+    if (costs == INFINITE_COSTS) {
+      return;
+    }
+    RouteSearchResult.Label nextLabel
+        = new RouteSearchResult.Label(label, step, label.costs + costs);
+    if (result.offer(nextLabel)) {
+      queue.add(new QueueEntry(nextLabel));
+    }
+  }
+
+  private long getStepCosts(Point point, Route.Step step) {
+    long costs = routeEvaluator.computeCosts(vehicle,
+                                             point,
+                                             Collections.singletonList(step));
+    if (costs == INFINITE_COSTS) {
+      return INFINITE_COSTS;
+    }
+    return costs
+        + getPenalty(step.getPath().getName())
+        + getPenalty(step.getDestinationPoint().getName());
+  }
+
+  private long getPenalty(String resourceName) {
+    Long penalty = penalties.get(resourceName);
+    return penalty == null ? 0 : penalty;
+  }
+
+  private static final class QueueEntry
+      implements Comparable<QueueEntry> {
+
+    private final RouteSearchResult.Label label;
+
+    private QueueEntry(RouteSearchResult.Label label) {
+      this.label = label;
+    }
+
+    @Override
+    public int compareTo(QueueEntry other) {
+      return Long.compare(label.costs, other.label.costs);
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import com.google.inject.BindingAnnotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import javax.inject.Inject;
+
+/**
+ * A space-time reservation table, keeping the time windows in which vehicles
+ * are expected to occupy resources (points and paths) while travelling along
+ * their selected routes.
+ * <p>
+ * Note that no synchronization is done inside this class. Concurrent access of
+ * instances of this class must be synchronized externally, as done by
+ * {@link BasicRouter}, which accesses its table only while holding its own
+ * lock.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class ReservationTable {
+
+  /**
+   * Orders reservations by their start times.
+   */
+  private static final Comparator<Reservation> START_COMPARATOR
+      = new Comparator<Reservation>() {
+        @Override
+        public int compare(Reservation r1, Reservation r2) {
+          return Long.compare(r1.start, r2.start);
+        }
+      };
+  /**
+   * Whether routes are to be planned using this table.
+   */
+  private final boolean enabled;
+  /**
+   * The time (in ms) by which reservations are extended at both ends to
+   * compensate for deviations from the expected travel times.
+   */
+  private final long margin;
+  /**
+   * The reservations, mapped by resource names.
+   */
+  private final Map<String, List<Reservation>> reservationsByResource
+      = new HashMap<>();
+  /**
+   * The names of the resources reserved, mapped by vehicle names.
+   */
+  private final Map<String, Set<String>> resourcesByVehicle = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param enabled Whether routes are to be planned using this table.
+   * @param margin The time (in ms) by which reservations are extended at both
+   * ends.
+   */
+  @Inject
+  ReservationTable(@PlanningEnabled boolean enabled,
+                   @ReservationMargin long margin) {
+    if (margin < 0) {
+      throw new IllegalArgumentException("margin < 0: " + margin);
+    }
+    this.enabled = enabled;
+    this.margin = margin;
+  }
+
+  /**
+   * Checks whether routes are to be planned using this table.
+   *
+   * @return <code>true</code> if, and only if, routes are to be planned using
+   * this table.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Reserves a resource for a vehicle.
+   * The time window is extended by the configured margin at both ends.
+   *
+   * @param vehicleName The name of the vehicle.
+   * @param resourceName The name of the resource.
+   * @param start The expected start of the occupation.
+   * @param end The expected end of the occupation, or
+   * <code>Long.MAX_VALUE</code>, if the vehicle is expected to stay.
+   */
+  public void reserve(String vehicleName,
+                      String resourceName,
+                      long start,
+                      long end) {
+    requireNonNull(vehicleName, "vehicleName");
+    requireNonNull(resourceName, "resourceName");
+
+    List<Reservation> reservations = reservationsByResource.get(resourceName);
+    if (reservations == null) {
+      reservations = new ArrayList<>();
+      reservationsByResource.put(resourceName, reservations);
+    }
+    reservations.add(new Reservation(
+        vehicleName,
+        start - margin,
+        end == Long.MAX_VALUE ? Long.MAX_VALUE : end + margin));
+    Set<String> resourceNames = resourcesByVehicle.get(vehicleName);
+    if (resourceNames == null) {
+      resourceNames = new HashSet<>();
+      resourcesByVehicle.put(vehicleName, resourceNames);
+    }
+    resourceNames.add(resourceName);
+  }
+
+  /**
+   * Removes all reservations of a vehicle.
+   *
+   * @param vehicleName The name of the vehicle.
+   */
+  public void release(String vehicleName) {
+    requireNonNull(vehicleName, "vehicleName");
+
+    Set<String> resourceNames = resourcesByVehicle.remove(vehicleName);
+    if (resourceNames == null) {
+      return;
+    }
+    for (String resourceName : resourceNames) {
+      List<Reservation> reservations = reservationsByResource.get(resourceName);
+      Iterator<Reservation> iter = reservations.iterator();
+      while (iter.hasNext()) {
+        if (iter.next().vehicleName.equals(vehicleName)) {
+          iter.remove();
+        }
+      }
+      if (reservations.isEmpty()) {
+        reservationsByResource.remove(resourceName);
+      }
+    }
+  }
+
+  /**
+   * Removes all reservations that ended before the given point of time.
+   *
+   * @param now The current point of time.
+   */
+  public void removeExpired(long now) {
+    Iterator<List<Reservation>> listIter
+        = reservationsByResource.values().iterator();
+    while (listIter.hasNext()) {
+      List<Reservation> reservations = listIter.next();
+      Iterator<Reservation> iter = reservations.iterator();
+      while (iter.hasNext()) {
+        if (iter.next().end < now) {
+          iter.remove();
+        }
+      }
+      if (reservations.isEmpty()) {
+        listIter.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the time windows in which a resource is not reserved by any vehicle
+   * other than the given one, from the given point of time on.
+   *
+   * @param resourceName The name of the resource.
+   * @param vehicleName The name of the vehicle whose own reservations are to
+   * be ignored.
+   * @param from The point of time from which on to look for time windows.
+   * @return The time windows as arrays of start and end time, in chronological
+   * order. The first window may start before the given point of time, the last
+   * one ends at <code>Long.MAX_VALUE</code> unless the resource is reserved
+   * indefinitely.
+   */
+  public List<long[]> getFreeWindows(String resourceName,
+                                     String vehicleName,
+                                     long from) {
+    List<Reservation> others = getOtherReservations(resourceName, vehicleName);
+    List<long[]> result = new ArrayList<>();
+    long windowStart = Long.MIN_VALUE;
+    for (Reservation reservation : others) {
+      if (reservation.start > windowStart && reservation.start > from) {
+        result.add(new long[] {windowStart, reservation.start});
+      }
+      windowStart = Math.max(windowStart, reservation.end);
+      if (windowStart == Long.MAX_VALUE) {
+        return result;
+      }
+    }
+    result.add(new long[] {windowStart, Long.MAX_VALUE});
+    return result;
+  }
+
+  /**
+   * Returns the earliest point of time at which a vehicle may start occupying
+   * a resource for the given duration without conflicting with reservations
+   * of other vehicles.
+   *
+   * @param resourceName The name of the resource.
+   * @param vehicleName The name of the vehicle whose own reservations are to
+   * be ignored.
+   * @param from The earliest acceptable start time.
+   * @param duration The duration of the occupation.
+   * @param latestStart The latest acceptable start time.
+   * @return The earliest start time, or -1, if there is none before the
+   * latest acceptable start time.
+   */
+  public long getEarliestStart(String resourceName,
+                               String vehicleName,
+                               long from,
+                               long duration,
+                               long latestStart) {
+    long start = from;
+    for (Reservation reservation
+             : getOtherReservations(resourceName, vehicleName)) {
+      if (reservation.end <= start) {
+        continue;
+      }
+      if (reservation.start >= start + duration) {
+        break;
+      }
+      if (reservation.end == Long.MAX_VALUE) {
+        return -1;
+      }
+      start = reservation.end;
+    }
+    return start <= latestStart ? start : -1;
+  }
+
+  private List<Reservation> getOtherReservations(String resourceName,
+                                                 String vehicleName) {
+    List<Reservation> reservations = reservationsByResource.get(resourceName);
+    if (reservations == null) {
+      return Collections.emptyList();
+    }
+    List<Reservation> result = new ArrayList<>(reservations.size());
+    for (Reservation reservation : reservations) {
+      if (!reservation.vehicleName.equals(vehicleName)) {
+        result.add(reservation);
+      }
+    }
+    Collections.sort(result, START_COMPARATOR);
+    return result;
+  }
+
+  /**
+   * Annotation type for injecting whether routes are to be planned using the
+   * reservation table.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface PlanningEnabled {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for injecting the margin of reservations.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface ReservationMargin {
+    // Nothing here.
+  }
+
+  /**
+   * A time window in which a vehicle occupies a resource.
+   */
+  private static final class Reservation {
+
+    /**
+     * The name of the vehicle.
+     */
+    private final String vehicleName;
+    /**
+     * The start of the time window.
+     */
+    private final long start;
+    /**
+     * The end of the time window.
+     */
+    private final long end;
+
+    private Reservation(String vehicleName, long start, long end) {
+      this.vehicleName = vehicleName;
+      this.start = start;
+      this.end = end;
+    }
+  }
+}
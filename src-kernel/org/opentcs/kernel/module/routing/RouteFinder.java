@@ -0,0 +1,31 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.Map;
+import org.opentcs.data.model.Point;
+
+/**
+ * Finds routes for a vehicle at the time they are requested, as opposed to
+ * looking them up in a precomputed routing table.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+interface RouteFinder {
+
+  /**
+   * Finds the cheapest routes to all points reachable from any of the given
+   * start points.
+   *
+   * @param startCosts The start points, mapped to the costs already spent for
+   * reaching them.
+   * @return The result of the search.
+   */
+  RouteSearchResult findRoutes(Map<Point, Long> startCosts);
+}
@@ -0,0 +1,170 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.order.Route;
+import static org.opentcs.kernel.module.routing.RoutingTable.INFINITE_COSTS;
+
+/**
+ * The result of a search by a {@link RouteFinder}, i.e. the cheapest known
+ * way of reaching each point.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+final class RouteSearchResult {
+
+  /**
+   * The cheapest labels of all points reached.
+   */
+  private final Map<Point, Label> labels = new HashMap<>();
+
+  /**
+   * Returns the cheapest label known for the given point.
+   *
+   * @param point The point.
+   * @return The label, or <code>null</code>, if the point has not been
+   * reached.
+   */
+  Label getLabel(Point point) {
+    return labels.get(point);
+  }
+
+  /**
+   * Remembers the given label for its point if it is cheaper than the one
+   * known.
+   *
+   * @param label The label.
+   * @return <code>true</code> if, and only if, the label was cheaper.
+   */
+  boolean offer(Label label) {
+    Label knownLabel = labels.get(label.point);
+    if (knownLabel != null && knownLabel.costs <= label.costs) {
+      return false;
+    }
+    labels.put(label.point, label);
+    return true;
+  }
+
+  /**
+   * Returns the costs for reaching the given point.
+   *
+   * @param point The point.
+   * @return The costs for reaching the point, or
+   * {@link RoutingTable#INFINITE_COSTS INFINITE_COSTS}, if it is not
+   * reachable.
+   */
+  public long getCosts(Point point) {
+    Label label = labels.get(point);
+    return label == null ? INFINITE_COSTS : label.costs;
+  }
+
+  /**
+   * Returns the start point from which the given point is reached most
+   * cheaply.
+   *
+   * @param point The point.
+   * @return The start point, or <code>null</code>, if the given point is not
+   * reachable.
+   */
+  public Point getOrigin(Point point) {
+    Label label = labels.get(point);
+    return label == null ? null : label.origin;
+  }
+
+  /**
+   * Returns the steps of the cheapest route to the given point, starting at
+   * its origin.
+   *
+   * @param point The point.
+   * @return The steps of the route, which is empty if the point is a start
+   * point, or <code>null</code>, if the point is not reachable.
+   */
+  public List<Route.Step> getSteps(Point point) {
+    Label label = labels.get(point);
+    if (label == null) {
+      return null;
+    }
+    LinkedList<Route.Step> pathSteps = new LinkedList<>();
+    while (label.step != null) {
+      pathSteps.addFirst(label.step);
+      label = label.previous;
+    }
+    List<Route.Step> steps = new LinkedList<>();
+    for (Route.Step step : pathSteps) {
+      steps.add(new Route.Step(step.getPath(),
+                               step.getDestinationPoint(),
+                               step.getVehicleOrientation(),
+                               steps.size()));
+    }
+    return steps;
+  }
+
+  /**
+   * A way of reaching a point.
+   */
+  static final class Label {
+
+    /**
+     * The point reached.
+     */
+    final Point point;
+    /**
+     * The costs for reaching the point.
+     */
+    final long costs;
+    /**
+     * The start point the route to the point originates from.
+     */
+    final Point origin;
+    /**
+     * The label of the point preceding the point on the route, or
+     * <code>null</code>, if the point is a start point.
+     */
+    final Label previous;
+    /**
+     * The step leading to the point, or <code>null</code>, if the point is a
+     * start point.
+     */
+    final Route.Step step;
+
+    /**
+     * Creates a label for a start point.
+     *
+     * @param point The start point.
+     * @param costs The costs already spent for reaching the start point.
+     */
+    Label(Point point, long costs) {
+      this.point = point;
+      this.costs = costs;
+      this.origin = point;
+      this.previous = null;
+      this.step = null;
+    }
+
+    /**
+     * Creates a label for a point reached via the given step.
+     *
+     * @param previous The label of the preceding point.
+     * @param step The step leading to the point.
+     * @param costs The costs for reaching the point.
+     */
+    Label(Label previous, Route.Step step, long costs) {
+      this.point = step.getDestinationPoint();
+      this.costs = costs;
+      this.origin = previous.origin;
+      this.previous = previous;
+      this.step = step;
+    }
+  }
+}
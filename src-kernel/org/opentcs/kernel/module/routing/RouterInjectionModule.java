@@ -40,6 +40,18 @@ public class RouterInjectionModule
     bindConstant()
         .annotatedWith(BasicRouter.RouteToCurrentPos.class)
         .to(routerConfig.getBoolean("routeToCurrentPosition", false));
+    bindConstant()
+        .annotatedWith(CongestionMonitor.AllocationPenalty.class)
+        .to(routerConfig.getLong("allocationPenalty", 0));
+    bindConstant()
+        .annotatedWith(CongestionMonitor.SelectedRoutePenalty.class)
+        .to(routerConfig.getLong("selectedRoutePenalty", 0));
+    bindConstant()
+        .annotatedWith(ReservationTable.PlanningEnabled.class)
+        .to(routerConfig.getBoolean("reservationPlanning", false));
+    bindConstant()
+        .annotatedWith(ReservationTable.ReservationMargin.class)
+        .to(routerConfig.getLong("reservationMargin", 1000));
 
     bind(Router.class).to(BasicRouter.class).in(Singleton.class);
   }
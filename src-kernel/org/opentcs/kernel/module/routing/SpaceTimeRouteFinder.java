@@ -0,0 +1,259 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import static org.opentcs.kernel.module.routing.RoutingTable.INFINITE_COSTS;
+import org.opentcs.kernel.workingset.Model;
+
+/**
+ * Finds the routes with the earliest arrival times for a vehicle, avoiding
+ * the time windows in which other vehicles have reserved resources.
+ * <p>
+ * This is an implementation of Safe Interval Path Planning (SIPP): The
+ * search states are pairs of a point and one of the point's free time windows.
+ * A vehicle may wait at a point within the window it arrived in, so a path
+ * may be entered later, when it and the next point are free. The costs of a
+ * route are the time (in ms) from the start time to the arrival at the route's
+ * destination. Operations at intermediate destinations are not taken into
+ * account. These costs are only used for choosing a route - like the routing
+ * tables, the routes returned by {@link BasicRouter} carry the costs computed
+ * by its route evaluator.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class SpaceTimeRouteFinder
+    implements RouteFinder {
+
+  /**
+   * The model providing the topology.
+   */
+  private final Model model;
+  /**
+   * The table with the reservations of other vehicles.
+   */
+  private final ReservationTable reservationTable;
+  /**
+   * The vehicle to find routes for.
+   */
+  private final Vehicle vehicle;
+  /**
+   * The point of time at which the vehicle starts.
+   */
+  private final long startTime;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param model The model providing the topology.
+   * @param reservationTable The table with the reservations of other vehicles.
+   * @param vehicle The vehicle to find routes for.
+   * @param startTime The point of time at which the vehicle starts.
+   */
+  SpaceTimeRouteFinder(Model model,
+                       ReservationTable reservationTable,
+                       Vehicle vehicle,
+                       long startTime) {
+    this.model = requireNonNull(model, "model");
+    this.reservationTable = requireNonNull(reservationTable,
+                                           "reservationTable");
+    this.vehicle = requireNonNull(vehicle, "vehicle");
+    this.startTime = startTime;
+  }
+
+  /**
+   * Returns the time (in ms) the given vehicle needs to travel the given step.
+   *
+   * @param vehicle The vehicle.
+   * @param step The step.
+   * @return The travel time, or {@link RoutingTable#INFINITE_COSTS
+   * INFINITE_COSTS}, if the vehicle may not travel the step.
+   */
+  public static long getTravelTime(Vehicle vehicle, Route.Step step) {
+    Path path = step.getPath();
+    int maxVelocity;
+    if (Objects.equals(Vehicle.Orientation.BACKWARD,
+                       step.getVehicleOrientation())) {
+      maxVelocity = Math.min(vehicle.getMaxReverseVelocity(),
+                             path.getMaxReverseVelocity());
+    }
+    else {
+      maxVelocity = Math.min(vehicle.getMaxVelocity(), path.getMaxVelocity());
+    }
+    return (maxVelocity <= 0)
+        ? INFINITE_COSTS
+        : path.getLength() * 1000 / maxVelocity;
+  }
+
+  /**
+   * Finds the routes with the earliest arrival times at all points reachable
+   * from any of the given start points.
+   *
+   * @param startCosts The start points, mapped to the times (in ms after the
+   * start time) at which the vehicle may leave them.
+   * @return The result of the search.
+   */
+  @Override
+  public RouteSearchResult findRoutes(Map<Point, Long> startCosts) {
+    requireNonNull(startCosts, "startCosts");
+
+    RouteSearchResult result = new RouteSearchResult();
+    // The labels of the search states, mapped by points and the ends of the
+    // free windows.
+    Map<Point, Map<Long, RouteSearchResult.Label>> stateLabels = new HashMap<>();
+    Queue<QueueEntry> queue = new PriorityQueue<>();
+    for (Map.Entry<Point, Long> entry : startCosts.entrySet()) {
+      Point point = entry.getKey();
+      long time = startTime + entry.getValue();
+      // The vehicle is at the start point already, so it may stay there until
+      // the end of the first window ending after the start time.
+      List<long[]> windows = getFreeWindows(point.getName(), time);
+      long windowEnd = windows.isEmpty() ? Long.MAX_VALUE : windows.get(0)[1];
+      RouteSearchResult.Label label
+          = new RouteSearchResult.Label(point, entry.getValue());
+      offerState(stateLabels, label, windowEnd);
+      result.offer(label);
+      queue.add(new QueueEntry(label, windowEnd));
+    }
+    while (!queue.isEmpty()) {
+      QueueEntry entry = queue.remove();
+      if (stateLabels.get(entry.label.point).get(entry.windowEnd)
+          != entry.label) {
+        // Outdated entry, the state has been reached earlier since.
+        continue;
+      }
+      for (TCSObjectReference<Path> pathRef
+               : entry.label.point.getOutgoingPaths()) {
+        Path path = model.getPath(pathRef);
+        if (path.isNavigableForward()) {
+          expand(result, stateLabels, queue, entry,
+                 new Route.Step(path,
+                                model.getPoint(path.getDestinationPoint()),
+                                Vehicle.Orientation.FORWARD,
+                                0));
+        }
+      }
+      for (TCSObjectReference<Path> pathRef
+               : entry.label.point.getIncomingPaths()) {
+        Path path = model.getPath(pathRef);
+        if (path.isNavigableReverse()) {
+          expand(result, stateLabels, queue, entry,
+                 new Route.Step(path,
+                                model.getPoint(path.getSourcePoint()),
+                                Vehicle.Orientation.BACKWARD,
+                                0));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates successor states for travelling the given step, one for each free
+   * window of the step's destination point that can be reached.
+   */
+  private void expand(RouteSearchResult result,
+                      Map<Point, Map<Long, RouteSearchResult.Label>> stateLabels,
+                      Queue<QueueEntry> queue,
+                      QueueEntry entry,
+                      Route.Step step) {
+    long travelTime = getTravelTime(vehicle, step);
+    if (travelTime == INFINITE_COSTS) {
+      return;
+    }
+    long departureEarliest = startTime + entry.label.costs;
+    // The vehicle must leave before its current window ends.
+    long departureLatest = entry.windowEnd == Long.MAX_VALUE
+        ? Long.MAX_VALUE
+        : entry.windowEnd - 1;
+    String pathName = step.getPath().getName();
+    Point nextPoint = step.getDestinationPoint();
+    for (long[] window : getFreeWindows(nextPoint.getName(),
+                                        departureEarliest + travelTime)) {
+      if (window[0] != Long.MIN_VALUE
+          && window[0] - travelTime > departureLatest) {
+        break;
+      }
+      long departure = window[0] == Long.MIN_VALUE
+          ? departureEarliest
+          : Math.max(departureEarliest, window[0] - travelTime);
+      departure = reservationTable.getEarliestStart(pathName,
+                                                    vehicle.getName(),
+                                                    departure,
+                                                    travelTime,
+                                                    departureLatest);
+      if (departure < 0) {
+        continue;
+      }
+      long arrival = departure + travelTime;
+      if (arrival >= window[1]) {
+        continue;
+      }
+      RouteSearchResult.Label label
+          = new RouteSearchResult.Label(entry.label, step, arrival - startTime);
+      if (offerState(stateLabels, label, window[1])) {
+        result.offer(label);
+        queue.add(new QueueEntry(label, window[1]));
+      }
+    }
+  }
+
+  private boolean offerState(
+      Map<Point, Map<Long, RouteSearchResult.Label>> stateLabels,
+      RouteSearchResult.Label label,
+      long windowEnd) {
+    Map<Long, RouteSearchResult.Label> pointLabels = stateLabels.get(label.point);
+    if (pointLabels == null) {
+      pointLabels = new HashMap<>();
+      stateLabels.put(label.point, pointLabels);
+    }
+    RouteSearchResult.Label knownLabel = pointLabels.get(windowEnd);
+    if (knownLabel != null && knownLabel.costs <= label.costs) {
+      return false;
+    }
+    pointLabels.put(windowEnd, label);
+    return true;
+  }
+
+  private List<long[]> getFreeWindows(String resourceName, long from) {
+    return reservationTable.getFreeWindows(resourceName,
+                                           vehicle.getName(),
+                                           from);
+  }
+
+  private static final class QueueEntry
+      implements Comparable<QueueEntry> {
+
+    private final RouteSearchResult.Label label;
+
+    private final long windowEnd;
+
+    private QueueEntry(RouteSearchResult.Label label, long windowEnd) {
+      this.label = label;
+      this.windowEnd = windowEnd;
+    }
+
+    @Override
+    public int compareTo(QueueEntry other) {
+      return Long.compare(label.costs, other.label.costs);
+    }
+  }
+}
@@ -0,0 +1,409 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * The recoverable state of a transport order as recorded in the transport
+ * order journal.
+ * <p>
+ * All references to other objects are kept by name, as object IDs are not
+ * stable across kernel runs. Only the drive orders that have not been finished,
+ * yet, are recorded.
+ * </p>
+ * <p>
+ * The vehicle processing the transport order is not recorded. After a
+ * vehicle's communication adapter has been restarted, the vehicle's progress
+ * on its route is unknown, so a recovered transport order is dispatched again
+ * from scratch, starting with the drive order that had not been finished.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ * @see TransportOrderJournal
+ */
+public final class JournaledOrder {
+
+  /**
+   * The transport order's name.
+   */
+  private final String name;
+  /**
+   * The transport order's creation time.
+   */
+  private final long creationTime;
+  /**
+   * The transport order's deadline.
+   */
+  private final long deadline;
+  /**
+   * The transport order's state.
+   */
+  private final TransportOrder.State state;
+  /**
+   * The name of the intended vehicle, or <code>null</code>.
+   */
+  private final String intendedVehicle;
+  /**
+   * Whether the transport order is dispensable.
+   */
+  private final boolean dispensable;
+  /**
+   * The destinations that have not been reached, yet.
+   */
+  private final List<Destination> destinations;
+  /**
+   * The names of the transport orders this one depends on.
+   */
+  private final List<String> dependencies;
+  /**
+   * The transport order's properties.
+   */
+  private final Map<String, String> properties;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param name The transport order's name.
+   * @param creationTime The transport order's creation time.
+   * @param deadline The transport order's deadline.
+   * @param state The transport order's state.
+   * @param intendedVehicle The name of the intended vehicle, or
+   * <code>null</code>.
+   * @param dispensable Whether the transport order is dispensable.
+   * @param destinations The destinations that have not been reached, yet.
+   * @param dependencies The names of the transport orders this one depends on.
+   * @param properties The transport order's properties.
+   */
+  JournaledOrder(String name,
+                 long creationTime,
+                 long deadline,
+                 TransportOrder.State state,
+                 String intendedVehicle,
+                 boolean dispensable,
+                 List<Destination> destinations,
+                 List<String> dependencies,
+                 Map<String, String> properties) {
+    this.name = requireNonNull(name, "name");
+    this.creationTime = creationTime;
+    this.deadline = deadline;
+    this.state = requireNonNull(state, "state");
+    this.intendedVehicle = intendedVehicle;
+    this.dispensable = dispensable;
+    this.destinations
+        = Collections.unmodifiableList(requireNonNull(destinations,
+                                                      "destinations"));
+    this.dependencies
+        = Collections.unmodifiableList(requireNonNull(dependencies,
+                                                      "dependencies"));
+    this.properties
+        = Collections.unmodifiableMap(requireNonNull(properties, "properties"));
+  }
+
+  /**
+   * Creates a record of the given transport order's current state.
+   *
+   * @param order The transport order.
+   * @return A record of the given transport order's current state.
+   */
+  static JournaledOrder of(TransportOrder order) {
+    requireNonNull(order, "order");
+
+    List<Destination> destinations = new ArrayList<>();
+    if (order.getCurrentDriveOrder() != null) {
+      destinations.add(Destination.of(order.getCurrentDriveOrder()));
+    }
+    for (DriveOrder driveOrder : order.getFutureDriveOrders()) {
+      destinations.add(Destination.of(driveOrder));
+    }
+    List<String> dependencies = new ArrayList<>();
+    for (TCSObjectReference<TransportOrder> dep : order.getDependencies()) {
+      dependencies.add(dep.getName());
+    }
+    return new JournaledOrder(order.getName(),
+                              order.getCreationTime(),
+                              order.getDeadline(),
+                              order.getState(),
+                              nameOf(order.getIntendedVehicle()),
+                              order.isDispensable(),
+                              destinations,
+                              dependencies,
+                              new HashMap<>(order.getProperties()));
+  }
+
+  /**
+   * Returns the transport order's name.
+   *
+   * @return The transport order's name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the transport order's creation time.
+   *
+   * @return The transport order's creation time.
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  /**
+   * Returns the transport order's deadline.
+   *
+   * @return The transport order's deadline.
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * Returns the transport order's state.
+   *
+   * @return The transport order's state.
+   */
+  public TransportOrder.State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the name of the intended vehicle.
+   *
+   * @return The name of the intended vehicle, or <code>null</code>.
+   */
+  public String getIntendedVehicle() {
+    return intendedVehicle;
+  }
+
+  /**
+   * Checks whether the transport order is dispensable.
+   *
+   * @return <code>true</code> if, and only if, the transport order is
+   * dispensable.
+   */
+  public boolean isDispensable() {
+    return dispensable;
+  }
+
+  /**
+   * Returns the destinations that have not been reached, yet.
+   *
+   * @return The destinations that have not been reached, yet.
+   */
+  public List<Destination> getDestinations() {
+    return destinations;
+  }
+
+  /**
+   * Returns the names of the transport orders this one depends on.
+   *
+   * @return The names of the transport orders this one depends on.
+   */
+  public List<String> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Returns the transport order's properties.
+   *
+   * @return The transport order's properties.
+   */
+  public Map<String, String> getProperties() {
+    return properties;
+  }
+
+  /**
+   * Writes this record to the given output.
+   *
+   * @param out The output.
+   * @throws IOException If writing to the output failed.
+   */
+  void writeTo(DataOutput out)
+      throws IOException {
+    out.writeUTF(name);
+    out.writeLong(creationTime);
+    out.writeLong(deadline);
+    out.writeByte(state.ordinal());
+    writeNullableString(out, intendedVehicle);
+    out.writeBoolean(dispensable);
+    out.writeShort(destinations.size());
+    for (Destination destination : destinations) {
+      out.writeUTF(destination.getLocation());
+      out.writeUTF(destination.getOperation());
+      writeProperties(out, destination.getProperties());
+    }
+    out.writeShort(dependencies.size());
+    for (String dependency : dependencies) {
+      out.writeUTF(dependency);
+    }
+    writeProperties(out, properties);
+  }
+
+  /**
+   * Reads a record from the given input.
+   *
+   * @param in The input.
+   * @return The record read.
+   * @throws IOException If reading from the input failed.
+   */
+  static JournaledOrder readFrom(DataInput in)
+      throws IOException {
+    String name = in.readUTF();
+    long creationTime = in.readLong();
+    long deadline = in.readLong();
+    int stateIndex = in.readByte();
+    TransportOrder.State[] states = TransportOrder.State.values();
+    if (stateIndex < 0 || stateIndex >= states.length) {
+      throw new IOException("Invalid transport order state: " + stateIndex);
+    }
+    String intendedVehicle = readNullableString(in);
+    boolean dispensable = in.readBoolean();
+    int destinationCount = in.readUnsignedShort();
+    List<Destination> destinations = new ArrayList<>(destinationCount);
+    for (int i = 0; i < destinationCount; i++) {
+      String location = in.readUTF();
+      String operation = in.readUTF();
+      destinations.add(new Destination(location, operation, readProperties(in)));
+    }
+    int dependencyCount = in.readUnsignedShort();
+    List<String> dependencies = new ArrayList<>(dependencyCount);
+    for (int i = 0; i < dependencyCount; i++) {
+      dependencies.add(in.readUTF());
+    }
+    return new JournaledOrder(name,
+                              creationTime,
+                              deadline,
+                              states[stateIndex],
+                              intendedVehicle,
+                              dispensable,
+                              destinations,
+                              dependencies,
+                              readProperties(in));
+  }
+
+  private static String nameOf(TCSObjectReference<Vehicle> ref) {
+    return ref == null ? null : ref.getName();
+  }
+
+  private static void writeNullableString(DataOutput out, String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInput in)
+      throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeProperties(DataOutput out,
+                                      Map<String, String> properties)
+      throws IOException {
+    out.writeShort(properties.size());
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readProperties(DataInput in)
+      throws IOException {
+    int count = in.readUnsignedShort();
+    Map<String, String> result = new HashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      result.put(in.readUTF(), in.readUTF());
+    }
+    return result;
+  }
+
+  /**
+   * A destination of a journaled transport order.
+   */
+  public static final class Destination {
+
+    /**
+     * The name of the destination location.
+     */
+    private final String location;
+    /**
+     * The operation to be performed at the destination location.
+     */
+    private final String operation;
+    /**
+     * The destination's properties.
+     */
+    private final Map<String, String> properties;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param location The name of the destination location.
+     * @param operation The operation to be performed at the location.
+     * @param properties The destination's properties.
+     */
+    Destination(String location,
+                String operation,
+                Map<String, String> properties) {
+      this.location = requireNonNull(location, "location");
+      this.operation = requireNonNull(operation, "operation");
+      this.properties
+          = Collections.unmodifiableMap(requireNonNull(properties,
+                                                       "properties"));
+    }
+
+    private static Destination of(DriveOrder driveOrder) {
+      DriveOrder.Destination dest = driveOrder.getDestination();
+      return new Destination(dest.getLocation().getName(),
+                             dest.getOperation(),
+                             new HashMap<>(dest.getProperties()));
+    }
+
+    /**
+     * Returns the name of the destination location.
+     *
+     * @return The name of the destination location.
+     */
+    public String getLocation() {
+      return location;
+    }
+
+    /**
+     * Returns the operation to be performed at the destination location.
+     *
+     * @return The operation to be performed at the destination location.
+     */
+    public String getOperation() {
+      return operation;
+    }
+
+    /**
+     * Returns the destination's properties.
+     *
+     * @return The destination's properties.
+     */
+    public Map<String, String> getProperties() {
+      return properties;
+    }
+  }
+}
@@ -9,6 +9,8 @@
 package org.opentcs.kernel.persistence;
 
 import com.google.inject.AbstractModule;
+import javax.inject.Singleton;
+import org.opentcs.util.configuration.ConfigurationStore;
 
 /**
  * A Guice module for the persistence module of the kernel.
@@ -20,9 +22,46 @@ public class PersistenceInjectionModule
 
   @Override
   protected void configure() {
-    bind(ModelPersister.class).to(XMLFileModelPersister.class);
     bind(OrderPersister.class).to(XMLFileOrderPersister.class);
-    bind(XMLModelReader.class).to(XMLModel002Builder.class);
-    bind(XMLModelWriter.class).to(XMLModel002Builder.class);
+
+    configureModelReaderWriter();
+    configureTransportOrderJournal();
+  }
+
+  private void configureModelReaderWriter() {
+    ConfigurationStore modelConfigStore
+        = ConfigurationStore.getStore(XMLFileModelPersister.class.getName());
+    if (modelConfigStore.getBoolean("modelSnapshots", true)) {
+      bind(ModelPersister.class).to(SnapshotCachingModelPersister.class);
+    }
+    else {
+      bind(ModelPersister.class).to(XMLFileModelPersister.class);
+    }
+    if (modelConfigStore.getBoolean("streamingModelIO", true)) {
+      bindConstant()
+          .annotatedWith(StAXModel002Builder.ValidateModel.class)
+          .to(modelConfigStore.getBoolean("validateModel", true));
+      bind(XMLModelReader.class).to(StAXModel002Builder.class);
+      bind(XMLModelWriter.class).to(StAXModel002Builder.class);
+    }
+    else {
+      bind(XMLModelReader.class).to(XMLModel002Builder.class);
+      bind(XMLModelWriter.class).to(XMLModel002Builder.class);
+    }
+  }
+
+  private void configureTransportOrderJournal() {
+    ConfigurationStore journalConfigStore
+        = ConfigurationStore.getStore(TransportOrderJournal.class.getName());
+    bindConstant()
+        .annotatedWith(TransportOrderJournal.Enabled.class)
+        .to(journalConfigStore.getBoolean("enabled", false));
+    bindConstant()
+        .annotatedWith(TransportOrderJournal.CommitInterval.class)
+        .to(journalConfigStore.getLong("commitInterval", 50));
+    bindConstant()
+        .annotatedWith(TransportOrderJournal.SnapshotInterval.class)
+        .to(journalConfigStore.getInt("snapshotInterval", 10000));
+    bind(TransportOrderJournal.class).in(Singleton.class);
   }
 }
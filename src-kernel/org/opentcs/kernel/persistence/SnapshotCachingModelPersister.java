@@ -0,0 +1,438 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.inject.Inject;
+import org.opentcs.data.ObjectExistsException;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Block;
+import org.opentcs.data.model.Group;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.StaticRoute;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.model.visualization.VisualLayout;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ * A <code>ModelPersister</code> that keeps a binary snapshot of the model
+ * loaded last from an {@link XMLFileModelPersister}'s model file.
+ * <p>
+ * The snapshot is keyed by a hash of the model file's contents. As long as the
+ * model file does not change, the model is loaded from the snapshot, which
+ * does not require the XML to be parsed or the model objects to be built step
+ * by step. Both files are read via plain buffered streams rather than memory
+ * mappings, as a mapping would keep the files locked on some platforms until
+ * it is garbage collected, blocking saving the model and replacing the
+ * snapshot. Otherwise, the model is loaded from
+ * the model file and a new snapshot is written in the background.
+ * </p>
+ * <p>
+ * The snapshot contains the model objects in their serialized form. If it
+ * cannot be read, e.g. because the classes of the model objects have changed,
+ * the model is loaded from the model file.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SnapshotCachingModelPersister
+    implements ModelPersister {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(SnapshotCachingModelPersister.class.getName());
+  /**
+   * The name of the snapshot file.
+   */
+  private static final String SNAPSHOT_FILE_NAME = "model.snapshot";
+  /**
+   * The magic number at the start of a snapshot file.
+   */
+  private static final int SNAPSHOT_MAGIC = 0x544d534e;
+  /**
+   * The version of the snapshot format.
+   */
+  private static final int FORMAT_VERSION = 1;
+  /**
+   * The persister for the model file.
+   */
+  private final XMLFileModelPersister xmlPersister;
+  /**
+   * The snapshot file.
+   */
+  private final File snapshotFile;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param xmlPersister The persister for the model file.
+   */
+  @Inject
+  public SnapshotCachingModelPersister(XMLFileModelPersister xmlPersister) {
+    this.xmlPersister = Objects.requireNonNull(xmlPersister, "xmlPersister");
+    this.snapshotFile = new File(xmlPersister.getModelFile().getParentFile(),
+                                 SNAPSHOT_FILE_NAME);
+  }
+
+  @Override
+  public Optional<String> getModelName()
+      throws IOException {
+    if (!hasSavedModel()) {
+      return Optional.empty();
+    }
+    String modelHash = hashModelFile();
+    synchronized (this) {
+      try (SnapshotReader reader = openSnapshot(modelHash)) {
+        if (reader != null) {
+          return Optional.of(reader.getModelName());
+        }
+      }
+    }
+    return xmlPersister.getModelName();
+  }
+
+  @Override
+  public boolean hasSavedModel() {
+    return xmlPersister.hasSavedModel();
+  }
+
+  @Override
+  public void saveModel(Model model, Optional<String> modelName)
+      throws IOException {
+    deleteSnapshot();
+    xmlPersister.saveModel(model, modelName);
+  }
+
+  @Override
+  public void loadModel(Model model)
+      throws IOException {
+    Objects.requireNonNull(model, "model is null");
+    if (!hasSavedModel()) {
+      xmlPersister.loadModel(model);
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    String modelHash = hashModelFile();
+    if (loadSnapshot(modelHash, model)) {
+      log.info("Loaded model '" + model.getName() + "' from snapshot in "
+          + (System.currentTimeMillis() - startTime) + " ms");
+      return;
+    }
+    xmlPersister.loadModel(model);
+    log.info("Loaded model '" + model.getName() + "' from XML file in "
+        + (System.currentTimeMillis() - startTime) + " ms");
+    writeSnapshotInBackground(modelHash, model);
+  }
+
+  @Override
+  public void removeModel()
+      throws IOException {
+    deleteSnapshot();
+    xmlPersister.removeModel();
+  }
+
+  /**
+   * Loads the model from the snapshot, if the snapshot exists and matches the
+   * model file.
+   *
+   * @param modelHash The model file's hash.
+   * @param model The model to load the snapshot into.
+   * @return <code>true</code> if, and only if, the model was loaded.
+   */
+  private synchronized boolean loadSnapshot(String modelHash, Model model) {
+    List<TCSObject<?>> objects = new ArrayList<>();
+    String modelName;
+    try (SnapshotReader reader = openSnapshot(modelHash)) {
+      if (reader == null) {
+        return false;
+      }
+      modelName = reader.getModelName();
+      reader.readObjects(objects);
+    }
+    catch (IOException | ClassNotFoundException | ClassCastException exc) {
+      log.log(Level.WARNING, "Could not read model snapshot, ignoring it", exc);
+      return false;
+    }
+    model.clear();
+    model.setName(modelName);
+    TCSObjectPool objectPool = model.getObjectPool();
+    try {
+      for (TCSObject<?> object : objects) {
+        objectPool.addObject(object);
+        objectPool.emitObjectEvent(object.clone(),
+                                   null,
+                                   TCSObjectEvent.Type.OBJECT_CREATED);
+      }
+    }
+    catch (ObjectExistsException exc) {
+      log.log(Level.WARNING, "Inconsistent model snapshot, ignoring it", exc);
+      model.clear();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Opens the snapshot file, if it exists and matches the model file.
+   *
+   * @param modelHash The model file's hash.
+   * @return A reader for the snapshot, or <code>null</code>, if there is no
+   * matching snapshot.
+   */
+  private SnapshotReader openSnapshot(String modelHash) {
+    if (!snapshotFile.isFile()) {
+      return null;
+    }
+    try {
+      SnapshotReader reader = new SnapshotReader(snapshotFile);
+      if (modelHash.equals(reader.getModelHash())) {
+        return reader;
+      }
+      reader.close();
+      log.fine("Model file changed, not using snapshot");
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Could not open model snapshot, ignoring it", exc);
+    }
+    return null;
+  }
+
+  /**
+   * Writes a snapshot of the given model in the background.
+   * The model objects are copied before this method returns.
+   *
+   * @param modelHash The hash of the model file the model was loaded from.
+   * @param model The model.
+   */
+  private void writeSnapshotInBackground(final String modelHash,
+                                         final Model model) {
+    final String modelName = model.getName();
+    final List<TCSObject<?>> objects = new ArrayList<>();
+    for (TCSObject<?> object
+             : model.getObjectPool().getObjects((Pattern) null)) {
+      if (isModelObject(object)) {
+        objects.add(object.clone());
+      }
+    }
+    Thread writerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          writeSnapshot(modelHash, modelName, objects);
+        }
+        catch (IOException exc) {
+          log.log(Level.WARNING, "Could not write model snapshot", exc);
+        }
+      }
+    }, "modelSnapshotWriter");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Writes a snapshot with the given objects, replacing the previous one
+   * atomically.
+   *
+   * @param modelHash The hash of the model file.
+   * @param modelName The model's name.
+   * @param objects The model objects.
+   * @throws IOException If writing the snapshot failed.
+   */
+  private synchronized void writeSnapshot(String modelHash,
+                                          String modelName,
+                                          List<TCSObject<?>> objects)
+      throws IOException {
+    long startTime = System.currentTimeMillis();
+    File tempFile = File.createTempFile("model", null,
+                                        snapshotFile.getParentFile());
+    try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+      BufferedOutputStream bufferedOut = new BufferedOutputStream(fileOut);
+      DataOutputStream dataOut = new DataOutputStream(bufferedOut);
+      dataOut.writeInt(SNAPSHOT_MAGIC);
+      dataOut.writeInt(FORMAT_VERSION);
+      dataOut.writeUTF(modelHash);
+      dataOut.writeUTF(modelName);
+      dataOut.writeInt(objects.size());
+      dataOut.flush();
+      ObjectOutputStream objectOut = new ObjectOutputStream(bufferedOut);
+      for (TCSObject<?> object : objects) {
+        objectOut.writeObject(object);
+      }
+      objectOut.flush();
+      fileOut.getFD().sync();
+    }
+    catch (IOException exc) {
+      tempFile.delete();
+      throw exc;
+    }
+    Files.move(tempFile.toPath(),
+               snapshotFile.toPath(),
+               StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+    log.fine("Wrote model snapshot with " + objects.size() + " objects in "
+        + (System.currentTimeMillis() - startTime) + " ms");
+  }
+
+  private synchronized void deleteSnapshot() {
+    if (snapshotFile.exists() && !snapshotFile.delete()) {
+      log.warning("Could not delete " + snapshotFile.getPath());
+    }
+  }
+
+  /**
+   * Computes a hash of the model file's contents.
+   *
+   * @return The hash as a hex string.
+   * @throws IOException If reading the model file failed.
+   */
+  private String hashModelFile()
+      throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException exc) {
+      throw new IllegalStateException("SHA-256 not supported", exc);
+    }
+    try (InputStream in = new DigestInputStream(
+        new BufferedInputStream(
+            new FileInputStream(xmlPersister.getModelFile())),
+        digest)) {
+      byte[] buffer = new byte[64 * 1024];
+      while (in.read(buffer) != -1) {
+        // The digest is updated while reading.
+      }
+    }
+    StringBuilder result = new StringBuilder();
+    for (byte b : digest.digest()) {
+      result.append(String.format("%02x", b));
+    }
+    return result.toString();
+  }
+
+  private static boolean isModelObject(TCSObject<?> object) {
+    return object instanceof Point
+        || object instanceof Path
+        || object instanceof Vehicle
+        || object instanceof LocationType
+        || object instanceof Location
+        || object instanceof Block
+        || object instanceof Group
+        || object instanceof StaticRoute
+        || object instanceof VisualLayout;
+  }
+
+  /**
+   * Reads a snapshot file.
+   */
+  private static class SnapshotReader
+      implements AutoCloseable {
+
+    /**
+     * A stream reading the snapshot file.
+     */
+    private final InputStream inStream;
+    /**
+     * The hash of the model file the snapshot was taken from.
+     */
+    private final String modelHash;
+    /**
+     * The model's name.
+     */
+    private final String modelName;
+    /**
+     * The number of objects in the snapshot.
+     */
+    private final int objectCount;
+
+    /**
+     * Opens the given snapshot file and reads its header.
+     *
+     * @param file The snapshot file.
+     * @throws IOException If the file could not be read or is not a snapshot.
+     */
+    SnapshotReader(File file)
+        throws IOException {
+      inStream = new BufferedInputStream(new FileInputStream(file), 64 * 1024);
+      try {
+        DataInputStream dataIn = new DataInputStream(inStream);
+        if (dataIn.readInt() != SNAPSHOT_MAGIC
+            || dataIn.readInt() != FORMAT_VERSION) {
+          throw new IOException("Not a supported snapshot file: "
+              + file.getPath());
+        }
+        modelHash = dataIn.readUTF();
+        modelName = dataIn.readUTF();
+        objectCount = dataIn.readInt();
+      }
+      catch (IOException exc) {
+        inStream.close();
+        throw exc;
+      }
+    }
+
+    String getModelHash() {
+      return modelHash;
+    }
+
+    String getModelName() {
+      return modelName;
+    }
+
+    /**
+     * Reads the model objects in the snapshot.
+     *
+     * @param objects The list to add the objects to.
+     * @throws IOException If reading the objects failed.
+     * @throws ClassNotFoundException If the class of an object is unknown.
+     */
+    void readObjects(List<TCSObject<?>> objects)
+        throws IOException, ClassNotFoundException {
+      ObjectInputStream objectIn = new ObjectInputStream(inStream);
+      for (int i = 0; i < objectCount; i++) {
+        objects.add((TCSObject<?>) objectIn.readObject());
+      }
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      inStream.close();
+    }
+  }
+}
@@ -0,0 +1,1254 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import com.google.inject.BindingAnnotation;
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.inject.Inject;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.opentcs.data.ObjectExistsException;
+import org.opentcs.data.ObjectPropConstants;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Block;
+import org.opentcs.data.model.Group;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.StaticRoute;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.data.model.TCSResourceReference;
+import org.opentcs.data.model.Triple;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.model.visualization.LayoutElement;
+import org.opentcs.data.model.visualization.ModelLayoutElement;
+import org.opentcs.data.model.visualization.ShapeLayoutElement;
+import org.opentcs.data.model.visualization.ViewBookmark;
+import org.opentcs.data.model.visualization.VisualLayout;
+import org.opentcs.kernel.workingset.Model;
+import org.xml.sax.SAXException;
+
+/**
+ * A streaming implementation of {@link XMLModelReader XMLModelReader} and
+ * {@link XMLModelWriter XMLModelWriter} for version 0.0.2 of the model file
+ * format.
+ * <p>
+ * In contrast to {@link XMLModel002Builder}, this implementation does not
+ * build a document tree in memory, but creates model objects as soon as the
+ * respective elements are read and writes elements as soon as the respective
+ * model objects are visited. Reading relies on the element order defined by
+ * the schema, in which objects are always defined before they are referenced.
+ * </p>
+ * <p>
+ * Validation of the input against the schema is optional. If it is enabled,
+ * it is done in a separate thread while the model is being read, and the model
+ * is cleared if the input turns out to be invalid.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class StAXModel002Builder
+    implements XMLModelReader, XMLModelWriter {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(StAXModel002Builder.class.getName());
+  /**
+   * The URL of the schema for XML model validataion.
+   */
+  private static final URL schemaUrl = StAXModel002Builder.class.getResource(
+      "/org/opentcs/kernel/persistence/model-0.0.2.xsd");
+  /**
+   * The schema for XML model validation, created lazily.
+   */
+  private static Schema schema;
+  /**
+   * Whether input is to be validated against the schema.
+   */
+  private final boolean validating;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param validating Whether input is to be validated against the schema.
+   */
+  @Inject
+  StAXModel002Builder(@ValidateModel boolean validating) {
+    this.validating = validating;
+  }
+
+  @Override
+  public String getVersionString() {
+    return XMLModel002Builder.versionString;
+  }
+
+  // Implementation of interface XMLModelWriter starts here.
+  @Override
+  public void writeXMLModel(Model model,
+                            Optional<String> name,
+                            OutputStream outStream)
+      throws IOException {
+    Objects.requireNonNull(model, "model is null");
+    Objects.requireNonNull(outStream, "outStream is null");
+
+    OutputStream bufferedOut = new BufferedOutputStream(outStream);
+    try {
+      XMLStreamWriter streamWriter = XMLOutputFactory.newInstance()
+          .createXMLStreamWriter(bufferedOut, "UTF-8");
+      IndentingWriter writer = new IndentingWriter(streamWriter);
+      streamWriter.writeStartDocument("UTF-8", "1.0");
+      writer.start("model");
+      writer.attribute("version", getVersionString());
+      writer.attribute("name", name.orElse(model.getName()));
+      writePoints(writer, model);
+      writePaths(writer, model);
+      writeVehicles(writer, model);
+      writeLocationTypes(writer, model);
+      writeLocations(writer, model);
+      writeBlocks(writer, model);
+      writeStaticRoutes(writer, model);
+      writeGroups(writer, model);
+      writeVisualLayouts(writer, model);
+      writer.end();
+      writer.newLine();
+      streamWriter.writeEndDocument();
+      streamWriter.close();
+    }
+    catch (XMLStreamException exc) {
+      throw new IOException("Exception writing model", exc);
+    }
+    bufferedOut.flush();
+  }
+
+  // Implementation of interface XMLModelReader starts here.
+  @Override
+  public void readXMLModel(InputStream inStream, Model model)
+      throws IOException, InvalidModelException {
+    Objects.requireNonNull(inStream, "inStream is null");
+    Objects.requireNonNull(model, "model is null");
+
+    if (!validating) {
+      readModel(new BufferedInputStream(inStream), model);
+      return;
+    }
+    // Validation and reading need their own streams - keep the raw input,
+    // which is still a lot less than a document tree.
+    final byte[] input = readFully(inStream);
+    FutureTask<Void> validation = new FutureTask<>(new Callable<Void>() {
+      @Override
+      public Void call()
+          throws IOException, SAXException {
+        getSchema().newValidator().validate(
+            new StreamSource(new ByteArrayInputStream(input)));
+        return null;
+      }
+    });
+    Thread validatorThread = new Thread(validation, "modelValidator");
+    validatorThread.setDaemon(true);
+    validatorThread.start();
+    try {
+      readModel(new ByteArrayInputStream(input), model);
+    }
+    catch (IOException | InvalidModelException | RuntimeException exc) {
+      validation.cancel(true);
+      throw exc;
+    }
+    try {
+      validation.get();
+    }
+    catch (ExecutionException exc) {
+      model.clear();
+      log.log(Level.SEVERE, "Model does not validate", exc.getCause());
+      throw new InvalidModelException("Model does not validate: "
+          + exc.getCause().getMessage(), exc.getCause());
+    }
+    catch (InterruptedException exc) {
+      validation.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while validating model", exc);
+    }
+  }
+
+  /**
+   * Returns the schema for model validation.
+   *
+   * @return The schema for model validation.
+   * @throws SAXException If the schema could not be parsed.
+   */
+  private static synchronized Schema getSchema()
+      throws SAXException {
+    if (schema == null) {
+      schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+          .newSchema(schemaUrl);
+    }
+    return schema;
+  }
+
+  private static byte[] readFully(InputStream inStream)
+      throws IOException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(64 * 1024);
+    byte[] buffer = new byte[64 * 1024];
+    int count;
+    while ((count = inStream.read(buffer)) != -1) {
+      bytesOut.write(buffer, 0, count);
+    }
+    return bytesOut.toByteArray();
+  }
+
+  /**
+   * Reads the model from the given input stream.
+   *
+   * @param inStream The input stream.
+   * @param model The model to be filled.
+   * @throws IOException If reading or parsing the input failed.
+   * @throws InvalidModelException If the input is not a valid model.
+   */
+  private void readModel(InputStream inStream, Model model)
+      throws IOException, InvalidModelException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      XMLStreamReader reader = factory.createXMLStreamReader(inStream);
+      reader.nextTag();
+      // Verify that this is an openTCS model.
+      if (!reader.getLocalName().equals("model")) {
+        throw new InvalidModelException("Not an openTCS XML model");
+      }
+      String modelName = attribute(reader, "name", "");
+      if (modelName.isEmpty()) {
+        modelName = "ModelNameMissing";
+      }
+      String modelVersion = reader.getAttributeValue(null, "version");
+      if (!getVersionString().equals(modelVersion)) {
+        throw new InvalidModelException("Bad model version: " + modelVersion);
+      }
+      // Clear the model before reading the new data.
+      model.clear();
+      model.setName(modelName);
+      new ElementReader(reader, model).readModelElements();
+      reader.close();
+    }
+    catch (XMLStreamException exc) {
+      log.log(Level.SEVERE, "Exception parsing input", exc);
+      throw new IOException("Exception parsing input: " + exc.getMessage(),
+                            exc);
+    }
+    catch (ObjectExistsException exc) {
+      throw new InvalidModelException("Duplicate objects found in model", exc);
+    }
+    catch (IllegalArgumentException exc) {
+      // Includes NumberFormatExceptions for malformed numeric attributes.
+      throw new InvalidModelException("Invalid attribute value in model: "
+          + exc.getMessage(), exc);
+    }
+  }
+
+  private static String attribute(XMLStreamReader reader,
+                                  String name,
+                                  String defaultValue) {
+    String value = reader.getAttributeValue(null, name);
+    return value == null ? defaultValue : value;
+  }
+
+  private static boolean isEmpty(String value) {
+    return value == null || value.isEmpty();
+  }
+
+  private static Integer parseId(String value) {
+    try {
+      return Integer.valueOf(value);
+    }
+    catch (NumberFormatException exc) {
+      return null;
+    }
+  }
+
+  private static void writePoints(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Point> points = new TreeSet<>(TCSObject.idComparator);
+    points.addAll(model.getPoints(null));
+    for (Point curPoint : points) {
+      writer.start("point");
+      writer.attribute("id", String.valueOf(curPoint.getId()));
+      writer.attribute("name", curPoint.getName());
+      writer.attribute("xPosition",
+                       String.valueOf(curPoint.getPosition().getX()));
+      writer.attribute("yPosition",
+                       String.valueOf(curPoint.getPosition().getY()));
+      writer.attribute("zPosition",
+                       String.valueOf(curPoint.getPosition().getZ()));
+      writer.attribute("vehicleOrientationAngle",
+                       String.valueOf(curPoint.getVehicleOrientationAngle()));
+      writer.attribute("type", curPoint.getType().toString());
+      for (TCSObjectReference<Path> curRef : curPoint.getOutgoingPaths()) {
+        writer.empty("outgoingPath");
+        writer.attribute("name", curRef.getName());
+      }
+      writeProperties(writer, curPoint.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writePaths(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Path> paths = new TreeSet<>(TCSObject.idComparator);
+    paths.addAll(model.getPaths(null));
+    for (Path curPath : paths) {
+      writer.start("path");
+      writer.attribute("id", String.valueOf(curPath.getId()));
+      writer.attribute("name", curPath.getName());
+      writer.attribute("sourcePoint", curPath.getSourcePoint().getName());
+      writer.attribute("destinationPoint",
+                       curPath.getDestinationPoint().getName());
+      writer.attribute("length", String.valueOf(curPath.getLength()));
+      writer.attribute("routingCost", String.valueOf(curPath.getRoutingCost()));
+      writer.attribute("maxVelocity", String.valueOf(curPath.getMaxVelocity()));
+      writer.attribute("maxReverseVelocity",
+                       String.valueOf(curPath.getMaxReverseVelocity()));
+      writer.attribute("locked", String.valueOf(curPath.isLocked()));
+      writeProperties(writer, curPath.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeVehicles(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Vehicle> vehicles = new TreeSet<>(TCSObject.idComparator);
+    vehicles.addAll(model.getVehicles(null));
+    for (Vehicle curVehicle : vehicles) {
+      writer.start("vehicle");
+      writer.attribute("id", String.valueOf(curVehicle.getId()));
+      writer.attribute("name", curVehicle.getName());
+      writer.attribute("length", String.valueOf(curVehicle.getLength()));
+      writer.attribute("energyLevelCritical",
+                       String.valueOf(curVehicle.getEnergyLevelCritical()));
+      writer.attribute("energyLevelGood",
+                       String.valueOf(curVehicle.getEnergyLevelGood()));
+      writeProperties(writer, curVehicle.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeLocationTypes(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<LocationType> locTypes = new TreeSet<>(TCSObject.idComparator);
+    locTypes.addAll(model.getLocationTypes(null));
+    for (LocationType curType : locTypes) {
+      writer.start("locationType");
+      writer.attribute("id", String.valueOf(curType.getId()));
+      writer.attribute("name", curType.getName());
+      for (String curOperation : curType.getAllowedOperations()) {
+        writer.empty("allowedOperation");
+        writer.attribute("name", curOperation);
+      }
+      writeProperties(writer, curType.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeLocations(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Location> locations = new TreeSet<>(TCSObject.idComparator);
+    locations.addAll(model.getLocations(null));
+    for (Location curLoc : locations) {
+      writer.start("location");
+      writer.attribute("id", String.valueOf(curLoc.getId()));
+      writer.attribute("name", curLoc.getName());
+      writer.attribute("xPosition", String.valueOf(curLoc.getPosition().getX()));
+      writer.attribute("yPosition", String.valueOf(curLoc.getPosition().getY()));
+      writer.attribute("zPosition", String.valueOf(curLoc.getPosition().getZ()));
+      writer.attribute("type", curLoc.getType().getName());
+      for (Location.Link curLink : curLoc.getAttachedLinks()) {
+        writer.start("link");
+        writer.attribute("point", curLink.getPoint().getName());
+        for (String operation : curLink.getAllowedOperations()) {
+          writer.empty("allowedOperation");
+          writer.attribute("name", operation);
+        }
+        writer.end();
+      }
+      writeProperties(writer, curLoc.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeBlocks(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Block> blocks = new TreeSet<>(TCSObject.idComparator);
+    blocks.addAll(model.getBlocks(null));
+    for (Block curBlock : blocks) {
+      writer.start("block");
+      writer.attribute("id", String.valueOf(curBlock.getId()));
+      writer.attribute("name", curBlock.getName());
+      for (TCSResourceReference<?> curRef : curBlock.getMembers()) {
+        writer.empty("member");
+        writer.attribute("name", curRef.getName());
+      }
+      writeProperties(writer, curBlock.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeStaticRoutes(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<StaticRoute> routes = new TreeSet<>(TCSObject.idComparator);
+    routes.addAll(model.getStaticRoutes(null));
+    for (StaticRoute curRoute : routes) {
+      writer.start("staticRoute");
+      writer.attribute("id", String.valueOf(curRoute.getId()));
+      writer.attribute("name", curRoute.getName());
+      for (TCSObjectReference<Point> curRef : curRoute.getHops()) {
+        writer.empty("hop");
+        writer.attribute("name", curRef.getName());
+      }
+      writeProperties(writer, curRoute.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeGroups(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<Group> groups = new TreeSet<>(TCSObject.idComparator);
+    groups.addAll(model.getGroups(null));
+    for (Group curGroup : groups) {
+      writer.start("group");
+      writer.attribute("id", String.valueOf(curGroup.getId()));
+      writer.attribute("name", curGroup.getName());
+      for (TCSObjectReference<?> curRef : curGroup.getMembers()) {
+        writer.empty("member");
+        writer.attribute("name", curRef.getName());
+      }
+      writeProperties(writer, curGroup.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeVisualLayouts(IndentingWriter writer, Model model)
+      throws XMLStreamException {
+    Set<VisualLayout> layouts = new TreeSet<>(TCSObject.idComparator);
+    layouts.addAll(model.getObjectPool().getObjects(VisualLayout.class));
+    for (VisualLayout curLayout : layouts) {
+      writer.start("visualLayout");
+      writer.attribute("id", String.valueOf(curLayout.getId()));
+      writer.attribute("name", curLayout.getName());
+      writer.attribute("scaleX", String.valueOf(curLayout.getScaleX()));
+      writer.attribute("scaleY", String.valueOf(curLayout.getScaleY()));
+      for (Map.Entry<String, Color> colorEntry
+           : curLayout.getColors().entrySet()) {
+        writer.empty("color");
+        writer.attribute("name", colorEntry.getKey());
+        writer.attribute("redValue",
+                         Integer.toString(colorEntry.getValue().getRed()));
+        writer.attribute("greenValue",
+                         Integer.toString(colorEntry.getValue().getGreen()));
+        writer.attribute("blueValue",
+                         Integer.toString(colorEntry.getValue().getBlue()));
+      }
+      // Separate our various kinds of layout elements.
+      List<ShapeLayoutElement> shapeLayoutElements = new LinkedList<>();
+      List<ModelLayoutElement> modelLayoutElements = new ArrayList<>();
+      for (LayoutElement layoutElement : curLayout.getLayoutElements()) {
+        if (layoutElement instanceof ShapeLayoutElement) {
+          shapeLayoutElements.add((ShapeLayoutElement) layoutElement);
+        }
+        else if (layoutElement instanceof ModelLayoutElement) {
+          modelLayoutElements.add((ModelLayoutElement) layoutElement);
+        }
+        // XXX ImageLayoutElement and GroupLayoutElement are not persisted.
+      }
+      // Sort layout elements for nicer diffs of model contents.
+      Collections.sort(modelLayoutElements,
+                       new ModelLayoutElement.ObjectNameComparator());
+      for (ShapeLayoutElement curSLE : shapeLayoutElements) {
+        writer.start("shapeLayoutElement");
+        writer.attribute("layer", String.valueOf(curSLE.getLayer()));
+        writeProperties(writer, curSLE.getProperties());
+        writer.end();
+      }
+      for (ModelLayoutElement curMLE : modelLayoutElements) {
+        // Don't use the result of getVisualizedObject() directly, since the
+        // name of the object might have changed...
+        TCSObject<?> vObj
+            = model.getObjectPool().getObject(curMLE.getVisualizedObject());
+        if (vObj == null) {
+          log.severe("Visualized object " + curMLE.getVisualizedObject()
+              + " does not exist (any more?), not persisting layout element");
+          continue;
+        }
+        writer.start("modelLayoutElement");
+        writer.attribute("visualizedObjectName", vObj.getName());
+        writer.attribute("layer", String.valueOf(curMLE.getLayer()));
+        writeProperties(writer, curMLE.getProperties());
+        writer.end();
+      }
+      for (ViewBookmark curBookmark : curLayout.getViewBookmarks()) {
+        writer.empty("viewBookmark");
+        writer.attribute("label", curBookmark.getLabel());
+        writer.attribute("centerX", Integer.toString(curBookmark.getCenterX()));
+        writer.attribute("centerY", Integer.toString(curBookmark.getCenterY()));
+        writer.attribute("viewScaleX",
+                         Double.toString(curBookmark.getViewScaleX()));
+        writer.attribute("viewScaleY",
+                         Double.toString(curBookmark.getViewScaleY()));
+        writer.attribute("viewRotation",
+                         Integer.toString(curBookmark.getViewRotation()));
+      }
+      writeProperties(writer, curLayout.getProperties());
+      writer.end();
+    }
+  }
+
+  private static void writeProperties(IndentingWriter writer,
+                                      Map<String, String> properties)
+      throws XMLStreamException {
+    for (Map.Entry<String, String> curEntry : properties.entrySet()) {
+      writer.empty("property");
+      writer.attribute("name", curEntry.getKey());
+      writer.attribute("value", curEntry.getValue());
+    }
+  }
+
+  /**
+   * Reads the elements of a model and creates the respective model objects.
+   */
+  private static class ElementReader {
+
+    /**
+     * The reader providing the elements.
+     */
+    private final XMLStreamReader reader;
+    /**
+     * The model to be filled.
+     */
+    private final Model model;
+    /**
+     * The number of elements read per element name, for generating names of
+     * unnamed objects.
+     */
+    private final Map<String, Integer> elementCounts = new HashMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param reader The reader providing the elements.
+     * @param model The model to be filled.
+     */
+    ElementReader(XMLStreamReader reader, Model model) {
+      this.reader = reader;
+      this.model = model;
+    }
+
+    /**
+     * Reads all child elements of the model element.
+     *
+     * @throws XMLStreamException If reading the input failed.
+     * @throws ObjectExistsException In case of duplicate objects.
+     * @throws InvalidModelException If an element references an object that
+     * has not been defined before or lacks a required attribute.
+     */
+    void readModelElements()
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        String elementName = reader.getLocalName();
+        switch (elementName) {
+          case "point":
+            readPoint(nextIndex(elementName));
+            break;
+          case "path":
+            readPath(nextIndex(elementName));
+            break;
+          case "vehicle":
+            readVehicle(nextIndex(elementName));
+            break;
+          case "locationType":
+            readLocationType(nextIndex(elementName));
+            break;
+          case "location":
+            readLocation(nextIndex(elementName));
+            break;
+          case "block":
+            readBlock(nextIndex(elementName));
+            break;
+          case "staticRoute":
+            readStaticRoute(nextIndex(elementName));
+            break;
+          case "group":
+            readGroup(nextIndex(elementName));
+            break;
+          case "visualLayout":
+            readVisualLayout();
+            break;
+          default:
+            skipElement();
+        }
+      }
+    }
+
+    private int nextIndex(String elementName) {
+      Integer count = elementCounts.get(elementName);
+      int index = count == null ? 0 : count;
+      elementCounts.put(elementName, index + 1);
+      return index;
+    }
+
+    private void readPoint(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      Point curPoint = model.createPoint(parseId(attr("id")));
+      TCSObjectReference<Point> pointRef = curPoint.getReference();
+      String pointName = attr("name");
+      if (isEmpty(pointName)) {
+        pointName = "PointName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(pointRef, pointName);
+      model.setPointPosition(pointRef, readPosition());
+      String attrVal = attr("vehicleOrientationAngle");
+      if (attrVal != null) {
+        model.setPointVehicleOrientationAngle(pointRef,
+                                              Double.parseDouble(attrVal));
+      }
+      model.setPointType(pointRef, Point.Type.valueOf(requiredAttr("type")));
+      PropertyCollector props = new PropertyCollector();
+      while (nextChild()) {
+        if (!props.offer()) {
+          // Outgoing paths are derived from the paths' source points.
+          skipElement();
+        }
+      }
+      props.applyTo(pointRef);
+    }
+
+    private void readVehicle(int index)
+        throws XMLStreamException, ObjectExistsException {
+      Vehicle curVehicle = model.createVehicle(parseId(attr("id")));
+      TCSObjectReference<Vehicle> vehicleRef = curVehicle.getReference();
+      String vehicleName = attr("name");
+      if (isEmpty(vehicleName)) {
+        vehicleName = "VehicleName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(vehicleRef, vehicleName);
+      model.setVehicleLength(vehicleRef,
+                             Integer.parseInt(attribute(reader, "length", "1000")));
+      model.setVehicleEnergyLevelCritical(
+          vehicleRef,
+          Integer.parseInt(attribute(reader, "energyLevelCritical", "30")));
+      model.setVehicleEnergyLevelGood(
+          vehicleRef,
+          Integer.parseInt(attribute(reader, "energyLevelGood", "90")));
+      readProperties(vehicleRef);
+    }
+
+    private void readPath(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      String srcName = attr("sourcePoint");
+      if (isEmpty(srcName)) {
+        srcName = "SourcePoint" + index + "Unknown";
+      }
+      String destName = attr("destinationPoint");
+      if (isEmpty(destName)) {
+        destName = "DestinationPoint" + index + "Unknown";
+      }
+      Path curPath = model.createPath(parseId(attr("id")),
+                                      requirePoint(srcName).getReference(),
+                                      requirePoint(destName).getReference());
+      TCSObjectReference<Path> pathRef = curPath.getReference();
+      String pathName = attr("name");
+      if (isEmpty(pathName)) {
+        pathName = "PathName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(pathRef, pathName);
+      model.setPathLength(pathRef,
+                          Long.parseLong(attribute(reader, "length", "1")));
+      model.setPathRoutingCost(
+          pathRef, Long.parseLong(attribute(reader, "routingCost", "1")));
+      model.setPathLocked(
+          pathRef, Boolean.parseBoolean(attribute(reader, "locked", "false")));
+      model.setPathMaxVelocity(pathRef, parseIntOrZero(attr("maxVelocity")));
+      model.setPathMaxReverseVelocity(
+          pathRef, parseIntOrZero(attr("maxReverseVelocity")));
+      model.addPointOutgoingPath(curPath.getSourcePoint(), pathRef);
+      model.addPointIncomingPath(curPath.getDestinationPoint(), pathRef);
+      readProperties(pathRef);
+    }
+
+    private void readLocationType(int index)
+        throws XMLStreamException, ObjectExistsException {
+      LocationType curType = model.createLocationType(parseId(attr("id")));
+      TCSObjectReference<LocationType> typeRef = curType.getReference();
+      String typeName = attr("name");
+      if (isEmpty(typeName)) {
+        typeName = "LocationType" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(typeRef, typeName);
+      PropertyCollector props = new PropertyCollector();
+      int opIndex = 0;
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        if (reader.getLocalName().equals("allowedOperation")) {
+          String curOperation = attr("name");
+          if (isEmpty(curOperation)) {
+            curOperation = "Operation" + opIndex + "Unknown";
+          }
+          opIndex++;
+          model.addLocationTypeAllowedOperation(typeRef, curOperation);
+        }
+        skipElement();
+      }
+      props.applyTo(typeRef);
+    }
+
+    private void readLocation(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      String typeName = attr("type");
+      if (isEmpty(typeName)) {
+        typeName = "LocationType" + index + "Unknown";
+      }
+      LocationType type = model.getLocationType(typeName);
+      if (type == null) {
+        throw new InvalidModelException("Unknown location type: " + typeName);
+      }
+      Location curLocation = model.createLocation(parseId(attr("id")),
+                                                  type.getReference());
+      TCSObjectReference<Location> locRef = curLocation.getReference();
+      String locName = attr("name");
+      if (isEmpty(locName)) {
+        locName = "LocationName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(locRef, locName);
+      model.setLocationPosition(locRef, readPosition());
+      PropertyCollector props = new PropertyCollector();
+      int linkIndex = 0;
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        if (!reader.getLocalName().equals("link")) {
+          skipElement();
+          continue;
+        }
+        String pointName = attr("point");
+        if (isEmpty(pointName)) {
+          pointName = "PointName" + linkIndex + "Unknown";
+        }
+        linkIndex++;
+        TCSObjectReference<Point> pointRef
+            = requirePoint(pointName).getReference();
+        model.connectLocationToPoint(locRef, pointRef);
+        while (nextChild()) {
+          if (reader.getLocalName().equals("allowedOperation")) {
+            model.addLocationLinkAllowedOperation(
+                locRef, pointRef, attribute(reader, "name", "NOP"));
+          }
+          skipElement();
+        }
+      }
+      props.applyTo(locRef);
+    }
+
+    private void readBlock(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      Block curBlock = model.createBlock(parseId(attr("id")));
+      TCSObjectReference<Block> blockRef = curBlock.getReference();
+      String blockName = attr("name");
+      if (isEmpty(blockName)) {
+        blockName = "BlockName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(blockRef, blockName);
+      PropertyCollector props = new PropertyCollector();
+      int memberIndex = 0;
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        if (reader.getLocalName().equals("member")) {
+          String memberName = attr("name");
+          if (isEmpty(memberName)) {
+            memberName = "MemberName" + memberIndex + "Unknown";
+          }
+          memberIndex++;
+          TCSObject<?> member = requireObject(memberName);
+          if (!(member instanceof TCSResource)) {
+            throw new InvalidModelException("Not a resource: " + memberName);
+          }
+          curBlock.addMember(((TCSResource<?>) member).getReference());
+        }
+        skipElement();
+      }
+      props.applyTo(blockRef);
+    }
+
+    private void readGroup(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      Group curGroup = model.createGroup(parseId(attr("id")));
+      TCSObjectReference<Group> groupRef = curGroup.getReference();
+      String groupName = attr("name");
+      if (isEmpty(groupName)) {
+        groupName = "GroupName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(groupRef, groupName);
+      PropertyCollector props = new PropertyCollector();
+      int memberIndex = 0;
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        if (reader.getLocalName().equals("member")) {
+          String memberName = attr("name");
+          if (isEmpty(memberName)) {
+            memberName = "MemberName" + memberIndex + "Unknown";
+          }
+          memberIndex++;
+          curGroup.addMember(requireObject(memberName).getReference());
+        }
+        skipElement();
+      }
+      props.applyTo(groupRef);
+    }
+
+    private void readStaticRoute(int index)
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      StaticRoute curRoute = model.createStaticRoute(parseId(attr("id")));
+      TCSObjectReference<StaticRoute> routeRef = curRoute.getReference();
+      String routeName = attr("name");
+      if (isEmpty(routeName)) {
+        routeName = "RouteName" + index + "Unknown";
+      }
+      model.getObjectPool().renameObject(routeRef, routeName);
+      PropertyCollector props = new PropertyCollector();
+      int hopIndex = 0;
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        if (reader.getLocalName().equals("hop")) {
+          String pointName = attr("name");
+          if (isEmpty(pointName)) {
+            pointName = "PointName" + hopIndex + "Unknown";
+          }
+          hopIndex++;
+          curRoute.addHop(requirePoint(pointName).getReference());
+        }
+        skipElement();
+      }
+      props.applyTo(routeRef);
+    }
+
+    private void readVisualLayout()
+        throws XMLStreamException, ObjectExistsException, InvalidModelException {
+      VisualLayout vLayout = model.createVisualLayout(parseId(attr("id")));
+      TCSObjectReference<VisualLayout> layoutRef = vLayout.getReference();
+      String attrVal = attr("name");
+      if (attrVal != null) {
+        model.getObjectPool().renameObject(layoutRef, attrVal);
+      }
+      attrVal = attr("scaleX");
+      if (attrVal != null) {
+        model.setVisualLayoutScaleX(layoutRef, Double.parseDouble(attrVal));
+      }
+      attrVal = attr("scaleY");
+      if (attrVal != null) {
+        model.setVisualLayoutScaleY(layoutRef, Double.parseDouble(attrVal));
+      }
+      attrVal = attr("locTheme");
+      if (attrVal != null) {
+        vLayout.setProperty(ObjectPropConstants.LOCATION_THEME_CLASS, attrVal);
+      }
+      attrVal = attr("vehTheme");
+      if (attrVal != null) {
+        vLayout.setProperty(ObjectPropConstants.VEHICLE_THEME_CLASS, attrVal);
+      }
+
+      Map<String, Color> colors = new HashMap<>();
+      Set<LayoutElement> layoutElements = new HashSet<>();
+      List<ViewBookmark> viewBookmarks = new LinkedList<>();
+      PropertyCollector props = new PropertyCollector();
+      while (nextChild()) {
+        if (props.offer()) {
+          continue;
+        }
+        switch (reader.getLocalName()) {
+          case "color":
+            colors.put(attr("name"),
+                       new Color(Integer.parseInt(attr("redValue")),
+                                 Integer.parseInt(attr("greenValue")),
+                                 Integer.parseInt(attr("blueValue"))));
+            skipElement();
+            break;
+          case "shapeLayoutElement":
+            ShapeLayoutElement sle = new ShapeLayoutElement();
+            attrVal = attr("layer");
+            if (attrVal != null) {
+              sle.setLayer(Integer.parseInt(attrVal));
+            }
+            sle.setProperties(readRawProperties());
+            layoutElements.add(sle);
+            break;
+          case "modelLayoutElement":
+            String objName = attr("visualizedObjectName");
+            ModelLayoutElement mle
+                = new ModelLayoutElement(requireObject(objName).getReference());
+            attrVal = attr("layer");
+            if (attrVal != null) {
+              mle.setLayer(Integer.parseInt(attrVal));
+            }
+            mle.setProperties(readRawProperties());
+            layoutElements.add(mle);
+            break;
+          case "viewBookmark":
+            ViewBookmark bookmark = new ViewBookmark();
+            bookmark.setLabel(attr("label"));
+            bookmark.setCenterX(Integer.parseInt(attr("centerX")));
+            bookmark.setCenterY(Integer.parseInt(attr("centerY")));
+            bookmark.setViewScaleX(Double.parseDouble(attr("viewScaleX")));
+            bookmark.setViewScaleY(Double.parseDouble(attr("viewScaleY")));
+            bookmark.setViewRotation(Integer.parseInt(attr("viewRotation")));
+            viewBookmarks.add(bookmark);
+            skipElement();
+            break;
+          default:
+            skipElement();
+        }
+      }
+      model.setVisualLayoutColors(layoutRef, colors);
+      model.setVisualLayoutElements(layoutRef, layoutElements);
+      model.setVisualLayoutViewBookmarks(layoutRef, viewBookmarks);
+      props.applyTo(layoutRef);
+    }
+
+    private String attr(String name) {
+      return reader.getAttributeValue(null, name);
+    }
+
+    private String requiredAttr(String name)
+        throws InvalidModelException {
+      String value = attr(name);
+      if (value == null) {
+        throw new InvalidModelException("Missing attribute " + name
+            + " of element " + reader.getLocalName() + " in line "
+            + reader.getLocation().getLineNumber());
+      }
+      return value;
+    }
+
+    private Triple readPosition() {
+      Triple position = new Triple();
+      String attrVal = attr("xPosition");
+      if (attrVal != null) {
+        position.setX(Long.parseLong(attrVal));
+      }
+      attrVal = attr("yPosition");
+      if (attrVal != null) {
+        position.setY(Long.parseLong(attrVal));
+      }
+      attrVal = attr("zPosition");
+      if (attrVal != null) {
+        position.setZ(Long.parseLong(attrVal));
+      }
+      return position;
+    }
+
+    private int parseIntOrZero(String value) {
+      try {
+        return Integer.parseInt(value);
+      }
+      catch (NumberFormatException exc) {
+        return 0;
+      }
+    }
+
+    private Point requirePoint(String name)
+        throws InvalidModelException {
+      Point point = model.getPoint(name);
+      if (point == null) {
+        throw new InvalidModelException("Unknown point: " + name);
+      }
+      return point;
+    }
+
+    private TCSObject<?> requireObject(String name)
+        throws InvalidModelException {
+      TCSObject<?> object = model.getObjectPool().getObject(name);
+      if (object == null) {
+        throw new InvalidModelException("Unknown object: " + name);
+      }
+      return object;
+    }
+
+    /**
+     * Reads the property child elements of the current element and sets them
+     * on the referenced object. Other child elements are skipped.
+     *
+     * @param ref A reference to the object.
+     * @throws XMLStreamException If reading the input failed.
+     */
+    private void readProperties(TCSObjectReference<?> ref)
+        throws XMLStreamException {
+      PropertyCollector props = new PropertyCollector();
+      while (nextChild()) {
+        if (!props.offer()) {
+          skipElement();
+        }
+      }
+      props.applyTo(ref);
+    }
+
+    /**
+     * Reads the property child elements of the current element without
+     * replacing missing names or values.
+     *
+     * @return The properties read.
+     * @throws XMLStreamException If reading the input failed.
+     */
+    private Map<String, String> readRawProperties()
+        throws XMLStreamException {
+      Map<String, String> result = new HashMap<>();
+      while (nextChild()) {
+        if (reader.getLocalName().equals("property")) {
+          result.put(attr("name"), attr("value"));
+        }
+        skipElement();
+      }
+      return result;
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return <code>true</code> if the reader is positioned at the start of a
+     * child element, <code>false</code> if it is positioned at the end of the
+     * current element.
+     * @throws XMLStreamException If reading the input failed.
+     */
+    private boolean nextChild()
+        throws XMLStreamException {
+      return reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+    }
+
+    /**
+     * Skips the rest of the current element, including all of its children.
+     *
+     * @throws XMLStreamException If reading the input failed.
+     */
+    private void skipElement()
+        throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+        }
+        else if (event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
+      }
+    }
+
+    /**
+     * Collects properties of an object while its child elements are read.
+     */
+    private class PropertyCollector {
+
+      /**
+       * The properties collected, in the order read.
+       */
+      private final List<String[]> properties = new ArrayList<>();
+
+      /**
+       * Consumes the current element if it is a property element.
+       *
+       * @return <code>true</code> if, and only if, the current element was a
+       * property element and has been consumed.
+       * @throws XMLStreamException If reading the input failed.
+       */
+      boolean offer()
+          throws XMLStreamException {
+        if (!reader.getLocalName().equals("property")) {
+          return false;
+        }
+        int index = properties.size();
+        String key = attr("name");
+        if (isEmpty(key)) {
+          key = "Key" + index + "Unknown";
+        }
+        String value = attr("value");
+        if (isEmpty(value)) {
+          value = "Value" + index + "Unknown";
+        }
+        properties.add(new String[] {key, value});
+        skipElement();
+        return true;
+      }
+
+      /**
+       * Sets the collected properties on the referenced object.
+       *
+       * @param ref A reference to the object.
+       */
+      void applyTo(TCSObjectReference<?> ref) {
+        for (String[] property : properties) {
+          model.getObjectPool().setObjectProperty(ref, property[0], property[1]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes elements with indentation, like a pretty-printing document outputter
+   * would.
+   */
+  private static class IndentingWriter {
+
+    /**
+     * The line separator to be used.
+     */
+    private final String lineSeparator = System.getProperty("line.separator");
+    /**
+     * The underlying writer.
+     */
+    private final XMLStreamWriter writer;
+    /**
+     * The current nesting depth.
+     */
+    private int depth;
+    /**
+     * Whether nothing has been written since the last element was started.
+     */
+    private boolean elementJustStarted;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param writer The underlying writer.
+     */
+    IndentingWriter(XMLStreamWriter writer) {
+      this.writer = writer;
+    }
+
+    /**
+     * Starts a new element that may have children.
+     *
+     * @param name The element's name.
+     * @throws XMLStreamException If writing failed.
+     */
+    void start(String name)
+        throws XMLStreamException {
+      newLine();
+      writer.writeStartElement(name);
+      depth++;
+      elementJustStarted = true;
+    }
+
+    /**
+     * Writes a new element without children.
+     *
+     * @param name The element's name.
+     * @throws XMLStreamException If writing failed.
+     */
+    void empty(String name)
+        throws XMLStreamException {
+      newLine();
+      writer.writeEmptyElement(name);
+      elementJustStarted = false;
+    }
+
+    /**
+     * Writes an attribute of the element just started.
+     *
+     * @param name The attribute's name.
+     * @param value The attribute's value.
+     * @throws XMLStreamException If writing failed.
+     */
+    void attribute(String name, String value)
+        throws XMLStreamException {
+      writer.writeAttribute(name, value);
+    }
+
+    /**
+     * Ends the element started last.
+     *
+     * @throws XMLStreamException If writing failed.
+     */
+    void end()
+        throws XMLStreamException {
+      depth--;
+      // Don't put whitespace into elements that don't have children.
+      if (!elementJustStarted) {
+        newLine();
+      }
+      writer.writeEndElement();
+      elementJustStarted = false;
+    }
+
+    /**
+     * Writes a line separator and the indentation for the current depth.
+     *
+     * @throws XMLStreamException If writing failed.
+     */
+    void newLine()
+        throws XMLStreamException {
+      StringBuilder indent = new StringBuilder(lineSeparator);
+      for (int i = 0; i < depth; i++) {
+        indent.append("  ");
+      }
+      writer.writeCharacters(indent.toString());
+    }
+  }
+
+  /**
+   * Annotation type for marking whether models read are to be validated.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  static @interface ValidateModel {
+    // Nothing here.
+  }
+}
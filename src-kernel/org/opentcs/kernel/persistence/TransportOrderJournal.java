@@ -0,0 +1,723 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import com.google.inject.BindingAnnotation;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import javax.inject.Inject;
+import org.opentcs.access.ApplicationHome;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.CentralEventHub;
+import org.opentcs.util.eventsystem.EventFilter;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.EventSource;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ * A write-ahead journal for the transport orders that have not reached a final
+ * state, yet.
+ * <p>
+ * While started, the journal records the state of each transport order every
+ * time it is created or modified (including changes of its state, its drive
+ * orders and its vehicle assignments), and the removal of transport orders
+ * that have been removed or have reached a final state. Records are written to
+ * the journal file by a separate thread, which writes all records queued in
+ * the meantime at once and forces them to the storage device only once per
+ * batch (group commit). After a configurable number of records, the states of
+ * all live transport orders are written to a snapshot file and the journal file
+ * is truncated, so the time required for recovery does not grow with the
+ * number of orders processed.
+ * </p>
+ * <p>
+ * When the kernel terminates regularly, the journal is discarded. If it does
+ * not, the states recorded can be recovered when the journal is used the next
+ * time.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TransportOrderJournal
+    implements EventListener<TCSEvent> {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(TransportOrderJournal.class.getName());
+  /**
+   * The name of the journal file.
+   */
+  private static final String JOURNAL_FILE_NAME = "order_journal.bin";
+  /**
+   * The name of the snapshot file.
+   */
+  private static final String SNAPSHOT_FILE_NAME = "order_snapshot.bin";
+  /**
+   * The magic number at the start of a snapshot file.
+   */
+  private static final int SNAPSHOT_MAGIC = 0x544f534e;
+  /**
+   * The version of the snapshot and journal format.
+   */
+  private static final int FORMAT_VERSION = 2;
+  /**
+   * The type of a record containing a transport order's current state.
+   */
+  private static final byte RECORD_UPDATE = 1;
+  /**
+   * The type of a record indicating a transport order's removal.
+   */
+  private static final byte RECORD_REMOVAL = 2;
+  /**
+   * The size of a record's header (length and checksum).
+   */
+  private static final int RECORD_HEADER_SIZE = 8;
+  /**
+   * The directory containing the journal and snapshot files.
+   */
+  private final File dataDirectory;
+  /**
+   * The journal file.
+   */
+  private final File journalFile;
+  /**
+   * The snapshot file.
+   */
+  private final File snapshotFile;
+  /**
+   * The source of the events to be journaled.
+   */
+  private final EventSource<TCSEvent> eventSource;
+  /**
+   * Whether journaling is enabled.
+   */
+  private final boolean enabled;
+  /**
+   * The time (in ms) to wait after each commit, so records can accumulate.
+   */
+  private final long commitInterval;
+  /**
+   * The number of records after which a snapshot is written.
+   */
+  private final int snapshotInterval;
+  /**
+   * The records waiting to be written.
+   */
+  private final BlockingQueue<Record> pendingRecords
+      = new LinkedBlockingQueue<>();
+  /**
+   * The thread writing the records, if the journal is started.
+   */
+  private volatile Thread writerThread;
+  /**
+   * Whether the writer thread should terminate after writing all pending
+   * records.
+   */
+  private volatile boolean terminated;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param homeDirectory The application's home directory.
+   * @param eventSource The source of the events to be journaled.
+   * @param enabled Whether journaling is enabled.
+   * @param commitInterval The time (in ms) to wait after each commit.
+   * @param snapshotInterval The number of records after which a snapshot is
+   * written.
+   */
+  @Inject
+  public TransportOrderJournal(@ApplicationHome File homeDirectory,
+                               @CentralEventHub EventSource<TCSEvent> eventSource,
+                               @Enabled boolean enabled,
+                               @CommitInterval long commitInterval,
+                               @SnapshotInterval int snapshotInterval) {
+    requireNonNull(homeDirectory, "homeDirectory");
+    this.eventSource = requireNonNull(eventSource, "eventSource");
+    this.enabled = enabled;
+    this.commitInterval = commitInterval;
+    this.snapshotInterval = Math.max(1, snapshotInterval);
+    this.dataDirectory = new File(homeDirectory, "data");
+    this.journalFile = new File(dataDirectory, JOURNAL_FILE_NAME);
+    this.snapshotFile = new File(dataDirectory, SNAPSHOT_FILE_NAME);
+  }
+
+  /**
+   * Checks whether journaling is enabled.
+   *
+   * @return <code>true</code> if, and only if, journaling is enabled.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks whether this journal is started.
+   *
+   * @return <code>true</code> if, and only if, this journal is started.
+   */
+  public boolean isStarted() {
+    return writerThread != null;
+  }
+
+  /**
+   * Reads the transport order states recorded by a previous run that was not
+   * terminated regularly.
+   *
+   * @return The recorded transport order states, sorted by the orders'
+   * creation times. If journaling is disabled or there are no recorded states,
+   * an empty list is returned.
+   */
+  public List<JournaledOrder> recover() {
+    if (!enabled) {
+      return new ArrayList<>();
+    }
+    long startTime = System.currentTimeMillis();
+    Map<String, JournaledOrder> orders = new LinkedHashMap<>();
+    try {
+      for (byte[] data : readSnapshot().values()) {
+        JournaledOrder order = decodeOrder(data);
+        orders.put(order.getName(), order);
+      }
+      int recordCount = replayJournal(orders);
+      log.info("Recovered " + orders.size() + " transport orders from snapshot"
+          + " and " + recordCount + " journal records in "
+          + (System.currentTimeMillis() - startTime) + " ms");
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING, "Exception recovering transport orders", exc);
+    }
+    List<JournaledOrder> result = new ArrayList<>(orders.values());
+    Collections.sort(result, new Comparator<JournaledOrder>() {
+      @Override
+      public int compare(JournaledOrder o1, JournaledOrder o2) {
+        return Long.compare(o1.getCreationTime(), o2.getCreationTime());
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Starts journaling.
+   * The given transport orders are recorded in a new snapshot, replacing any
+   * previously recorded states. To ensure no modifications are missed, the
+   * caller should prevent transport orders from being modified while this
+   * method runs.
+   *
+   * @param currentOrders The transport orders currently existing.
+   * @throws IllegalStateException If this journal is already started.
+   */
+  public void start(Collection<TransportOrder> currentOrders)
+      throws IllegalStateException {
+    requireNonNull(currentOrders, "currentOrders");
+    if (!enabled) {
+      return;
+    }
+    if (isStarted()) {
+      throw new IllegalStateException("Journal already started");
+    }
+    if (!dataDirectory.isDirectory() && !dataDirectory.mkdirs()) {
+      log.warning("Could not create " + dataDirectory.getPath()
+          + ", transport orders are not journaled.");
+      return;
+    }
+    Map<String, byte[]> liveOrders = new LinkedHashMap<>();
+    for (TransportOrder order : currentOrders) {
+      if (!order.getState().isFinalState()) {
+        liveOrders.put(order.getName(), encodeOrder(JournaledOrder.of(order)));
+      }
+    }
+    FileChannel journalChannel;
+    try {
+      writeSnapshot(liveOrders);
+      journalChannel = FileChannel.open(journalFile.toPath(),
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE);
+      journalChannel.truncate(0);
+      journalChannel.force(true);
+    }
+    catch (IOException exc) {
+      log.log(Level.WARNING,
+              "Could not initialize journal, transport orders are not journaled.",
+              exc);
+      return;
+    }
+    pendingRecords.clear();
+    terminated = false;
+    eventSource.addEventListener(this, new TransportOrderEventFilter());
+    Thread thread = new Thread(new Writer(journalChannel, liveOrders),
+                               "transportOrderJournal");
+    thread.setDaemon(true);
+    writerThread = thread;
+    thread.start();
+    log.fine("Transport order journal started with " + liveOrders.size()
+        + " orders");
+  }
+
+  /**
+   * Stops journaling and discards all recorded states.
+   * This is meant to be called when the transport orders are being discarded
+   * regularly.
+   */
+  public void stop() {
+    close();
+    if (enabled && (!journalFile.delete() || !snapshotFile.delete())) {
+      log.fine("Journal files not deleted, probably did not exist");
+    }
+  }
+
+  /**
+   * Stops journaling after writing all pending records, keeping the recorded
+   * states.
+   */
+  void close() {
+    Thread thread = writerThread;
+    if (thread == null) {
+      return;
+    }
+    eventSource.removeEventListener(this);
+    terminated = true;
+    try {
+      thread.join();
+    }
+    catch (InterruptedException exc) {
+      log.log(Level.WARNING, "Interrupted waiting for journal writer", exc);
+    }
+    writerThread = null;
+  }
+
+  @Override // EventListener
+  public void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent) || !isStarted()) {
+      return;
+    }
+    TCSObjectEvent objectEvent = (TCSObjectEvent) event;
+    if (!(objectEvent.getCurrentOrPreviousObjectState() instanceof TransportOrder)) {
+      return;
+    }
+    TransportOrder previous
+        = (TransportOrder) objectEvent.getPreviousObjectState();
+    TransportOrder current
+        = (TransportOrder) objectEvent.getCurrentObjectState();
+    // A renamed order's state must not be recovered under its old name.
+    if (previous != null
+        && (current == null || !previous.getName().equals(current.getName()))) {
+      pendingRecords.add(Record.removal(previous.getName()));
+    }
+    if (current != null) {
+      if (current.getState().isFinalState()) {
+        pendingRecords.add(Record.removal(current.getName()));
+      }
+      else {
+        pendingRecords.add(
+            Record.update(current.getName(),
+                          encodeOrder(JournaledOrder.of(current))));
+      }
+    }
+  }
+
+  /**
+   * Replays the journal file, applying its records to the given orders.
+   * Replaying stops at the first incomplete or corrupted record, which can only
+   * be the result of a write interrupted by a crash.
+   *
+   * @param orders The orders to apply the records to.
+   * @return The number of records replayed.
+   * @throws IOException If reading the journal file failed.
+   */
+  private int replayJournal(Map<String, JournaledOrder> orders)
+      throws IOException {
+    if (!journalFile.isFile()) {
+      return 0;
+    }
+    int recordCount = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(journalFile)))) {
+      CRC32 crc = new CRC32();
+      while (true) {
+        int length;
+        int checksum;
+        byte[] data;
+        try {
+          length = in.readInt();
+          checksum = in.readInt();
+          if (length <= 0 || length > in.available()) {
+            log.warning("Journal ends with an incomplete record, ignoring it");
+            break;
+          }
+          data = new byte[length];
+          in.readFully(data);
+        }
+        catch (EOFException exc) {
+          break;
+        }
+        crc.reset();
+        crc.update(data);
+        if ((int) crc.getValue() != checksum) {
+          log.warning("Journal ends with a corrupted record, ignoring it");
+          break;
+        }
+        DataInputStream recordIn
+            = new DataInputStream(new ByteArrayInputStream(data));
+        byte type = recordIn.readByte();
+        if (type == RECORD_UPDATE) {
+          JournaledOrder order = JournaledOrder.readFrom(recordIn);
+          orders.put(order.getName(), order);
+        }
+        else if (type == RECORD_REMOVAL) {
+          orders.remove(recordIn.readUTF());
+        }
+        else {
+          log.warning("Unknown journal record type " + type + ", ignoring it");
+        }
+        recordCount++;
+      }
+    }
+    return recordCount;
+  }
+
+  /**
+   * Reads the snapshot file.
+   *
+   * @return The encoded order states contained in the snapshot, mapped by the
+   * orders' names.
+   * @throws IOException If reading the snapshot file failed.
+   */
+  private Map<String, byte[]> readSnapshot()
+      throws IOException {
+    Map<String, byte[]> result = new LinkedHashMap<>();
+    if (!snapshotFile.isFile()) {
+      return result;
+    }
+    try (InputStream fileIn = new FileInputStream(snapshotFile);
+         DataInputStream in
+         = new DataInputStream(new BufferedInputStream(fileIn))) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Not a supported snapshot file: "
+            + snapshotFile.getPath());
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        result.put(decodeOrder(data).getName(), data);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes a snapshot of the given order states, replacing the previous one
+   * atomically.
+   *
+   * @param liveOrders The encoded states of all live orders.
+   * @throws IOException If writing the snapshot failed.
+   */
+  private void writeSnapshot(Map<String, byte[]> liveOrders)
+      throws IOException {
+    File tempFile = File.createTempFile("order_snapshot", null, dataDirectory);
+    try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+      DataOutputStream out
+          = new DataOutputStream(new BufferedOutputStream(fileOut));
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(liveOrders.size());
+      for (byte[] data : liveOrders.values()) {
+        out.writeInt(data.length);
+        out.write(data);
+      }
+      out.flush();
+      fileOut.getFD().sync();
+    }
+    Files.move(tempFile.toPath(),
+               snapshotFile.toPath(),
+               StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static byte[] encodeOrder(JournaledOrder order) {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(256);
+    try {
+      order.writeTo(new DataOutputStream(bytesOut));
+    }
+    catch (IOException exc) {
+      throw new IllegalStateException("Unexpected exception", exc);
+    }
+    return bytesOut.toByteArray();
+  }
+
+  private static JournaledOrder decodeOrder(byte[] data)
+      throws IOException {
+    return JournaledOrder.readFrom(
+        new DataInputStream(new ByteArrayInputStream(data)));
+  }
+
+  /**
+   * A record to be written to the journal.
+   */
+  private static final class Record {
+
+    /**
+     * The name of the transport order.
+     */
+    private final String orderName;
+    /**
+     * The encoded order state, or <code>null</code> for a removal.
+     */
+    private final byte[] orderData;
+    /**
+     * The record as written to the journal, including its header.
+     */
+    private final byte[] bytes;
+
+    private Record(String orderName, byte[] orderData, byte[] payload) {
+      this.orderName = orderName;
+      this.orderData = orderData;
+      CRC32 crc = new CRC32();
+      crc.update(payload);
+      ByteBuffer buffer
+          = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+      buffer.putInt(payload.length);
+      buffer.putInt((int) crc.getValue());
+      buffer.put(payload);
+      this.bytes = buffer.array();
+    }
+
+    static Record update(String orderName, byte[] orderData) {
+      byte[] payload = new byte[orderData.length + 1];
+      payload[0] = RECORD_UPDATE;
+      System.arraycopy(orderData, 0, payload, 1, orderData.length);
+      return new Record(orderName, orderData, payload);
+    }
+
+    static Record removal(String orderName) {
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(32);
+      try {
+        DataOutputStream out = new DataOutputStream(bytesOut);
+        out.writeByte(RECORD_REMOVAL);
+        out.writeUTF(orderName);
+      }
+      catch (IOException exc) {
+        throw new IllegalStateException("Unexpected exception", exc);
+      }
+      return new Record(orderName, null, bytesOut.toByteArray());
+    }
+  }
+
+  /**
+   * Writes pending records to the journal in batches.
+   */
+  private class Writer
+      implements Runnable {
+
+    /**
+     * The channel to the journal file.
+     */
+    private final FileChannel journalChannel;
+    /**
+     * The encoded states of all live orders, as recorded in the snapshot and
+     * the journal.
+     */
+    private final Map<String, byte[]> liveOrders;
+    /**
+     * The number of records written since the last snapshot.
+     */
+    private int recordsSinceSnapshot;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param journalChannel The channel to the journal file.
+     * @param liveOrders The encoded states of all live orders.
+     */
+    Writer(FileChannel journalChannel, Map<String, byte[]> liveOrders) {
+      this.journalChannel = journalChannel;
+      this.liveOrders = liveOrders;
+    }
+
+    @Override
+    public void run() {
+      List<Record> batch = new ArrayList<>();
+      try {
+        while (!terminated || !pendingRecords.isEmpty()) {
+          Record first = pendingRecords.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          pendingRecords.drainTo(batch);
+          commit(batch);
+          batch.clear();
+          if (recordsSinceSnapshot >= snapshotInterval) {
+            takeSnapshot();
+          }
+          if (commitInterval > 0 && !terminated) {
+            Thread.sleep(commitInterval);
+          }
+        }
+      }
+      catch (InterruptedException exc) {
+        log.log(Level.WARNING, "Journal writer interrupted", exc);
+        abandon();
+      }
+      catch (IOException exc) {
+        log.log(Level.SEVERE,
+                "Exception writing journal, transport orders not journaled any more",
+                exc);
+        abandon();
+      }
+      finally {
+        try {
+          journalChannel.close();
+        }
+        catch (IOException exc) {
+          log.log(Level.WARNING, "Exception closing journal", exc);
+        }
+      }
+    }
+
+    /**
+     * Stops journaling after the writer failed, so records do not pile up
+     * without being written.
+     */
+    private void abandon() {
+      eventSource.removeEventListener(TransportOrderJournal.this);
+      writerThread = null;
+      pendingRecords.clear();
+    }
+
+    /**
+     * Writes the given records to the journal and forces them to the storage
+     * device.
+     *
+     * @param records The records.
+     * @throws IOException If writing to the journal failed.
+     */
+    private void commit(List<Record> records)
+        throws IOException {
+      int size = 0;
+      for (Record record : records) {
+        size += record.bytes.length;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+      for (Record record : records) {
+        buffer.put(record.bytes);
+        if (record.orderData == null) {
+          liveOrders.remove(record.orderName);
+        }
+        else {
+          liveOrders.put(record.orderName, record.orderData);
+        }
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        journalChannel.write(buffer);
+      }
+      journalChannel.force(false);
+      recordsSinceSnapshot += records.size();
+    }
+
+    /**
+     * Writes a snapshot of all live orders and truncates the journal.
+     * Should writing be interrupted after the snapshot is written, replaying
+     * the journal's records on top of the snapshot does no harm, as each record
+     * contains an order's complete state.
+     *
+     * @throws IOException If writing the snapshot failed.
+     */
+    private void takeSnapshot()
+        throws IOException {
+      writeSnapshot(liveOrders);
+      journalChannel.truncate(0);
+      journalChannel.position(0);
+      journalChannel.force(true);
+      recordsSinceSnapshot = 0;
+      log.finer("Wrote snapshot with " + liveOrders.size() + " orders");
+    }
+  }
+
+  /**
+   * Accepts object events for transport orders.
+   */
+  private static class TransportOrderEventFilter
+      implements EventFilter<TCSEvent> {
+
+    @Override
+    public boolean accept(TCSEvent event) {
+      return event instanceof TCSObjectEvent
+          && ((TCSObjectEvent) event).getCurrentOrPreviousObjectState()
+          instanceof TransportOrder;
+    }
+  }
+
+  /**
+   * Annotation type for marking whether journaling is enabled.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface Enabled {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for marking the time to wait after each commit.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface CommitInterval {
+    // Nothing here.
+  }
+
+  /**
+   * Annotation type for marking the number of records after which a snapshot
+   * is written.
+   */
+  @BindingAnnotation
+  @Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface SnapshotInterval {
+    // Nothing here.
+  }
+}
@@ -162,6 +162,15 @@ public class XMLFileModelPersister
     return true;
   }
 
+  /**
+   * Returns the file in which the model is persisted.
+   *
+   * @return The file in which the model is persisted.
+   */
+  File getModelFile() {
+    return new File(dataDirectory, modelFileName);
+  }
+
   /**
    * Creates a backup of the currently saved model file by copying it to the
    * "backups" subdirectory.
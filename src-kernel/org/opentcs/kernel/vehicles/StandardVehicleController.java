@@ -19,6 +19,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.logging.Logger;
 import org.opentcs.access.LocalKernel;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.algorithms.ResourceAllocationException;
 import org.opentcs.algorithms.ResourceUser;
 import org.opentcs.algorithms.Scheduler;
@@ -345,6 +346,10 @@ public final class StandardVehicleController
           pointRef = point.getReference();
         }
       }
+      // Apply all changes to the vehicle with a single kernel call, so
+      // observers never see a state in which only some of them are applied.
+      final VehicleUpdate update = new VehicleUpdate();
+      update.setPosition(pointRef);
       synchronized (futureCommands) {
         // If the current drive order is null, just set the vehicle's position.
         if (currentDriveOrder == null) {
@@ -360,11 +365,8 @@ public final class StandardVehicleController
             scheduler.allocateNow(this, requiredResource);
             allocatedResources.add(requiredResource);
           }
-          localKernel.setVehiclePosition(controlledVehicle.getReference(),
-                                         pointRef);
-          localKernel.setVehicleNextPosition(controlledVehicle.getReference(),
-                                             null);
-          updateVehicleInstance();
+          update.setNextPosition(null);
+          applyVehicleUpdate(update);
         }
         else if (commandsSent.isEmpty()) {
           log.fine(vehicleName + ": Reported new position " + point
@@ -373,11 +375,8 @@ public final class StandardVehicleController
           // vehicle. Just set the position without touching the resources, as
           // that might cause even more damage when we actually send commands
           // to the vehicle.
-          localKernel.setVehiclePosition(controlledVehicle.getReference(),
-                                         pointRef);
-          localKernel.setVehicleNextPosition(controlledVehicle.getReference(),
-                                             null);
-          updateVehicleInstance();
+          update.setNextPosition(null);
+          applyVehicleUpdate(update);
         }
         else {
           final Iterator<MovementCommand> commandIter = commandsSent.iterator();
@@ -408,21 +407,21 @@ public final class StandardVehicleController
           }
 
           final Point dstPoint = moveCommand.getStep().getDestinationPoint();
-          if (dstPoint.getName().equals(position)) {
+          final boolean expectedPosition = dstPoint.getName().equals(position);
+          if (expectedPosition) {
             // Update the vehicle's progress index.
-            setVehicleRouteProgressIndex(moveCommand.getStep().getRouteIndex());
-            // Let the scheduler know where we are now.
-            scheduler.setRouteIndex(this, moveCommand.getStep().getRouteIndex());
+            update.setRouteProgressIndex(moveCommand.getStep().getRouteIndex());
           }
           else {
             log.warning("Reported position: " + position
                 + "; expected: " + dstPoint.getName());
           }
-          localKernel.setVehiclePosition(controlledVehicle.getReference(),
-                                         pointRef);
-          localKernel.setVehicleNextPosition(controlledVehicle.getReference(),
-                                             nextPosition);
-          updateVehicleInstance();
+          update.setNextPosition(nextPosition);
+          applyVehicleUpdate(update);
+          if (expectedPosition) {
+            // Let the scheduler know where we are now.
+            scheduler.setRouteIndex(this, moveCommand.getStep().getRouteIndex());
+          }
         }
       }
     }
@@ -437,10 +436,9 @@ public final class StandardVehicleController
     // Change the state of controlled vehicle via the kernel, not directly,
     // since the kernel might have to emit events for it and it needs to be
     // synchronized.
-    localKernel.setVehiclePrecisePosition(controlledVehicle.getReference(),
-                                          position);
-    // Get us a fresh copy of the modified vehicle object.
-    updateVehicleInstance();
+    VehicleUpdate update = new VehicleUpdate();
+    update.setPrecisePosition(position);
+    applyVehicleUpdate(update);
   }
 
   @Override
@@ -448,10 +446,20 @@ public final class StandardVehicleController
     // Change the state of controlled vehicle via the kernel, not directly,
     // since the kernel might have to emit events for it and it needs to be
     // synchronized.
-    localKernel.setVehicleOrientationAngle(controlledVehicle.getReference(),
-                                           angle);
-    // Get us a fresh copy of the modified vehicle object.
-    updateVehicleInstance();
+    VehicleUpdate update = new VehicleUpdate();
+    update.setOrientationAngle(angle);
+    applyVehicleUpdate(update);
+  }
+
+  @Override
+  public void setVehiclePrecisePositionAndAngle(Triple position, double angle) {
+    // Change the state of controlled vehicle via the kernel, not directly,
+    // since the kernel might have to emit events for it and it needs to be
+    // synchronized.
+    VehicleUpdate update = new VehicleUpdate();
+    update.setPrecisePosition(position);
+    update.setOrientationAngle(angle);
+    applyVehicleUpdate(update);
   }
 
   @Override
@@ -464,10 +472,9 @@ public final class StandardVehicleController
     // Change the state of controlled vehicle via the kernel, not directly,
     // since the kernel might have to emit events for it and it needs to be
     // synchronized.
-    localKernel.setVehicleEnergyLevel(controlledVehicle.getReference(),
-                                      energyLevel);
-    // Get us a fresh copy of the modified vehicle object.
-    updateVehicleInstance();
+    VehicleUpdate update = new VehicleUpdate();
+    update.setEnergyLevel(energyLevel);
+    applyVehicleUpdate(update);
   }
 
   @Override
@@ -774,6 +781,17 @@ public final class StandardVehicleController
     }
   }
 
+  /**
+   * Applies the given changes to the controlled vehicle and updates the
+   * reference to it.
+   *
+   * @param update The changes to be applied.
+   */
+  private void applyVehicleUpdate(VehicleUpdate update) {
+    controlledVehicle
+        = localKernel.updateVehicle(controlledVehicle.getReference(), update);
+  }
+
   /**
    * Checks if we can send another command to the communication adapter without
    * overflowing its capacity and with respect to the number of commands still
@@ -8,7 +8,8 @@
  */
 package org.opentcs.kernel.workingset;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import java.util.logging.Logger;
@@ -27,13 +28,15 @@ import org.opentcs.util.eventsystem.TCSEvent;
  * The actual size of a buffer can be influenced by two parameters, its
  * <code>capacity</code> and <code>cut back count</code>. When a new message is
  * added to the buffer and the number of messages in the buffer exceeds its
- * <code>capacity</code>, messages are removed from from the buffer until it
- * contains not more than <code>cut back count</code>.
+ * <code>capacity</code>, the oldest messages are removed from the buffer until
+ * it contains not more than <code>cut back count</code>.
  * </p>
  * <p>
- * Which messages are removed is decided by sorting all messages with the
- * <code>Comparator</code> given to the constructor. The last/highest elements
- * according to the sorting order of that <code>Comparator</code> are removed.
+ * Messages are kept in a ring buffer in the order of their creation, i.e.
+ * ordered by their timestamps. Removing the oldest message takes constant
+ * time, and messages created after a given point of time are found by binary
+ * search. Clients interested only in messages they have not seen, yet, may
+ * use a {@link Cursor Cursor} to fetch them.
  * </p>
  * <p>
  * Note that no synchronization is done inside this class. Concurrent access of
@@ -50,9 +53,19 @@ public class MessageBuffer {
   private static final Logger log =
       Logger.getLogger(MessageBuffer.class.getName());
   /**
-   * The actual messages.
+   * The actual messages, with the oldest one at <code>head</code>.
+   * Has one slot more than the buffer's capacity, for the message exceeding
+   * it.
    */
-  private final List<Message> messages = new LinkedList<>();
+  private Message[] messages;
+  /**
+   * The index of the oldest message in <code>messages</code>.
+   */
+  private int head;
+  /**
+   * The number of messages currently in this buffer.
+   */
+  private int messageCount;
   /**
    * The maximum number of messages that should be kept in this buffer.
    */
@@ -82,6 +95,7 @@ public class MessageBuffer {
   @Inject
   public MessageBuffer(@CentralEventHub EventListener<TCSEvent> eventListener) {
     messageEventListener = requireNonNull(eventListener, "eventListener");
+    messages = new Message[capacity + 1];
     cutBackCount = capacity;
   }
 
@@ -100,8 +114,8 @@ public class MessageBuffer {
    * If the new capacity is less than this buffer's <code>cut back count</code>,
    * the latter is set to the new capacity as well.
    * If the new capacity is less than the current number of messages in this
-   * buffer, messages are removed until the number of messages equals the
-   * buffer's <code>cut back count</code>.
+   * buffer, the oldest messages are removed until the number of messages
+   * equals the buffer's <code>cut back count</code>.
    *
    * @param newCapacity The buffer's new capacity. Must be at least 1.
    * @throws IllegalArgumentException If <code>newCapacity</code> is less than
@@ -117,6 +131,13 @@ public class MessageBuffer {
       cutBackCount = capacity;
     }
     cutBackMessages();
+    // Move the remaining messages into a ring of the new size.
+    Message[] newMessages = new Message[capacity + 1];
+    for (int i = 0; i < messageCount; i++) {
+      newMessages[i] = get(i);
+    }
+    messages = newMessages;
+    head = 0;
   }
 
   /**
@@ -152,7 +173,7 @@ public class MessageBuffer {
    */
   public int getMessageCount() {
     log.finer("method entry");
-    return messages.size();
+    return messageCount;
   }
 
   /**
@@ -166,7 +187,8 @@ public class MessageBuffer {
     log.finer("method entry");
     // Create an instance.
     Message newMessage = new Message(msgText, msgType);
-    messages.add(newMessage);
+    messages[(head + messageCount) % messages.length] = newMessage;
+    messageCount++;
     log.fine("New message added: " + newMessage.getMessage());
     // Make sure we don't have too many messages now.
     cutBackMessages();
@@ -179,11 +201,11 @@ public class MessageBuffer {
   /**
    * Returns all messages.
    *
-   * @return A list of all existing Message objects.
+   * @return A list of all existing Message objects, oldest first.
    */
   public List<Message> getMessages() {
     log.finer("method entry");
-    return new LinkedList<>(messages);
+    return copyMessages(0);
   }
 
   /**
@@ -192,18 +214,25 @@ public class MessageBuffer {
    *
    * @param minTimestamp The timestamp that returned messages' timestamps may
    * not precede.
-   * @return A set of messages that were all created after the given point of
-   * time.
+   * @return A list of messages that were all created after the given point of
+   * time, oldest first.
    */
   public List<Message> getMessages(long minTimestamp) {
     log.finer("method entry");
-    List<Message> result = new LinkedList<>();
-    for (Message message : messages) {
-      if (message.getTimestamp() >= minTimestamp) {
-        result.add(message);
-      }
-    }
-    return result;
+    return copyMessages(indexOfFirst(minTimestamp));
+  }
+
+  /**
+   * Returns a cursor for fetching messages created from now on.
+   * Messages currently in the buffer are regarded as seen by the cursor.
+   *
+   * @return A new cursor.
+   */
+  public Cursor createCursor() {
+    log.finer("method entry");
+    return new Cursor(messageCount == 0
+        ? Long.MIN_VALUE
+        : get(messageCount - 1).getTimestamp());
   }
 
   /**
@@ -211,22 +240,27 @@ public class MessageBuffer {
    */
   public void clear() {
     log.finer("method entry");
-    messages.clear();
+    Arrays.fill(messages, null);
+    head = 0;
+    messageCount = 0;
   }
 
   /**
-   * Removes messages until we're down to this buffer's <code>cut back
-   * count</code>.
+   * Removes the oldest messages until we're down to this buffer's <code>cut
+   * back count</code>.
    */
   private void cutBackMessages() {
     log.finer("method entry");
-    if (messages.size() > capacity) {
+    if (messageCount > capacity) {
       // Cut back number of messages.
-      while (messages.size() > cutBackCount) {
-        messages.remove(messages.size() - 1);
+      while (messageCount > cutBackCount) {
+        messages[head] = null;
+        head = (head + 1) % messages.length;
+        messageCount--;
       }
     }
   }
+
   /**
    * Emits an event for the given message.
    *
@@ -236,4 +270,104 @@ public class MessageBuffer {
     TCSMessageEvent event = new TCSMessageEvent(message);
     messageEventListener.processEvent(event);
   }
+
+  /**
+   * Returns the message at the given position, counted from the oldest one.
+   *
+   * @param index The message's position.
+   * @return The message at the given position.
+   */
+  private Message get(int index) {
+    return messages[(head + index) % messages.length];
+  }
+
+  /**
+   * Returns the position of the oldest message whose timestamp is greater
+   * than or equal to the given one.
+   *
+   * @param minTimestamp The timestamp.
+   * @return The message's position, or the number of messages, if there is
+   * no such message.
+   */
+  private int indexOfFirst(long minTimestamp) {
+    int low = 0;
+    int high = messageCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (get(mid).getTimestamp() < minTimestamp) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns a copy of the messages from the given position on.
+   *
+   * @param fromIndex The position of the first message to be copied.
+   * @return A list of the messages, oldest first.
+   */
+  private List<Message> copyMessages(int fromIndex) {
+    List<Message> result = new ArrayList<>(messageCount - fromIndex);
+    for (int i = fromIndex; i < messageCount; i++) {
+      result.add(get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Remembers the last message a client has fetched from the buffer, so it
+   * can fetch only newer messages later.
+   * <p>
+   * Like the buffer itself, a cursor is not synchronized; it must be used
+   * while holding the same lock as for accessing the buffer.
+   * </p>
+   */
+  public final class Cursor {
+
+    /**
+     * The timestamp of the last message fetched.
+     */
+    private long lastTimestamp;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param lastTimestamp The timestamp of the last message regarded as seen.
+     */
+    private Cursor(long lastTimestamp) {
+      this.lastTimestamp = lastTimestamp;
+    }
+
+    /**
+     * Returns the timestamp of the last message fetched via this cursor.
+     *
+     * @return The timestamp of the last message fetched, or
+     * <code>Long.MIN_VALUE</code>, if there was none.
+     */
+    public long getLastTimestamp() {
+      return lastTimestamp;
+    }
+
+    /**
+     * Returns the messages created since the last call to this method and
+     * advances the cursor past them.
+     * Messages that have been removed from the buffer in the meantime are
+     * skipped.
+     *
+     * @return The new messages, oldest first. May be empty.
+     */
+    public List<Message> fetchNewMessages() {
+      if (messageCount == 0
+          || get(messageCount - 1).getTimestamp() <= lastTimestamp) {
+        return new ArrayList<>(0);
+      }
+      List<Message> result = copyMessages(indexOfFirst(lastTimestamp + 1));
+      lastTimestamp = get(messageCount - 1).getTimestamp();
+      return result;
+    }
+  }
 }
@@ -14,12 +14,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.data.ObjectExistsException;
 import org.opentcs.data.ObjectUnknownException;
 import org.opentcs.data.TCSObject;
@@ -1202,7 +1204,9 @@ public class Model {
     if (referredLink == null) {
       throw new ObjectUnknownException("Described link not in this model");
     }
-    referredLink.addAllowedOperation(operation);
+    Location.Link modifiedLink = referredLink.clone();
+    modifiedLink.addAllowedOperation(operation);
+    replaceLocationLink(location, point, modifiedLink);
     // Emit an event for both the location and the point end of the link.
     objectPool.emitObjectEvent(location.clone(),
                                previousLocationState,
@@ -1292,7 +1296,9 @@ public class Model {
     if (referredLink == null) {
       throw new ObjectUnknownException("Described link not in this model");
     }
-    referredLink.clearAllowedOperations();
+    Location.Link modifiedLink = referredLink.clone();
+    modifiedLink.clearAllowedOperations();
+    replaceLocationLink(location, point, modifiedLink);
     // Emit an event for both the location and the point end of the link.
     objectPool.emitObjectEvent(location.clone(),
                                previousLocationState,
@@ -1303,6 +1309,24 @@ public class Model {
     // XXX Do we want to return anything here?
   }
 
+  /**
+   * Replaces the link between a location and a point with a modified copy.
+   * Attached links are shared with clones of the location and the point, so
+   * they are never modified in place.
+   *
+   * @param location The location end of the link.
+   * @param point The point end of the link.
+   * @param modifiedLink The modified link.
+   */
+  private void replaceLocationLink(Location location,
+                                   Point point,
+                                   Location.Link modifiedLink) {
+    location.detachLink(point.getReference());
+    location.attachLink(modifiedLink);
+    point.detachLink(location.getReference());
+    point.attachLink(modifiedLink);
+  }
+
   /**
    * Removes a location.
    *
@@ -1869,6 +1893,74 @@ public class Model {
     return vehicle;
   }
 
+  /**
+   * Applies a set of changes to a vehicle at once.
+   * Emits a single event for the vehicle, and events for the points it left
+   * and entered if its position changed.
+   *
+   * @param vehicleRef A reference to the vehicle to be modified.
+   * @param update The changes to be applied.
+   * @return The modified vehicle.
+   * @throws ObjectUnknownException If the referenced vehicle does not exist.
+   */
+  public Vehicle updateVehicle(TCSObjectReference<Vehicle> vehicleRef,
+                               VehicleUpdate update)
+      throws ObjectUnknownException {
+    log.finer("method entry");
+    requireNonNull(update, "update");
+    Vehicle vehicle = objectPool.getObject(Vehicle.class, vehicleRef);
+    if (vehicle == null) {
+      throw new ObjectUnknownException(vehicleRef);
+    }
+    Vehicle previousState = vehicle.clone();
+    if (update.isPositionSet()
+        && !Objects.equals(vehicle.getCurrentPosition(), update.getPosition())) {
+      Point newPos = null;
+      if (update.getPosition() != null) {
+        newPos = objectPool.getObject(Point.class, update.getPosition());
+        if (newPos == null) {
+          throw new ObjectUnknownException(update.getPosition());
+        }
+      }
+      if (vehicle.getCurrentPosition() != null) {
+        Point oldPos = objectPool.getObject(Point.class,
+                                            vehicle.getCurrentPosition());
+        Point previousPointState = oldPos.clone();
+        oldPos.setOccupyingVehicle(null);
+        objectPool.emitObjectEvent(oldPos.clone(),
+                                   previousPointState,
+                                   TCSObjectEvent.Type.OBJECT_MODIFIED);
+      }
+      if (newPos != null) {
+        Point previousPointState = newPos.clone();
+        newPos.setOccupyingVehicle(vehicleRef);
+        objectPool.emitObjectEvent(newPos.clone(),
+                                   previousPointState,
+                                   TCSObjectEvent.Type.OBJECT_MODIFIED);
+      }
+      vehicle.setCurrentPosition(update.getPosition());
+    }
+    if (update.isNextPositionSet()) {
+      vehicle.setNextPosition(update.getNextPosition());
+    }
+    if (update.isRouteProgressIndexSet()) {
+      vehicle.setRouteProgressIndex(update.getRouteProgressIndex());
+    }
+    if (update.isPrecisePositionSet()) {
+      vehicle.setPrecisePosition(update.getPrecisePosition());
+    }
+    if (update.isOrientationAngleSet()) {
+      vehicle.setOrientationAngle(update.getOrientationAngle());
+    }
+    if (update.isEnergyLevelSet()) {
+      vehicle.setEnergyLevel(update.getEnergyLevel());
+    }
+    objectPool.emitObjectEvent(vehicle.clone(),
+                               previousState,
+                               TCSObjectEvent.Type.OBJECT_MODIFIED);
+    return vehicle;
+  }
+
   /**
    * Removes a vehicle.
    *
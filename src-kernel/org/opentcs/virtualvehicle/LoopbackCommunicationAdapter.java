@@ -249,6 +249,7 @@ public class LoopbackCommunicationAdapter
     log.finer("method entry");
     singleStepModeEnabled = mode;
     updateViews();
+    signalCommandDispatcher();
   }
 
   /**
@@ -269,6 +270,7 @@ public class LoopbackCommunicationAdapter
   synchronized void trigger() {
     log.finer("method entry");
     executionAllowed = true;
+    signalCommandDispatcher();
   }
 
   /**
@@ -436,12 +438,18 @@ public class LoopbackCommunicationAdapter
   public synchronized void sendCommand(MovementCommand cmd) {
     assert cmd != null;
 
-    // Reset the execution flag for single-step mode.
-    executionAllowed = false;
-    // Don't do anything else - the command will be put into the sentQueue
+    // Don't do anything - the command will be put into the sentQueue
     // automatically, where it will be picked up by the simulation task.
   }
 
+  @Override
+  protected void commandDispatched(MovementCommand cmd) {
+    // Reset the execution flag for single-step mode while the command is
+    // taken from the queue, so a trigger arriving before the command is sent
+    // is not lost.
+    executionAllowed = false;
+  }
+
   @Override
   public synchronized void initVehiclePosition(String newPos) {
     super.setVehiclePosition(newPos);
@@ -642,7 +650,6 @@ public class LoopbackCommunicationAdapter
               if (sentCmd != null && sentCmd.equals(curCommand)) {
                 // Let the vehicle manager know we've finished this command.
                 commandExecuted(curCommand);
-                LoopbackCommunicationAdapter.this.notify();
               }
             }
           }
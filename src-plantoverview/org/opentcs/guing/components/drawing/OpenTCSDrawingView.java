@@ -931,6 +931,24 @@ public abstract class OpenTCSDrawingView
     }
   }
 
+  /**
+   * Repaints this view after a radial gradient has been drawn on top of the
+   * drawing buffer.
+   * The gradient isn't drawn correctly or the old one isn't removed unless the
+   * component is repainted. As the gradient is not part of the buffer, the
+   * buffer itself doesn't need to be redrawn. Every second call is skipped to
+   * make sure the repaint() call doesn't end in an infinite loop.
+   */
+  private void repaintGradients() {
+    if (doRepaint) {
+      repaint();
+      doRepaint = false;
+    }
+    else {
+      doRepaint = true;
+    }
+  }
+
   /**
    * Draws a focus circle around the currently selected figure.
    *
@@ -974,20 +992,7 @@ public abstract class OpenTCSDrawingView
     gFocus.fillRect(0, 0, getWidth(), getHeight());
     gFocus.dispose();
 
-    Rectangle visibleRect = getVisibleRect();
-    dirtyArea.add(visibleRect);
-
-    // After drawing the RadialGradientPaint the drawing area needs to be
-    // repainted, otherwise the GradientPaint isn't drawn correctly or
-    // the old one isn't removed. We make sure the repaint() call doesn't
-    // end in an infinite loop.
-    if (doRepaint) {
-      repaint();
-      doRepaint = false;
-    }
-    else {
-      doRepaint = true;
-    }
+    repaintGradients();
 
     // after 3 seconds the RadialGradientPaint is removed
     new Thread(new Runnable() {
@@ -1104,20 +1109,7 @@ public abstract class OpenTCSDrawingView
       gCurrentPosition.dispose();
     }
 
-    Rectangle visibleRect = getVisibleRect();
-    dirtyArea.add(visibleRect);
-
-    // After drawing the RadialGradientPaint the drawing area needs to
-    // repainted, otherwise the GradientPaint isn't drawn correctly or
-    // the old one isn't removed. We make sure the repaint() call doesn't
-    // end in an infinite loop.
-    if (doRepaint) {
-      repaint();
-      doRepaint = false;
-    }
-    else {
-      doRepaint = true;
-    }
+    repaintGradients();
   }
 
   /**
@@ -1188,20 +1180,7 @@ public abstract class OpenTCSDrawingView
       gFocusEnd.dispose();
     }
 
-    Rectangle visibleRect = getVisibleRect();
-    dirtyArea.add(visibleRect);
-
-    // After drawing the RadialGradientPaint the drawing area needs to be
-    // repainted, otherwise the GradientPaint isn't drawn correctly or
-    // the old one isn't removed. We make sure the repaint() call doesn't
-    // end in an infinite loop.
-    if (doRepaint) {
-      repaint();
-      doRepaint = false;
-    }
-    else {
-      doRepaint = true;
-    }
+    repaintGradients();
 
     // after 3 seconds the RadialGradientPaint is removed
     new Thread(new Runnable() {
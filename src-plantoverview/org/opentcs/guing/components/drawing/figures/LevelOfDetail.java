@@ -0,0 +1,88 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.components.drawing.figures;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+/**
+ * Decides which details of figures are drawn, depending on the scale at which
+ * they are drawn.
+ * Details that would be only a few pixels in size at the current scale, e.g.
+ * labels or arrow tips of paths, are left out, as they cannot be recognized
+ * anyway and drawing them takes a considerable share of the time needed for
+ * drawing large models.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class LevelOfDetail {
+
+  /**
+   * The minimum scale at which labels are drawn.
+   */
+  public static final double LABEL_MIN_SCALE = 0.4;
+  /**
+   * The minimum scale at which decorations like arrow tips are drawn.
+   */
+  public static final double DECORATION_MIN_SCALE = 0.25;
+  /**
+   * The minimum scale at which small symbols within figures are drawn.
+   */
+  public static final double SYMBOL_MIN_SCALE = 0.5;
+
+  /**
+   * Prevents instantiation of this utility class.
+   */
+  private LevelOfDetail() {
+  }
+
+  /**
+   * Checks whether labels are to be drawn with the given graphics context.
+   *
+   * @param g The graphics context.
+   * @return <code>true</code> if, and only if, labels are to be drawn.
+   */
+  public static boolean isLabelDrawn(Graphics2D g) {
+    return getScale(g) >= LABEL_MIN_SCALE;
+  }
+
+  /**
+   * Checks whether decorations like arrow tips are to be drawn with the given
+   * graphics context.
+   *
+   * @param g The graphics context.
+   * @return <code>true</code> if, and only if, decorations are to be drawn.
+   */
+  public static boolean isDecorationDrawn(Graphics2D g) {
+    return getScale(g) >= DECORATION_MIN_SCALE;
+  }
+
+  /**
+   * Checks whether small symbols within figures are to be drawn with the given
+   * graphics context.
+   *
+   * @param g The graphics context.
+   * @return <code>true</code> if, and only if, small symbols are to be drawn.
+   */
+  public static boolean isSymbolDrawn(Graphics2D g) {
+    return getScale(g) >= SYMBOL_MIN_SCALE;
+  }
+
+  /**
+   * Returns the scale at which the given graphics context draws, i.e. the
+   * length in device units of a line one unit long in user space.
+   *
+   * @param g The graphics context.
+   * @return The scale.
+   */
+  public static double getScale(Graphics2D g) {
+    AffineTransform tx = g.getTransform();
+    return Math.hypot(tx.getScaleX(), tx.getShearY());
+  }
+}
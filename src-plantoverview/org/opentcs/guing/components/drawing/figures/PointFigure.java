@@ -154,7 +154,8 @@ public class PointFigure
       g.fillOval(rect.x, rect.y, rect.width, rect.height);
     }
 
-    if (property.getValue() == PointModel.PointType.PARK) {
+    if (property.getValue() == PointModel.PointType.PARK
+        && LevelOfDetail.isSymbolDrawn(g)) {
       g.setColor(Color.white);
       Font oldFont = g.getFont();
       // bei fDiameter = 20
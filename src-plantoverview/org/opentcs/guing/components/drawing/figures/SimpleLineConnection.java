@@ -10,6 +10,7 @@
 package org.opentcs.guing.components.drawing.figures;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
@@ -146,6 +147,14 @@ public abstract class SimpleLineConnection
     return dist;
   }
 
+  @Override // BezierFigure
+  protected void drawCaps(Graphics2D g) {
+    // Arrow tips cannot be recognized at small scales, anyway.
+    if (LevelOfDetail.isDecorationDrawn(g)) {
+      super.drawCaps(g);
+    }
+  }
+
   /**
    * Is overridden in PathConnection.
    */
@@ -10,6 +10,7 @@
 
 package org.opentcs.guing.components.drawing.figures;
 
+import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Point2D.Double;
 import org.jhotdraw.draw.LabelFigure;
@@ -125,6 +126,14 @@ public class TCSLabelFigure
 		}
 	}
 
+	@Override	// AbstractAttributedDecoratedFigure
+	protected void drawFigure(Graphics2D g) {
+		// Labels cannot be read at small scales, anyway.
+		if (LevelOfDetail.isLabelDrawn(g)) {
+			super.drawFigure(g);
+		}
+	}
+
 	@Override // AbstractFigure
 	public int getLayer() {
 		return 1; // stay above other figures ?
@@ -25,6 +25,7 @@ import static java.awt.image.ImageObserver.ALLBITS;
 import static java.awt.image.ImageObserver.FRAMEBITS;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -110,6 +111,22 @@ public class VehicleFigure
    * Whether to ignore the vehicle's orientation angle or not.
    */
   private boolean ignoreOrientationAngle;
+  /**
+   * The vehicle's point when the figure was last updated.
+   */
+  private PointModel lastPoint;
+  /**
+   * The vehicle's next point when the figure was last updated.
+   */
+  private PointModel lastNextPoint;
+  /**
+   * The vehicle's precise position when the figure was last updated.
+   */
+  private Triple lastPrecisePosition;
+  /**
+   * The vehicle's orientation angle when the figure was last updated.
+   */
+  private double lastOrientationAngle = Double.NaN;
 
   /**
    * Creates a new instance.
@@ -496,7 +513,18 @@ public class VehicleFigure
     VehicleTheme theme = vehicleThemeManager.getDefaultTheme();
 
     Vehicle vehicle = model.getVehicle();
-    fImage = vehicle == null ? null : theme.getImageFor(model.getVehicle());
+    Image image = vehicle == null ? null : theme.getImageFor(model.getVehicle());
+
+    if (isVisible() && image == fImage && isPositionUnchanged(model)) {
+      // Nothing that is drawn has changed (e.g. only the energy level), so
+      // there is no need to invalidate the figure's area.
+      return;
+    }
+    fImage = image;
+    lastPoint = model.getPoint();
+    lastNextPoint = model.getNextPoint();
+    lastPrecisePosition = model.getPrecisePosition();
+    lastOrientationAngle = model.getOrientationAngle();
 
     PointModel point = model.getPoint();
     Triple precisePosition = model.getPrecisePosition();
@@ -530,6 +558,21 @@ public class VehicleFigure
     }
   }
 
+  /**
+   * Checks whether the vehicle's position and orientation are the same as when
+   * the figure was last updated.
+   *
+   * @param model The vehicle model.
+   * @return <code>true</code> if, and only if, position and orientation are
+   * unchanged.
+   */
+  private boolean isPositionUnchanged(VehicleModel model) {
+    return model.getPoint() == lastPoint
+        && model.getNextPoint() == lastNextPoint
+        && Objects.equals(model.getPrecisePosition(), lastPrecisePosition)
+        && Double.compare(model.getOrientationAngle(), lastOrientationAngle) == 0;
+  }
+
   /**
    * A dummy image to be used if no images/themes are available.
    */
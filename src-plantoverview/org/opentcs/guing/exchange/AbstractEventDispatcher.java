@@ -19,6 +19,8 @@ import java.util.Set;
 import org.opentcs.access.Kernel;
 import org.opentcs.access.SharedKernelProvider;
 import org.opentcs.data.TCSObjectReference;
+import org.opentcs.guing.components.properties.event.AttributesChangeEvent;
+import org.opentcs.guing.components.properties.event.AttributesChangeListener;
 import org.opentcs.guing.exchange.adapter.ProcessAdapter;
 import org.opentcs.guing.model.ModelComponent;
 
@@ -39,6 +41,24 @@ public abstract class AbstractEventDispatcher
    */
   protected final Map<ModelComponent, ProcessAdapter> fAdaptersByModel
       = new HashMap<>();
+  /**
+   * An index of the process adapters by their model components' names.
+   */
+  private final Map<String, ProcessAdapter> fAdaptersByName = new HashMap<>();
+  /**
+   * The names under which the model components are indexed.
+   */
+  private final Map<ModelComponent, String> fIndexedNames = new HashMap<>();
+  /**
+   * Keeps the name index up to date when model components are renamed.
+   */
+  private final AttributesChangeListener fNameListener
+      = new AttributesChangeListener() {
+        @Override
+        public void propertiesChanged(AttributesChangeEvent e) {
+          updateNameIndex(e.getModel());
+        }
+      };
   /**
    * Provides access to a kernel.
    */
@@ -57,14 +77,22 @@ public abstract class AbstractEventDispatcher
   public void addProcessAdapter(ProcessAdapter adapter) {
     requireNonNull(adapter, "adapter");
 
-    fAdaptersByModel.put(adapter.getModel(), adapter);
+    ModelComponent model = adapter.getModel();
+    fAdaptersByModel.put(model, adapter);
+    removeFromNameIndex(model);
+    addToNameIndex(model, adapter);
+    model.addAttributesChangeListener(fNameListener);
   }
 
   @Override // EventDispatcher
   public void removeProcessAdapter(ProcessAdapter adapter) {
     requireNonNull(adapter, "adapter");
 
-    fAdaptersByModel.remove(adapter.getModel());
+    ModelComponent model = adapter.getModel();
+    if (fAdaptersByModel.remove(model) != null) {
+      model.removeAttributesChangeListener(fNameListener);
+      removeFromNameIndex(model);
+    }
   }
 
   @Override // EventDispatcher
@@ -81,16 +109,29 @@ public abstract class AbstractEventDispatcher
   public ProcessAdapter findProcessAdapter(TCSObjectReference<?> processObject) {
     requireNonNull(processObject, "processObject");
 
-    // XXX We look up the object by its name here, assuming that the name does
-    // XXX not change during runtime. This is true for model objects in
-    // XXX operating mode now, but the assumption may not hold forever.
+    // We look up the object by its name here. The name index is updated
+    // whenever adapters are added or removed or their model components are
+    // renamed.
+    String name = processObject.getName();
+    ProcessAdapter adapter = fAdaptersByName.get(name);
+    if (adapter != null
+        && Objects.equals(adapter.getModel().getName(), name)) {
+      return adapter;
+    }
+    // Model components are usually named only after their adapters have been
+    // added, and setting a name directly does not notify any listeners, so
+    // the index may be outdated. Look for the component the slow way and
+    // re-index it.
+    if (adapter != null) {
+      updateNameIndex(adapter.getModel());
+    }
     for (Map.Entry<ModelComponent, ProcessAdapter> entry
-         : fAdaptersByModel.entrySet()) {
-      if (Objects.equals(entry.getKey().getName(), processObject.getName())) {
+             : fAdaptersByModel.entrySet()) {
+      if (Objects.equals(entry.getKey().getName(), name)) {
+        updateNameIndex(entry.getKey());
         return entry.getValue();
       }
     }
-
     return null;
   }
 
@@ -98,4 +139,48 @@ public abstract class AbstractEventDispatcher
   public Set<ProcessAdapter> getProcessAdapters() {
     return new HashSet<>(fAdaptersByModel.values());
   }
+
+  /**
+   * Indexes the given adapter by its model component's current name.
+   *
+   * @param model The model component.
+   * @param adapter The adapter.
+   */
+  private void addToNameIndex(ModelComponent model, ProcessAdapter adapter) {
+    String name = model.getName();
+    fAdaptersByName.put(name, adapter);
+    fIndexedNames.put(model, name);
+  }
+
+  /**
+   * Removes the given model component's adapter from the name index.
+   *
+   * @param model The model component.
+   */
+  private void removeFromNameIndex(ModelComponent model) {
+    String name = fIndexedNames.remove(model);
+    if (name == null) {
+      return;
+    }
+    ProcessAdapter adapter = fAdaptersByName.get(name);
+    if (adapter != null && adapter.getModel() == model) {
+      fAdaptersByName.remove(name);
+    }
+  }
+
+  /**
+   * Re-indexes the given model component's adapter if the component has been
+   * renamed.
+   *
+   * @param model The model component.
+   */
+  private void updateNameIndex(ModelComponent model) {
+    ProcessAdapter adapter = fAdaptersByModel.get(model);
+    if (adapter == null
+        || Objects.equals(fIndexedNames.get(model), model.getName())) {
+      return;
+    }
+    removeFromNameIndex(model);
+    addToNameIndex(model, adapter);
+  }
 }
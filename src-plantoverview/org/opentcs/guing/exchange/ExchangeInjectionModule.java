@@ -36,6 +36,8 @@ public class ExchangeInjectionModule
         .to(Object.class)
         .in(Singleton.class);
 
+    bind(KernelObjectReplica.class).in(Singleton.class);
+
     bind(EventDispatcher.class).to(OpenTCSEventDispatcher.class);
   }
 }
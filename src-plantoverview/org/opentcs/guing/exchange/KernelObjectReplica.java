@@ -0,0 +1,250 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.exchange;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import org.opentcs.access.Kernel;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.OrderSequence;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.EventFilter;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ * A local replica of the kernel objects the plant overview displays while
+ * operating.
+ * <p>
+ * The replica is seeded with the kernel's objects once when connecting to the
+ * kernel and kept up to date with the object events received from it, so
+ * reading an object's current state does not require a call to the (remote)
+ * kernel. The objects provided are shared and must not be modified.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class KernelObjectReplica
+    implements EventListener<TCSEvent> {
+
+  /**
+   * This class's logger.
+   */
+  private static final Logger log
+      = Logger.getLogger(KernelObjectReplica.class.getName());
+  /**
+   * The classes of objects that are replicated.
+   */
+  private static final Set<Class<?>> REPLICATED_CLASSES
+      = Collections.unmodifiableSet(new HashSet<Class<?>>(Arrays.asList(
+          Vehicle.class,
+          Point.class,
+          Path.class,
+          Location.class,
+          TransportOrder.class,
+          OrderSequence.class)));
+  /**
+   * The replicated objects, mapped by class and name.
+   */
+  private final Map<Class<?>, Map<String, TCSObject<?>>> objectsByClass
+      = new HashMap<>();
+  /**
+   * The names of objects removed while seeding this replica, which must not be
+   * added from the (possibly older) seed data.
+   */
+  private final Set<String> removedWhileSeeding = new HashSet<>();
+  /**
+   * The kernel this replica is connected to.
+   */
+  private volatile Kernel connectedKernel;
+  /**
+   * Whether this replica is currently being seeded.
+   */
+  private boolean seeding;
+
+  /**
+   * Creates a new instance.
+   */
+  public KernelObjectReplica() {
+    for (Class<?> clazz : REPLICATED_CLASSES) {
+      objectsByClass.put(clazz, new ConcurrentHashMap<String, TCSObject<?>>());
+    }
+  }
+
+  /**
+   * Connects this replica to the given kernel, registering for its object
+   * events and seeding the replica with the kernel's current objects.
+   * If this replica is already connected to a kernel, it is disconnected from
+   * that one first.
+   *
+   * @param kernel The kernel.
+   */
+  public void connect(Kernel kernel) {
+    requireNonNull(kernel, "kernel");
+
+    disconnect();
+    synchronized (this) {
+      seeding = true;
+    }
+    // Register first, so no modification happening while seeding is missed.
+    kernel.addEventListener(this, new ReplicatedObjectsFilter());
+    seed(kernel, Vehicle.class);
+    seed(kernel, Point.class);
+    seed(kernel, Path.class);
+    seed(kernel, Location.class);
+    seed(kernel, TransportOrder.class);
+    seed(kernel, OrderSequence.class);
+    synchronized (this) {
+      seeding = false;
+      removedWhileSeeding.clear();
+    }
+    connectedKernel = kernel;
+    log.fine("Replica connected to kernel, seeded with objects.");
+  }
+
+  /**
+   * Disconnects this replica from the kernel it is connected to and discards
+   * all replicated objects.
+   */
+  public void disconnect() {
+    Kernel kernel = connectedKernel;
+    connectedKernel = null;
+    if (kernel != null) {
+      kernel.removeEventListener(this);
+    }
+    synchronized (this) {
+      for (Map<String, TCSObject<?>> objects : objectsByClass.values()) {
+        objects.clear();
+      }
+    }
+  }
+
+  /**
+   * Checks whether this replica is connected to a kernel and up to date.
+   *
+   * @return <code>true</code> if, and only if, this replica is connected.
+   */
+  public boolean isConnected() {
+    return connectedKernel != null;
+  }
+
+  /**
+   * Returns the current state of the referenced object.
+   *
+   * @param <T> The object's type.
+   * @param clazz The object's class.
+   * @param ref A reference to the object.
+   * @return The current state of the referenced object, or <code>null</code>,
+   * if no such object is replicated.
+   */
+  public <T extends TCSObject<T>> T getObject(Class<T> clazz,
+                                              TCSObjectReference<T> ref) {
+    requireNonNull(clazz, "clazz");
+    requireNonNull(ref, "ref");
+
+    Map<String, TCSObject<?>> objects = objectsByClass.get(clazz);
+    return objects == null ? null : clazz.cast(objects.get(ref.getName()));
+  }
+
+  /**
+   * Returns the current states of all replicated objects of the given class.
+   *
+   * @param <T> The objects' type.
+   * @param clazz The objects' class.
+   * @return The current states of all replicated objects of the given class.
+   */
+  public <T extends TCSObject<T>> Set<T> getObjects(Class<T> clazz) {
+    requireNonNull(clazz, "clazz");
+
+    Set<T> result = new HashSet<>();
+    Map<String, TCSObject<?>> objects = objectsByClass.get(clazz);
+    if (objects != null) {
+      for (TCSObject<?> object : objects.values()) {
+        result.add(clazz.cast(object));
+      }
+    }
+    return result;
+  }
+
+  @Override // EventListener
+  public synchronized void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objectEvent = (TCSObjectEvent) event;
+    TCSObject<?> object = objectEvent.getCurrentOrPreviousObjectState();
+    Map<String, TCSObject<?>> objects = objectsByClass.get(object.getClass());
+    if (objects == null) {
+      return;
+    }
+
+    switch (objectEvent.getType()) {
+      case OBJECT_CREATED:
+      case OBJECT_MODIFIED:
+        objects.put(object.getName(), objectEvent.getCurrentObjectState());
+        break;
+      case OBJECT_REMOVED:
+        objects.remove(object.getName());
+        if (seeding) {
+          removedWhileSeeding.add(object.getName());
+        }
+        break;
+      default:
+      // Do nada.
+    }
+  }
+
+  /**
+   * Adds the kernel's objects of the given class to this replica, unless they
+   * have already been updated or removed by events.
+   *
+   * @param <T> The objects' type.
+   * @param kernel The kernel.
+   * @param clazz The objects' class.
+   */
+  private <T extends TCSObject<T>> void seed(Kernel kernel, Class<T> clazz) {
+    Set<T> kernelObjects = kernel.getTCSObjects(clazz);
+    synchronized (this) {
+      Map<String, TCSObject<?>> objects = objectsByClass.get(clazz);
+      for (T object : kernelObjects) {
+        if (!objects.containsKey(object.getName())
+            && !removedWhileSeeding.contains(object.getName())) {
+          objects.put(object.getName(), object);
+        }
+      }
+    }
+  }
+
+  /**
+   * Accepts object events for replicated objects.
+   */
+  private static class ReplicatedObjectsFilter
+      implements EventFilter<TCSEvent> {
+
+    @Override
+    public boolean accept(TCSEvent event) {
+      return event instanceof TCSObjectEvent
+          && REPLICATED_CLASSES.contains(
+              ((TCSObjectEvent) event).getCurrentOrPreviousObjectState().getClass());
+    }
+  }
+}
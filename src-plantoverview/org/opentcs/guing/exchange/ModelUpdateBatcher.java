@@ -0,0 +1,149 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.exchange;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.TimeUnit;
+import javax.swing.Timer;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectReference;
+
+/**
+ * Collects states of kernel objects and hands them over for updating the
+ * model in batches on the event dispatch thread, at most once per frame.
+ * <p>
+ * Only the latest state of each object is kept until it is handed over, so a
+ * storm of events for the same objects (e.g. many vehicles starting to move at
+ * the same time) results in one model update per object and frame. Handing
+ * over a batch is stopped after half a frame, with the remaining states handed
+ * over in the following frame, so the event dispatch thread stays responsive.
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class ModelUpdateBatcher {
+
+  /**
+   * The handler applying object states to the model.
+   */
+  private final UpdateHandler handler;
+  /**
+   * The maximum time (in ns) spent handing over states per frame.
+   */
+  private final long frameBudget;
+  /**
+   * Triggers handing over the pending states on the event dispatch thread.
+   */
+  private final Timer timer;
+  /**
+   * The latest states of objects not handed over, yet, in the order in which
+   * the objects were first modified.
+   */
+  private final Map<TCSObjectReference<?>, TCSObject<?>> pendingStates
+      = new LinkedHashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param handler The handler applying object states to the model.
+   * @param frameRate The maximum number of batches per second.
+   */
+  ModelUpdateBatcher(UpdateHandler handler, int frameRate) {
+    this.handler = requireNonNull(handler, "handler");
+    if (frameRate < 1) {
+      throw new IllegalArgumentException("frameRate < 1: " + frameRate);
+    }
+    int frameLength = Math.max(1, 1000 / frameRate);
+    this.frameBudget = TimeUnit.MILLISECONDS.toNanos(frameLength) / 2;
+    this.timer = new Timer(frameLength, new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        applyPendingUpdates();
+      }
+    });
+    this.timer.setRepeats(false);
+  }
+
+  /**
+   * Adds the given object state to be handed over with the next batch,
+   * replacing any state of the same object not handed over, yet.
+   *
+   * @param objectState The object state.
+   */
+  public synchronized void enqueue(TCSObject<?> objectState) {
+    requireNonNull(objectState, "objectState");
+
+    pendingStates.put(objectState.getReference(), objectState);
+    if (!timer.isRunning()) {
+      timer.start();
+    }
+  }
+
+  /**
+   * Discards all object states not handed over, yet.
+   */
+  public synchronized void clear() {
+    pendingStates.clear();
+    timer.stop();
+  }
+
+  /**
+   * Returns the number of object states not handed over, yet.
+   *
+   * @return The number of object states not handed over, yet.
+   */
+  public synchronized int getPendingCount() {
+    return pendingStates.size();
+  }
+
+  /**
+   * Hands over pending object states until there are none left or the time
+   * budget for the current frame is used up.
+   * Supposed to be called on the event dispatch thread only.
+   */
+  void applyPendingUpdates() {
+    long startTime = System.nanoTime();
+    while (true) {
+      TCSObject<?> objectState;
+      synchronized (this) {
+        Iterator<TCSObject<?>> iter = pendingStates.values().iterator();
+        if (!iter.hasNext()) {
+          return;
+        }
+        if (System.nanoTime() - startTime > frameBudget) {
+          // Leave the rest for the next frame.
+          timer.restart();
+          return;
+        }
+        objectState = iter.next();
+        iter.remove();
+      }
+      handler.applyUpdate(objectState);
+    }
+  }
+
+  /**
+   * Applies object states to the model.
+   */
+  interface UpdateHandler {
+
+    /**
+     * Applies the given object state to the model.
+     *
+     * @param objectState The object state.
+     */
+    void applyUpdate(TCSObject<?> objectState);
+  }
+}
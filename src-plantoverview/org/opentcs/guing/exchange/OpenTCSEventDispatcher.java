@@ -21,6 +21,7 @@ import org.opentcs.access.TCSMessageEvent;
 import org.opentcs.access.TCSModelTransitionEvent;
 import org.opentcs.access.rmi.RemoteKernelConnection;
 import org.opentcs.access.rmi.TCSProxyStateEvent;
+import org.opentcs.data.TCSObject;
 import org.opentcs.data.TCSObjectEvent;
 import static org.opentcs.data.TCSObjectEvent.Type.OBJECT_MODIFIED;
 import org.opentcs.data.model.Location;
@@ -34,6 +35,7 @@ import org.opentcs.guing.event.KernelStateChangeEvent;
 import org.opentcs.guing.event.OperationModeChangeEvent;
 import org.opentcs.guing.event.SystemModelTransitionEvent;
 import org.opentcs.guing.exchange.adapter.ProcessAdapter;
+import org.opentcs.guing.util.ApplicationConfiguration;
 import org.opentcs.guing.util.MessageDisplay;
 import org.opentcs.util.eventsystem.EventFilter;
 import org.opentcs.util.eventsystem.EventListener;
@@ -70,6 +72,15 @@ public class OpenTCSEventDispatcher
    * The application's event bus.
    */
   private final MBassador<Object> eventBus;
+  /**
+   * The local replica of kernel objects.
+   */
+  private final KernelObjectReplica objectReplica;
+  /**
+   * Collects object states and applies them to the model in batches, or
+   * <code>null</code>, if every change is to be applied immediately.
+   */
+  private final ModelUpdateBatcher updateBatcher;
 
   /**
    * Creates a new instance.
@@ -79,13 +90,17 @@ public class OpenTCSEventDispatcher
    * @param eventBus The application's event bus.
    * @param orderDispatcher Handles events concerning transport orders.
    * @param sequenceDispatcher Handles events concerning order sequences.
+   * @param objectReplica The local replica of kernel objects.
+   * @param appConfig The application's configuration.
    */
   @Inject
   public OpenTCSEventDispatcher(SharedKernelProvider kernelProvider,
                                 MessageDisplay messageDisplay,
                                 MBassador<Object> eventBus,
                                 TransportOrderDispatcher orderDispatcher,
-                                OrderSequenceDispatcher sequenceDispatcher) {
+                                OrderSequenceDispatcher sequenceDispatcher,
+                                KernelObjectReplica objectReplica,
+                                ApplicationConfiguration appConfig) {
     super(kernelProvider);
     this.messageDisplay = requireNonNull(messageDisplay, "messageDisplay");
     this.eventBus = requireNonNull(eventBus, "eventBus");
@@ -93,6 +108,16 @@ public class OpenTCSEventDispatcher
                                                     "orderDispatcher");
     this.fOrderSequenceDispatcher = requireNonNull(sequenceDispatcher,
                                                    "sequenceDispatcher");
+    this.objectReplica = requireNonNull(objectReplica, "objectReplica");
+    int frameRate = appConfig.getModelUpdateFrameRate();
+    this.updateBatcher = frameRate > 0
+        ? new ModelUpdateBatcher(new ModelUpdateBatcher.UpdateHandler() {
+          @Override
+          public void applyUpdate(TCSObject<?> objectState) {
+            updateModel(objectState);
+          }
+        }, frameRate)
+        : null;
   }
 
   @Override
@@ -104,6 +129,9 @@ public class OpenTCSEventDispatcher
       return;
     }
 
+    // Replicate kernel objects before anyone else gets events for them.
+    objectReplica.connect(kernel);
+
     // Listener for TCSObjectEvents on TransportOrders
     EventFilter<TCSEvent> filter = new EventFilter<TCSEvent>() {
       @Override
@@ -190,6 +218,10 @@ public class OpenTCSEventDispatcher
     kernel.removeEventListener(fTransportOrderDispatcher);
     kernel.removeEventListener(fOrderSequenceDispatcher);
     kernel.removeEventListener(this);
+    objectReplica.disconnect();
+    if (updateBatcher != null) {
+      updateBatcher.clear();
+    }
   }
 
   @Override
@@ -257,12 +289,23 @@ public class OpenTCSEventDispatcher
     logObjectEvent(objectEvent);
 
     if (objectEvent.getType() == OBJECT_MODIFIED) {
-      ProcessAdapter adapter = findProcessAdapter(
-          objectEvent.getCurrentObjectState().getReference());
-      adapter.updateModelProperties(getKernel(),
-                                    objectEvent.getCurrentObjectState(),
-                                    null);
+      if (updateBatcher != null) {
+        updateBatcher.enqueue(objectEvent.getCurrentObjectState());
+      }
+      else {
+        updateModel(objectEvent.getCurrentObjectState());
+      }
+    }
+  }
+
+  private void updateModel(TCSObject<?> objectState) {
+    ProcessAdapter adapter = findProcessAdapter(objectState.getReference());
+    if (adapter == null) {
+      log.fine("No process adapter for " + objectState.getName()
+          + ", ignoring update.");
+      return;
     }
+    adapter.updateModelProperties(getKernel(), objectState, null);
   }
 
   private void logObjectEvent(TCSObjectEvent objectEvent) {
@@ -47,6 +47,7 @@ import org.opentcs.guing.components.properties.type.SelectionProperty;
 import org.opentcs.guing.components.properties.type.StringProperty;
 import org.opentcs.guing.components.properties.type.TripleProperty;
 import org.opentcs.guing.exchange.EventDispatcher;
+import org.opentcs.guing.exchange.KernelObjectReplica;
 import org.opentcs.guing.model.FigureComponent;
 import org.opentcs.guing.model.ModelComponent;
 import org.opentcs.guing.model.elements.PointModel;
@@ -67,17 +68,24 @@ public class VehicleAdapter
    */
   private static final Logger log
       = Logger.getLogger(VehicleAdapter.class.getName());
+  /**
+   * The local replica of kernel objects.
+   */
+  private final KernelObjectReplica objectReplica;
 
   /**
    * Creates a new instance.
    *
    * @param model The corresponding model component.
    * @param eventDispatcher The event dispatcher.
+   * @param objectReplica The local replica of kernel objects.
    */
   @Inject
   public VehicleAdapter(@Assisted VehicleModel model,
-                        @Assisted EventDispatcher eventDispatcher) {
+                        @Assisted EventDispatcher eventDispatcher,
+                        KernelObjectReplica objectReplica) {
     super(model, eventDispatcher);
+    this.objectReplica = requireNonNull(objectReplica, "objectReplica");
   }
 
   @Override
@@ -142,7 +150,11 @@ public class VehicleAdapter
 
     if (rTransportOrder != null) {
       TransportOrder transportOrder
-          = kernel.getTCSObject(TransportOrder.class, rTransportOrder);
+          = objectReplica.getObject(TransportOrder.class, rTransportOrder);
+      if (transportOrder == null) {
+        // Not replicated (yet), so ask the kernel.
+        transportOrder = kernel.getTCSObject(TransportOrder.class, rTransportOrder);
+      }
       DriveOrder driveOrder = transportOrder.getCurrentDriveOrder();
       List<FigureComponent> c
           = composeDriveOrderComponents(driveOrder, vehicle.getRouteProgressIndex());
@@ -0,0 +1,178 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.opentcs.guing.components.properties.event.AttributesChangeEvent;
+import org.opentcs.guing.components.properties.event.AttributesChangeListener;
+
+/**
+ * A folder that keeps an index of its child components by name.
+ * <p>
+ * The index is maintained when components are added, removed or renamed.
+ * As setting a component's name directly does not notify any listeners, a
+ * component that cannot be found in the index is looked up among all children
+ * and re-indexed. If several children have the same name, the one that got
+ * the name first is found.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class IndexedFolder
+    extends SimpleFolder {
+
+  /**
+   * The child components, mapped by name. (Usually, there is only one
+   * component per name.)
+   */
+  private Map<String, List<ModelComponent>> childrenByName = new HashMap<>();
+  /**
+   * The names under which the child components are indexed.
+   */
+  private Map<ModelComponent, String> indexedNames = new HashMap<>();
+  /**
+   * Keeps the index up to date when child components are renamed.
+   */
+  private NameListener nameListener = new NameListener();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param name The folder's name.
+   */
+  IndexedFolder(String name) {
+    super(name);
+  }
+
+  @Override // CompositeModelComponent
+  public void add(ModelComponent component) {
+    super.add(component);
+    component.addAttributesChangeListener(nameListener);
+    addToIndex(component);
+  }
+
+  @Override // CompositeModelComponent
+  public void remove(ModelComponent component) {
+    super.remove(component);
+    if (!contains(component)) {
+      component.removeAttributesChangeListener(nameListener);
+      removeFromIndex(component);
+    }
+  }
+
+  /**
+   * Returns the child component with the given name.
+   *
+   * @param name The name of the component.
+   * @return The child component with the given name, or <code>null</code>, if
+   * this folder does not contain such a component.
+   */
+  public ModelComponent getChild(String name) {
+    List<ModelComponent> children = childrenByName.get(name);
+    if (children != null) {
+      for (ModelComponent child : new ArrayList<>(children)) {
+        if (Objects.equals(child.getName(), name)) {
+          return child;
+        }
+        // Renamed without notification - index it by its current name.
+        updateIndex(child);
+      }
+    }
+    for (ModelComponent child : getChildComponents()) {
+      if (Objects.equals(child.getName(), name)) {
+        updateIndex(child);
+        return child;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public IndexedFolder clone()
+      throws CloneNotSupportedException {
+    IndexedFolder clone = (IndexedFolder) super.clone();
+    clone.childrenByName = new HashMap<>();
+    for (Map.Entry<String, List<ModelComponent>> entry
+             : childrenByName.entrySet()) {
+      clone.childrenByName.put(entry.getKey(),
+                               new ArrayList<>(entry.getValue()));
+    }
+    clone.indexedNames = new HashMap<>(indexedNames);
+    clone.nameListener = clone.new NameListener();
+    for (ModelComponent component : clone.getChildComponents()) {
+      component.addAttributesChangeListener(clone.nameListener);
+    }
+    return clone;
+  }
+
+  /**
+   * Indexes the given child component by its current name.
+   *
+   * @param component The component.
+   */
+  private void addToIndex(ModelComponent component) {
+    if (indexedNames.containsKey(component)) {
+      return;
+    }
+    String name = component.getName();
+    indexedNames.put(component, name);
+    List<ModelComponent> children = childrenByName.get(name);
+    if (children == null) {
+      children = new ArrayList<>(1);
+      childrenByName.put(name, children);
+    }
+    children.add(component);
+  }
+
+  /**
+   * Removes the given component from the index.
+   *
+   * @param component The component.
+   */
+  private void removeFromIndex(ModelComponent component) {
+    String name = indexedNames.remove(component);
+    List<ModelComponent> children = childrenByName.get(name);
+    if (children == null) {
+      return;
+    }
+    children.remove(component);
+    if (children.isEmpty()) {
+      childrenByName.remove(name);
+    }
+  }
+
+  /**
+   * Re-indexes the given child component if it has been renamed.
+   *
+   * @param component The component.
+   */
+  private void updateIndex(ModelComponent component) {
+    if (indexedNames.containsKey(component)
+        && !Objects.equals(indexedNames.get(component), component.getName())) {
+      removeFromIndex(component);
+      addToIndex(component);
+    }
+  }
+
+  /**
+   * Re-indexes child components when they are renamed.
+   */
+  private class NameListener
+      implements AttributesChangeListener {
+
+    @Override
+    public void propertiesChanged(AttributesChangeEvent e) {
+      updateIndex(e.getModel());
+    }
+  }
+}
@@ -20,8 +20,8 @@ import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import javax.inject.Inject;
-import org.jhotdraw.draw.DefaultDrawing;
 import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.QuadTreeDrawing;
 import org.opentcs.data.TCSObjectReference;
 import org.opentcs.data.model.Block;
 import org.opentcs.data.model.Location;
@@ -81,8 +81,10 @@ class StandardSystemModel
   private final Map<Class, ModelComponent> fParentFolders = new HashMap<>();
   /**
    * Die Zeichnung.
+   * Indexes its figures spatially, so only those within the area to be
+   * redrawn are looked at when drawing.
    */
-  private final Drawing fDrawing = new DefaultDrawing();
+  private final Drawing fDrawing = new QuadTreeDrawing();
   /**
    * Die Map mit der Zuordnung der Model-Layout-Elemente zu den Kernel-Objekten
    */
@@ -192,13 +194,8 @@ class StandardSystemModel
 
   @Override // SystemModel
   public VehicleModel getVehicleModel(String name) {
-    for (VehicleModel vehicle : getVehicleModels()) {
-      if (vehicle.getName().equals(name)) {
-        return vehicle;
-      }
-    }
-
-    return null;
+    ModelComponent component = getIndexedFolder(FolderKey.VEHICLES).getChild(name);
+    return component instanceof VehicleModel ? (VehicleModel) component : null;
   }
 
   @Override // SystemModel
@@ -224,13 +221,8 @@ class StandardSystemModel
 
   @Override // SystemModel
   public PointModel getPointModel(String name) {
-    for (PointModel point : getPointModels()) {
-      if (point.getName().equals(name)) {
-        return point;
-      }
-    }
-
-    return null;
+    ModelComponent component = getIndexedFolder(FolderKey.POINTS).getChild(name);
+    return component instanceof PointModel ? (PointModel) component : null;
   }
 
   @Override // SystemModel
@@ -264,13 +256,8 @@ class StandardSystemModel
 
   @Override // SystemModel
   public LocationModel getLocationModel(String name) {
-    for (LocationModel location : getLocationModels()) {
-      if (location.getName().equals(name)) {
-        return location;
-      }
-    }
-
-    return null;
+    ModelComponent component = getIndexedFolder(FolderKey.LOCATIONS).getChild(name);
+    return component instanceof LocationModel ? (LocationModel) component : null;
   }
 
   @Override // SystemModel
@@ -292,13 +279,8 @@ class StandardSystemModel
 
   @Override
   public PathModel getPathModel(String name) {
-    for (PathModel path : getPathModels()) {
-      if (path.getName().equals(name)) {
-        return path;
-      }
-    }
-
-    return null;
+    ModelComponent component = getIndexedFolder(FolderKey.PATHS).getChild(name);
+    return component instanceof PathModel ? (PathModel) component : null;
   }
 
   @Override // SystemModel
@@ -339,13 +321,10 @@ class StandardSystemModel
 
   @Override // SystemModel
   public LocationTypeModel getLocationTypeModel(String name) {
-    for (LocationTypeModel t : getLocationTypeModels()) {
-      if (t.getName().equals(name)) {
-        return t;
-      }
-    }
-
-    return null;
+    ModelComponent component = getIndexedFolder(FolderKey.LOCATION_TYPES).getChild(name);
+    return component instanceof LocationTypeModel
+        ? (LocationTypeModel) component
+        : null;
   }
 
   @Override // SystemModel
@@ -429,6 +408,17 @@ class StandardSystemModel
     }
   }
 
+  /**
+   * Returns the main folder with the given key, which is expected to keep an
+   * index of its children.
+   *
+   * @param key The folder's key.
+   * @return The folder.
+   */
+  private IndexedFolder getIndexedFolder(FolderKey key) {
+    return (IndexedFolder) getMainFolder(key);
+  }
+
   /**
    * Erstellt die unvernderlichen Hauptordner des TreeViews. Hauptordner
    * existieren immer, auch wenn es sonst keine Komponenten im Systemmodell
@@ -438,20 +428,20 @@ class StandardSystemModel
   private void createMainFolders() {
     ResourceBundleUtil bundle = ResourceBundleUtil.getBundle();
     createMainFolder(this, FolderKey.VEHICLES,
-                     new SimpleFolder(bundle.getString("tree.vehicles.text")));
+                     new IndexedFolder(bundle.getString("tree.vehicles.text")));
     
     LayoutModel layoutModel = crsObjFactory.createLayoutModel();
     layoutModel.setName("VLayout-1");
     createMainFolder(this, FolderKey.LAYOUT, layoutModel);
     
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.POINTS,
-                     new SimpleFolder(bundle.getString("tree.points.text")));
+                     new IndexedFolder(bundle.getString("tree.points.text")));
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.PATHS,
-                     new SimpleFolder(bundle.getString("tree.paths.text")));
+                     new IndexedFolder(bundle.getString("tree.paths.text")));
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.LOCATIONS,
-                     new SimpleFolder(bundle.getString("tree.locations.text")));
+                     new IndexedFolder(bundle.getString("tree.locations.text")));
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.LOCATION_TYPES,
-                     new SimpleFolder(bundle.getString("tree.locationTypes.text")));
+                     new IndexedFolder(bundle.getString("tree.locationTypes.text")));
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.LINKS,
                      new SimpleFolder(bundle.getString("tree.links.text")));
     createMainFolder(getMainFolder(FolderKey.LAYOUT), FolderKey.BLOCKS,
@@ -8,19 +8,17 @@
  */
 package org.opentcs.guing.plugins.panels.loadgenerator;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import org.opentcs.access.Kernel;
 import org.opentcs.access.KernelRuntimeException;
-import org.opentcs.data.TCSObjectReference;
 import org.opentcs.data.model.Location;
 import org.opentcs.data.order.DriveOrder.Destination;
 import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.loadgeneration.DestinationMix;
 
 /**
  * Randomly creates batches of transport orders.
@@ -41,17 +39,10 @@ class RandomOrderBatchCreator
    */
   private final int batchSize;
   /**
-   * The number of drive orders per transport order.
+   * Selects the destinations of the transport orders, or <code>null</code>,
+   * if there are no locations in the model.
    */
-  private final int orderSize;
-  /**
-   * The locations in the model.
-   */
-  private final List<Location> locations;
-  /**
-   * A random number generator for selecting locations and operations.
-   */
-  private final Random random = new Random();
+  private final DestinationMix destinationMix;
 
   /**
    * Creates a new RandomOrderBatchCreator.
@@ -65,15 +56,17 @@ class RandomOrderBatchCreator
                                  final int orderSize) {
     this.kernel = Objects.requireNonNull(kernel, "kernel is null");
     this.batchSize = batchSize;
-    this.orderSize = orderSize;
-    locations = new ArrayList<>(kernel.getTCSObjects(Location.class));
+    Set<Location> locations = kernel.getTCSObjects(Location.class);
+    destinationMix = locations.isEmpty()
+        ? null
+        : DestinationMix.uniform(locations, orderSize, new Random());
   }
 
   @Override
   public Set<TransportOrder> createOrderBatch()
       throws KernelRuntimeException {
     Set<TransportOrder> createdOrders = new HashSet<>();
-    if (locations.isEmpty()) {
+    if (destinationMix == null) {
       return createdOrders;
     }
     for (int i = 0; i < batchSize; i++) {
@@ -84,13 +77,7 @@ class RandomOrderBatchCreator
 
   private TransportOrder createSingleOrder()
       throws KernelRuntimeException {
-    List<Destination> destinations = new LinkedList<>();
-    for (int j = 0; j < orderSize; j++) {
-      Location destLoc = locations.get(random.nextInt(locations.size()));
-      TCSObjectReference<Location> destLocRef = destLoc.getReference();
-      String destOp = Destination.OP_NOP;
-      destinations.add(new Destination(destLocRef, destOp));
-    }
+    List<Destination> destinations = destinationMix.selectDestinations();
     TransportOrder newOrder = kernel.createTransportOrder(destinations);
     kernel.activateTransportOrder(newOrder.getReference());
     return newOrder;
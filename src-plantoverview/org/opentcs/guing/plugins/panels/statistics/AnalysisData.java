@@ -8,12 +8,17 @@
  */
 package org.opentcs.guing.plugins.panels.statistics;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
+import org.opentcs.access.queries.QueryStatistics;
+import org.opentcs.util.statistics.StatisticsLogParser;
 import org.opentcs.util.statistics.StatisticsRecord;
+import org.opentcs.util.statistics.StatisticsRecordVisitor;
 
 /**
  * Aggregates statistics records.
@@ -30,6 +35,22 @@ final class AnalysisData {
    * The last time stamp in the log.
    */
   private final long finishTimestamp;
+  /**
+   * The number of records aggregated.
+   */
+  private final long recordCount;
+  /**
+   * The number of orders finished.
+   */
+  private int finishedOrderCount;
+  /**
+   * The number of orders finished successfully.
+   */
+  private int successfulOrderCount;
+  /**
+   * The number of orders that crossed their deadline.
+   */
+  private int lateOrderCount;
   /**
    * All known vehicles, mapped by their names.
    */
@@ -48,10 +69,50 @@ final class AnalysisData {
    *
    * @param startTimestamp The first time stamp.
    * @param finishTimestamp The last time stamp.
+   * @param recordCount The number of records aggregated.
    */
-  private AnalysisData(final long startTimestamp, final long finishTimestamp) {
+  private AnalysisData(final long startTimestamp,
+                       final long finishTimestamp,
+                       final long recordCount) {
     this.startTimestamp = startTimestamp;
     this.finishTimestamp = finishTimestamp;
+    this.recordCount = recordCount;
+  }
+
+  /**
+   * Returns the number of records aggregated.
+   *
+   * @return The number of records aggregated.
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Returns the number of orders finished, successfully or not.
+   *
+   * @return The number of orders finished.
+   */
+  public int getFinishedOrderCount() {
+    return finishedOrderCount;
+  }
+
+  /**
+   * Returns the number of orders finished successfully.
+   *
+   * @return The number of orders finished successfully.
+   */
+  public int getSuccessfulOrderCount() {
+    return successfulOrderCount;
+  }
+
+  /**
+   * Returns the number of orders that crossed their deadline.
+   *
+   * @return The number of orders that crossed their deadline.
+   */
+  public int getLateOrderCount() {
+    return lateOrderCount;
   }
 
   /**
@@ -91,26 +152,49 @@ final class AnalysisData {
   }
 
   /**
-   * Aggregates the given list of statistics records in an
+   * Aggregates the statistics records in the given log file in an
    * <code>AnalysisData</code> instance and returns it.
+   * The file is read twice, first to determine the time span covered by it and
+   * then to aggregate the records, so records are never kept in memory.
    *
-   * @param records The list of statistics records to be aggregated.
+   * @param inputFile The log file containing the records to be aggregated.
    * @return The instance containing the aggregated data, or <code>null</code>,
-   * if the given list of records is empty.
+   * if the given file does not contain any records.
+   * @throws IOException If there was a problem reading the file.
    */
-  public static AnalysisData analyzeRecords(List<StatisticsRecord> records) {
-    Objects.requireNonNull(records, "records is null");
-    if (records.isEmpty()) {
+  public static AnalysisData analyzeLog(File inputFile)
+      throws IOException {
+    Objects.requireNonNull(inputFile, "inputFile is null");
+
+    final long[] timeSpan = new long[2];
+    long recordCount = StatisticsLogParser.parseLog(
+        inputFile,
+        new StatisticsRecordVisitor() {
+          private boolean first = true;
+
+          @Override
+          public void visitRecord(StatisticsRecord record) {
+            if (first) {
+              timeSpan[0] = record.getTimestamp();
+              first = false;
+            }
+            timeSpan[1] = record.getTimestamp();
+          }
+        });
+    if (recordCount == 0) {
       return null;
     }
 
-    long startTime = records.get(0).getTimestamp();
-    long finishTime = records.get(records.size() - 1).getTimestamp();
-    AnalysisData analysisData = new AnalysisData(startTime, finishTime);
+    long finishTime = timeSpan[1];
+    final AnalysisData analysisData
+        = new AnalysisData(timeSpan[0], finishTime, recordCount);
 
-    for (StatisticsRecord curRecord : records) {
-      handleRecord(curRecord, analysisData);
-    }
+    StatisticsLogParser.parseLog(inputFile, new StatisticsRecordVisitor() {
+      @Override
+      public void visitRecord(StatisticsRecord record) {
+        handleRecord(record, analysisData);
+      }
+    });
 
     // For sensible analysis results, assume all processes ended.
     for (VehicleStats curVehicle : analysisData.getVehicles()) {
@@ -124,11 +208,60 @@ final class AnalysisData {
       if (curOrder.getFinishedTime() <= 0) {
         curOrder.finish(finishTime, true);
       }
+      analysisData.finishedOrderCount++;
+      if (curOrder.isFinishedSuccessfully()) {
+        analysisData.successfulOrderCount++;
+      }
+      if (curOrder.hasCrossedDeadline()) {
+        analysisData.lateOrderCount++;
+      }
     }
 
     return analysisData;
   }
 
+  /**
+   * Creates an <code>AnalysisData</code> instance from statistics aggregated
+   * by the kernel.
+   * The instance does not contain data for individual orders.
+   *
+   * @param statistics The statistics aggregated by the kernel.
+   * @return The instance containing the statistics.
+   */
+  public static AnalysisData fromStatistics(QueryStatistics statistics) {
+    Objects.requireNonNull(statistics, "statistics is null");
+
+    long finishTime = statistics.getTimestamp();
+    long runtime = statistics.getCoveredTime();
+    AnalysisData analysisData
+        = new AnalysisData(finishTime - runtime, finishTime, 0);
+    for (Map.Entry<String, QueryStatistics.VehicleStatistics> entry
+             : statistics.getVehicles().entrySet()) {
+      QueryStatistics.VehicleStatistics vehicle = entry.getValue();
+      analysisData.vehiclesByName.put(
+          entry.getKey(),
+          new VehicleStats(entry.getKey(),
+                           analysisData.getTotalRuntime(),
+                           vehicle.getProcessingTime(),
+                           vehicle.getChargingTime(),
+                           vehicle.getWaitingTime(),
+                           vehicle.getOrdersProcessed()));
+    }
+    for (Map.Entry<String, QueryStatistics.PointStatistics> entry
+             : statistics.getPoints().entrySet()) {
+      analysisData.pointsByName.put(
+          entry.getKey(),
+          new PointStats(entry.getKey(),
+                         analysisData.getTotalRuntime(),
+                         entry.getValue().getOccupiedTime()));
+    }
+    analysisData.successfulOrderCount = statistics.getFinishedOrders();
+    analysisData.finishedOrderCount
+        = statistics.getFinishedOrders() + statistics.getFailedOrders();
+    analysisData.lateOrderCount = statistics.getLateOrders();
+    return analysisData;
+  }
+
   /**
    * Processes the given record and adds its data to the given instance.
    *
@@ -35,6 +35,21 @@ class PointStats
     super(name, totalRuntime);
   }
 
+  /**
+   * Creates a new instance with the given total.
+   *
+   * @param name The name of the point.
+   * @param totalRuntime The total runtime recorded.
+   * @param totalTimeOccupied The total time the point was occupied by
+   * vehicles.
+   */
+  PointStats(final String name,
+             final long totalRuntime,
+             final long totalTimeOccupied) {
+    super(name, totalRuntime);
+    this.totalTimeOccupied = totalTimeOccupied;
+  }
+
   /**
    * Returns the total time the point was occupied by vehicles.
    *
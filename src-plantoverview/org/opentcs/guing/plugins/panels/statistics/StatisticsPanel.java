@@ -10,14 +10,21 @@ package org.opentcs.guing.plugins.panels.statistics;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.KernelRuntimeException;
+import org.opentcs.access.SharedKernelProvider;
+import org.opentcs.access.queries.QueryStatistics;
 import org.opentcs.util.gui.plugins.PluggablePanel;
-import org.opentcs.util.statistics.StatisticsLogParser;
-import org.opentcs.util.statistics.StatisticsRecord;
 
 /**
  * A panel for displaying statistics data.
@@ -32,6 +39,24 @@ public class StatisticsPanel
    */
   private static final Logger log
       = Logger.getLogger(StatisticsPanel.class.getName());
+  /**
+   * The interval (in ms) in which live statistics are updated.
+   */
+  private static final int LIVE_UPDATE_INTERVAL = 2000;
+  /**
+   * This class's bundle.
+   */
+  private final ResourceBundle bundle
+      = ResourceBundle.getBundle("org/opentcs/guing/plugins/panels/statistics/Bundle");
+  /**
+   * Provides the kernel to read live statistics from, or <code>null</code>.
+   */
+  private final SharedKernelProvider kernelProvider;
+  /**
+   * Queries the live statistics periodically, off the event dispatch thread,
+   * or <code>null</code>, if this panel is not plugged in.
+   */
+  private ScheduledExecutorService liveUpdateExecutor;
   /**
    * A file chooser for selecting the input file.
    */
@@ -40,10 +65,6 @@ public class StatisticsPanel
    * The input file to be parsed.
    */
   private File inputFile;
-  /**
-   * The records read from the input file.
-   */
-  private List<StatisticsRecord> inputRecords;
   /**
    * The parsed analysis data.
    */
@@ -53,21 +74,101 @@ public class StatisticsPanel
    * Creates a new StatisticsPanel.
    */
   public StatisticsPanel() {
+    this(null);
+  }
+
+  /**
+   * Creates a new StatisticsPanel.
+   * As long as no input file has been read, the panel shows the statistics
+   * aggregated by the kernel, if one is available.
+   *
+   * @param kernelProvider Provides the kernel to read live statistics from.
+   * May be <code>null</code>.
+   */
+  public StatisticsPanel(SharedKernelProvider kernelProvider) {
+    this.kernelProvider = kernelProvider;
     initComponents();
 
     inputFileChooser.setMultiSelectionEnabled(false);
-    inputFileChooser.setFileFilter(new FileNameExtensionFilter("Text files",
-                                                               "txt"));
+    inputFileChooser.setFileFilter(
+        new FileNameExtensionFilter("Statistics logs", "txt", "bin"));
   }
 
   @Override
   public void plugIn() {
-    // Do nada.
+    if (kernelProvider != null) {
+      kernelProvider.register(this);
+      liveUpdateExecutor
+          = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "statisticsUpdater");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      liveUpdateExecutor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          queryLiveStatistics();
+        }
+      }, 0, LIVE_UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
   }
 
   @Override
   public void plugOut() {
-    // Do nada.
+    if (kernelProvider != null) {
+      liveUpdateExecutor.shutdownNow();
+      liveUpdateExecutor = null;
+      kernelProvider.unregister(this);
+    }
+  }
+
+  /**
+   * Reads the statistics aggregated by the kernel and has them displayed.
+   * Called by the live update thread, as querying a remote kernel may take a
+   * while.
+   */
+  private void queryLiveStatistics() {
+    if (!kernelProvider.kernelShared()) {
+      return;
+    }
+    Kernel kernel = kernelProvider.getKernel();
+    final AnalysisData liveData;
+    try {
+      if (!Kernel.State.OPERATING.equals(kernel.getState())) {
+        return;
+      }
+      QueryStatistics statistics = kernel.query(QueryStatistics.class);
+      if (statistics == null) {
+        return;
+      }
+      liveData = AnalysisData.fromStatistics(statistics);
+    }
+    catch (KernelRuntimeException exc) {
+      log.log(Level.WARNING, "Exception querying live statistics", exc);
+      return;
+    }
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        showLiveStatistics(liveData);
+      }
+    });
+  }
+
+  /**
+   * Displays the given live statistics, unless an input file has been read.
+   *
+   * @param liveData The live statistics.
+   */
+  private void showLiveStatistics(AnalysisData liveData) {
+    if (inputFile != null) {
+      return;
+    }
+    analysisData = liveData;
+    updatePanel();
   }
 
   /**
@@ -75,22 +176,21 @@ public class StatisticsPanel
    */
   private void updatePanel() {
     if (inputFile == null) {
-      analysisInputFileTxt.setText("-");
+      analysisInputFileTxt.setText(
+          analysisData == null ? "-" : bundle.getString("Live_statistics"));
     }
     else {
       analysisInputFileTxt.setText(inputFile.getAbsolutePath());
     }
-    if (inputRecords == null) {
+    if (analysisData == null) {
       parsedRecordsTxt.setText("0");
     }
     else {
-      parsedRecordsTxt.setText(Integer.toString(inputRecords.size()));
+      parsedRecordsTxt.setText(Long.toString(analysisData.getRecordCount()));
     }
     VehiclesTableModel vehiclesModel = new VehiclesTableModel();
     PointsTableModel pointsModel = new PointsTableModel();
     OrdersTableModel ordersModel = new OrdersTableModel();
-    int successfulOrders = 0;
-    int lateOrders = 0;
     totalRuntimeTxt.setText("-");
     ordersSuccRateTxt.setText("-");
     ordersDeadlineRateTxt.setText("-");
@@ -105,16 +205,12 @@ public class StatisticsPanel
       }
       for (OrderStats order : analysisData.getOrders()) {
         ordersModel.addData(order);
-        if (order.isFinishedSuccessfully()) {
-          successfulOrders++;
-        }
-        if (order.hasCrossedDeadline()) {
-          lateOrders++;
-        }
       }
 
-      ordersSuccRateTxt.setText(successfulOrders + "/" + ordersModel.getRowCount());
-      ordersDeadlineRateTxt.setText(lateOrders + "/" + ordersModel.getRowCount());
+      ordersSuccRateTxt.setText(analysisData.getSuccessfulOrderCount() + "/"
+          + analysisData.getFinishedOrderCount());
+      ordersDeadlineRateTxt.setText(analysisData.getLateOrderCount() + "/"
+          + analysisData.getFinishedOrderCount());
     }
     analysisVehiclesTable.setModel(vehiclesModel);
     analysisCourseTable.setModel(pointsModel);
@@ -129,11 +225,9 @@ public class StatisticsPanel
     if (choice == JFileChooser.APPROVE_OPTION) {
       inputFile = inputFileChooser.getSelectedFile();
       try {
-        inputRecords = StatisticsLogParser.parseLog(inputFile);
-        analysisData = AnalysisData.analyzeRecords(inputRecords);
+        analysisData = AnalysisData.analyzeLog(inputFile);
         if (analysisData == null) {
           inputFile = null;
-          inputRecords = null;
         }
       }
       catch (IOException exc) {
@@ -141,7 +235,6 @@ public class StatisticsPanel
                 "Exception parsing input file " + inputFile,
                 exc);
         inputFile = null;
-        inputRecords = null;
         analysisData = null;
       }
       updatePanel();
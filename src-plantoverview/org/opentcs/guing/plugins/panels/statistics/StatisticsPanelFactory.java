@@ -27,6 +27,10 @@ public class StatisticsPanelFactory
    */
   private final ResourceBundle bundle
       = ResourceBundle.getBundle("org/opentcs/guing/plugins/panels/statistics/Bundle");
+  /**
+   * Provides the kernel to read live statistics from.
+   */
+  private SharedKernelProvider kernelProvider;
 
   /**
    * Creates a new instance.
@@ -37,7 +41,7 @@ public class StatisticsPanelFactory
 
   @Override
   public void setKernelProvider(SharedKernelProvider kernelProvider) {
-    // Do nada.
+    this.kernelProvider = kernelProvider;
   }
 
   @Override
@@ -47,6 +51,9 @@ public class StatisticsPanelFactory
 
   @Override
   public PluggablePanel createPanel(Kernel.State state) {
+    if (Kernel.State.OPERATING.equals(state)) {
+      return new StatisticsPanel(kernelProvider);
+    }
     return new StatisticsPanel();
   }
 
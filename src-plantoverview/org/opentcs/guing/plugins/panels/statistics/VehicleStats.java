@@ -55,6 +55,31 @@ class VehicleStats
     super(name, totalRuntime);
   }
 
+  /**
+   * Creates a new instance with the given totals.
+   *
+   * @param name The name of the vehicle.
+   * @param totalRuntime The total runtime recorded.
+   * @param totalTimeProcessing The total time the vehicle was processing
+   * orders.
+   * @param totalTimeCharging The total time the vehicle was charging.
+   * @param totalTimeWaiting The total time the vehicle was waiting.
+   * @param totalOrdersProcessed The total number of orders the vehicle has
+   * processed.
+   */
+  VehicleStats(final String name,
+               final long totalRuntime,
+               final long totalTimeProcessing,
+               final long totalTimeCharging,
+               final long totalTimeWaiting,
+               final int totalOrdersProcessed) {
+    super(name, totalRuntime);
+    this.totalTimeProcessing = totalTimeProcessing;
+    this.totalTimeCharging = totalTimeCharging;
+    this.totalTimeWaiting = totalTimeWaiting;
+    this.totalOrdersProcessed = totalOrdersProcessed;
+  }
+
   /**
    * Returns the total time the vehicle was processing orders.
    *
@@ -14,12 +14,18 @@ import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -32,6 +38,7 @@ import org.opentcs.access.CredentialsException;
 import org.opentcs.access.Kernel;
 import org.opentcs.access.KernelRuntimeException;
 import org.opentcs.data.ObjectPropConstants;
+import org.opentcs.data.TCSObject;
 import org.opentcs.data.TCSObjectReference;
 import org.opentcs.data.model.Block;
 import org.opentcs.data.model.Group;
@@ -125,6 +132,10 @@ public class OpenTCSModelManager
    */
   private static final Logger log
       = Logger.getLogger(OpenTCSModelManager.class.getName());
+  /**
+   * The number of threads used for fetching objects from the kernel.
+   */
+  private static final int FETCH_THREADS = 4;
   /**
    * The StatusPanel at the bottom to log messages.
    */
@@ -374,16 +385,53 @@ public class OpenTCSModelManager
     fModelName = kernel.getCurrentModelName();
     ((StringProperty) systemModel.getProperty(ModelComponent.NAME)).setText(fModelName);
 
-    // Die im Kernel gespeicherten Layouts
-    Set<VisualLayout> allVisualLayouts = kernel.getTCSObjects(VisualLayout.class);
-    Set<Vehicle> allVehicles = kernel.getTCSObjects(Vehicle.class);
-    Set<Point> allPoints = kernel.getTCSObjects(Point.class);
-    Set<LocationType> allLocationTypes = kernel.getTCSObjects(LocationType.class);
-    Set<Location> allLocations = kernel.getTCSObjects(Location.class);
-    Set<Path> allPaths = kernel.getTCSObjects(Path.class);
-    Set<Block> allBlocks = kernel.getTCSObjects(Block.class);
-    Set<StaticRoute> allStaticRoutes = kernel.getTCSObjects(StaticRoute.class);
-    Set<Group> allGroups = kernel.getTCSObjects(Group.class);
+    // The objects of the different categories are independent of each other,
+    // so fetch them from the kernel concurrently. The model itself is built on
+    // this thread, though, as model components and figures are not
+    // thread-safe.
+    ExecutorService fetchExecutor = Executors.newFixedThreadPool(FETCH_THREADS);
+    Set<VisualLayout> allVisualLayouts;
+    Set<Vehicle> allVehicles;
+    Set<Point> allPoints;
+    Set<LocationType> allLocationTypes;
+    Set<Location> allLocations;
+    Set<Path> allPaths;
+    Set<Block> allBlocks;
+    Set<StaticRoute> allStaticRoutes;
+    Set<Group> allGroups;
+    try {
+      Future<Set<VisualLayout>> visualLayoutsFuture
+          = fetchObjects(fetchExecutor, kernel, VisualLayout.class);
+      Future<Set<Vehicle>> vehiclesFuture
+          = fetchObjects(fetchExecutor, kernel, Vehicle.class);
+      Future<Set<Point>> pointsFuture
+          = fetchObjects(fetchExecutor, kernel, Point.class);
+      Future<Set<LocationType>> locationTypesFuture
+          = fetchObjects(fetchExecutor, kernel, LocationType.class);
+      Future<Set<Location>> locationsFuture
+          = fetchObjects(fetchExecutor, kernel, Location.class);
+      Future<Set<Path>> pathsFuture
+          = fetchObjects(fetchExecutor, kernel, Path.class);
+      Future<Set<Block>> blocksFuture
+          = fetchObjects(fetchExecutor, kernel, Block.class);
+      Future<Set<StaticRoute>> staticRoutesFuture
+          = fetchObjects(fetchExecutor, kernel, StaticRoute.class);
+      Future<Set<Group>> groupsFuture
+          = fetchObjects(fetchExecutor, kernel, Group.class);
+
+      allVisualLayouts = getFetchResult(visualLayoutsFuture);
+      allVehicles = getFetchResult(vehiclesFuture);
+      allPoints = getFetchResult(pointsFuture);
+      allLocationTypes = getFetchResult(locationTypesFuture);
+      allLocations = getFetchResult(locationsFuture);
+      allPaths = getFetchResult(pathsFuture);
+      allBlocks = getFetchResult(blocksFuture);
+      allStaticRoutes = getFetchResult(staticRoutesFuture);
+      allGroups = getFetchResult(groupsFuture);
+    }
+    finally {
+      fetchExecutor.shutdownNow();
+    }
 
     Set<ProcessAdapter> createdAdapters = new HashSet<>();
     List<Figure> restoredFigures = new ArrayList<>();
@@ -487,27 +535,21 @@ public class OpenTCSModelManager
       systemModel.getMainFolder(SystemModel.FolderKey.GROUPS).add(groupModel);
       Set<TCSObjectReference<?>> refs = group.getMembers();
 
+      // The members have been restored already and can be looked up by the
+      // names in their references, without asking the kernel for each of them.
       for (TCSObjectReference ref : refs) {
+        ModelComponent member = null;
         if (ref.getReferentClass() == Point.class) {
-          Point point = kernel.getTCSObject(Point.class, ref);
-
-          if (point != null) {
-            groupModel.add(systemModel.getPointModel(point.getName()));
-          }
+          member = systemModel.getPointModel(ref.getName());
         }
         else if (ref.getReferentClass() == Location.class) {
-          Location location = kernel.getTCSObject(Location.class, ref);
-
-          if (location != null) {
-            groupModel.add(systemModel.getLocationModel(location.getName()));
-          }
+          member = systemModel.getLocationModel(ref.getName());
         }
         else if (ref.getReferentClass() == Path.class) {
-          Path path = kernel.getTCSObject(Path.class, ref);
-
-          if (path != null) {
-            groupModel.add(systemModel.getPathModel(path.getName()));
-          }
+          member = systemModel.getPathModel(ref.getName());
+        }
+        if (member != null) {
+          groupModel.add(member);
         }
       }
     }
@@ -635,6 +677,7 @@ public class OpenTCSModelManager
   private void restoreModelLocations(List<LocationModel> locationModels,
                                      List<Figure> restoredFigures,
                                      Origin origin, double scaleX, double scaleY) {
+    Map<String, List<LinkModel>> linksByComponentName = getLinksByComponentName();
     for (LocationModel locationModel : locationModels) {
       LabeledLocationFigure llf = crsObjFactory.createLocationFigure();
       LocationFigure locationFigure = llf.getPresentationFigure();
@@ -699,7 +742,8 @@ public class OpenTCSModelManager
           = (String) ((LocationTypeProperty) locationModel.getProperty(LocationModel.TYPE)).getValue();
       locationModel.setLocationType(getLocationTypeComponent(locationTypeName));
 
-      for (LinkModel linkModel : getAttachedLinks(locationModel)) {
+      for (LinkModel linkModel : getAttachedLinks(locationModel,
+                                                     linksByComponentName)) {
         PointModel pointModel = linkModel.getPoint();
         LabeledPointFigure lpf = pointModel.getFigure();
         LinkConnection linkConnection = crsObjFactory.createLinkConnection();
@@ -1317,6 +1361,50 @@ public class OpenTCSModelManager
     return linkAdapter;
   }
 
+  /**
+   * Fetches all objects of the given class from the kernel, using the given
+   * executor.
+   *
+   * @param <T> The objects' type.
+   * @param executor The executor to fetch the objects with.
+   * @param kernel The kernel to fetch the objects from.
+   * @param clazz The objects' class.
+   * @return A future providing the objects.
+   */
+  private <T extends TCSObject<T>> Future<Set<T>> fetchObjects(
+      ExecutorService executor,
+      Kernel kernel,
+      Class<T> clazz) {
+    return executor.submit(() -> kernel.getTCSObjects(clazz));
+  }
+
+  /**
+   * Waits for the given fetch to finish and returns its result.
+   *
+   * @param <T> The result's type.
+   * @param future The future providing the result.
+   * @return The result.
+   * @throws KernelRuntimeException If fetching the result failed with such an
+   * exception or was interrupted.
+   */
+  private <T> T getFetchResult(Future<T> future)
+      throws KernelRuntimeException {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      throw new KernelRuntimeException("Interrupted fetching kernel objects",
+                                       exc);
+    }
+    catch (ExecutionException exc) {
+      if (exc.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exc.getCause();
+      }
+      throw new KernelRuntimeException(exc.getCause());
+    }
+  }
+
   /**
    * Findet zu einem TCSObject das passende Objekt in der Modellierung.
    *
@@ -1343,12 +1431,7 @@ public class OpenTCSModelManager
    * @return The PointModel that matches the given name.
    */
   private PointModel getPointComponent(String name) {
-    for (PointModel modelComponent : systemModel.getPointModels()) {
-      if (modelComponent.getName().equals(name)) {
-        return modelComponent;
-      }
-    }
-    return null;
+    return systemModel.getPointModel(name);
   }
 
   /**
@@ -1359,12 +1442,7 @@ public class OpenTCSModelManager
    * @return The LocationModel that matches the given name.
    */
   private LocationTypeModel getLocationTypeComponent(String name) {
-    for (LocationTypeModel modelComponent : systemModel.getLocationTypeModels()) {
-      if (modelComponent.getName().equals(name)) {
-        return modelComponent;
-      }
-    }
-    return null;
+    return systemModel.getLocationTypeModel(name);
   }
 
   /**
@@ -1375,22 +1453,14 @@ public class OpenTCSModelManager
    * @return The ModelComponent.
    */
   private ModelComponent getBlockMember(String name) {
-    for (PointModel pModel : systemModel.getPointModels()) {
-      if (name.equals(pModel.getName())) {
-        return pModel;
-      }
-    }
-    for (PathModel pModel : systemModel.getPathModels()) {
-      if (name.equals(pModel.getName())) {
-        return pModel;
-      }
+    ModelComponent result = systemModel.getPointModel(name);
+    if (result == null) {
+      result = systemModel.getPathModel(name);
     }
-    for (LocationModel lModel : systemModel.getLocationModels()) {
-      if (name.equals(lModel.getName())) {
-        return lModel;
-      }
+    if (result == null) {
+      result = systemModel.getLocationModel(name);
     }
-    return null;
+    return result;
   }
 
   /**
@@ -1412,12 +1482,20 @@ public class OpenTCSModelManager
    *
    * @param locationModel The LocationModel for which we need the connected
    * links.
+   * @param linksByComponentName The links in the system model, mapped by the
+   * names of the components they connect.
    * @return A list with the connected links.
    */
-  private List<LinkModel> getAttachedLinks(LocationModel locationModel) {
+  private List<LinkModel> getAttachedLinks(
+      LocationModel locationModel,
+      Map<String, List<LinkModel>> linksByComponentName) {
     List<LinkModel> links = new ArrayList<>();
     String locationName = locationModel.getName();
-    for (LinkModel link : systemModel.getLinkModels()) {
+    List<LinkModel> candidates = linksByComponentName.get(locationName);
+    if (candidates == null) {
+      return links;
+    }
+    for (LinkModel link : candidates) {
       StringProperty startProperty
           = (StringProperty) link.getProperty(AbstractConnection.START_COMPONENT);
       StringProperty endProperty
@@ -1436,4 +1514,36 @@ public class OpenTCSModelManager
 
     return links;
   }
+
+  /**
+   * Returns the links in the system model, mapped by the names of the
+   * components they connect, so the links attached to a location can be found
+   * without looking at every link in the model.
+   *
+   * @return The links in the system model, mapped by the names of the
+   * components they connect.
+   */
+  private Map<String, List<LinkModel>> getLinksByComponentName() {
+    Map<String, List<LinkModel>> result = new HashMap<>();
+    for (LinkModel link : systemModel.getLinkModels()) {
+      String startName = ((StringProperty) link.getProperty(AbstractConnection.START_COMPONENT)).getText();
+      String endName = ((StringProperty) link.getProperty(AbstractConnection.END_COMPONENT)).getText();
+      addLink(result, startName, link);
+      if (!Objects.equals(startName, endName)) {
+        addLink(result, endName, link);
+      }
+    }
+    return result;
+  }
+
+  private void addLink(Map<String, List<LinkModel>> linksByComponentName,
+                       String componentName,
+                       LinkModel link) {
+    List<LinkModel> links = linksByComponentName.get(componentName);
+    if (links == null) {
+      links = new ArrayList<>();
+      linksByComponentName.put(componentName, links);
+    }
+    links.add(link);
+  }
 }
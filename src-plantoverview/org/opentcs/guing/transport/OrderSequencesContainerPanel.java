@@ -45,6 +45,7 @@ import org.opentcs.guing.components.dialogs.DialogContent;
 import org.opentcs.guing.components.dialogs.StandardContentDialog;
 import org.opentcs.guing.event.OrderSequenceEvent;
 import org.opentcs.guing.event.SystemModelTransitionEvent;
+import org.opentcs.guing.exchange.KernelObjectReplica;
 import org.opentcs.guing.util.IconToolkit;
 import org.opentcs.guing.util.ResourceBundleUtil;
 
@@ -71,6 +72,10 @@ public class OrderSequencesContainerPanel
    * Provides access to a kernel.
    */
   private final SharedKernelProvider kernelProvider;
+  /**
+   * The local replica of kernel objects.
+   */
+  private final KernelObjectReplica objectReplica;
   /**
    * A factory for order sequence views.
    */
@@ -103,15 +108,18 @@ public class OrderSequencesContainerPanel
    * @param transportViewFactory A factory for order sequence views.
    * @param dialogParent The parent component for dialogs shown by this
    * instance.
+   * @param objectReplica The local replica of kernel objects.
    */
   @Inject
   public OrderSequencesContainerPanel(SharedKernelProvider kernelProvider,
                                       TransportViewFactory transportViewFactory,
-                                      @ApplicationFrame Component dialogParent) {
+                                      @ApplicationFrame Component dialogParent,
+                                      KernelObjectReplica objectReplica) {
     this.kernelProvider = requireNonNull(kernelProvider, "kernelProvider");
     this.transportViewFactory = requireNonNull(transportViewFactory,
                                                "transportViewFactory");
     this.dialogParent = requireNonNull(dialogParent, "dialogParent");
+    this.objectReplica = requireNonNull(objectReplica, "objectReplica");
     initComponents();
   }
 
@@ -141,7 +149,10 @@ public class OrderSequencesContainerPanel
   }
 
   private Set<OrderSequence> fetchSequencesIfOnline() {
-    if (kernelProvider.kernelShared()) {
+    if (objectReplica.isConnected()) {
+      return objectReplica.getObjects(OrderSequence.class);
+    }
+    else if (kernelProvider.kernelShared()) {
       return kernelProvider.getKernel().getTCSObjects(OrderSequence.class);
     }
     else {
@@ -205,7 +216,12 @@ public class OrderSequencesContainerPanel
 
   private void showOrderSequence() {
     try {
-      OrderSequence os = getKernel().getTCSObject(OrderSequence.class, getSelectedOrderSequence().getReference());
+      TCSObjectReference<OrderSequence> ref
+          = getSelectedOrderSequence().getReference();
+      OrderSequence os = objectReplica.getObject(OrderSequence.class, ref);
+      if (os == null) {
+        os = getKernel().getTCSObject(OrderSequence.class, ref);
+      }
       DialogContent content = transportViewFactory.createOrderSequenceView(os);
       StandardContentDialog dialog
           = new StandardContentDialog(dialogParent, content, true, StandardContentDialog.CLOSE);
@@ -47,6 +47,7 @@ import org.opentcs.guing.components.dialogs.DialogContent;
 import org.opentcs.guing.components.dialogs.StandardContentDialog;
 import org.opentcs.guing.event.SystemModelTransitionEvent;
 import org.opentcs.guing.event.TransportOrderEvent;
+import org.opentcs.guing.exchange.KernelObjectReplica;
 import org.opentcs.guing.exchange.TransportOrderUtil;
 import org.opentcs.guing.util.IconToolkit;
 import org.opentcs.guing.util.ResourceBundleUtil;
@@ -68,6 +69,10 @@ public class TransportOrdersContainerPanel
    * Provides access to a kernel.
    */
   private final SharedKernelProvider kernelProvider;
+  /**
+   * The local replica of kernel objects.
+   */
+  private final KernelObjectReplica objectReplica;
   /**
    * A helper for creating transport orders with the kernel.
    */
@@ -99,15 +104,18 @@ public class TransportOrdersContainerPanel
    * @param kernelProvider Provides a access to a kernel.
    * @param orderUtil A helper for creating transport orders with the kernel.
    * @param orderPanelProvider Provides panels for entering new transport orders.
+   * @param objectReplica The local replica of kernel objects.
    */
   @Inject
   public TransportOrdersContainerPanel(SharedKernelProvider kernelProvider,
                                        TransportOrderUtil orderUtil,
-                                       Provider<CreateTransportOrderPanel> orderPanelProvider) {
+                                       Provider<CreateTransportOrderPanel> orderPanelProvider,
+                                       KernelObjectReplica objectReplica) {
     this.kernelProvider = requireNonNull(kernelProvider, "kernelProvider");
     this.orderUtil = requireNonNull(orderUtil, "orderUtil");
     this.orderPanelProvider = requireNonNull(orderPanelProvider,
                                              "orderPanelProvider");
+    this.objectReplica = requireNonNull(objectReplica, "objectReplica");
     initComponents();
   }
 
@@ -137,7 +145,10 @@ public class TransportOrdersContainerPanel
   }
 
   private Set<TransportOrder> fetchOrdersIfOnline() {
-    if (kernelProvider.kernelShared()) {
+    if (objectReplica.isConnected()) {
+      return objectReplica.getObjects(TransportOrder.class);
+    }
+    else if (kernelProvider.kernelShared()) {
       return kernelProvider.getKernel().getTCSObjects(TransportOrder.class);
     }
     else {
@@ -145,6 +156,18 @@ public class TransportOrdersContainerPanel
     }
   }
 
+  /**
+   * Returns the current state of the referenced transport order, preferably
+   * from the local replica.
+   *
+   * @param ref A reference to the transport order.
+   * @return The transport order.
+   */
+  private TransportOrder fetchTransportOrder(TCSObjectReference<TransportOrder> ref) {
+    TransportOrder order = objectReplica.getObject(TransportOrder.class, ref);
+    return order != null ? order : getKernel().getTCSObject(TransportOrder.class, ref);
+  }
+
   /**
    * Initialisiert die verschiedenen Komponenten.
    */
@@ -198,7 +221,7 @@ public class TransportOrdersContainerPanel
       TransportOrder transportOrder = getSelectedTransportOrder();
 
       if (transportOrder != null) {
-        transportOrder = getKernel().getTCSObject(TransportOrder.class, transportOrder.getReference());
+        transportOrder = fetchTransportOrder(transportOrder.getReference());
         DialogContent content = new TransportOrderView(transportOrder);
         StandardContentDialog dialog
             = new StandardContentDialog(JOptionPane.getFrameForComponent(this),
@@ -220,7 +243,7 @@ public class TransportOrdersContainerPanel
   private void createTransportOrderWithPattern() {
     TransportOrder to = getSelectedTransportOrder();
     if (to != null) {
-      to = getKernel().getTCSObject(TransportOrder.class, to.getReference());
+      to = fetchTransportOrder(to.getReference());
       CreateTransportOrderPanel content = orderPanelProvider.get();
       content.setPattern(to);
       StandardContentDialog dialog
@@ -76,6 +76,27 @@ public class ApplicationConfiguration
     configStore.setBoolean("ignoreVehicleOrientationAngle", value);
   }
 
+  /**
+   * Returns the maximum number of times per second the model is updated with
+   * changes received from the kernel.
+   * Values less than 1 mean that every change is applied immediately.
+   *
+   * @return The maximum number of model updates per second.
+   */
+  public int getModelUpdateFrameRate() {
+    return configStore.getInt("modelUpdateFrameRate", 25);
+  }
+
+  /**
+   * Sets the maximum number of times per second the model is updated with
+   * changes received from the kernel.
+   *
+   * @param value The maximum number of model updates per second.
+   */
+  public void setModelUpdateFrameRate(int value) {
+    configStore.setInt("modelUpdateFrameRate", value);
+  }
+
   /**
    * Returns the configured locale.
    *
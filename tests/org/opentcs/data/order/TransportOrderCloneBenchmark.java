@@ -0,0 +1,78 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.data.order;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+
+/**
+ * Measures time and heap allocation of cloning a transport order with 20 drive
+ * orders.
+ * Not a unit test - run it manually. Allocation is measured via
+ * <code>com.sun.management.ThreadMXBean</code> and thus requires a HotSpot
+ * based JVM.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TransportOrderCloneBenchmark {
+
+  /**
+   * The number of drive orders in the transport order.
+   */
+  private static final int DRIVE_ORDER_COUNT = 20;
+  /**
+   * The number of clones per run.
+   */
+  private static final int CLONES = 1000000;
+  /**
+   * The number of runs.
+   */
+  private static final int RUNS = 5;
+
+  /**
+   * Prevents instantiation.
+   */
+  private TransportOrderCloneBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    Location location = new Location(
+        1, "Location-01", new LocationType(2, "LocationType-01").getReference());
+    List<DriveOrder.Destination> destinations = new ArrayList<>();
+    for (int i = 0; i < DRIVE_ORDER_COUNT; i++) {
+      destinations.add(new DriveOrder.Destination(location.getReference(),
+                                                  DriveOrder.Destination.OP_NOP));
+    }
+    TransportOrder order = new TransportOrder(3, "TOrder-01", destinations);
+    order.setProperty("key", "value");
+    order.setInitialDriveOrder();
+
+    com.sun.management.ThreadMXBean threadBean
+        = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    // Keep the clones reachable so the JIT cannot eliminate the allocations.
+    TransportOrder[] sink = new TransportOrder[1024];
+    for (int run = 0; run < RUNS; run++) {
+      long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+      long startTime = System.nanoTime();
+      for (int i = 0; i < CLONES; i++) {
+        sink[i & 1023] = order.clone();
+      }
+      long elapsed = System.nanoTime() - startTime;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+      System.out.println(String.format("Run %d: %5d ns/clone, %6d bytes/clone",
+                                       run,
+                                       elapsed / CLONES,
+                                       allocated / CLONES));
+    }
+  }
+}
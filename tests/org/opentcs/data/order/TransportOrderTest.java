@@ -0,0 +1,132 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.data.order;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TransportOrderTest {
+
+  /**
+   * The transport order to be cloned.
+   */
+  private TransportOrder order;
+
+  @Before
+  public void setUp() {
+    Location location = new Location(
+        1, "Location-01", new LocationType(2, "LocationType-01").getReference());
+    List<DriveOrder.Destination> destinations = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      destinations.add(new DriveOrder.Destination(location.getReference(),
+                                                  DriveOrder.Destination.OP_NOP));
+    }
+    order = new TransportOrder(3, "TOrder-01", destinations);
+    order.setProperty("key", "value");
+  }
+
+  @Test
+  public void shouldNotAffectCloneWhenOriginalIsModified() {
+    TransportOrder clone = order.clone();
+
+    order.setProperty("key", "modified");
+    order.addDependency(
+        new TransportOrder(4, "TOrder-02", destinationsOf(order)).getReference());
+    order.setInitialDriveOrder();
+    order.setCurrentDriveOrderState(DriveOrder.State.OPERATING);
+    order.setNextDriveOrder();
+
+    assertEquals("value", clone.getProperties().get("key"));
+    assertTrue(clone.getDependencies().isEmpty());
+    assertNull(clone.getCurrentDriveOrder());
+    assertTrue(clone.getPastDriveOrders().isEmpty());
+    assertEquals(3, clone.getFutureDriveOrders().size());
+    for (DriveOrder driveOrder : clone.getFutureDriveOrders()) {
+      assertEquals(DriveOrder.State.PRISTINE, driveOrder.getState());
+    }
+  }
+
+  @Test
+  public void shouldNotAffectOriginalWhenCloneIsModified() {
+    TransportOrder clone = order.clone();
+
+    clone.setProperty("key", "modified");
+    clone.setInitialDriveOrder();
+
+    assertEquals("value", order.getProperties().get("key"));
+    assertNull(order.getCurrentDriveOrder());
+    assertEquals(3, order.getFutureDriveOrders().size());
+    assertEquals(DriveOrder.State.PRISTINE,
+                 order.getFutureDriveOrders().get(0).getState());
+  }
+
+  @Test
+  public void shouldReturnSnapshotsFromGetters() {
+    Map<String, String> properties = order.getProperties();
+    List<DriveOrder> futureDriveOrders = order.getFutureDriveOrders();
+
+    order.setProperty("key", "modified");
+    order.setInitialDriveOrder();
+
+    assertEquals("value", properties.get("key"));
+    assertEquals(3, futureDriveOrders.size());
+  }
+
+  @Test
+  public void shouldNotAffectCloneWhenDeserializedOriginalIsModified()
+      throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytesOut)) {
+      out.writeObject(order);
+      out.writeObject(order.clone());
+    }
+    TransportOrder deserializedOrder;
+    TransportOrder deserializedClone;
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytesOut.toByteArray()))) {
+      deserializedOrder = (TransportOrder) in.readObject();
+      deserializedClone = (TransportOrder) in.readObject();
+    }
+
+    deserializedOrder.setProperty("key", "modified");
+    deserializedOrder.setInitialDriveOrder();
+
+    assertEquals("value", deserializedClone.getProperties().get("key"));
+    assertNull(deserializedClone.getCurrentDriveOrder());
+    assertEquals(3, deserializedClone.getFutureDriveOrders().size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void shouldNotAllowModifyingReturnedProperties() {
+    order.getProperties().put("key", "modified");
+  }
+
+  private static List<DriveOrder.Destination> destinationsOf(
+      TransportOrder order) {
+    List<DriveOrder.Destination> result = new ArrayList<>();
+    for (DriveOrder driveOrder : order.getFutureDriveOrders()) {
+      result.add(driveOrder.getDestination());
+    }
+    return result;
+  }
+}
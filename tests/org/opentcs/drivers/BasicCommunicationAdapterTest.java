@@ -0,0 +1,204 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.drivers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class BasicCommunicationAdapterTest {
+
+  /**
+   * The timeout for waiting for commands to be sent (in ms).
+   */
+  private static final long TIMEOUT = 5000;
+  /**
+   * The adapter tested.
+   */
+  private TestAdapter adapter;
+
+  @Before
+  public void setUp() {
+    adapter = new TestAdapter();
+    adapter.setSentQueueCapacity(2);
+    adapter.setCommandQueueCapacity(5);
+    adapter.enable();
+  }
+
+  @After
+  public void tearDown() {
+    adapter.sendLatch.countDown();
+    adapter.disable();
+  }
+
+  @Test
+  public void shouldSendCommandWithoutPolling()
+      throws InterruptedException {
+    adapter.sendLatch.countDown();
+    long start = System.currentTimeMillis();
+    adapter.addCommand(createCommand("A"));
+
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    assertTrue(System.currentTimeMillis() - start < 500);
+  }
+
+  @Test
+  public void shouldNotBlockStatusUpdatesWhileSending()
+      throws InterruptedException {
+    adapter.addCommand(createCommand("A"));
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+    // sendCommand() is still blocked, but status updates must go through.
+    adapter.setVehicleState(Vehicle.State.EXECUTING);
+    adapter.setVehiclePosition("A");
+    assertEquals(Vehicle.State.EXECUTING, adapter.getVehicleState());
+    assertEquals(1, adapter.getSentQueue().size());
+  }
+
+  @Test
+  public void shouldSendNextCommandWhenExecuted()
+      throws InterruptedException {
+    adapter.sendLatch.countDown();
+    MovementCommand first = createCommand("A");
+    adapter.addCommand(first);
+    adapter.addCommand(createCommand("B"));
+    adapter.addCommand(createCommand("C"));
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    assertNull(adapter.sent.poll(200, TimeUnit.MILLISECONDS));
+
+    synchronized (adapter) {
+      adapter.getSentQueue().remove(first);
+      adapter.commandExecuted(first);
+    }
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void shouldReportCommandSentWhileQueuesCleared()
+      throws InterruptedException {
+    adapter.addCommand(createCommand("A"));
+    MovementCommand sentCmd = adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertNotNull(sentCmd);
+
+    adapter.clearCommandQueue();
+    adapter.sendLatch.countDown();
+    assertSame(sentCmd, adapter.cleared.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void shouldCheckForCommandsWithoutSignal()
+      throws InterruptedException {
+    adapter.sendLatch.countDown();
+    adapter.blocked = true;
+    adapter.addCommand(createCommand("A"));
+    assertNull(adapter.sent.poll(200, TimeUnit.MILLISECONDS));
+
+    // Unblocking without signalling the dispatcher must not stall it.
+    adapter.blocked = false;
+    assertNotNull(adapter.sent.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+  }
+
+  private static MovementCommand createCommand(String pointName) {
+    Point point = new Point(1, pointName);
+    return new MovementCommand(
+        new Route.Step(null, point, Vehicle.Orientation.FORWARD, 0),
+        MovementCommand.NO_OPERATION,
+        null,
+        point,
+        MovementCommand.NO_OPERATION,
+        new HashMap<String, String>());
+  }
+
+  /**
+   * An adapter recording the commands sent, optionally blocking while sending.
+   */
+  private static class TestAdapter
+      extends BasicCommunicationAdapter {
+
+    /**
+     * The commands sent.
+     */
+    private final BlockingQueue<MovementCommand> sent
+        = new LinkedBlockingQueue<>();
+    /**
+     * The commands reported as sent while the queues were cleared.
+     */
+    private final BlockingQueue<MovementCommand> cleared
+        = new LinkedBlockingQueue<>();
+    /**
+     * Released to let sendCommand() return.
+     */
+    private final CountDownLatch sendLatch = new CountDownLatch(1);
+    /**
+     * Whether sending commands is blocked, without signalling changes.
+     */
+    private volatile boolean blocked;
+
+    TestAdapter() {
+      super("TestAdapter");
+    }
+
+    @Override
+    protected void connectVehicle() {
+    }
+
+    @Override
+    protected void disconnectVehicle() {
+    }
+
+    @Override
+    protected boolean isVehicleConnected() {
+      return true;
+    }
+
+    @Override
+    public boolean isVehicleAlive() {
+      return true;
+    }
+
+    @Override
+    public Processability canProcess(List<String> operations) {
+      return null;
+    }
+
+    @Override
+    protected synchronized boolean canSendNextCommand() {
+      return !blocked && super.canSendNextCommand();
+    }
+
+    @Override
+    protected void sentCommandCleared(MovementCommand cmd) {
+      cleared.add(cmd);
+    }
+
+    @Override
+    public void sendCommand(MovementCommand cmd) {
+      sent.add(cmd);
+      try {
+        sendLatch.await();
+      }
+      catch (InterruptedException exc) {
+        throw new IllegalStateException(exc);
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.drivers;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Triple;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TelemetryPublisherTest {
+
+  /**
+   * The history receiving the samples.
+   */
+  private TelemetryHistory history;
+  /**
+   * The positions published.
+   */
+  private BlockingQueue<Triple> published;
+  /**
+   * The publisher tested.
+   */
+  private TelemetryPublisher publisher;
+
+  @Before
+  public void setUp() {
+    history = new TelemetryHistory(4);
+    published = new LinkedBlockingQueue<>();
+    publisher = new TelemetryPublisher(
+        history,
+        new TelemetryPublisher.Target() {
+          @Override
+          public void publish(long sequenceNumber, Triple position, double angle) {
+            published.add(position);
+          }
+        },
+        200,
+        250,
+        10.0);
+  }
+
+  @Test
+  public void shouldKeepMostRecentSamplesOldestFirst() {
+    for (int i = 1; i <= 6; i++) {
+      history.addSample(i, new Triple(i, 0, 0), i);
+    }
+
+    List<TelemetryHistory.Sample> samples = history.getSamples(0);
+    assertEquals(4, samples.size());
+    assertEquals(3, samples.get(0).getTimestamp());
+    assertEquals(6, samples.get(3).getTimestamp());
+    assertEquals(new Triple(6, 0, 0), samples.get(3).getPrecisePosition());
+    assertEquals(2, history.getSamples(5).size());
+  }
+
+  @Test
+  public void shouldPublishSignificantChangesImmediately() {
+    publisher.updatePosition(new Triple(0, 0, 0));
+    publisher.updatePosition(new Triple(1000, 0, 0));
+
+    assertEquals(new Triple(0, 0, 0), published.poll());
+    assertEquals(new Triple(1000, 0, 0), published.poll());
+  }
+
+  @Test
+  public void shouldPublishHeldBackSampleAfterInterval()
+      throws InterruptedException {
+    publisher.updatePosition(new Triple(0, 0, 0));
+    publisher.updatePosition(new Triple(10, 0, 0));
+    publisher.updatePosition(new Triple(20, 0, 0));
+
+    assertEquals(new Triple(0, 0, 0), published.poll());
+    assertNull(published.poll());
+    assertEquals(new Triple(20, 0, 0), published.poll(2, TimeUnit.SECONDS));
+    assertNull(published.poll(400, TimeUnit.MILLISECONDS));
+    assertEquals(new Triple(20, 0, 0), publisher.getLatestPosition());
+  }
+
+  @Test
+  public void shouldRecordAllSamplesAndNotifyListeners() {
+    final AtomicInteger notifications = new AtomicInteger();
+    history.addListener(new TelemetryListener() {
+      @Override
+      public void telemetrySampled(long timestamp,
+                                   Triple precisePosition,
+                                   double orientationAngle) {
+        notifications.incrementAndGet();
+      }
+    });
+    publisher.update(new Triple(0, 0, 0), 0.0);
+    publisher.updateAngle(1.0);
+    publisher.updateAngle(2.0);
+
+    assertEquals(3, notifications.get());
+    assertEquals(3, history.getSampleCount());
+    assertEquals(1, published.size());
+    assertEquals(2.0, history.getSamples(0).get(2).getOrientationAngle(), 0.0);
+  }
+}
@@ -7,11 +7,18 @@ package org.opentcs.drivers;
 import java.util.LinkedList;
 import java.util.List;
 import org.junit.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import org.opentcs.access.LocalKernel;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.data.model.Point;
 import org.opentcs.data.model.Triple;
 import org.opentcs.data.model.Vehicle;
@@ -61,6 +68,8 @@ public class VehicleManagerTest {
                                                      vehicle.getReference());
     doReturn(vehicle).when(localKernel).getTCSObject(Vehicle.class,
                                                      vehicle.getName());
+    doReturn(vehicle).when(localKernel).updateVehicle(eq(vehicle.getReference()),
+                                                      any(VehicleUpdate.class));
 
     vehicleManager = new StandardVehicleController(vehicle, commAdapter, localKernel);
   }
@@ -80,8 +89,12 @@ public class VehicleManagerTest {
 
     vehicleManager.setVehiclePosition(A_POINT_NAME);
 
-    verify(localKernel, times(1)).setVehiclePosition(vehicle.getReference(),
-                                                     point.getReference());
+    VehicleUpdate update = verifyVehicleUpdate();
+    assertTrue(update.isPositionSet());
+    assertEquals(point.getReference(), update.getPosition());
+    assertTrue(update.isNextPositionSet());
+    assertEquals(null, update.getNextPosition());
+    assertFalse(update.isRouteProgressIndexSet());
   }
 
   @Test
@@ -89,8 +102,10 @@ public class VehicleManagerTest {
     Triple newPos = new Triple(211, 391, 0);
     vehicleManager.setVehiclePrecisePosition(newPos);
 
-    verify(localKernel, times(1)).setVehiclePrecisePosition(vehicle.getReference(),
-                                                            newPos);
+    VehicleUpdate update = verifyVehicleUpdate();
+    assertTrue(update.isPrecisePositionSet());
+    assertEquals(newPos, update.getPrecisePosition());
+    assertFalse(update.isPositionSet());
   }
 
   @Test
@@ -98,16 +113,32 @@ public class VehicleManagerTest {
     double newAngle = 7.5;
     vehicleManager.setVehicleOrientationAngle(newAngle);
 
-    verify(localKernel, times(1)).setVehicleOrientationAngle(vehicle.getReference(),
-                                                             newAngle);
+    VehicleUpdate update = verifyVehicleUpdate();
+    assertTrue(update.isOrientationAngleSet());
+    assertEquals(newAngle, update.getOrientationAngle(), 0.0);
+  }
+
+  @Test
+  public void testSetVehiclePrecisePositionAndAngle() {
+    Triple newPos = new Triple(211, 391, 0);
+    vehicleManager.setVehiclePrecisePositionAndAngle(newPos, 7.5);
+
+    VehicleUpdate update = verifyVehicleUpdate();
+    assertTrue(update.isPrecisePositionSet());
+    assertEquals(newPos, update.getPrecisePosition());
+    assertTrue(update.isOrientationAngleSet());
+    assertEquals(7.5, update.getOrientationAngle(), 0.0);
+    assertFalse(update.isPositionSet());
   }
 
   @Test
   public void testSetVehicleEnergyLevel() {
     int newLevel = 80;
     vehicleManager.setVehicleEnergyLevel(newLevel);
-    verify(localKernel, times(1)).setVehicleEnergyLevel(vehicle.getReference(),
-                                                        newLevel);
+
+    VehicleUpdate update = verifyVehicleUpdate();
+    assertTrue(update.isEnergyLevelSet());
+    assertEquals(newLevel, update.getEnergyLevel());
   }
 
   @Test
@@ -135,4 +166,18 @@ public class VehicleManagerTest {
     verify(localKernel, times(1)).setVehicleAdapterState(vehicle.getReference(),
                                                          CommunicationAdapter.State.UNKNOWN);
   }
+
+  /**
+   * Verifies that the vehicle was updated exactly once and returns the update
+   * applied.
+   *
+   * @return The update applied.
+   */
+  private VehicleUpdate verifyVehicleUpdate() {
+    ArgumentCaptor<VehicleUpdate> captor
+        = ArgumentCaptor.forClass(VehicleUpdate.class);
+    verify(localKernel, times(1)).updateVehicle(eq(vehicle.getReference()),
+                                                captor.capture());
+    return captor.getValue();
+  }
 }
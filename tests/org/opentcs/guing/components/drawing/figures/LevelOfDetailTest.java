@@ -0,0 +1,62 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.components.drawing.figures;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.*;
+
+/**
+ * Unit tests for {@link LevelOfDetail}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LevelOfDetailTest {
+
+  private Graphics2D g;
+
+  @Before
+  public void setUp() {
+    g = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).createGraphics();
+  }
+
+  @After
+  public void tearDown() {
+    g.dispose();
+  }
+
+  @Test
+  public void shouldDrawAllDetailsAtFullScale() {
+    assertEquals(1.0, LevelOfDetail.getScale(g), 0.0001);
+    assertTrue(LevelOfDetail.isLabelDrawn(g));
+    assertTrue(LevelOfDetail.isDecorationDrawn(g));
+    assertTrue(LevelOfDetail.isSymbolDrawn(g));
+  }
+
+  @Test
+  public void shouldLeaveOutLabelsAndSymbolsAtSmallScale() {
+    g.translate(-100, -50);
+    g.scale(0.3, 0.3);
+    assertEquals(0.3, LevelOfDetail.getScale(g), 0.0001);
+    assertFalse(LevelOfDetail.isLabelDrawn(g));
+    assertTrue(LevelOfDetail.isDecorationDrawn(g));
+    assertFalse(LevelOfDetail.isSymbolDrawn(g));
+  }
+
+  @Test
+  public void shouldConsiderRotation() {
+    g.rotate(Math.PI / 2);
+    g.scale(0.2, 0.2);
+    assertEquals(0.2, LevelOfDetail.getScale(g), 0.0001);
+    assertFalse(LevelOfDetail.isDecorationDrawn(g));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.exchange;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.opentcs.access.SharedKernelProvider;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.guing.exchange.adapter.ProcessAdapter;
+import org.opentcs.guing.model.elements.PointModel;
+
+/**
+ * Unit tests for {@link AbstractEventDispatcher}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class AbstractEventDispatcherTest {
+
+  private AbstractEventDispatcher dispatcher;
+
+  @Before
+  public void setUp() {
+    dispatcher
+        = new AbstractEventDispatcher(mock(SharedKernelProvider.class)) {
+          @Override
+          public void register() {
+          }
+
+          @Override
+          public void release() {
+          }
+        };
+  }
+
+  @Test
+  public void shouldFindAdapterByReference() {
+    PointModel point = createPoint("Point-01");
+    ProcessAdapter adapter = createAdapter(point);
+    dispatcher.addProcessAdapter(adapter);
+
+    assertSame(adapter, dispatcher.findProcessAdapter(createRef("Point-01")));
+    assertNull(dispatcher.findProcessAdapter(createRef("Point-02")));
+  }
+
+  @Test
+  public void shouldFindAdapterAddedBeforeNameWasSet() {
+    PointModel point = createPoint("");
+    ProcessAdapter adapter = createAdapter(point);
+    dispatcher.addProcessAdapter(adapter);
+
+    // Like OpenTCSModelManager, set the name without notifying listeners.
+    point.setName("Point-01");
+
+    assertSame(adapter, dispatcher.findProcessAdapter(createRef("Point-01")));
+
+    point.setName("Point-02");
+
+    assertSame(adapter, dispatcher.findProcessAdapter(createRef("Point-02")));
+    assertNull(dispatcher.findProcessAdapter(createRef("Point-01")));
+  }
+
+  @Test
+  public void shouldForgetRemovedAdapters() {
+    PointModel point = createPoint("Point-01");
+    ProcessAdapter adapter = createAdapter(point);
+    dispatcher.addProcessAdapter(adapter);
+    dispatcher.removeProcessAdapter(adapter);
+
+    assertNull(dispatcher.findProcessAdapter(createRef("Point-01")));
+  }
+
+  private PointModel createPoint(String name) {
+    PointModel point = new PointModel();
+    point.setName(name);
+    return point;
+  }
+
+  private ProcessAdapter createAdapter(PointModel point) {
+    ProcessAdapter adapter = mock(ProcessAdapter.class);
+    when(adapter.getModel()).thenReturn(point);
+    return adapter;
+  }
+
+  private TCSObjectReference<Point> createRef(String name) {
+    return new Point(1, name).getReference();
+  }
+}
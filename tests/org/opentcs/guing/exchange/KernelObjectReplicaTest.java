@@ -0,0 +1,136 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.exchange;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opentcs.access.Kernel;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.util.eventsystem.EventFilter;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class KernelObjectReplicaTest {
+
+  /**
+   * A (mocked) kernel.
+   */
+  private Kernel kernel;
+  /**
+   * The replica to be tested.
+   */
+  private KernelObjectReplica replica;
+
+  @Before
+  public void setUp() {
+    kernel = mock(Kernel.class);
+    replica = new KernelObjectReplica();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldBeSeededOnConnect() {
+    Vehicle vehicle = new Vehicle(1, "Vehicle-01");
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(Collections.singleton(vehicle));
+
+    replica.connect(kernel);
+
+    assertTrue(replica.isConnected());
+    verify(kernel).addEventListener(any(KernelObjectReplica.class),
+                                    any(EventFilter.class));
+    assertSame(vehicle,
+               replica.getObject(Vehicle.class, vehicle.getReference()));
+    assertEquals(1, replica.getObjects(Vehicle.class).size());
+  }
+
+  @Test
+  public void shouldApplyObjectEvents() {
+    Vehicle vehicle = new Vehicle(1, "Vehicle-01");
+    replica.connect(kernel);
+
+    replica.processEvent(
+        new TCSObjectEvent(vehicle, null, TCSObjectEvent.Type.OBJECT_CREATED));
+    assertSame(vehicle,
+               replica.getObject(Vehicle.class, vehicle.getReference()));
+
+    Vehicle modified = vehicle.clone();
+    modified.setEnergyLevel(42);
+    replica.processEvent(
+        new TCSObjectEvent(modified, vehicle, TCSObjectEvent.Type.OBJECT_MODIFIED));
+    assertSame(modified,
+               replica.getObject(Vehicle.class, vehicle.getReference()));
+
+    replica.processEvent(
+        new TCSObjectEvent(null, modified, TCSObjectEvent.Type.OBJECT_REMOVED));
+    assertNull(replica.getObject(Vehicle.class, vehicle.getReference()));
+  }
+
+  @Test
+  public void shouldPreferEventsOverSeedData() {
+    final Vehicle seeded = new Vehicle(1, "Vehicle-01");
+    final Vehicle modified = seeded.clone();
+    modified.setEnergyLevel(42);
+    final Vehicle removed = new Vehicle(2, "Vehicle-02");
+    final Set<Vehicle> seedData = new HashSet<>();
+    seedData.add(seeded);
+    seedData.add(removed);
+    // Simulate events arriving while the replica fetches the seed data.
+    when(kernel.getTCSObjects(Vehicle.class)).thenAnswer(new Answer<Set<Vehicle>>() {
+      @Override
+      public Set<Vehicle> answer(InvocationOnMock invocation) {
+        replica.processEvent(new TCSObjectEvent(
+            modified, seeded, TCSObjectEvent.Type.OBJECT_MODIFIED));
+        replica.processEvent(new TCSObjectEvent(
+            null, removed, TCSObjectEvent.Type.OBJECT_REMOVED));
+        return seedData;
+      }
+    });
+
+    replica.connect(kernel);
+
+    assertSame(modified,
+               replica.getObject(Vehicle.class, seeded.getReference()));
+    assertNull(replica.getObject(Vehicle.class, removed.getReference()));
+  }
+
+  @Test
+  public void shouldBeClearedOnDisconnect() {
+    Vehicle vehicle = new Vehicle(1, "Vehicle-01");
+    replica.connect(kernel);
+    replica.processEvent(
+        new TCSObjectEvent(vehicle, null, TCSObjectEvent.Type.OBJECT_CREATED));
+
+    replica.disconnect();
+
+    assertFalse(replica.isConnected());
+    verify(kernel).removeEventListener(replica);
+    assertTrue(replica.getObjects(Vehicle.class).isEmpty());
+  }
+
+  @Test
+  public void shouldIgnoreNonObjectEvents() {
+    replica.connect(kernel);
+    replica.processEvent(mock(TCSEvent.class));
+    assertTrue(replica.getObjects(Vehicle.class).isEmpty());
+  }
+}
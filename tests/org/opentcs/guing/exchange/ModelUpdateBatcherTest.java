@@ -0,0 +1,90 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.exchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ModelUpdateBatcherTest {
+
+  /**
+   * The object states applied, in the order they were applied.
+   */
+  private List<TCSObject<?>> appliedStates;
+  /**
+   * The batcher to be tested.
+   */
+  private ModelUpdateBatcher batcher;
+
+  @Before
+  public void setUp() {
+    appliedStates = new ArrayList<>();
+    // A low frame rate, so the timer does not interfere with the tests.
+    batcher = new ModelUpdateBatcher(new ModelUpdateBatcher.UpdateHandler() {
+      @Override
+      public void applyUpdate(TCSObject<?> objectState) {
+        appliedStates.add(objectState);
+      }
+    }, 1);
+  }
+
+  @After
+  public void tearDown() {
+    batcher.clear();
+  }
+
+  @Test
+  public void shouldApplyOnlyLatestStatePerObject() {
+    Vehicle vehicle = new Vehicle(1, "Vehicle-01");
+    Point point = new Point(2, "Point-01");
+    Vehicle modifiedVehicle = vehicle.clone();
+    modifiedVehicle.setEnergyLevel(50);
+
+    batcher.enqueue(vehicle);
+    batcher.enqueue(point);
+    batcher.enqueue(modifiedVehicle);
+    assertEquals(2, batcher.getPendingCount());
+
+    batcher.applyPendingUpdates();
+
+    assertEquals(0, batcher.getPendingCount());
+    assertEquals(2, appliedStates.size());
+    assertSame(modifiedVehicle, appliedStates.get(0));
+    assertSame(point, appliedStates.get(1));
+  }
+
+  @Test
+  public void shouldDiscardPendingStatesOnClear() {
+    batcher.enqueue(new Vehicle(1, "Vehicle-01"));
+
+    batcher.clear();
+    batcher.applyPendingUpdates();
+
+    assertEquals(0, batcher.getPendingCount());
+    assertTrue(appliedStates.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectFrameRateLessThanOne() {
+    new ModelUpdateBatcher(new ModelUpdateBatcher.UpdateHandler() {
+      @Override
+      public void applyUpdate(TCSObject<?> objectState) {
+      }
+    }, 0);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.guing.model;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.*;
+import org.opentcs.guing.components.properties.event.AttributesChangeEvent;
+import org.opentcs.guing.components.properties.event.AttributesChangeListener;
+import org.opentcs.guing.model.elements.PointModel;
+
+/**
+ * Unit tests for {@link IndexedFolder}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class IndexedFolderTest {
+
+  private IndexedFolder folder;
+
+  @Before
+  public void setUp() {
+    folder = new IndexedFolder("Points");
+  }
+
+  @Test
+  public void shouldFindChildrenByName() {
+    PointModel point1 = createPoint("Point-01");
+    PointModel point2 = createPoint("Point-02");
+    folder.add(point1);
+    folder.add(point2);
+
+    assertSame(point1, folder.getChild("Point-01"));
+    assertSame(point2, folder.getChild("Point-02"));
+    assertNull(folder.getChild("Point-03"));
+  }
+
+  @Test
+  public void shouldForgetRemovedChildren() {
+    PointModel point = createPoint("Point-01");
+    folder.add(point);
+    folder.remove(point);
+
+    assertNull(folder.getChild("Point-01"));
+  }
+
+  @Test
+  public void shouldFindRenamedChildren() {
+    PointModel point = createPoint("Point-01");
+    folder.add(point);
+
+    point.setName("Point-02");
+    // Like the properties panel, notify listeners other than the initiator.
+    point.propertiesChanged(new AttributesChangeListener() {
+      @Override
+      public void propertiesChanged(AttributesChangeEvent e) {
+      }
+    });
+
+    assertNull(folder.getChild("Point-01"));
+    assertSame(point, folder.getChild("Point-02"));
+  }
+
+  @Test
+  public void shouldFindChildrenRenamedWithoutNotification() {
+    PointModel point = createPoint("Point-01");
+    folder.add(point);
+
+    point.setName("Point-02");
+
+    assertSame(point, folder.getChild("Point-02"));
+    assertNull(folder.getChild("Point-01"));
+  }
+
+  @Test
+  public void shouldFindRemainingChildWithSameName() {
+    PointModel point1 = createPoint("Point-01");
+    PointModel point2 = createPoint("Point-01");
+    folder.add(point1);
+    folder.add(point2);
+
+    assertSame(point1, folder.getChild("Point-01"));
+    folder.remove(point1);
+    assertSame(point2, folder.getChild("Point-01"));
+  }
+
+  private PointModel createPoint(String name) {
+    PointModel point = new PointModel();
+    point.setName(name);
+    return point;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.dispatching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opentcs.algorithms.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Unit tests for {@link CandidateEvaluator}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class CandidateEvaluatorTest {
+
+  private Router router;
+  private List<Vehicle> vehicles;
+  private List<TransportOrder> orders;
+  private CandidateEvaluator evaluator;
+
+  @Before
+  public void setUp() {
+    router = mock(Router.class);
+    // Costs depend on vehicle, position and the order's destination only.
+    when(router.getCosts(any(Vehicle.class),
+                         any(Point.class),
+                         any(TransportOrder.class)))
+        .thenAnswer(new Answer<Long>() {
+          @Override
+          public Long answer(InvocationOnMock invocation) {
+            Object[] args = invocation.getArguments();
+            Vehicle vehicle = (Vehicle) args[0];
+            Point position = (Point) args[1];
+            TransportOrder order = (TransportOrder) args[2];
+            String destName = order.getFutureDriveOrders().get(0)
+                .getDestination().getLocation().getName();
+            if (destName.endsWith("-3")) {
+              return Long.MAX_VALUE;
+            }
+            return vehicle.getId() * 1000L + position.getId() * 100L
+                + destName.hashCode() % 100;
+          }
+        });
+
+    vehicles = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      vehicles.add(new Vehicle(i + 1, "Vehicle-" + i));
+    }
+    LocationType locType = new LocationType(99, "Location type");
+    orders = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      TCSObjectReference<Location> locRef
+          = new Location(100 + i % 5,
+                         "Location-" + i % 5,
+                         locType.getReference()).getReference();
+      orders.add(new TransportOrder(
+          200 + i,
+          "Order-" + i,
+          Collections.singletonList(new DriveOrder.Destination(locRef,
+                                                               "Load"))));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if (evaluator != null) {
+      evaluator.terminate();
+    }
+  }
+
+  @Test
+  public void shouldEvaluateInParallelLikeSequentially() {
+    List<CandidateEvaluator.Candidate> sequential = createCandidates();
+    CandidateEvaluator sequentialEvaluator = new CandidateEvaluator(router,
+                                                                    1000,
+                                                                    1);
+    sequentialEvaluator.initialize();
+    sequentialEvaluator.evaluate(sequential);
+    sequentialEvaluator.terminate();
+
+    List<CandidateEvaluator.Candidate> parallel = createCandidates();
+    evaluator = new CandidateEvaluator(router, 1000, 4);
+    evaluator.initialize();
+    assertEquals(8, evaluator.getBatchSize());
+    evaluator.evaluate(parallel);
+
+    assertCostsEqual(sequential, parallel);
+  }
+
+  @Test
+  public void shouldEvaluateSequentiallyAndKeepInterruptFlag() {
+    List<CandidateEvaluator.Candidate> sequential = createCandidates();
+    CandidateEvaluator sequentialEvaluator = new CandidateEvaluator(router,
+                                                                    1000,
+                                                                    1);
+    sequentialEvaluator.evaluate(sequential);
+
+    List<CandidateEvaluator.Candidate> parallel = createCandidates();
+    evaluator = new CandidateEvaluator(router, 1000, 4);
+    evaluator.initialize();
+    Thread.currentThread().interrupt();
+    evaluator.evaluate(parallel);
+
+    // Also clears the flag again for the following tests.
+    assertTrue(Thread.interrupted());
+    assertCostsEqual(sequential, parallel);
+  }
+
+  private List<CandidateEvaluator.Candidate> createCandidates() {
+    List<CandidateEvaluator.Candidate> result = new ArrayList<>();
+    for (Vehicle vehicle : vehicles) {
+      Point position = new Point(vehicle.getId() + 10,
+                                 "Point-" + vehicle.getId());
+      for (TransportOrder order : orders) {
+        result.add(new CandidateEvaluator.Candidate(vehicle, position, order));
+      }
+    }
+    return result;
+  }
+
+  private void assertCostsEqual(List<CandidateEvaluator.Candidate> expected,
+                                List<CandidateEvaluator.Candidate> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getCosts(), actual.get(i).getCosts());
+      assertEquals(expected.get(i).isRoutable(), actual.get(i).isRoutable());
+    }
+  }
+}
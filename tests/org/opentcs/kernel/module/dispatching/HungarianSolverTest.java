@@ -0,0 +1,78 @@
+package org.opentcs.kernel.module.dispatching;
+
+import org.junit.*;
+import static org.opentcs.kernel.module.dispatching.HungarianSolver.INFEASIBLE;
+import static org.opentcs.kernel.module.dispatching.HungarianSolver.UNASSIGNED;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class HungarianSolverTest {
+
+  /**
+   * A deadline that will not pass during any test.
+   */
+  private long noDeadline;
+
+  @Before
+  public void setUp() {
+    noDeadline = System.nanoTime() + 60_000_000_000L;
+  }
+
+  @Test
+  public void shouldFindGlobalOptimumWhereGreedyFails() {
+    // Greedily, row 0 would take column 0 (costs 1) and leave row 1 with
+    // costs 100. The optimum is 2 + 2.
+    long[][] costs = {{1, 2},
+                      {2, 100}};
+    int[] result = HungarianSolver.solve(costs, noDeadline);
+    Assert.assertArrayEquals(new int[] {1, 0}, result);
+  }
+
+  @Test
+  public void shouldHandleMoreColumnsThanRows() {
+    long[][] costs = {{5, 1, 9},
+                      {4, 2, 8}};
+    int[] result = HungarianSolver.solve(costs, noDeadline);
+    Assert.assertArrayEquals(new int[] {1, 0}, result);
+  }
+
+  @Test
+  public void shouldHandleMoreRowsThanColumns() {
+    long[][] costs = {{5, 3},
+                      {1, 9},
+                      {7, 2}};
+    int[] result = HungarianSolver.solve(costs, noDeadline);
+    Assert.assertArrayEquals(new int[] {UNASSIGNED, 0, 1}, result);
+  }
+
+  @Test
+  public void shouldNeverAssignInfeasibleCombinations() {
+    long[][] costs = {{INFEASIBLE, INFEASIBLE},
+                      {3, INFEASIBLE}};
+    int[] result = HungarianSolver.solve(costs, noDeadline);
+    Assert.assertArrayEquals(new int[] {UNASSIGNED, 0}, result);
+  }
+
+  @Test
+  public void shouldPreferFeasibleOverInfeasible() {
+    long[][] costs = {{1000000, INFEASIBLE},
+                      {1, 2}};
+    int[] result = HungarianSolver.solve(costs, noDeadline);
+    Assert.assertArrayEquals(new int[] {0, 1}, result);
+  }
+
+  @Test
+  public void shouldAssignGreedilyAfterDeadline() {
+    long[][] costs = {{1, 2},
+                      {2, 100}};
+    int[] result = HungarianSolver.solve(costs, System.nanoTime() - 1);
+    Assert.assertArrayEquals(new int[] {0, 1}, result);
+  }
+
+  @Test
+  public void shouldHandleEmptyMatrix() {
+    Assert.assertEquals(0, HungarianSolver.solve(new long[0][0], noDeadline).length);
+  }
+}
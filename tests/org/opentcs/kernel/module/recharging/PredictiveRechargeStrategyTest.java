@@ -0,0 +1,273 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.recharging;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.algorithms.Router;
+import org.opentcs.data.ObjectPropConstants;
+import org.opentcs.data.model.Block;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Unit tests for {@link PredictiveRechargeStrategy}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class PredictiveRechargeStrategyTest {
+
+  private LocalKernel kernel;
+  private Router router;
+  private Vehicle vehicle;
+  private Point vehiclePoint;
+  private Point destPoint;
+  private LocationType chargerType;
+  private Location charger1;
+  private Location charger2;
+  private Point accessPoint1;
+  private Point accessPoint2;
+
+  @Before
+  public void setUp() {
+    kernel = mock(LocalKernel.class);
+    router = mock(Router.class);
+
+    vehicle = new Vehicle(1, "Vehicle-01");
+    vehiclePoint = new Point(2, "Point-01");
+    destPoint = new Point(3, "Point-02");
+    vehicle.setCurrentPosition(vehiclePoint.getReference());
+    vehicle.setState(Vehicle.State.IDLE);
+    vehicle.setProcState(Vehicle.ProcState.IDLE);
+
+    chargerType = new LocationType(10, "Charger type");
+    chargerType.addAllowedOperation(vehicle.getRechargeOperation());
+    accessPoint1 = new Point(11, "Access-01");
+    accessPoint2 = new Point(12, "Access-02");
+    charger1 = createCharger(13, "Charger-01", accessPoint1);
+    charger2 = createCharger(14, "Charger-02", accessPoint2);
+
+    when(kernel.getTCSObjects(Block.class)).thenReturn(new HashSet<Block>());
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(Collections.singleton(vehicle));
+    when(kernel.getTCSObjects(Location.class))
+        .thenReturn(new LinkedHashSet<>(Arrays.asList(charger1, charger2)));
+    when(kernel.getTCSObjects(TransportOrder.class))
+        .thenReturn(new HashSet<TransportOrder>());
+    when(kernel.getTCSObject(LocationType.class, chargerType.getReference()))
+        .thenReturn(chargerType);
+    for (Point point : Arrays.asList(vehiclePoint, destPoint,
+                                     accessPoint1, accessPoint2)) {
+      when(kernel.getTCSObject(Point.class, point.getReference()))
+          .thenReturn(point);
+    }
+    when(router.getTargetedPoints()).thenReturn(new HashSet<Point>());
+  }
+
+  @Test
+  public void shouldRequireRechargeIfChargerNotReachableAfterOrder() {
+    // Travelling 100 m to the destination, operating there and travelling
+    // another 100 m to a charger consumes 10.5 percent.
+    when(router.getRoute(vehicle, destPoint, accessPoint1))
+        .thenReturn(createRoute(destPoint, accessPoint1, 100000));
+    when(router.getRoute(vehicle, destPoint, accessPoint2))
+        .thenReturn(createRoute(destPoint, accessPoint2, 200000));
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+    List<DriveOrder> driveOrders = createDriveOrders(100000);
+
+    vehicle.setEnergyLevel(40);
+    assertTrue(strategy.isRechargeRequired(vehicle, driveOrders));
+
+    vehicle.setEnergyLevel(41);
+    assertFalse(strategy.isRechargeRequired(vehicle, driveOrders));
+    // The distance to the nearest charger is only computed once, with one
+    // route per access point.
+    verify(router, times(2)).getRoute(eq(vehicle), eq(destPoint),
+                                      any(Point.class));
+  }
+
+  @Test
+  public void shouldUseVehicleMovementEnergy() {
+    // 20 W at 1 m/s with a capacity of 1000 Ws consume 2 percent per meter.
+    vehicle.setProperty(ObjectPropConstants.VIRTUAL_VEHICLE_MOVEMENT_ENERGY,
+                        "20");
+    vehicle.setMaxVelocity(1000);
+    when(router.getRoute(vehicle, destPoint, accessPoint1))
+        .thenReturn(createRoute(destPoint, accessPoint1, 1000));
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+
+    vehicle.setEnergyLevel(60);
+    assertTrue(strategy.isRechargeRequired(vehicle, createDriveOrders(14000)));
+    assertFalse(strategy.isRechargeRequired(vehicle, createDriveOrders(13000)));
+  }
+
+  @Test
+  public void shouldNotRequireRechargeWithGoodEnergyLevel() {
+    when(router.getRoute(vehicle, destPoint, accessPoint1))
+        .thenReturn(createRoute(destPoint, accessPoint1, 100000));
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+
+    vehicle.setEnergyLevel(95);
+    assertFalse(strategy.isRechargeRequired(vehicle,
+                                            createDriveOrders(10000000)));
+  }
+
+  @Test
+  public void shouldSpreadUseOfChargers() {
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+
+    Location first = strategy.getRechargeLocation(vehicle);
+    TransportOrder order = createDispatchableOrder(30, first);
+    when(kernel.getTCSObjects(TransportOrder.class))
+        .thenReturn(Collections.singleton(order));
+    Location second = strategy.getRechargeLocation(vehicle);
+
+    assertNotEquals(first, second);
+    assertEquals(1000, strategy.getLocationPenalty(first));
+
+    // Once the order is finished, the location is free again.
+    order.setState(TransportOrder.State.FINISHED);
+    assertEquals(first, strategy.getRechargeLocation(vehicle));
+  }
+
+  @Test
+  public void shouldCountChoicesUntilNextDemandUpdate() {
+    PredictiveRechargeStrategy strategy
+        = new PredictiveRechargeStrategy(kernel,
+                                         router,
+                                         new EnergyModel(0.05, 0.5, 1000.0),
+                                         1,
+                                         1000,
+                                         Long.MAX_VALUE);
+
+    Location first = strategy.getRechargeLocation(vehicle);
+    Location second = strategy.getRechargeLocation(vehicle);
+    vehicle.setEnergyLevel(50);
+    strategy.isRechargeAdvisable(vehicle);
+
+    assertNotEquals(first, second);
+    // Vehicles and orders are only read once within the update interval.
+    verify(kernel, times(1)).getTCSObjects(TransportOrder.class);
+  }
+
+  @Test
+  public void shouldAdviseRechargeOnlyWithLowDemand() {
+    Vehicle otherVehicle = new Vehicle(20, "Vehicle-02");
+    otherVehicle.setCurrentPosition(destPoint.getReference());
+    otherVehicle.setState(Vehicle.State.IDLE);
+    otherVehicle.setProcState(Vehicle.ProcState.IDLE);
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(new HashSet<>(Arrays.asList(vehicle, otherVehicle)));
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+    vehicle.setEnergyLevel(50);
+
+    when(kernel.getTCSObjects(TransportOrder.class))
+        .thenReturn(Collections.singleton(createDispatchableOrder(30,
+                                                                  charger1)));
+    assertTrue(strategy.isRechargeAdvisable(vehicle));
+
+    when(kernel.getTCSObjects(TransportOrder.class))
+        .thenReturn(new HashSet<>(Arrays.asList(
+            createDispatchableOrder(30, charger1),
+            createDispatchableOrder(31, charger1))));
+    assertFalse(strategy.isRechargeAdvisable(vehicle));
+  }
+
+  @Test
+  public void shouldAdviseRechargeForLowestEnergyLevelFirst() {
+    Vehicle otherVehicle = new Vehicle(20, "Vehicle-02");
+    otherVehicle.setCurrentPosition(destPoint.getReference());
+    otherVehicle.setState(Vehicle.State.IDLE);
+    otherVehicle.setProcState(Vehicle.ProcState.IDLE);
+    otherVehicle.setEnergyLevel(40);
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(new HashSet<>(Arrays.asList(vehicle, otherVehicle)));
+    PredictiveRechargeStrategy strategy = createStrategy(1);
+
+    vehicle.setEnergyLevel(50);
+    assertFalse(strategy.isRechargeAdvisable(vehicle));
+
+    vehicle.setEnergyLevel(35);
+    assertTrue(strategy.isRechargeAdvisable(vehicle));
+
+    // With the only charger in use by the other vehicle, there is no chance.
+    otherVehicle.setState(Vehicle.State.CHARGING);
+    assertFalse(strategy.isRechargeAdvisable(vehicle));
+  }
+
+  private PredictiveRechargeStrategy createStrategy(int maxRechargingVehicles) {
+    return new PredictiveRechargeStrategy(kernel,
+                                          router,
+                                          new EnergyModel(0.05, 0.5, 1000.0),
+                                          maxRechargingVehicles,
+                                          1000,
+                                          0);
+  }
+
+  private Location createCharger(int id, String name, Point accessPoint) {
+    Location location = new Location(id, name, chargerType.getReference());
+    Location.Link link = new Location.Link(location.getReference(),
+                                          accessPoint.getReference());
+    location.attachLink(link);
+    accessPoint.attachLink(link);
+    return location;
+  }
+
+  private TransportOrder createDispatchableOrder(int id, Location location) {
+    TransportOrder order = new TransportOrder(
+        id,
+        "Order-" + id,
+        Collections.singletonList(
+            new DriveOrder.Destination(location.getReference(), "Unload")));
+    order.setState(TransportOrder.State.DISPATCHABLE);
+    return order;
+  }
+
+  private List<DriveOrder> createDriveOrders(long length) {
+    DriveOrder driveOrder = new DriveOrder(
+        new DriveOrder.Destination(charger1.getReference(), "Unload"));
+    driveOrder.setRoute(createRoute(vehiclePoint, destPoint, length));
+    return Collections.singletonList(driveOrder);
+  }
+
+  private Route createRoute(Point srcPoint, Point destPoint, long length) {
+    Path path = new Path(100 + destPoint.getId(),
+                         srcPoint.getName() + " --- " + destPoint.getName(),
+                         srcPoint.getReference(),
+                         destPoint.getReference());
+    path.setLength(length);
+    return new Route(
+        Collections.singletonList(new Route.Step(path,
+                                                 destPoint,
+                                                 Vehicle.Orientation.FORWARD,
+                                                 0)),
+        length);
+  }
+}
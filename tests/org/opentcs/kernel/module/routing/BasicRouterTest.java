@@ -4,13 +4,23 @@
  */
 package org.opentcs.kernel.module.routing;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Logger;
+import javax.inject.Provider;
 import static org.junit.Assert.assertEquals;
 import org.junit.*;
+import org.opentcs.access.LocalKernel;
 import org.opentcs.algorithms.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Path;
 import org.opentcs.data.model.Point;
 import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
 import org.opentcs.data.order.Route;
+import org.opentcs.data.order.TransportOrder;
 import org.opentcs.kernel.workingset.Model;
 import org.opentcs.util.ModelGenerator;
 
@@ -68,4 +78,238 @@ public class BasicRouterTest {
                                          model.getPoint("Point-19"));
     assertEquals(expectedCosts, route.getCosts());
   }
+
+  /**
+   * Verify that the costs computed for a transport order match the costs of
+   * the route computed for it.
+   */
+  @Test
+  public void orderCostsShouldMatchRouteCosts() {
+    Model model = ModelGenerator.getRingModel(20, 5);
+    for (Point curPoint : model.getPoints(null)) {
+      curPoint.setType(Point.Type.HALT_POSITION);
+    }
+    Vehicle vehicle = model.createVehicle(null);
+    Router router = new BasicRouter(
+        model,
+        new RoutingTableBuilderBfs(new RouteEvaluatorDistance(new RouteEvaluatorNull()),
+                                   true),
+        false);
+    router.updateRoutingTables();
+    List<DriveOrder.Destination> dests = new ArrayList<>();
+    dests.add(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-12"),
+        DriveOrder.Destination.OP_MOVE));
+    dests.add(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-3"),
+        DriveOrder.Destination.OP_MOVE));
+    TransportOrder order = new TransportOrder(1000, "order", dests);
+    Point source = model.getPoint("Point-7");
+
+    List<DriveOrder> driveOrders = router.getRoute(vehicle, source, order);
+    long routeCosts = 0;
+    for (DriveOrder curDriveOrder : driveOrders) {
+      routeCosts += curDriveOrder.getRoute().getCosts();
+    }
+    assertEquals(routeCosts, router.getCosts(vehicle, source, order));
+    assertEquals(5000L * (5 + 11), routeCosts);
+  }
+
+  /**
+   * Verify that routes cached for transport orders are discarded when the
+   * routing tables are updated.
+   */
+  @Test
+  public void orderRoutesShouldFollowRoutingTableUpdates() {
+    Model model = ModelGenerator.getRingModel(20, 5);
+    for (Point curPoint : model.getPoints(null)) {
+      curPoint.setType(Point.Type.HALT_POSITION);
+    }
+    Vehicle vehicle = model.createVehicle(null);
+    Router router = new BasicRouter(
+        model,
+        new RoutingTableBuilderBfs(new RouteEvaluatorDistance(new RouteEvaluatorNull()),
+                                   true),
+        false);
+    router.updateRoutingTables();
+    List<DriveOrder.Destination> dests = new ArrayList<>();
+    dests.add(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-12"),
+        DriveOrder.Destination.OP_MOVE));
+    dests.add(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-3"),
+        DriveOrder.Destination.OP_MOVE));
+    TransportOrder order = new TransportOrder(1000, "order", dests);
+    Point source = model.getPoint("Point-7");
+    assertEquals(5000L * (5 + 11), router.getCosts(vehicle, source, order));
+
+    for (Path curPath : model.getPaths(null)) {
+      model.setPathLength(curPath.getReference(), 1000);
+    }
+    // Unchanged until the routing tables are updated.
+    assertEquals(5000L * (5 + 11), router.getCosts(vehicle, source, order));
+    router.updateRoutingTables();
+    assertEquals(1000L * (5 + 11), router.getCosts(vehicle, source, order));
+    List<DriveOrder> driveOrders = router.getRoute(vehicle, source, order);
+    assertEquals(2, driveOrders.size());
+    assertEquals(1000L * 5, driveOrders.get(0).getRoute().getCosts());
+    assertEquals(1000L * 11, driveOrders.get(1).getRoute().getCosts());
+  }
+
+  /**
+   * Verify that routes computed at query time avoid resources on other
+   * vehicles' selected routes.
+   */
+  @Test
+  public void shouldRouteAroundSelectedRoutesOfOtherVehicles() {
+    Model model = ModelGenerator.getBidirectionalRingModel(10, 5);
+    for (Point curPoint : model.getPoints(null)) {
+      curPoint.setType(Point.Type.HALT_POSITION);
+    }
+    Vehicle vehicle = model.createVehicle(null);
+    Vehicle otherVehicle = model.createVehicle(null);
+    RouteEvaluator evaluator
+        = new RouteEvaluatorDistance(new RouteEvaluatorNull());
+    Router router = new BasicRouter(
+        model,
+        new RoutingTableBuilderBfs(evaluator, true),
+        evaluator,
+        new CongestionMonitor(new Provider<LocalKernel>() {
+          @Override
+          public LocalKernel get() {
+            throw new UnsupportedOperationException("Not expected to be called");
+          }
+        }, 0, 100000),
+        new ReservationTable(false, 0),
+        false);
+    router.updateRoutingTables();
+    Point source = model.getPoint("Point-0");
+    Point destination = model.getPoint("Point-3");
+
+    // Without other routes selected, the shorter way is taken.
+    Route otherRoute = router.getRoute(otherVehicle, source, destination);
+    assertEquals(3, otherRoute.getSteps().size());
+    DriveOrder otherOrder = new DriveOrder(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-3"),
+        DriveOrder.Destination.OP_MOVE));
+    otherOrder.setRoute(otherRoute);
+    router.selectRoute(otherVehicle, Collections.singletonList(otherOrder));
+
+    Route route = router.getRoute(vehicle, source, destination);
+    assertEquals(7, route.getSteps().size());
+    assertEquals("Point-9",
+                 route.getSteps().get(0).getDestinationPoint().getName());
+    assertEquals(5000L * 7, route.getCosts());
+    // The vehicle's own selected route is not penalized.
+    assertEquals(3, router.getRoute(otherVehicle, source, destination)
+                 .getSteps().size());
+  }
+
+  /**
+   * Verify that costs are taken from the routing tables even while routes are
+   * computed around other vehicles' selected routes. This is intended: the
+   * dispatcher ranks vehicle/order combinations by these costs and caches
+   * them until the routing tables are updated.
+   */
+  @Test
+  public void costsShouldIgnoreCongestion() {
+    Model model = ModelGenerator.getBidirectionalRingModel(10, 5);
+    for (Point curPoint : model.getPoints(null)) {
+      curPoint.setType(Point.Type.HALT_POSITION);
+    }
+    Vehicle vehicle = model.createVehicle(null);
+    Vehicle otherVehicle = model.createVehicle(null);
+    RouteEvaluator evaluator
+        = new RouteEvaluatorDistance(new RouteEvaluatorNull());
+    Router router = new BasicRouter(
+        model,
+        new RoutingTableBuilderBfs(evaluator, true),
+        evaluator,
+        new CongestionMonitor(new Provider<LocalKernel>() {
+          @Override
+          public LocalKernel get() {
+            throw new UnsupportedOperationException("Not expected to be called");
+          }
+        }, 0, 100000),
+        new ReservationTable(false, 0),
+        false);
+    router.updateRoutingTables();
+    Point source = model.getPoint("Point-0");
+    Point destination = model.getPoint("Point-3");
+    DriveOrder otherOrder = new DriveOrder(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-3"),
+        DriveOrder.Destination.OP_MOVE));
+    otherOrder.setRoute(router.getRoute(otherVehicle, source, destination));
+    router.selectRoute(otherVehicle, Collections.singletonList(otherOrder));
+    TransportOrder order = new TransportOrder(
+        1000,
+        "order",
+        Collections.singletonList(new DriveOrder.Destination(
+            TCSObjectReference.getDummyReference(Location.class, "Point-3"),
+            DriveOrder.Destination.OP_MOVE)));
+
+    assertEquals(5000L * 7,
+                 router.getRoute(vehicle, source, destination).getCosts());
+    assertEquals(5000L * 3, router.getCosts(vehicle, source, destination));
+    List<DriveOrder> driveOrders = router.getRoute(vehicle, source, order);
+    assertEquals(5000L * 7, driveOrders.get(0).getRoute().getCosts());
+    assertEquals(5000L * 3, router.getCosts(vehicle, source, order));
+  }
+
+  /**
+   * Verify that routes planned with the reservation table avoid the time
+   * windows reserved by other vehicles.
+   */
+  @Test
+  public void shouldPlanAroundReservationsOfOtherVehicles() {
+    Model model = ModelGenerator.getBidirectionalRingModel(10, 5);
+    for (Point curPoint : model.getPoints(null)) {
+      curPoint.setType(Point.Type.HALT_POSITION);
+    }
+    Vehicle vehicle = model.createVehicle(null);
+    Vehicle otherVehicle = model.createVehicle(null);
+    RouteEvaluator evaluator
+        = new RouteEvaluatorDistance(new RouteEvaluatorNull());
+    Router router = new BasicRouter(
+        model,
+        new RoutingTableBuilderBfs(evaluator, true),
+        evaluator,
+        new CongestionMonitor(new Provider<LocalKernel>() {
+          @Override
+          public LocalKernel get() {
+            throw new UnsupportedOperationException("Not expected to be called");
+          }
+        }, 0, 0),
+        new ReservationTable(true, 1000),
+        false);
+    router.updateRoutingTables();
+
+    // The other vehicle travels from Point-5 to Point-2 and stays there.
+    Route otherRoute = router.getRoute(otherVehicle,
+                                       model.getPoint("Point-5"),
+                                       model.getPoint("Point-2"));
+    assertEquals(3, otherRoute.getSteps().size());
+    DriveOrder otherOrder = new DriveOrder(new DriveOrder.Destination(
+        TCSObjectReference.getDummyReference(Location.class, "Point-2"),
+        DriveOrder.Destination.OP_MOVE));
+    otherOrder.setRoute(otherRoute);
+    router.selectRoute(otherVehicle, Collections.singletonList(otherOrder));
+
+    // Passing Point-2 is impossible, so the vehicle takes the long way, which
+    // it travels after the other vehicle has left it.
+    Route route = router.getRoute(vehicle,
+                                  model.getPoint("Point-0"),
+                                  model.getPoint("Point-3"));
+    assertEquals(7, route.getSteps().size());
+    assertEquals("Point-9",
+                 route.getSteps().get(0).getDestinationPoint().getName());
+    assertEquals(5000L * 7, route.getCosts());
+
+    // Once the other vehicle's route is deselected, the short way is free.
+    router.selectRoute(otherVehicle, null);
+    assertEquals(3, router.getRoute(vehicle,
+                                    model.getPoint("Point-0"),
+                                    model.getPoint("Point-3"))
+                 .getSteps().size());
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.module.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderRouteCacheTest {
+
+  /**
+   * The cache under test.
+   */
+  private OrderRouteCache cache;
+  /**
+   * The vehicle used for cache entries.
+   */
+  private Vehicle vehicle;
+  /**
+   * The source point used for cache entries.
+   */
+  private Point sourcePoint;
+  /**
+   * The route cached in the tests.
+   */
+  private OrderRouteCache.OrderRoute route;
+
+  @Before
+  public void setUp() {
+    cache = new OrderRouteCache(2);
+    vehicle = new Vehicle(1, "Vehicle-01");
+    sourcePoint = new Point(2, "Point-01");
+    route = new OrderRouteCache.OrderRoute(new Point[] {sourcePoint}, 42);
+  }
+
+  @Test
+  public void shouldReturnRouteForDriveOrdersWithSameDestinations() {
+    cache.put(vehicle, sourcePoint, createDriveOrders("Location-01"), 1, route);
+
+    assertSame(route,
+               cache.get(vehicle, sourcePoint, createDriveOrders("Location-01"), 1));
+    assertNull(cache.get(vehicle, sourcePoint, createDriveOrders("Location-02"), 1));
+    assertNull(cache.get(new Vehicle(3, "Vehicle-02"),
+                         sourcePoint,
+                         createDriveOrders("Location-01"),
+                         1));
+  }
+
+  @Test
+  public void shouldDiscardRoutesWhenRoutingTablesChange() {
+    cache.put(vehicle, sourcePoint, createDriveOrders("Location-01"), 1, route);
+
+    assertNull(cache.get(vehicle, sourcePoint, createDriveOrders("Location-01"), 2));
+    assertNull(cache.get(vehicle, sourcePoint, createDriveOrders("Location-01"), 1));
+  }
+
+  @Test
+  public void shouldClearWhenFull() {
+    cache.put(vehicle, sourcePoint, createDriveOrders("Location-01"), 1, route);
+    cache.put(vehicle, sourcePoint, createDriveOrders("Location-02"), 1, route);
+    cache.put(vehicle, sourcePoint, createDriveOrders("Location-03"), 1, route);
+
+    assertNull(cache.get(vehicle, sourcePoint, createDriveOrders("Location-01"), 1));
+    assertSame(route,
+               cache.get(vehicle, sourcePoint, createDriveOrders("Location-03"), 1));
+  }
+
+  private static List<DriveOrder> createDriveOrders(String... locationNames) {
+    List<DriveOrder> result = new ArrayList<>();
+    for (String locationName : locationNames) {
+      result.add(new DriveOrder(new DriveOrder.Destination(
+          TCSObjectReference.getDummyReference(Location.class, locationName),
+          DriveOrder.Destination.OP_MOVE)));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Optional;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ * Compares load time and peak heap usage of the model readers for a large,
+ * generated model.
+ * Not a unit test - run it manually, with a fixed heap size for comparable
+ * results, e.g. with <code>-Xmx2g</code>.
+ * The only (optional) argument is the number of points per row and column of
+ * the generated grid model (default: 300, resulting in a model file of about
+ * 30 MB).
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ModelReaderBenchmark {
+
+  /**
+   * The number of runs per reader.
+   */
+  private static final int RUNS = 5;
+
+  /**
+   * Prevents instantiation.
+   */
+  private ModelReaderBenchmark() {
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    File modelFile = File.createTempFile("benchmark-model", ".xml");
+    modelFile.deleteOnExit();
+    try (OutputStream out
+        = new BufferedOutputStream(new FileOutputStream(modelFile))) {
+      new StAXModel002Builder(false).writeXMLModel(createGridModel(gridSize),
+                                                   Optional.<String>empty(),
+                                                   out);
+    }
+    System.out.println("Model file size: " + modelFile.length() / 1024 + " KiB");
+
+    benchmark("DOM, validating", new XMLModel002Builder(), modelFile);
+    benchmark("StAX, validating in parallel",
+              new StAXModel002Builder(true),
+              modelFile);
+    benchmark("StAX, not validating", new StAXModel002Builder(false), modelFile);
+  }
+
+  private static void benchmark(String label,
+                                XMLModelReader reader,
+                                File modelFile)
+      throws IOException, InvalidModelException {
+    long bestTime = Long.MAX_VALUE;
+    long maxPeakHeap = 0;
+    for (int i = 0; i < RUNS; i++) {
+      System.gc();
+      resetPeakHeapUsage();
+      long baseHeap = getPeakHeapUsage();
+      Model model = new Model(new TCSObjectPool());
+      long startTime = System.nanoTime();
+      try (InputStream in = new FileInputStream(modelFile)) {
+        reader.readXMLModel(in, model);
+      }
+      bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+      maxPeakHeap = Math.max(maxPeakHeap, getPeakHeapUsage() - baseHeap);
+    }
+    System.out.println(String.format("%-30s best of %d: %6d ms, peak heap: %5d MiB",
+                                     label,
+                                     RUNS,
+                                     bestTime / 1000000,
+                                     maxPeakHeap / (1024 * 1024)));
+  }
+
+  private static void resetPeakHeapUsage() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long getPeakHeapUsage() {
+    long result = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        result += pool.getPeakUsage().getUsed();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates a model with a grid of points connected by paths in both
+   * directions.
+   *
+   * @param gridSize The number of points per row and column.
+   * @return The model.
+   */
+  private static Model createGridModel(int gridSize) {
+    Model model = new Model(new TCSObjectPool());
+    model.setName("Benchmark");
+    Point[][] points = new Point[gridSize][gridSize];
+    for (int x = 0; x < gridSize; x++) {
+      for (int y = 0; y < gridSize; y++) {
+        Point point = model.createPoint(null);
+        model.getObjectPool().renameObject(point.getReference(),
+                                           "Point-" + x + "-" + y);
+        model.setPointPosition(point.getReference(),
+                               new Triple(x * 1000, y * 1000, 0));
+        points[x][y] = point;
+      }
+    }
+    for (int x = 0; x < gridSize; x++) {
+      for (int y = 0; y < gridSize; y++) {
+        if (x + 1 < gridSize) {
+          connect(model, points[x][y], points[x + 1][y]);
+          connect(model, points[x + 1][y], points[x][y]);
+        }
+        if (y + 1 < gridSize) {
+          connect(model, points[x][y], points[x][y + 1]);
+          connect(model, points[x][y + 1], points[x][y]);
+        }
+      }
+    }
+    return model;
+  }
+
+  private static void connect(Model model, Point source, Point destination) {
+    Path path = model.createPath(null,
+                                 source.getReference(),
+                                 destination.getReference());
+    model.getObjectPool().renameObject(
+        path.getReference(), source.getName() + " --- " + destination.getName());
+    model.setPathLength(path.getReference(), 1000);
+    model.addPointOutgoingPath(source.getReference(), path.getReference());
+    model.addPointIncomingPath(destination.getReference(), path.getReference());
+  }
+}
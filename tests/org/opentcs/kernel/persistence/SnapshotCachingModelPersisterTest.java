@@ -0,0 +1,140 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import javax.inject.Provider;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SnapshotCachingModelPersisterTest {
+
+  @Rule
+  public TemporaryFolder homeFolder = new TemporaryFolder();
+  /**
+   * The persister for the model file.
+   */
+  private XMLFileModelPersister xmlPersister;
+  /**
+   * The persister to be tested.
+   */
+  private SnapshotCachingModelPersister persister;
+  /**
+   * The snapshot file.
+   */
+  private File snapshotFile;
+
+  @Before
+  public void setUp() {
+    final StAXModel002Builder builder = new StAXModel002Builder(false);
+    xmlPersister = new XMLFileModelPersister(
+        homeFolder.getRoot(),
+        new Provider<XMLModelReader>() {
+          @Override
+          public XMLModelReader get() {
+            return builder;
+          }
+        },
+        new Provider<XMLModelWriter>() {
+          @Override
+          public XMLModelWriter get() {
+            return builder;
+          }
+        });
+    persister = new SnapshotCachingModelPersister(xmlPersister);
+    snapshotFile = new File(new File(homeFolder.getRoot(), "data"),
+                            "model.snapshot");
+  }
+
+  @Test
+  public void shouldLoadModelFromSnapshot()
+      throws IOException, InterruptedException {
+    persister.saveModel(createModel("TestModel", 1000), Optional.empty());
+    persister.loadModel(new Model(new TCSObjectPool()));
+    awaitSnapshot();
+
+    Model result = new Model(new TCSObjectPool());
+    persister.loadModel(result);
+
+    assertEquals("TestModel", result.getName());
+    assertEquals(Optional.of("TestModel"), persister.getModelName());
+    Point point = result.getPoint("Point-01");
+    assertEquals(1000, point.getPosition().getX());
+    assertEquals(1, point.getOutgoingPaths().size());
+    Path path = result.getPath("Point-01 --- Point-02");
+    assertEquals(point.getReference(), path.getSourcePoint());
+    assertEquals(1000, path.getLength());
+  }
+
+  @Test
+  public void shouldIgnoreSnapshotOfChangedModelFile()
+      throws IOException, InterruptedException {
+    persister.saveModel(createModel("TestModel", 1000), Optional.empty());
+    persister.loadModel(new Model(new TCSObjectPool()));
+    awaitSnapshot();
+    // Bypass the caching persister, leaving the snapshot in place.
+    xmlPersister.saveModel(createModel("ChangedModel", 2000), Optional.empty());
+
+    Model result = new Model(new TCSObjectPool());
+    persister.loadModel(result);
+
+    assertEquals("ChangedModel", result.getName());
+    assertEquals(2000, result.getPoint("Point-01").getPosition().getX());
+  }
+
+  @Test
+  public void shouldDeleteSnapshotWhenModelIsSaved()
+      throws IOException, InterruptedException {
+    persister.saveModel(createModel("TestModel", 1000), Optional.empty());
+    persister.loadModel(new Model(new TCSObjectPool()));
+    awaitSnapshot();
+
+    persister.saveModel(createModel("ChangedModel", 2000), Optional.empty());
+
+    assertFalse(snapshotFile.exists());
+  }
+
+  private void awaitSnapshot()
+      throws InterruptedException {
+    for (int i = 0; i < 100 && !snapshotFile.exists(); i++) {
+      Thread.sleep(50);
+    }
+    assertTrue("No snapshot written", snapshotFile.exists());
+  }
+
+  private Model createModel(String name, long x) {
+    Model model = new Model(new TCSObjectPool());
+    model.setName(name);
+    Point point1 = model.createPoint(null);
+    model.getObjectPool().renameObject(point1.getReference(), "Point-01");
+    model.setPointPosition(point1.getReference(), new Triple(x, 0, 0));
+    Point point2 = model.createPoint(null);
+    model.getObjectPool().renameObject(point2.getReference(), "Point-02");
+    Path path = model.createPath(null,
+                                 point1.getReference(),
+                                 point2.getReference());
+    model.getObjectPool().renameObject(path.getReference(), "Point-01 --- Point-02");
+    model.setPathLength(path.getReference(), 1000);
+    model.addPointOutgoingPath(point1.getReference(), path.getReference());
+    model.addPointIncomingPath(point2.getReference(), path.getReference());
+    return model;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Block;
+import org.opentcs.data.model.Group;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.StaticRoute;
+import org.opentcs.data.model.Triple;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.model.visualization.LayoutElement;
+import org.opentcs.data.model.visualization.ModelLayoutElement;
+import org.opentcs.data.model.visualization.ViewBookmark;
+import org.opentcs.data.model.visualization.VisualLayout;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class StAXModel002BuilderTest {
+
+  /**
+   * The model to be written and read.
+   */
+  private Model model;
+
+  @Before
+  public void setUp() {
+    model = new Model(new TCSObjectPool());
+    model.setName("TestModel");
+    Point point1 = createPoint("Point-01", 1000);
+    Point point2 = createPoint("Point-02", 2000);
+    Path path = model.createPath(null,
+                                 point1.getReference(),
+                                 point2.getReference());
+    model.getObjectPool().renameObject(path.getReference(), "Point-01 --- Point-02");
+    model.setPathLength(path.getReference(), 1000);
+    model.setPathMaxVelocity(path.getReference(), 500);
+    model.addPointOutgoingPath(point1.getReference(), path.getReference());
+    model.addPointIncomingPath(point2.getReference(), path.getReference());
+    Vehicle vehicle = model.createVehicle(null);
+    model.getObjectPool().renameObject(vehicle.getReference(), "Vehicle-01");
+    model.setVehicleLength(vehicle.getReference(), 1234);
+    LocationType type = model.createLocationType(null);
+    model.getObjectPool().renameObject(type.getReference(), "LType-01");
+    model.addLocationTypeAllowedOperation(type.getReference(), "Load cargo");
+    Location location = model.createLocation(null, type.getReference());
+    model.getObjectPool().renameObject(location.getReference(), "Location-01");
+    model.connectLocationToPoint(location.getReference(), point2.getReference());
+    model.addLocationLinkAllowedOperation(location.getReference(),
+                                          point2.getReference(),
+                                          "Load cargo");
+    Block block = model.createBlock(null);
+    model.getObjectPool().renameObject(block.getReference(), "Block-01");
+    model.addBlockMember(block.getReference(), point1.getReference());
+    model.addBlockMember(block.getReference(), path.getReference());
+    StaticRoute route = model.createStaticRoute(null);
+    model.getObjectPool().renameObject(route.getReference(), "Route-01");
+    model.addStaticRouteHop(route.getReference(), point1.getReference());
+    model.addStaticRouteHop(route.getReference(), point2.getReference());
+    Group group = model.createGroup(null);
+    model.getObjectPool().renameObject(group.getReference(), "Group-01");
+    model.addGroupMember(group.getReference(), location.getReference());
+    VisualLayout layout = model.createVisualLayout(null);
+    model.getObjectPool().renameObject(layout.getReference(), "Layout-01");
+    model.setVisualLayoutElements(
+        layout.getReference(),
+        new HashSet<LayoutElement>(Arrays.asList(
+            new ModelLayoutElement(point1.getReference()))));
+    ViewBookmark bookmark = new ViewBookmark();
+    bookmark.setLabel("Overview");
+    model.setVisualLayoutViewBookmarks(layout.getReference(),
+                                       Arrays.asList(bookmark));
+  }
+
+  @Test
+  public void shouldWriteValidModel()
+      throws IOException, InvalidModelException {
+    byte[] data = write(new StAXModel002Builder(false));
+
+    // The DOM-based builder always validates the input.
+    Model result = new Model(new TCSObjectPool());
+    new XMLModel002Builder().readXMLModel(new ByteArrayInputStream(data),
+                                          result);
+    assertModelContents(result);
+  }
+
+  @Test
+  public void shouldReadModelWrittenByDomBuilder()
+      throws IOException, InvalidModelException {
+    byte[] data = write(new XMLModel002Builder());
+
+    Model result = new Model(new TCSObjectPool());
+    new StAXModel002Builder(true).readXMLModel(new ByteArrayInputStream(data),
+                                               result);
+    assertModelContents(result);
+  }
+
+  @Test
+  public void shouldReadOwnOutputWithoutValidation()
+      throws IOException, InvalidModelException {
+    byte[] data = write(new StAXModel002Builder(false));
+
+    Model result = new Model(new TCSObjectPool());
+    new StAXModel002Builder(false).readXMLModel(new ByteArrayInputStream(data),
+                                                result);
+    assertModelContents(result);
+  }
+
+  @Test
+  public void shouldClearModelIfValidationFails()
+      throws IOException {
+    String data = "<?xml version=\"1.0\"?>"
+        + "<model version=\"0.0.2\" name=\"Invalid\">"
+        + "<point id=\"1\" name=\"Point-01\" type=\"HALT_POSITION\""
+        + " bogusAttribute=\"1\"/>"
+        + "</model>";
+    Model result = new Model(new TCSObjectPool());
+    try {
+      new StAXModel002Builder(true).readXMLModel(
+          new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+          result);
+      fail("Invalid model accepted");
+    }
+    catch (InvalidModelException exc) {
+      assertTrue(result.getPoints(null).isEmpty());
+    }
+  }
+
+  @Test(expected = InvalidModelException.class)
+  public void shouldRejectUnknownReferences()
+      throws IOException, InvalidModelException {
+    String data = "<?xml version=\"1.0\"?>"
+        + "<model version=\"0.0.2\" name=\"Invalid\">"
+        + "<path id=\"1\" name=\"Path-01\" sourcePoint=\"Point-01\""
+        + " destinationPoint=\"Point-02\"/>"
+        + "</model>";
+    new StAXModel002Builder(false).readXMLModel(
+        new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+        new Model(new TCSObjectPool()));
+  }
+
+  @Test(expected = InvalidModelException.class)
+  public void shouldRejectMissingPointType()
+      throws IOException, InvalidModelException {
+    String data = "<?xml version=\"1.0\"?>"
+        + "<model version=\"0.0.2\" name=\"Invalid\">"
+        + "<point id=\"1\" name=\"Point-01\"/>"
+        + "</model>";
+    new StAXModel002Builder(false).readXMLModel(
+        new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+        new Model(new TCSObjectPool()));
+  }
+
+  @Test(expected = InvalidModelException.class)
+  public void shouldRejectMalformedNumbers()
+      throws IOException, InvalidModelException {
+    String data = "<?xml version=\"1.0\"?>"
+        + "<model version=\"0.0.2\" name=\"Invalid\">"
+        + "<point id=\"1\" name=\"Point-01\" type=\"HALT_POSITION\""
+        + " xPosition=\"abc\"/>"
+        + "</model>";
+    new StAXModel002Builder(false).readXMLModel(
+        new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+        new Model(new TCSObjectPool()));
+  }
+
+  private Point createPoint(String name, long x) {
+    Point point = model.createPoint(null);
+    model.getObjectPool().renameObject(point.getReference(), name);
+    model.setPointPosition(point.getReference(), new Triple(x, 0, 0));
+    model.setPointType(point.getReference(), Point.Type.HALT_POSITION);
+    model.getObjectPool().setObjectProperty(point.getReference(), "key", "value");
+    return point;
+  }
+
+  private byte[] write(XMLModelWriter writer)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.writeXMLModel(model, Optional.<String>empty(), out);
+    return out.toByteArray();
+  }
+
+  private void assertModelContents(Model result) {
+    assertEquals("TestModel", result.getName());
+    Point point1 = result.getPoint("Point-01");
+    assertNotNull(point1);
+    assertEquals(1000, point1.getPosition().getX());
+    assertEquals("value", point1.getProperties().get("key"));
+    assertEquals(1, point1.getOutgoingPaths().size());
+    Path path = result.getPath("Point-01 --- Point-02");
+    assertNotNull(path);
+    assertEquals(1000, path.getLength());
+    assertEquals(500, path.getMaxVelocity());
+    assertEquals(1234, result.getVehicle("Vehicle-01").getLength());
+    assertTrue(result.getLocationType("LType-01").isAllowedOperation("Load cargo"));
+    Location location = result.getLocation("Location-01");
+    assertEquals(1, location.getAttachedLinks().size());
+    assertEquals(2, result.getBlock("Block-01").getMembers().size());
+    assertEquals(2, result.getStaticRoute("Route-01").getHops().size());
+    assertEquals(1, result.getObjectPool().getObject(Group.class, "Group-01")
+        .getMembers().size());
+    VisualLayout layout
+        = result.getObjectPool().getObject(VisualLayout.class, "Layout-01");
+    assertEquals(1, layout.getLayoutElements().size());
+    assertEquals(1, layout.getViewBookmarks().size());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.kernel.persistence;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+import static org.mockito.Mockito.mock;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.EventSource;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TransportOrderJournalTest {
+
+  @Rule
+  public TemporaryFolder homeFolder = new TemporaryFolder();
+  /**
+   * A location to be used as a destination.
+   */
+  private Location location;
+
+  @Before
+  public void setUp() {
+    location = new Location(1, "Location-01",
+                            new LocationType(4, "LocationType-01").getReference());
+  }
+
+  @Test
+  public void shouldRecoverOrdersAfterUncleanTermination() {
+    TransportOrderJournal journal = createJournal(1000);
+    journal.start(Collections.<TransportOrder>emptyList());
+    TransportOrder order = createOrder(2, "TOrder-01");
+    created(journal, order);
+    TransportOrder modified = order.clone();
+    modified.setState(TransportOrder.State.ACTIVE);
+    modified.setIntendedVehicle(new Vehicle(3, "Vehicle-01").getReference());
+    modified.setProperty("key", "value");
+    modified(journal, modified, order);
+    journal.close();
+
+    List<JournaledOrder> recovered = createJournal(1000).recover();
+
+    assertEquals(1, recovered.size());
+    JournaledOrder jOrder = recovered.get(0);
+    assertEquals("TOrder-01", jOrder.getName());
+    assertEquals(TransportOrder.State.ACTIVE, jOrder.getState());
+    assertEquals("Vehicle-01", jOrder.getIntendedVehicle());
+    assertEquals("value", jOrder.getProperties().get("key"));
+    assertEquals(1, jOrder.getDestinations().size());
+    assertEquals("Location-01", jOrder.getDestinations().get(0).getLocation());
+  }
+
+  @Test
+  public void shouldNotRecoverFinishedOrRemovedOrders() {
+    TransportOrderJournal journal = createJournal(1000);
+    journal.start(Collections.<TransportOrder>emptyList());
+    TransportOrder order1 = createOrder(2, "TOrder-01");
+    TransportOrder order2 = createOrder(3, "TOrder-02");
+    created(journal, order1);
+    created(journal, order2);
+    TransportOrder finished = order1.clone();
+    finished.setState(TransportOrder.State.FINISHED);
+    modified(journal, finished, order1);
+    journal.processEvent(
+        new TCSObjectEvent(null, order2, TCSObjectEvent.Type.OBJECT_REMOVED));
+    journal.close();
+
+    assertTrue(createJournal(1000).recover().isEmpty());
+  }
+
+  @Test
+  public void shouldRecoverFromSnapshotAndJournal() {
+    TransportOrderJournal journal = createJournal(2);
+    journal.start(Arrays.asList(createOrder(2, "TOrder-01")));
+    for (int i = 0; i < 5; i++) {
+      created(journal, createOrder(10 + i, "TOrder-1" + i));
+    }
+    journal.close();
+
+    List<JournaledOrder> recovered = createJournal(2).recover();
+
+    assertEquals(6, recovered.size());
+    assertEquals("TOrder-01", recovered.get(0).getName());
+  }
+
+  @Test
+  public void shouldIgnoreIncompleteTrailingRecord()
+      throws IOException {
+    TransportOrderJournal journal = createJournal(1000);
+    journal.start(Collections.<TransportOrder>emptyList());
+    created(journal, createOrder(2, "TOrder-01"));
+    journal.close();
+    File journalFile = new File(new File(homeFolder.getRoot(), "data"),
+                                "order_journal.bin");
+    try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+      out.write(new byte[] {0, 0, 1, 0, 42, 42});
+    }
+
+    assertEquals(1, createJournal(1000).recover().size());
+  }
+
+  @Test
+  public void shouldDiscardOrdersWhenStopped() {
+    TransportOrderJournal journal = createJournal(1000);
+    journal.start(Collections.<TransportOrder>emptyList());
+    created(journal, createOrder(2, "TOrder-01"));
+    journal.stop();
+
+    assertFalse(journal.isStarted());
+    assertTrue(createJournal(1000).recover().isEmpty());
+  }
+
+  @SuppressWarnings("unchecked")
+  private TransportOrderJournal createJournal(int snapshotInterval) {
+    return new TransportOrderJournal(homeFolder.getRoot(),
+                                     mock(EventSource.class),
+                                     true,
+                                     0,
+                                     snapshotInterval);
+  }
+
+  private TransportOrder createOrder(int id, String name) {
+    return new TransportOrder(
+        id,
+        name,
+        Arrays.asList(new DriveOrder.Destination(location.getReference(),
+                                                 DriveOrder.Destination.OP_NOP)));
+  }
+
+  private void created(TransportOrderJournal journal, TransportOrder order) {
+    journal.processEvent(new TCSObjectEvent(order.clone(),
+                                            null,
+                                            TCSObjectEvent.Type.OBJECT_CREATED));
+  }
+
+  private void modified(TransportOrderJournal journal,
+                        TransportOrder current,
+                        TransportOrder previous) {
+    journal.processEvent(
+        new TCSObjectEvent(current, previous, TCSObjectEvent.Type.OBJECT_MODIFIED));
+  }
+}
@@ -5,7 +5,7 @@
 package org.opentcs.kernel.workingset;
 
 import java.util.List;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import org.junit.*;
 import org.opentcs.data.message.Message;
 
@@ -75,4 +75,91 @@ public class MessageBufferTest {
       testBuffer.clear();
     }
   }
+
+  /**
+   * Verifies that the oldest messages are removed when the capacity is
+   * exceeded.
+   */
+  @Test
+  public void shouldRemoveOldestMessages() {
+    testBuffer.setCutBackCount(capacity / 2);
+    Message first = null;
+    Message last = null;
+    for (int i = 0; i <= capacity; i++) {
+      last = testBuffer.createMessage("message " + i, Message.Type.INFO);
+      if (first == null) {
+        first = last;
+      }
+    }
+    List<Message> messages = testBuffer.getMessages();
+    assertFalse(messages.contains(first));
+    assertSame(last, messages.get(messages.size() - 1));
+    assertEquals("message " + (capacity / 2 + 1), messages.get(0).getMessage());
+  }
+
+  /**
+   * Verifies that messages are selected by their timestamps after the buffer
+   * wrapped around.
+   */
+  @Test
+  public void shouldReturnMessagesFromTimestamp() {
+    testBuffer.setCutBackCount(capacity);
+    Message middle = null;
+    for (int i = 0; i < capacity * 3 / 2; i++) {
+      Message message = testBuffer.createMessage("message", Message.Type.INFO);
+      if (i == capacity) {
+        middle = message;
+      }
+    }
+    assertEquals(capacity, testBuffer.getMessageCount());
+    List<Message> messages = testBuffer.getMessages(middle.getTimestamp());
+    assertEquals(capacity / 2, messages.size());
+    assertSame(middle, messages.get(0));
+    assertEquals(capacity, testBuffer.getMessages(Long.MIN_VALUE).size());
+    assertTrue(testBuffer.getMessages(Long.MAX_VALUE).isEmpty());
+  }
+
+  /**
+   * Verifies that a cursor returns only messages not fetched before.
+   */
+  @Test
+  public void shouldFetchOnlyNewMessagesViaCursor() {
+    testBuffer.createMessage("old", Message.Type.INFO);
+    MessageBuffer.Cursor cursor = testBuffer.createCursor();
+    assertTrue(cursor.fetchNewMessages().isEmpty());
+
+    Message message1 = testBuffer.createMessage("new 1", Message.Type.INFO);
+    Message message2 = testBuffer.createMessage("new 2", Message.Type.INFO);
+    List<Message> messages = cursor.fetchNewMessages();
+    assertEquals(2, messages.size());
+    assertSame(message1, messages.get(0));
+    assertSame(message2, messages.get(1));
+    assertEquals(message2.getTimestamp(), cursor.getLastTimestamp());
+    assertTrue(cursor.fetchNewMessages().isEmpty());
+
+    Message message3 = testBuffer.createMessage("new 3", Message.Type.INFO);
+    messages = cursor.fetchNewMessages();
+    assertEquals(1, messages.size());
+    assertSame(message3, messages.get(0));
+  }
+
+  /**
+   * Verifies that a cursor skips messages removed from the buffer before they
+   * were fetched.
+   */
+  @Test
+  public void shouldSkipRemovedMessagesViaCursor() {
+    testBuffer.setCutBackCount(capacity / 2);
+    MessageBuffer.Cursor cursor = testBuffer.createCursor();
+    assertEquals(Long.MIN_VALUE, cursor.getLastTimestamp());
+    Message last = null;
+    for (int i = 0; i <= capacity; i++) {
+      last = testBuffer.createMessage("message " + i, Message.Type.INFO);
+    }
+
+    List<Message> messages = cursor.fetchNewMessages();
+    assertEquals(testBuffer.getMessages(), messages);
+    assertSame(last, messages.get(messages.size() - 1));
+    assertEquals(last.getTimestamp(), cursor.getLastTimestamp());
+  }
 }
@@ -7,13 +7,16 @@ package org.opentcs.kernel.workingset;
 import java.util.HashSet;
 import java.util.Set;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.*;
+import org.opentcs.access.VehicleUpdate;
 import org.opentcs.data.ObjectExistsException;
 import org.opentcs.data.ObjectUnknownException;
 import org.opentcs.data.model.Path;
 import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
 
 /**
  *
@@ -211,4 +214,43 @@ public class ModelTest {
       assertTrue(true);
     }
   }
+
+  /**
+   * Verify that a compound vehicle update applies all changes and moves the
+   * vehicle between points.
+   */
+  @Test
+  public void testUpdateVehicle() {
+    Point point1 = model.createPoint(null);
+    Point point2 = model.createPoint(null);
+    Vehicle vehicle = model.createVehicle(null);
+
+    VehicleUpdate update = new VehicleUpdate();
+    update.setPosition(point1.getReference());
+    update.setNextPosition(point2.getReference());
+    update.setRouteProgressIndex(3);
+    update.setEnergyLevel(42);
+    model.updateVehicle(vehicle.getReference(), update);
+
+    vehicle = model.getVehicle(vehicle.getReference());
+    assertEquals(point1.getReference(), vehicle.getCurrentPosition());
+    assertEquals(point2.getReference(), vehicle.getNextPosition());
+    assertEquals(3, vehicle.getRouteProgressIndex());
+    assertEquals(42, vehicle.getEnergyLevel());
+    assertEquals(vehicle.getReference(),
+                 model.getPoint(point1.getReference()).getOccupyingVehicle());
+
+    update = new VehicleUpdate();
+    update.setPosition(point2.getReference());
+    model.updateVehicle(vehicle.getReference(), update);
+
+    vehicle = model.getVehicle(vehicle.getReference());
+    assertEquals(point2.getReference(), vehicle.getCurrentPosition());
+    // Attributes not set in the update must not change.
+    assertEquals(point2.getReference(), vehicle.getNextPosition());
+    assertEquals(3, vehicle.getRouteProgressIndex());
+    assertNull(model.getPoint(point1.getReference()).getOccupyingVehicle());
+    assertEquals(vehicle.getReference(),
+                 model.getPoint(point2.getReference()).getOccupyingVehicle());
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.communication.tcp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LengthPrefixedDissectorTest {
+
+  private StringDissector dissector;
+
+  @Before
+  public void setUp() {
+    dissector = new StringDissector();
+  }
+
+  @Test
+  public void shouldReassembleTelegramsFromByteArrays() {
+    dissector.addIncomingBytes(new byte[] {0, 3, 'a'});
+    assertFalse(dissector.hasObjects());
+    dissector.addIncomingBytes(new byte[] {'b', 'c', 0});
+    assertEquals("abc", dissector.getNextObject());
+    assertFalse(dissector.hasObjects());
+    dissector.addIncomingBytes(new byte[] {1, 'd', 0, 0});
+    assertEquals("d", dissector.getNextObject());
+    assertEquals("", dissector.getNextObject());
+    assertFalse(dissector.hasObjects());
+  }
+
+  @Test
+  public void shouldStopAtIncompleteTelegramInBuffer() {
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[] {0, 2, 'o', 'k', 0, 5, 'x'});
+    dissector.addIncomingBytes(buffer);
+
+    assertEquals("ok", dissector.getNextObject());
+    assertFalse(dissector.hasObjects());
+    assertEquals(4, buffer.position());
+  }
+
+  /**
+   * Creates strings from telegrams with a two-byte length field.
+   */
+  private static class StringDissector
+      extends LengthPrefixedDissector<String> {
+
+    StringDissector() {
+      super(2);
+    }
+
+    @Override
+    protected String createTelegram(ByteBuffer content) {
+      return StandardCharsets.US_ASCII.decode(content).toString();
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.communication.tcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SelectorTcpConnectionTest {
+
+  /**
+   * The timeout for waiting for telegrams (in ms).
+   */
+  private static final long TIMEOUT = 5000;
+  /**
+   * The reactor serving the connections.
+   */
+  private TcpConnectionReactor reactor;
+  /**
+   * The server socket the connections connect to.
+   */
+  private ServerSocket serverSocket;
+  /**
+   * The telegrams received by the connections.
+   */
+  private BlockingQueue<IncomingTelegram> received;
+  /**
+   * The connections created by a test.
+   */
+  private List<TcpConnection> connections;
+
+  @Before
+  public void setUp()
+      throws IOException {
+    reactor = new TcpConnectionReactor(1, 64);
+    serverSocket = new ServerSocket(0);
+    received = new LinkedBlockingQueue<>();
+    connections = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown()
+      throws IOException {
+    for (TcpConnection connection : connections) {
+      connection.disconnect();
+    }
+    reactor.terminate();
+    serverSocket.close();
+  }
+
+  @Test
+  public void shouldReassembleTelegramsSplitAcrossReads()
+      throws IOException, InterruptedException {
+    connect(new LengthPrefixDissector());
+    try (Socket peer = serverSocket.accept()) {
+      OutputStream out = peer.getOutputStream();
+      out.write(new byte[] {3, 'a', 'b'});
+      out.flush();
+      Thread.sleep(100);
+      out.write(new byte[] {'c', 2, 'd', 'e', 1});
+      out.flush();
+      Thread.sleep(100);
+      out.write(new byte[] {'f'});
+      out.flush();
+
+      assertEquals("abc", nextTelegram());
+      assertEquals("de", nextTelegram());
+      assertEquals("f", nextTelegram());
+    }
+  }
+
+  @Test
+  public void shouldSupportDissectorsWithoutBufferSupport()
+      throws IOException, InterruptedException {
+    connect(new ByteArrayDissector());
+    try (Socket peer = serverSocket.accept()) {
+      OutputStream out = peer.getOutputStream();
+      out.write(new byte[] {'x', 'y'});
+      out.flush();
+
+      assertEquals("xy", nextTelegram());
+    }
+  }
+
+  @Test
+  public void shouldServeManyConnectionsWithOneThread()
+      throws IOException, InterruptedException {
+    int connectionCount = 20;
+    for (int i = 0; i < connectionCount; i++) {
+      connect(new LengthPrefixDissector());
+    }
+    List<Socket> peers = new ArrayList<>();
+    try {
+      for (int i = 0; i < connectionCount; i++) {
+        peers.add(serverSocket.accept());
+      }
+      for (Socket peer : peers) {
+        peer.getOutputStream().write(new byte[] {2, 'o', 'k'});
+      }
+      for (int i = 0; i < connectionCount; i++) {
+        assertEquals("ok", nextTelegram());
+      }
+    }
+    finally {
+      for (Socket peer : peers) {
+        peer.close();
+      }
+    }
+  }
+
+  @Test
+  public void shouldSendTelegramsToPeer()
+      throws IOException, InterruptedException {
+    TcpConnection connection = connect(new LengthPrefixDissector());
+    try (Socket peer = serverSocket.accept()) {
+      awaitConnected(connection);
+      connection.sendTelegram(new byte[] {1, 2, 3});
+
+      InputStream in = peer.getInputStream();
+      assertEquals(1, in.read());
+      assertEquals(2, in.read());
+      assertEquals(3, in.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldFailSendingWhenNotConnected()
+      throws IOException {
+    serverSocket.close();
+    TcpConnection connection = connect(new LengthPrefixDissector());
+    connection.sendTelegram(new byte[] {1});
+  }
+
+  private TcpConnection connect(ByteSequenceDissector<TestTelegram> dissector) {
+    TcpConnection connection = new SelectorTcpConnection(
+        reactor,
+        new IncomingTelegramHandler() {
+          @Override
+          public void handleTelegram(IncomingTelegram telegram) {
+            received.add(telegram);
+          }
+        },
+        dissector,
+        "localhost",
+        serverSocket.getLocalPort(),
+        0,
+        0);
+    connections.add(connection);
+    return connection;
+  }
+
+  private String nextTelegram()
+      throws InterruptedException {
+    IncomingTelegram telegram = received.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertNotNull("No telegram received", telegram);
+    return ((TestTelegram) telegram).content;
+  }
+
+  private void awaitConnected(TcpConnection connection)
+      throws InterruptedException {
+    for (int i = 0; i < 100 && !connection.isConnected(); i++) {
+      Thread.sleep(50);
+    }
+    assertTrue("Not connected", connection.isConnected());
+  }
+
+  /**
+   * A telegram with some text content.
+   */
+  private static class TestTelegram
+      implements IncomingTelegram {
+
+    /**
+     * The telegram's content.
+     */
+    private final String content;
+
+    TestTelegram(String content) {
+      this.content = content;
+    }
+  }
+
+  /**
+   * Parses telegrams consisting of a length byte followed by the content.
+   */
+  private static class LengthPrefixDissector
+      extends LengthPrefixedDissector<TestTelegram> {
+
+    LengthPrefixDissector() {
+      super(1);
+    }
+
+    @Override
+    protected TestTelegram createTelegram(ByteBuffer content) {
+      byte[] bytes = new byte[content.remaining()];
+      content.get(bytes);
+      return new TestTelegram(new String(bytes));
+    }
+  }
+
+  /**
+   * Turns each chunk of received data into a telegram.
+   */
+  private static class ByteArrayDissector
+      extends ByteSequenceDissector<TestTelegram> {
+
+    @Override
+    public void addIncomingBytes(byte[] newData) {
+      addObject(new TestTelegram(new String(mergeData(newData))));
+    }
+  }
+}
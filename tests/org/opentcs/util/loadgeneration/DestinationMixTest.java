@@ -0,0 +1,66 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.order.DriveOrder.Destination;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class DestinationMixTest {
+
+  private List<Location> locations;
+
+  @Before
+  public void setUp() {
+    LocationType locationType = new LocationType(1, "LocationType-01");
+    locations = Arrays.asList(
+        new Location(2, "Location-01", locationType.getReference()),
+        new Location(3, "Location-02", locationType.getReference()));
+  }
+
+  @Test
+  public void shouldSelectDestinationsAccordingToWeights() {
+    DestinationMix mix = new DestinationMix(
+        locations,
+        DestinationMix.parseEntries("Location-01:Load:3,Location-02:Unload"),
+        2,
+        new Random(42));
+
+    int loadCount = 0;
+    for (int i = 0; i < 1000; i++) {
+      List<Destination> destinations = mix.selectDestinations();
+      assertEquals(2, destinations.size());
+      for (Destination destination : destinations) {
+        if (destination.getOperation().equals("Load")) {
+          assertEquals("Location-01", destination.getLocation().getName());
+          loadCount++;
+        }
+      }
+    }
+    // Expect about three quarters of 2000 destinations to be loads.
+    assertTrue(loadCount > 1350 && loadCount < 1650);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownLocations() {
+    new DestinationMix(locations,
+                       DestinationMix.parseEntries("Location-03:Load"),
+                       1,
+                       new Random());
+  }
+}
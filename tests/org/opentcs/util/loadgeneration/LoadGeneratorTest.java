@@ -0,0 +1,130 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.KernelRuntimeException;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.order.DriveOrder.Destination;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LoadGeneratorTest {
+
+  private Kernel kernel;
+
+  private DestinationMix destinationMix;
+
+  private int createdOrders;
+
+  @Before
+  public void setUp() {
+    kernel = mock(Kernel.class);
+    when(kernel.createTransportOrder(anyListOf(Destination.class))).thenAnswer(
+        new Answer<TransportOrder>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public TransportOrder answer(InvocationOnMock invocation) {
+            createdOrders++;
+            return new TransportOrder(createdOrders,
+                                      "Order-" + createdOrders,
+                                      (List<Destination>) invocation.getArguments()[0]);
+          }
+        });
+    LocationType locationType = new LocationType(1, "LocationType-01");
+    Location location = new Location(2,
+                                      "Location-01",
+                                      locationType.getReference());
+    destinationMix = DestinationMix.uniform(Arrays.asList(location),
+                                            1,
+                                            new Random(42));
+  }
+
+  @Test
+  public void shouldSubmitArrivalsSinceLastBatchAtOnce() {
+    LoadGenerator generator
+        = new LoadGenerator(kernel,
+                            new ConstantArrivalProcess(3600.0),
+                            destinationMix,
+                            1000);
+
+    assertEquals(3, generator.submitDueOrders(2500));
+    assertEquals(0, generator.submitDueOrders(2900));
+    assertEquals(1, generator.submitDueOrders(3000));
+
+    LoadReport report = generator.createReport(3600000);
+    assertEquals(4, report.getSubmittedOrders());
+    assertEquals(2, report.getBatchCount());
+    assertEquals(0, report.getFailedSubmissions());
+    assertEquals(4.0, report.getSubmittedOrdersPerHour(), 0.001);
+    assertEquals(3600.0, report.getTargetOrdersPerHour(), 0.001);
+    verify(kernel, times(4)).activateTransportOrder(any());
+  }
+
+  @Test
+  public void shouldCountFailedSubmissions() {
+    doThrow(new KernelRuntimeException("Not operating"))
+        .when(kernel).createTransportOrder(anyListOf(Destination.class));
+    LoadGenerator generator
+        = new LoadGenerator(kernel,
+                            new ConstantArrivalProcess(3600.0),
+                            destinationMix,
+                            1000);
+
+    assertEquals(0, generator.submitDueOrders(1000));
+
+    LoadReport report = generator.createReport(1000);
+    assertEquals(0, report.getSubmittedOrders());
+    assertEquals(2, report.getFailedSubmissions());
+  }
+
+  @Test
+  public void shouldReplayTraceTimeScaled() {
+    TraceArrivalProcess process
+        = new TraceArrivalProcess(Arrays.asList(5000L, 1000L, 3000L), 2.0);
+
+    assertEquals(0, process.nextArrivalTime());
+    assertEquals(1000, process.nextArrivalTime());
+    assertEquals(2000, process.nextArrivalTime());
+    assertEquals(ArrivalProcess.NO_MORE_ARRIVALS, process.nextArrivalTime());
+    assertEquals(3600.0, process.getOrdersPerHour(), 0.001);
+  }
+
+  @Test
+  public void shouldStopWhenTraceIsExhausted() {
+    LoadGenerator generator
+        = new LoadGenerator(kernel,
+                            new TraceArrivalProcess(Arrays.asList(0L, 10L), 1.0),
+                            destinationMix,
+                            10);
+
+    LoadReport report = generator.run(60000);
+
+    assertEquals(2, report.getSubmittedOrders());
+    assertTrue(report.getDuration() < 60000);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.loadgeneration;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderTraceRecorderTest {
+
+  private OrderTraceRecorder recorder;
+
+  private TransportOrder order;
+
+  @Before
+  public void setUp() {
+    recorder = new OrderTraceRecorder(new OrderTrace());
+    LocationType locationType = new LocationType(1, "LocationType-01");
+    Location location1 = new Location(2, "Location-01", locationType.getReference());
+    Location location2 = new Location(3, "Location-02", locationType.getReference());
+    order = new TransportOrder(
+        4,
+        "Order-01",
+        Arrays.asList(new DriveOrder.Destination(location1.getReference(), "Load"),
+                      new DriveOrder.Destination(location2.getReference(), "Unload")));
+    order.setDeadline(order.getCreationTime() + 60000);
+  }
+
+  @Test
+  public void shouldRecordArrivalTimingsAndOutcome() {
+    modifyOrder(1000, TransportOrder.State.ACTIVE);
+    modifyOrder(2000, TransportOrder.State.BEING_PROCESSED);
+    order.setInitialDriveOrder();
+    modifyOrder(2000, null);
+    order.setCurrentDriveOrderState(DriveOrder.State.OPERATING);
+    modifyOrder(5000, null);
+    order.setNextDriveOrder();
+    order.setCurrentDriveOrderState(DriveOrder.State.TRAVELLING);
+    modifyOrder(6000, null);
+    order.setCurrentDriveOrderState(DriveOrder.State.OPERATING);
+    modifyOrder(10000, null);
+    order.setNextDriveOrder();
+    modifyOrder(12000, TransportOrder.State.FINISHED);
+
+    OrderTrace trace = recorder.getTrace();
+    OrderTrace.OrderRecord record = trace.getOrder("Order-01");
+    assertNotNull(record);
+    assertEquals(order.getCreationTime(), record.getArrivalTime());
+    assertEquals(order.getCreationTime() + 60000, record.getDeadline());
+    assertEquals(2, record.getDestinations().size());
+    assertEquals("Unload", record.getDestinations().get(1).getOperation());
+    assertEquals(OrderTrace.Outcome.FINISHED, record.getOutcome());
+
+    // Travelling 2000 to 5000 and 6000 to 10000.
+    assertEquals(2, trace.getTravelTiming().getCount());
+    assertEquals(3500, trace.getTravelTiming().getMeanDuration());
+    // Operating 5000 to 6000 and 10000 to 12000.
+    assertEquals(1000, trace.getOperationTimings().get("Load").getMeanDuration());
+    assertEquals(2000, trace.getOperationTimings().get("Unload").getMeanDuration());
+  }
+
+  @Test
+  public void shouldIgnoreOrdersActivatedBeforeRecording() {
+    order.setState(TransportOrder.State.ACTIVE);
+    modifyOrder(1000, TransportOrder.State.FINISHED);
+
+    assertTrue(recorder.getTrace().getOrders().isEmpty());
+  }
+
+  @Test
+  public void shouldReadTraceWritten()
+      throws IOException {
+    modifyOrder(1000, TransportOrder.State.ACTIVE);
+    modifyOrder(2000, TransportOrder.State.FAILED);
+
+    StringWriter writer = new StringWriter();
+    recorder.getTrace().write(writer);
+    OrderTrace trace = OrderTrace.read(new StringReader(writer.toString()));
+
+    assertEquals(1, trace.getOrders().size());
+    OrderTrace.OrderRecord record = trace.getOrders().get(0);
+    assertEquals("Order-01", record.getName());
+    assertNull(record.getIntendedVehicle());
+    assertEquals("Location-01", record.getDestinations().get(0).getLocationName());
+    assertEquals(OrderTrace.Outcome.FAILED, record.getOutcome());
+    assertEquals(1, trace.summarize().getFailedCount());
+  }
+
+  @Test
+  public void shouldCompareLeadTimes() {
+    TraceSummary baseline = new TraceSummary(2, 0, Arrays.asList(1000L, 3000L), 4000);
+    TraceSummary candidate = new TraceSummary(2, 0, Collections.singletonList(500L), 2000);
+
+    assertEquals(2000, baseline.getMeanLeadTime());
+    assertEquals(3000, baseline.getLeadTimePercentile(95));
+    assertEquals(1800.0, baseline.getFinishedOrdersPerHour(), 0.001);
+    assertEquals(1000, candidate.timeScaled(2.0).getMeanLeadTime());
+    assertTrue(TraceSummary.formatComparison(baseline, candidate)
+        .contains("-75.0%"));
+  }
+
+  private void modifyOrder(long now, TransportOrder.State newState) {
+    TransportOrder previousState = order.clone();
+    if (newState != null) {
+      order.setState(newState);
+    }
+    recorder.processEvent(new TCSObjectEvent(order.clone(),
+                                             previousState,
+                                             TCSObjectEvent.Type.OBJECT_MODIFIED),
+                          now);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.access.queries.QueryStatistics;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class StatisticsAggregatorTest {
+
+  /**
+   * The aggregator being tested, with a window of one minute split into 60
+   * buckets.
+   */
+  private StatisticsAggregator aggregator;
+
+  @Before
+  public void setUp() {
+    aggregator = new StatisticsAggregator(60000, 60);
+    aggregator.clear(0);
+  }
+
+  @Test
+  public void shouldComputeThroughputAndLeadTimes() {
+    visit(1000, StatisticsEvent.ORDER_ACTIVATED, "order-1");
+    visit(2000, StatisticsEvent.ORDER_ACTIVATED, "order-2");
+    visit(3000, StatisticsEvent.ORDER_FINISHED_SUCC, "order-1");
+    visit(5000, StatisticsEvent.ORDER_ACTIVATED, "order-3");
+    visit(9000, StatisticsEvent.ORDER_FINISHED_SUCC, "order-3");
+    visit(12000, StatisticsEvent.ORDER_FINISHED_SUCC, "order-2");
+    visit(13000, StatisticsEvent.ORDER_CROSSED_DEADLINE, "order-2");
+
+    QueryStatistics stats = aggregator.getStatistics(30000);
+    assertEquals(30000, stats.getCoveredTime());
+    assertEquals(3, stats.getFinishedOrders());
+    assertEquals(1, stats.getLateOrders());
+    assertEquals(6.0, stats.getFinishedOrdersPerMinute(), 0.001);
+    assertEquals(3, stats.getLeadTimeCount());
+    assertEquals(4000, stats.getLeadTimePercentile(50.0));
+    assertEquals(10000, stats.getLeadTimePercentile(100.0));
+  }
+
+  @Test
+  public void shouldIncludeOngoingIntervalsInUtilisation() {
+    visit(10000, StatisticsEvent.VEHICLE_STARTS_PROCESSING, "vehicle-1");
+    visit(20000, StatisticsEvent.VEHICLE_STOPS_PROCESSING, "vehicle-1");
+    visit(25000, StatisticsEvent.VEHICLE_STARTS_PROCESSING, "vehicle-1");
+
+    QueryStatistics.VehicleStatistics vehicle
+        = aggregator.getStatistics(30000).getVehicles().get("vehicle-1");
+    assertNotNull(vehicle);
+    assertEquals(15000, vehicle.getProcessingTime());
+    assertEquals(1, vehicle.getOrdersProcessed());
+    assertEquals(0.5, vehicle.getUtilisation(), 0.001);
+  }
+
+  @Test
+  public void shouldDropDataOutsideWindow() {
+    visit(500, StatisticsEvent.ORDER_ACTIVATED, "order-1");
+    visit(1000, StatisticsEvent.ORDER_FINISHED_SUCC, "order-1");
+    visit(1000, StatisticsEvent.POINT_OCCUPIED, "point-1");
+    visit(2000, StatisticsEvent.POINT_FREED, "point-1");
+
+    QueryStatistics stats = aggregator.getStatistics(120000);
+    assertEquals(59000, stats.getCoveredTime());
+    assertEquals(0, stats.getFinishedOrders());
+    assertEquals(0, stats.getLeadTimeCount());
+    assertEquals(-1, stats.getLeadTimePercentile(50.0));
+    assertEquals(0, stats.getPoints().get("point-1").getOccupiedTime());
+  }
+
+  private void visit(long timestamp, StatisticsEvent event, String label) {
+    aggregator.visitRecord(new StatisticsRecord(timestamp, event, label));
+  }
+}
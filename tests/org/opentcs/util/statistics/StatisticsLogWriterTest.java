@@ -0,0 +1,141 @@
+/*
+ * openTCS copyright information:
+ * Copyright (c) 2016 Fraunhofer IML
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.util.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class StatisticsLogWriterTest {
+
+  /**
+   * A folder for the log files.
+   */
+  @Rule
+  public TemporaryFolder logFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldReadTextRecordsWritten()
+      throws IOException {
+    File file = new File(logFolder.getRoot(), "log.txt");
+    List<StatisticsRecord> records = createRecords(100);
+    write(file, StatisticsLogFormat.TEXT, records);
+
+    assertRecordsEqual(records, StatisticsLogParser.parseLog(file));
+  }
+
+  @Test
+  public void shouldReadBinaryRecordsWritten()
+      throws IOException {
+    File file = new File(logFolder.getRoot(), "log.bin");
+    List<StatisticsRecord> records = createRecords(100);
+    write(file, StatisticsLogFormat.BINARY, records);
+
+    assertRecordsEqual(records, StatisticsLogParser.parseLog(file));
+    File textFile = new File(logFolder.getRoot(), "log.txt");
+    write(textFile, StatisticsLogFormat.TEXT, records);
+    assertTrue(file.length() < textFile.length() / 3);
+  }
+
+  @Test
+  public void shouldReadAppendedBinarySegments()
+      throws IOException {
+    File file = new File(logFolder.getRoot(), "log.bin");
+    List<StatisticsRecord> records = createRecords(50);
+    write(file, StatisticsLogFormat.BINARY, records.subList(0, 20));
+    write(file, StatisticsLogFormat.BINARY, records.subList(20, 50));
+
+    assertRecordsEqual(records, StatisticsLogParser.parseLog(file));
+  }
+
+  @Test
+  public void shouldRotateFilesBySize()
+      throws IOException {
+    List<StatisticsRecord> records = createRecords(200);
+    try (StatisticsLogWriter writer
+        = new StatisticsLogWriter(logFolder.getRoot(),
+                                  "stats",
+                                  StatisticsLogFormat.TEXT,
+                                  1000,
+                                  0)) {
+      for (StatisticsRecord record : records) {
+        writer.write(record);
+      }
+    }
+
+    File[] files = logFolder.getRoot().listFiles();
+    assertTrue(files.length > 1);
+    final List<StatisticsRecord> read = new ArrayList<>();
+    long recordCount = 0;
+    for (File file : files) {
+      assertTrue(file.getName().startsWith("stats-"));
+      recordCount += StatisticsLogParser.parseLog(
+          file,
+          new StatisticsRecordVisitor() {
+            @Override
+            public void visitRecord(StatisticsRecord record) {
+              read.add(record);
+            }
+          });
+    }
+    assertEquals(records.size(), recordCount);
+    assertEquals(records.size(), read.size());
+  }
+
+  @Test
+  public void shouldRemoveEmptyFiles()
+      throws IOException {
+    StatisticsLogWriter writer = new StatisticsLogWriter(
+        logFolder.getRoot(), "stats", StatisticsLogFormat.BINARY, 0, 0);
+    File file = writer.getCurrentFile();
+    writer.close();
+
+    assertFalse(file.exists());
+  }
+
+  private static List<StatisticsRecord> createRecords(int count) {
+    List<StatisticsRecord> result = new ArrayList<>();
+    StatisticsEvent[] events = StatisticsEvent.values();
+    long timestamp = 1451606400000L;
+    for (int i = 0; i < count; i++) {
+      timestamp += i % 7;
+      result.add(new StatisticsRecord(timestamp,
+                                      events[i % events.length],
+                                      "Vehicle-" + (i % 5)));
+    }
+    return result;
+  }
+
+  private static void write(File file,
+                            StatisticsLogFormat format,
+                            List<StatisticsRecord> records)
+      throws IOException {
+    try (StatisticsLogWriter writer = new StatisticsLogWriter(file, format)) {
+      for (StatisticsRecord record : records) {
+        writer.write(record);
+      }
+    }
+  }
+
+  private static void assertRecordsEqual(List<StatisticsRecord> expected,
+                                         List<StatisticsRecord> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).toString(), actual.get(i).toString());
+    }
+  }
+}